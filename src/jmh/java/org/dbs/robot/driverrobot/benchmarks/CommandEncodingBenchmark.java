@@ -0,0 +1,86 @@
+package org.dbs.robot.driverrobot.benchmarks;
+
+import org.dbs.robot.driverrobot.arduino.protocol.ArduinoCommand;
+import org.dbs.robot.driverrobot.arduino.protocol.CodecType;
+import org.dbs.robot.driverrobot.arduino.protocol.CommandCodec;
+import org.dbs.robot.driverrobot.arduino.protocol.Opcode;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.ByteBuffer;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of turning a controller call into bytes for the serial link with each codec.
+ * With {@code -prof gc}, {@code gc.alloc.rate.norm} should stay at zero bytes per operation for the
+ * encoding benchmarks; {@code buildAndEncodeServoAngle} also builds the command as the controller
+ * implementations do, which costs one small command object when escape analysis does not remove it.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CommandEncodingBenchmark {
+
+    @Param({"TEXT", "BINARY"})
+    private CodecType codecType;
+
+    private CommandCodec codec;
+    private ByteBuffer buffer;
+    private int sequence;
+    private ArduinoCommand servoAngle;
+    private ArduinoCommand servoSweep;
+    private ArduinoCommand led;
+
+    @Setup
+    public void setUp() {
+        codec = CommandCodec.create(codecType, Map.of("red", 1, "head", 2, "arm", 3));
+        buffer = ByteBuffer.allocate(64);
+        servoAngle = ArduinoCommand.servoAngle("head", 135);
+        servoSweep = ArduinoCommand.servoMovement("arm", Opcode.SWEEP, 0, 180, 5);
+        led = ArduinoCommand.led("red", true);
+    }
+
+    @Benchmark
+    public ByteBuffer encodeServoAngle() {
+        return encode(servoAngle);
+    }
+
+    @Benchmark
+    public ByteBuffer encodeServoSweep() {
+        return encode(servoSweep);
+    }
+
+    @Benchmark
+    public ByteBuffer encodeLed() {
+        return encode(led);
+    }
+
+    @Benchmark
+    public ByteBuffer buildAndEncodeServoAngle() {
+        return encode(ArduinoCommand.servoAngle("head", sequence % 180));
+    }
+
+    private ByteBuffer encode(ArduinoCommand command) {
+        buffer.clear();
+        codec.encode(command, nextSequence(), buffer);
+        return buffer;
+    }
+
+    private int nextSequence() {
+        sequence = (sequence + 1) & 0xFF;
+        return sequence;
+    }
+}
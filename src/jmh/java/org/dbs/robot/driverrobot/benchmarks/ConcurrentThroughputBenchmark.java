@@ -0,0 +1,75 @@
+package org.dbs.robot.driverrobot.benchmarks;
+
+import org.dbs.robot.driverrobot.arduino.protocol.ArduinoCommand;
+import org.dbs.robot.driverrobot.arduino.serial.SerialCommunicator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Commands per second through one serial link shared by 1, 4, 16 and 64 concurrent callers,
+ * with and without pipelining.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ConcurrentThroughputBenchmark {
+
+    @Param({"1", "8"})
+    private int pipelineDepth;
+
+    @Param({"500"})
+    private long latencyMicros;
+
+    private SerialCommunicator serialCommunicator;
+    private final ArduinoCommand command = ArduinoCommand.servoAngle("head", 90);
+
+    @Setup
+    public void setUp() {
+        serialCommunicator = LoopbackLink.open(latencyMicros, pipelineDepth);
+    }
+
+    @TearDown
+    public void tearDown() {
+        serialCommunicator.close();
+    }
+
+    @Benchmark
+    @Threads(1)
+    public boolean callers01() {
+        return serialCommunicator.sendCommand(command);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public boolean callers04() {
+        return serialCommunicator.sendCommand(command);
+    }
+
+    @Benchmark
+    @Threads(16)
+    public boolean callers16() {
+        return serialCommunicator.sendCommand(command);
+    }
+
+    @Benchmark
+    @Threads(64)
+    public boolean callers64() {
+        return serialCommunicator.sendCommand(command);
+    }
+}
@@ -0,0 +1,58 @@
+package org.dbs.robot.driverrobot.benchmarks;
+
+import org.dbs.robot.driverrobot.arduino.config.ArduinoConfig;
+import org.dbs.robot.driverrobot.arduino.serial.LoopbackSerialPort;
+import org.dbs.robot.driverrobot.arduino.serial.SerialCommunicator;
+import org.dbs.robot.driverrobot.arduino.serial.SerialPortWrapper;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Opens a SerialCommunicator on an in-memory loopback port that answers "ok" after a simulated latency.
+ * Redundant commands are not suppressed, so that repeating the same command measures the link every time.
+ */
+final class LoopbackLink {
+
+    private static final String PORT_NAME = "loopback0";
+
+    private LoopbackLink() {
+    }
+
+    /**
+     * Opens a serial communicator on a loopback port.
+     *
+     * @param latencyMicros The simulated time between a command and its response, in microseconds
+     * @param pipelineDepth The maximum number of commands in flight
+     * @return The open serial communicator
+     */
+    static SerialCommunicator open(long latencyMicros, int pipelineDepth) {
+        return open(latencyMicros, pipelineDepth, 0, false);
+    }
+
+    /**
+     * Opens a serial communicator on a loopback port whose flushes are held back like by a USB-serial adapter.
+     *
+     * @param latencyMicros      The simulated time between a command and its response, in microseconds
+     * @param pipelineDepth      The maximum number of commands in flight
+     * @param flushLatencyMicros The time each flush blocks the writer, in microseconds
+     * @param writeCoalescing    Whether the writer gathers concurrent commands into one flush
+     * @return The open serial communicator
+     */
+    static SerialCommunicator open(long latencyMicros, int pipelineDepth, long flushLatencyMicros,
+                                   boolean writeCoalescing) {
+        LoopbackSerialPort port = LoopbackSerialPort.answeringOk(PORT_NAME, latencyMicros, TimeUnit.MICROSECONDS);
+        port.setRecordingLines(false);
+        port.setFlushLatency(flushLatencyMicros, TimeUnit.MICROSECONDS);
+        ArduinoConfig config = new ArduinoConfig();
+        config.setPort(PORT_NAME);
+        config.setPipelineDepth(pipelineDepth);
+        config.setQueueCapacity(1024);
+        config.setSuppressRedundantCommands(false);
+        config.setWriteCoalescing(writeCoalescing);
+        SerialCommunicator serialCommunicator = new SerialCommunicator(config, () -> new SerialPortWrapper[]{port});
+        if (!serialCommunicator.connect().join()) {
+            throw new IllegalStateException("Loopback link did not connect");
+        }
+        return serialCommunicator;
+    }
+}
@@ -0,0 +1,52 @@
+package org.dbs.robot.driverrobot.benchmarks;
+
+import org.dbs.robot.driverrobot.arduino.protocol.ArduinoCommand;
+import org.dbs.robot.driverrobot.arduino.serial.SerialCommunicator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Round-trip time of a single synchronous command through the queue, the pipeline and a loopback port
+ * with a configurable simulated latency. The difference with the latency is the overhead of the command path.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SendCommandBenchmark {
+
+    @Param({"0", "500", "2000"})
+    private long latencyMicros;
+
+    private SerialCommunicator serialCommunicator;
+    private final ArduinoCommand command = ArduinoCommand.servoAngle("head", 90);
+
+    @Setup
+    public void setUp() {
+        serialCommunicator = LoopbackLink.open(latencyMicros, 1);
+    }
+
+    @TearDown
+    public void tearDown() {
+        serialCommunicator.close();
+    }
+
+    @Benchmark
+    public boolean sendCommand() {
+        return serialCommunicator.sendCommand(command);
+    }
+}
@@ -0,0 +1,117 @@
+package org.dbs.robot.driverrobot.benchmarks;
+
+import org.dbs.robot.driverrobot.arduino.protocol.ArduinoCommand;
+import org.dbs.robot.driverrobot.arduino.serial.SerialCommunicator;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Bursts of blocking command requests, handled like HTTP requests by Tomcat: either by a pool of 200 platform
+ * threads, the default maximum of Tomcat, or by one virtual thread per request, as with
+ * {@code spring.threads.virtual.enabled=true}. Each request blocks on {@code sendCommand} for its round-trip.
+ * <p>
+ * The {@code maxConcurrentRequests} counter reports how many requests were being handled at the same time.
+ * JMH sums auxiliary counters over the measurement iterations, hence the single, longer, measurement iteration.
+ * The serial link bounds the throughput in both modes; the platform pool also caps the requests in progress,
+ * so any request beyond it, even one that would not touch the link, waits for a free thread.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 1, time = 10)
+@Fork(1)
+public class VirtualThreadBenchmark {
+
+    private static final int REQUESTS = 1000;
+    private static final int TOMCAT_MAX_THREADS = 200;
+
+    @Param({"platform", "virtual"})
+    private String threads;
+
+    @Param({"2000"})
+    private long latencyMicros;
+
+    @Param({"64"})
+    private int pipelineDepth;
+
+    private SerialCommunicator serialCommunicator;
+    private ExecutorService requestHandlers;
+    private final ArduinoCommand command = ArduinoCommand.servoAngle("head", 90);
+
+    /**
+     * The largest number of requests handled at the same time during an iteration.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Concurrency {
+
+        public long maxConcurrentRequests;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            maxConcurrentRequests = 0;
+        }
+    }
+
+    @Setup
+    public void setUp() {
+        serialCommunicator = LoopbackLink.open(latencyMicros, pipelineDepth);
+        requestHandlers = "virtual".equals(threads)
+                ? Executors.newVirtualThreadPerTaskExecutor()
+                : Executors.newFixedThreadPool(TOMCAT_MAX_THREADS);
+    }
+
+    @TearDown
+    public void tearDown() {
+        requestHandlers.shutdownNow();
+        serialCommunicator.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(REQUESTS)
+    public int burst(Concurrency concurrency) throws Exception {
+        AtomicInteger inProgress = new AtomicInteger();
+        AtomicInteger peak = new AtomicInteger();
+        List<Future<Boolean>> requests = new ArrayList<>(REQUESTS);
+        for (int i = 0; i < REQUESTS; i++) {
+            requests.add(requestHandlers.submit(() -> {
+                peak.accumulateAndGet(inProgress.incrementAndGet(), Math::max);
+                try {
+                    return serialCommunicator.sendCommand(command);
+                } finally {
+                    inProgress.decrementAndGet();
+                }
+            }));
+        }
+        int acknowledged = 0;
+        for (Future<Boolean> request : requests) {
+            if (request.get()) {
+                acknowledged++;
+            }
+        }
+        concurrency.maxConcurrentRequests = Math.max(concurrency.maxConcurrentRequests, peak.get());
+        return acknowledged;
+    }
+}
@@ -0,0 +1,66 @@
+package org.dbs.robot.driverrobot.benchmarks;
+
+import org.dbs.robot.driverrobot.arduino.protocol.ArduinoCommand;
+import org.dbs.robot.driverrobot.arduino.serial.SerialCommunicator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Commands per second through a link whose flushes cost 1 ms, like a USB-serial adapter with its latency timer,
+ * with 1 and 16 concurrent callers, with and without write coalescing.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class WriteCoalescingBenchmark {
+
+    @Param({"false", "true"})
+    private boolean writeCoalescing;
+
+    @Param({"1000"})
+    private long flushLatencyMicros;
+
+    @Param({"500"})
+    private long latencyMicros;
+
+    private SerialCommunicator serialCommunicator;
+    private final ArduinoCommand command = ArduinoCommand.servoAngle("head", 90);
+
+    @Setup
+    public void setUp() {
+        serialCommunicator = LoopbackLink.open(latencyMicros, 8, flushLatencyMicros, writeCoalescing);
+    }
+
+    @TearDown
+    public void tearDown() {
+        serialCommunicator.close();
+    }
+
+    @Benchmark
+    @Threads(1)
+    public boolean callers01() {
+        return serialCommunicator.sendCommand(command);
+    }
+
+    @Benchmark
+    @Threads(16)
+    public boolean callers16() {
+        return serialCommunicator.sendCommand(command);
+    }
+}
@@ -2,8 +2,9 @@ package org.dbs.robot.driverrobot.arduino;
 
 /**
  * Composite interface for controlling an Arduino with LEDs and servomotors.
- * This interface combines LED control, servo control, and lifecycle management.
+ * This interface combines LED control, servo control, batches, device state and lifecycle management.
  */
-public interface ArduinoController extends LedController, ServoController, ControllerLifecycle {
+public interface ArduinoController extends LedController, ServoController, BatchController, DeviceStateReader,
+        ControllerLifecycle {
     // This interface inherits all methods from the parent interfaces
 }
\ No newline at end of file
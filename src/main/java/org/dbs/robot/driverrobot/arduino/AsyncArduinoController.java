@@ -0,0 +1,119 @@
+package org.dbs.robot.driverrobot.arduino;
+
+import org.dbs.robot.driverrobot.arduino.serial.CommandDeadline;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Asynchronous counterpart of {@link ArduinoController}.
+ * Commands are queued and pipelined on the serial link; the calling thread is never
+ * blocked while a command waits for the Arduino's response.
+ * Each future is completed with true if the operation was successful, false otherwise.
+ * It completes exceptionally with a
+ * {@link org.dbs.robot.driverrobot.arduino.serial.CommandRejectedException} when the command
+ * queue is full and its rejection policy refuses or drops the command, and with a
+ * {@link org.dbs.robot.driverrobot.arduino.serial.CommandExpiredException} when the deadline
+ * of a controller obtained with {@link #withDeadline(CommandDeadline)} passes first.
+ */
+public interface AsyncArduinoController {
+    /**
+     * Controls the state of a specific LED.
+     *
+     * @param name  The name identifier of the LED
+     * @param state true to turn the LED on, false to turn it off
+     * @return A future completed with the outcome of the operation
+     */
+    CompletableFuture<Boolean> controlLed(String name, boolean state);
+
+    /**
+     * Positions a specific servomotor to a given angle.
+     *
+     * @param name  The name identifier of the servomotor
+     * @param angle The angle to position the servomotor (typically 0-180 degrees)
+     * @return A future completed with the outcome of the operation
+     */
+    CompletableFuture<Boolean> positionServo(String name, int angle);
+
+    /**
+     * Positions several servomotors at once, with a single write on the serial link.
+     *
+     * @param angles The angle to position each servomotor, by servomotor name
+     * @return A future completed with the outcome of the operation for each servomotor name
+     */
+    CompletableFuture<Map<String, Boolean>> positionServos(Map<String, Integer> angles);
+
+    /**
+     * Performs a complete back-and-forth sweep movement on a servomotor.
+     *
+     * @param name       The name identifier of the servomotor
+     * @param startAngle The starting angle of the sweep
+     * @param endAngle   The ending angle of the sweep
+     * @param speed      The speed of the sweep (higher values mean faster movement)
+     * @return A future completed with the outcome of the operation
+     */
+    CompletableFuture<Boolean> sweep(String name, int startAngle, int endAngle, int speed);
+
+    /**
+     * Performs a half sweep movement on a servomotor in clockwise direction.
+     *
+     * @param name       The name identifier of the servomotor
+     * @param startAngle The starting angle of the sweep
+     * @param endAngle   The ending angle of the sweep
+     * @param speed      The speed of the sweep (higher values mean faster movement)
+     * @return A future completed with the outcome of the operation
+     */
+    CompletableFuture<Boolean> halfSweep(String name, int startAngle, int endAngle, int speed);
+
+    /**
+     * Performs a half sweep movement on a servomotor in counter-clockwise direction.
+     *
+     * @param name       The name identifier of the servomotor
+     * @param startAngle The starting angle of the sweep
+     * @param endAngle   The ending angle of the sweep
+     * @param speed      The speed of the sweep (higher values mean faster movement)
+     * @return A future completed with the outcome of the operation
+     */
+    CompletableFuture<Boolean> reverseHalfSweep(String name, int startAngle, int endAngle, int speed);
+
+    /**
+     * Performs a complete back-and-forth sweep movement on a servomotor in reverse direction.
+     *
+     * @param name       The name identifier of the servomotor
+     * @param startAngle The starting angle of the sweep
+     * @param endAngle   The ending angle of the sweep
+     * @param speed      The speed of the sweep (higher values mean faster movement)
+     * @return A future completed with the outcome of the operation
+     */
+    CompletableFuture<Boolean> reverseSweep(String name, int startAngle, int endAngle, int speed);
+
+    /**
+     * Executes a batch of operations, with a single write on the serial link.
+     * An operation rejected by the command queue or whose deadline passed counts as failed,
+     * so the outcome of every other operation is still reported.
+     *
+     * @param operations The operations to execute, in order
+     * @return A future completed with the outcome of each operation, in order
+     */
+    CompletableFuture<List<Boolean>> executeBatch(List<DeviceOperation> operations);
+
+    /**
+     * Checks if the controller is ready to receive commands.
+     *
+     * @return A future completed with true if the controller is ready, false otherwise
+     */
+    CompletableFuture<Boolean> isReady();
+
+    /**
+     * Gets a view of this controller whose commands are only useful until a deadline, such as the one of a request.
+     * The deadline travels with each command through the command queue: a command still queued when it passes
+     * is dropped before being written, and its future completes exceptionally with a
+     * {@link org.dbs.robot.driverrobot.arduino.serial.CommandExpiredException}, as does a command whose
+     * response did not arrive in time. The deadline replaces the configured command timeout.
+     *
+     * @param deadline The instant past which the caller no longer waits for the commands
+     * @return The controller sending its commands with the deadline
+     */
+    AsyncArduinoController withDeadline(CommandDeadline deadline);
+}
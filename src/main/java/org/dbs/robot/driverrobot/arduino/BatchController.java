@@ -0,0 +1,18 @@
+package org.dbs.robot.driverrobot.arduino;
+
+import java.util.List;
+
+/**
+ * Interface for sending several LED and servo operations to an Arduino at once.
+ * The operations are written to the serial link together and their acknowledgements
+ * are collected in one pass, so a batch costs about one round-trip.
+ */
+public interface BatchController {
+    /**
+     * Executes a batch of operations.
+     *
+     * @param operations The operations to execute, in order
+     * @return For each operation, in order, true if it was successful, false otherwise
+     */
+    List<Boolean> executeBatch(List<DeviceOperation> operations);
+}
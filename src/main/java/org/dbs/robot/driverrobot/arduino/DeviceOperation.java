@@ -0,0 +1,90 @@
+package org.dbs.robot.driverrobot.arduino;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * A single LED or servo operation, as part of a batch sent to the Arduino in one go.
+ *
+ * @param type  The kind of operation
+ * @param name  The name identifier of the LED or servomotor
+ * @param state For LED operations, true to turn the LED on, false to turn it off
+ * @param angle For servo operations, the angle to position the servomotor
+ */
+public record DeviceOperation(Type type, String name, boolean state, int angle) {
+
+    /**
+     * Kinds of operations that can be batched.
+     */
+    public enum Type {
+        LED,
+        SERVO_POSITION
+    }
+
+    /**
+     * Creates an LED operation.
+     *
+     * @param name  The name identifier of the LED
+     * @param state true to turn the LED on, false to turn it off
+     * @return The operation
+     */
+    public static DeviceOperation led(String name, boolean state) {
+        return new DeviceOperation(Type.LED, name, state, 0);
+    }
+
+    /**
+     * Creates a servo positioning operation.
+     *
+     * @param name  The name identifier of the servomotor
+     * @param angle The angle to position the servomotor
+     * @return The operation
+     */
+    public static DeviceOperation servoPosition(String name, int angle) {
+        return new DeviceOperation(Type.SERVO_POSITION, name, false, angle);
+    }
+
+    /**
+     * Parses a comma-separated list of operations written as {@code led:name:on|off} or {@code servo:name:angle}.
+     * For example: {@code led:red:on,servo:head:90,servo:arm:45}
+     *
+     * @param operations The operations to parse
+     * @return The parsed operations, in order
+     * @throws IllegalArgumentException if an operation is malformed
+     */
+    public static List<DeviceOperation> parseList(String operations) {
+        return Arrays.stream(operations.split(","))
+                .map(String::trim)
+                .filter(operation -> !operation.isEmpty())
+                .map(DeviceOperation::parse)
+                .toList();
+    }
+
+    private static DeviceOperation parse(String operation) {
+        String[] parts = operation.split(":");
+        if (parts.length != 3) {
+            throw new IllegalArgumentException("Malformed operation: " + operation);
+        }
+        return switch (parts[0].toLowerCase(Locale.ROOT)) {
+            case "led" -> led(parts[1], parseLedState(parts[2], operation));
+            case "servo" -> servoPosition(parts[1], parseAngle(parts[2], operation));
+            default -> throw new IllegalArgumentException("Unknown operation type: " + operation);
+        };
+    }
+
+    private static boolean parseLedState(String state, String operation) {
+        return switch (state.toLowerCase(Locale.ROOT)) {
+            case "on", "true" -> true;
+            case "off", "false" -> false;
+            default -> throw new IllegalArgumentException("Malformed LED state: " + operation);
+        };
+    }
+
+    private static int parseAngle(String angle, String operation) {
+        try {
+            return Integer.parseInt(angle);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Malformed servo angle: " + operation, e);
+        }
+    }
+}
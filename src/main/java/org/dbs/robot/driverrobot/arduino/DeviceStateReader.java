@@ -0,0 +1,19 @@
+package org.dbs.robot.driverrobot.arduino;
+
+import org.dbs.robot.driverrobot.arduino.serial.DeviceState;
+
+import java.util.Map;
+
+/**
+ * Interface for reading the state of the LEDs and servomotors from memory, without querying the Arduino.
+ */
+public interface DeviceStateReader {
+    /**
+     * Gets the last state acknowledged by the Arduino boards for each LED and servomotor.
+     * Devices whose state is unknown, such as devices never commanded since their board was last reset,
+     * are not included.
+     *
+     * @return The known device states, by device name
+     */
+    Map<String, DeviceState> getDeviceStates();
+}
@@ -1,5 +1,7 @@
 package org.dbs.robot.driverrobot.arduino;
 
+import java.util.Map;
+
 /**
  * Interface for controlling the position of servomotors connected to an Arduino.
  * Commands are sent in the format: servo(name, angle X)\n
@@ -14,4 +16,13 @@ public interface ServoPositionController {
      * @return true if the operation was successful, false otherwise
      */
     boolean positionServo(String name, int angle);
+
+    /**
+     * Positions several servomotors at once, for example to set a full robot pose.
+     * All the commands are sent together and cost about one round-trip.
+     *
+     * @param angles The angle to position each servomotor, by servomotor name
+     * @return For each servomotor name, true if the operation was successful, false otherwise
+     */
+    Map<String, Boolean> positionServos(Map<String, Integer> angles);
 }
\ No newline at end of file
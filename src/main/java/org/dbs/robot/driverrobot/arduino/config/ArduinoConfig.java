@@ -1,8 +1,16 @@
 package org.dbs.robot.driverrobot.arduino.config;
 
 import lombok.Data;
+import org.dbs.robot.driverrobot.arduino.events.OverflowPolicy;
+import org.dbs.robot.driverrobot.arduino.protocol.CodecType;
+import org.dbs.robot.driverrobot.arduino.serial.RejectionPolicy;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
 /**
  * Configuration properties for Arduino controller.
  * These properties can be set in application.properties or application.yml.
@@ -10,6 +18,20 @@ import org.springframework.boot.context.properties.ConfigurationProperties;
  * Example:
  * arduino.port=/dev/ttyUSB0
  * arduino.baudrate=9600
+ * arduino.command-timeout-ms=5000
+ * arduino.boot-timeout-ms=10000
+ * arduino.handshake-interval-ms=250
+ * arduino.reconnect-initial-backoff-ms=500
+ * arduino.reconnect-max-backoff-ms=30000
+ * arduino.pipeline-depth=2
+ * arduino.queue-capacity=64
+ * arduino.rejection-policy=block
+ * arduino.codec=binary
+ * arduino.device-ids.red=1
+ * arduino.device-ids.head=2
+ *
+ * A cell with several Arduinos lists its boards instead of a single port, see {@link BoardConfig}.
+ * The other properties apply to every board.
  */
 @Data
 @ConfigurationProperties(prefix = "arduino")
@@ -26,4 +48,225 @@ public class ArduinoConfig {
      * Default is 9600.
      */
     private int baudrate = 9600;
+
+    /**
+     * The maximum time in milliseconds to wait for the Arduino to answer a command.
+     * A command completes as soon as its response line arrives; this is only the deadline.
+     * Default is 5000.
+     */
+    private long commandTimeoutMs = 5000;
+
+    /**
+     * The maximum time in milliseconds for a board to answer the status handshake after its port is opened.
+     * Connection happens in the background; a board that does not answer in time is tried again later.
+     * Default is 10000.
+     */
+    private long bootTimeoutMs = 10000;
+
+    /**
+     * The time in milliseconds between two status commands of the handshake while the Arduino boots.
+     * Default is 250.
+     */
+    private long handshakeIntervalMs = 250;
+
+    /**
+     * The time in milliseconds before trying to connect again to a board whose link was lost
+     * or that could not be connected. The delay doubles after each failed attempt.
+     * Default is 500.
+     */
+    private long reconnectInitialBackoffMs = 500;
+
+    /**
+     * The maximum time in milliseconds between two attempts to connect to a board.
+     * Default is 30000.
+     */
+    private long reconnectMaxBackoffMs = 30000;
+
+    /**
+     * The time in milliseconds without any response from a connected board after which a status command
+     * is sent to check that it is still alive. 0 disables the heartbeat.
+     * Default is 5000.
+     */
+    private long heartbeatIntervalMs = 5000;
+
+    /**
+     * How long in milliseconds the last sign of life of a board, a response or a status check, answers
+     * readiness checks without a new round-trip on the serial link.
+     * Default is 10000.
+     */
+    private long readinessTtlMs = 10000;
+
+    /**
+     * The maximum number of commands sent to the Arduino and still awaiting their response.
+     * A value of 1 waits for each response before sending the next command.
+     * Default is 2.
+     */
+    private int pipelineDepth = 2;
+
+    /**
+     * Whether the pipeline tunes its depth to the round-trip latency, starting from the pipeline depth:
+     * it grows by one command per window of responses within the latency target, and halves on a timeout,
+     * a lost response or a response slower than the target.
+     * Default is false.
+     */
+    private boolean pipelineAdaptive;
+
+    /**
+     * The depth an adaptive pipeline never grows beyond.
+     * Default is 16.
+     */
+    private int pipelineMaxDepth = 16;
+
+    /**
+     * The round-trip latency in milliseconds above which an adaptive pipeline cuts its depth.
+     * Commands wait on the Arduino behind the ones sent before them, so the target bounds the latency added by
+     * pipelining.
+     * Default is 100.
+     */
+    private long pipelineLatencyTargetMs = 100;
+
+    /**
+     * Whether the writer gathers the commands of concurrent callers into one flush while the link is busy.
+     * USB-serial adapters hold each small write back for their latency timer, so fewer, larger flushes
+     * carry more commands per second. Commands sent while the link is idle are never delayed.
+     * Default is false.
+     */
+    private boolean writeCoalescing;
+
+    /**
+     * The longest time in microseconds the writer waits for more commands before flushing, when coalescing writes.
+     * The actual wait adapts to the load, from 0 when callers are few up to this bound when the link is saturated.
+     * Default is 2000.
+     */
+    private long writeCoalescingMaxDelayUs = 2000;
+
+    /**
+     * The number of bytes after which a coalesced flush goes out without waiting for more commands.
+     * Default is 64, the size of the receive buffer of the Arduino serial port.
+     */
+    private int writeCoalescingMaxBytes = 64;
+
+    /**
+     * The budget in bytes of the commands sent and not yet acknowledged, for credit-based flow control.
+     * The writer pauses when the next command does not fit and resumes as the responses return their credits,
+     * so the receive buffer of the Arduino never overflows, whatever the pipeline depth.
+     * Set it to 64, the size of the receive buffer of the Arduino serial port, or less; 0 disables the budget.
+     * Default is 0.
+     */
+    private int creditBytes;
+
+    /**
+     * Whether the commands whose acknowledgement is missing or corrupt are sent again instead of failing.
+     * A command is sent again when a later command is answered first, or when the link stays silent past
+     * the retransmission timeout; only that command is sent again, and the pipeline keeps going meanwhile.
+     * Only the idempotent commands are sent again. Needs the binary codec, whose frames carry a sequence
+     * number and a checksum; ignored with the text codec.
+     * Default is false.
+     */
+    private boolean reliableDelivery;
+
+    /**
+     * The number of times a command is sent again before it fails, with reliable delivery.
+     * Default is 3.
+     */
+    private int maxRetransmits = 3;
+
+    /**
+     * The time in milliseconds without acknowledgement after which a command is sent again, with reliable delivery.
+     * Keep it above the round-trip latency of a full pipeline.
+     * Default is 250.
+     */
+    private long retransmitTimeoutMs = 250;
+
+    /**
+     * The maximum number of commands waiting to be sent to the Arduino.
+     * A batch of commands counts as one.
+     * Default is 64.
+     */
+    private int queueCapacity = 64;
+
+    /**
+     * Whether the servo position commands of the asynchronous controller keep only the latest angle of each servomotor.
+     * A new angle replaces the pending one of the same servomotor instead of queueing behind it,
+     * which suits operator UIs and joysticks that send angles faster than the link can carry them.
+     * Default is false.
+     */
+    private boolean coalesceServoPositions;
+
+    /**
+     * Whether LED and servo angle commands are skipped when the board already acknowledged the same state
+     * for their device. The state of each device is cached either way.
+     * Default is true.
+     */
+    private boolean suppressRedundantCommands = true;
+
+    /**
+     * The largest difference in degrees between a servo angle command and the last acknowledged angle
+     * for which the command is skipped as redundant. 0 only skips the exact same angle.
+     * Default is 0.
+     */
+    private int servoDeadband;
+
+    /**
+     * What happens to a new command when the command queue is full: fail-fast, block or drop-oldest.
+     * Default is block, which applies backpressure to the callers.
+     */
+    private RejectionPolicy rejectionPolicy = RejectionPolicy.BLOCK;
+
+    /**
+     * The number of events buffered for each subscriber of the event stream.
+     * Default is 1024.
+     */
+    private int eventBufferSize = 1024;
+
+    /**
+     * What happens to a new event when the buffer of a slow subscriber is full: drop-oldest or drop-newest.
+     * Default is drop-oldest, so that subscribers always catch up with the latest events.
+     */
+    private OverflowPolicy eventOverflowPolicy = OverflowPolicy.DROP_OLDEST;
+
+    /**
+     * The encoding of commands on the serial link: text or binary.
+     * The binary codec needs a firmware that speaks it.
+     * Default is text.
+     */
+    private CodecType codec = CodecType.TEXT;
+
+    /**
+     * The numeric id of each LED and servomotor, by name, used by the binary codec.
+     * Ids range from 1 to 255; 0 addresses the board itself.
+     */
+    private Map<String, Integer> deviceIds = new HashMap<>();
+
+    /**
+     * The Arduino boards of the cell, each on its own serial port.
+     * When empty, a single board is connected on the port and baud rate above.
+     */
+    private List<BoardConfig> boards = new ArrayList<>();
+
+    /**
+     * Gets the boards to connect to: the configured boards, or a single board
+     * owning every device on the port and baud rate of this configuration.
+     *
+     * @return The boards, with their baud rate resolved
+     */
+    public List<BoardConfig> getEffectiveBoards() {
+        if (boards.isEmpty()) {
+            BoardConfig board = new BoardConfig();
+            board.setName("arduino");
+            board.setPort(port);
+            board.setBaudrate(baudrate);
+            return List.of(board);
+        }
+        return boards.stream().map(this::resolve).toList();
+    }
+
+    private BoardConfig resolve(BoardConfig board) {
+        BoardConfig resolved = new BoardConfig();
+        resolved.setName(board.getName() != null ? board.getName() : board.getPort());
+        resolved.setPort(board.getPort());
+        resolved.setBaudrate(board.getBaudrate() != null ? board.getBaudrate() : baudrate);
+        resolved.setDevices(List.copyOf(board.getDevices()));
+        return resolved;
+    }
 }
@@ -1,52 +1,115 @@
 package org.dbs.robot.driverrobot.arduino.config;
 
+import io.micrometer.core.instrument.MeterRegistry;
 import org.dbs.robot.driverrobot.arduino.ArduinoController;
+import org.dbs.robot.driverrobot.arduino.AsyncArduinoController;
+import org.dbs.robot.driverrobot.arduino.events.ArduinoEventBroadcaster;
 import org.dbs.robot.driverrobot.arduino.impl.ArduinoControllerImpl;
+import org.dbs.robot.driverrobot.arduino.impl.AsyncArduinoControllerImpl;
+import org.dbs.robot.driverrobot.arduino.impl.CoalescingAsyncArduinoController;
 import org.dbs.robot.driverrobot.arduino.serial.JSerialCommFactory;
 import org.dbs.robot.driverrobot.arduino.serial.SerialCommunicator;
+import org.dbs.robot.driverrobot.arduino.serial.SerialCommunicatorRegistry;
 import org.dbs.robot.driverrobot.arduino.serial.SerialPortFactory;
+import org.springframework.boot.autoconfigure.thread.Threading;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.env.Environment;
 
 /**
  * Spring configuration class for Arduino controller.
- * This class enables the ArduinoConfig properties and creates the ArduinoController bean.
+ * This class enables the ArduinoConfig properties and creates the ArduinoController
+ * and AsyncArduinoController beans, the broadcaster of their events and the health indicator of the boards.
  */
 @Configuration
 @EnableConfigurationProperties(ArduinoConfig.class)
 public class ArduinoConfiguration {
 
     /**
-     * Creates a SerialPortFactory bean.
+     * Creates a SerialPortFactory bean for the real serial ports.
+     * With the "simulator" profile, the ports are provided by the simulator instead.
      *
      * @return An instance of SerialPortFactory
      */
     @Bean
+    @Profile("!simulator")
     public SerialPortFactory serialPortFactory() {
         return new JSerialCommFactory();
     }
 
     /**
-     * Creates a SerialCommunicator bean for Arduino communication.
+     * Creates the ArduinoEventBroadcaster bean, fanning the events of the boards out to their subscribers.
+     * With {@code spring.threads.virtual.enabled=true}, the events are delivered on virtual threads.
+     *
+     * @param config The Arduino configuration properties
+     * @param meterRegistry The registry of the event metrics
+     * @param environment The environment, telling whether virtual threads are enabled
+     * @return An instance of ArduinoEventBroadcaster
+     */
+    @Bean
+    public ArduinoEventBroadcaster arduinoEventBroadcaster(ArduinoConfig config, MeterRegistry meterRegistry,
+                                                           Environment environment) {
+        return new ArduinoEventBroadcaster(config.getEventBufferSize(), config.getEventOverflowPolicy(), meterRegistry,
+                Threading.VIRTUAL.isActive(environment));
+    }
+
+    /**
+     * Creates the SerialCommunicatorRegistry bean, with one SerialCommunicator per configured board.
      *
      * @param config The Arduino configuration properties
      * @param serialPortFactory The factory for creating SerialPortWrapper instances
-     * @return An instance of SerialCommunicator
+     * @param meterRegistry The registry of the metrics of the serial command path
+     * @param eventBroadcaster The broadcaster of the events of the boards
+     * @return An instance of SerialCommunicatorRegistry
      */
     @Bean
-    public SerialCommunicator serialCommunicator(ArduinoConfig config, SerialPortFactory serialPortFactory) {
-        return new SerialCommunicator(config, serialPortFactory);
+    public SerialCommunicatorRegistry serialCommunicatorRegistry(ArduinoConfig config, SerialPortFactory serialPortFactory,
+                                                                 MeterRegistry meterRegistry,
+                                                                 ArduinoEventBroadcaster eventBroadcaster) {
+        return new SerialCommunicatorRegistry(config.getEffectiveBoards(),
+                board -> new SerialCommunicator(config, board, serialPortFactory, meterRegistry, eventBroadcaster));
     }
 
     /**
-     * Creates an ArduinoController bean using the SerialCommunicator.
+     * Creates an ArduinoController bean routing commands through the SerialCommunicatorRegistry.
      *
-     * @param serialCommunicator The serial communicator for Arduino communication
+     * @param registry The serial communicators of the Arduino boards
      * @return An instance of ArduinoController
      */
     @Bean
-    public ArduinoController arduinoController(SerialCommunicator serialCommunicator) {
-        return new ArduinoControllerImpl(serialCommunicator);
+    public ArduinoController arduinoController(SerialCommunicatorRegistry registry) {
+        return new ArduinoControllerImpl(registry);
+    }
+
+    /**
+     * Creates an AsyncArduinoController bean sharing the SerialCommunicatorRegistry with the ArduinoController.
+     * When servo positions are coalesced, the controller keeps only the latest angle of each servomotor.
+     *
+     * @param config The Arduino configuration properties
+     * @param registry The serial communicators of the Arduino boards
+     * @param meterRegistry The registry of the coalescing counters
+     * @return An instance of AsyncArduinoController
+     */
+    @Bean
+    public AsyncArduinoController asyncArduinoController(ArduinoConfig config, SerialCommunicatorRegistry registry,
+                                                         MeterRegistry meterRegistry) {
+        AsyncArduinoController controller = new AsyncArduinoControllerImpl(registry);
+        if (config.isCoalesceServoPositions()) {
+            return new CoalescingAsyncArduinoController(controller, meterRegistry);
+        }
+        return controller;
+    }
+
+    /**
+     * Creates the health indicator of the Arduino boards, named "arduino" in the Actuator health endpoint.
+     *
+     * @param registry The serial communicators of the Arduino boards
+     * @return An instance of ArduinoHealthIndicator
+     */
+    @Bean
+    public ArduinoHealthIndicator arduinoHealthIndicator(SerialCommunicatorRegistry registry) {
+        return new ArduinoHealthIndicator(registry);
     }
 }
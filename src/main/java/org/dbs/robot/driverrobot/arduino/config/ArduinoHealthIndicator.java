@@ -0,0 +1,52 @@
+package org.dbs.robot.driverrobot.arduino.config;
+
+import org.dbs.robot.driverrobot.arduino.serial.SerialCommunicator;
+import org.dbs.robot.driverrobot.arduino.serial.SerialCommunicatorRegistry;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Actuator health indicator of the Arduino boards, included in the readiness group.
+ * The application is UP when every board is ready. The readiness of each board comes from its cached
+ * sign of life, so that frequent probes from an orchestrator do not load the serial links.
+ */
+public class ArduinoHealthIndicator implements HealthIndicator {
+
+    private final SerialCommunicatorRegistry registry;
+
+    /**
+     * Constructor for ArduinoHealthIndicator.
+     *
+     * @param registry The serial communicators of the Arduino boards
+     */
+    public ArduinoHealthIndicator(SerialCommunicatorRegistry registry) {
+        this.registry = registry;
+    }
+
+    @Override
+    public Health health() {
+        List<SerialCommunicator> boards = List.copyOf(registry.all());
+        List<CompletableFuture<Boolean>> readiness = boards.stream().map(SerialCommunicator::checkReadiness).toList();
+        Health.Builder health = Health.up();
+        for (int i = 0; i < boards.size(); i++) {
+            SerialCommunicator board = boards.get(i);
+            boolean ready = readiness.get(i).join();
+            if (!ready) {
+                health.down();
+            }
+            Map<String, Object> details = new LinkedHashMap<>();
+            details.put("state", board.getState());
+            details.put("ready", ready);
+            details.put("queued", board.getQueuedCommandCount());
+            details.put("inFlight", board.getInFlightCommandCount());
+            details.put("lastResponseMs", board.getTimeSinceLastResponse().toMillis());
+            health.withDetail(board.getBoardName(), details);
+        }
+        return health.build();
+    }
+}
@@ -0,0 +1,45 @@
+package org.dbs.robot.driverrobot.arduino.config;
+
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Configuration of one Arduino board of a cell.
+ * Each board has its own serial link, and commands for its devices are routed to it by device name.
+ *
+ * Example:
+ * arduino.boards[0].name=arm
+ * arduino.boards[0].port=ttyACM0
+ * arduino.boards[0].devices=head,claw,red
+ * arduino.boards[1].name=base
+ * arduino.boards[1].port=ttyACM1
+ * arduino.boards[1].baudrate=115200
+ * arduino.boards[1].devices=wheel,green
+ */
+@Data
+public class BoardConfig {
+
+    /**
+     * The name of the board, used in logs and thread names.
+     */
+    private String name;
+
+    /**
+     * The name of the serial port the board is connected to.
+     */
+    private String port;
+
+    /**
+     * The baud rate for the serial connection of the board.
+     * Default is the arduino.baudrate property.
+     */
+    private Integer baudrate;
+
+    /**
+     * The names of the LEDs and servomotors connected to the board.
+     * A board with no devices receives the commands for every device not owned by another board.
+     */
+    private List<String> devices = new ArrayList<>();
+}
@@ -0,0 +1,124 @@
+package org.dbs.robot.driverrobot.arduino.events;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.dbs.robot.driverrobot.arduino.serial.ArduinoEvent;
+import org.dbs.robot.driverrobot.arduino.serial.ArduinoEventListener;
+import org.dbs.robot.driverrobot.arduino.serial.ArduinoEventType;
+
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Fans the events of the serial communicators out to any number of subscribers, such as dashboards
+ * following the Server-Sent Events stream of the REST API.
+ * Publishing costs one non-blocking append per subscriber, on the thread of the serial communicator,
+ * and each subscriber receives its events on its own delivery thread, from its own bounded buffer.
+ * In the virtual thread mode, the delivery threads are virtual, so that thousands of subscribers cost
+ * no more than their buffers.
+ */
+@Slf4j
+public class ArduinoEventBroadcaster implements ArduinoEventListener, AutoCloseable {
+
+    /**
+     * Counter of the events dropped because a subscriber was too slow.
+     */
+    public static final String DROPPED = "arduino.events.dropped";
+
+    /**
+     * Gauge of the number of subscribers.
+     */
+    public static final String SUBSCRIBERS = "arduino.events.subscribers";
+
+    private final int bufferSize;
+    private final OverflowPolicy overflowPolicy;
+    private final boolean virtualThreads;
+    private final List<EventSubscription> subscriptions = new CopyOnWriteArrayList<>();
+    private final AtomicInteger nextId = new AtomicInteger();
+    private final Counter dropped;
+
+    /**
+     * Constructor for ArduinoEventBroadcaster, delivering the events on platform threads.
+     *
+     * @param bufferSize     The number of events buffered for each subscriber
+     * @param overflowPolicy What happens to a new event when the buffer of a subscriber is full
+     * @param meterRegistry  The registry of the dropped events counter and the subscribers gauge
+     * @throws IllegalArgumentException if the buffer size is not positive
+     */
+    public ArduinoEventBroadcaster(int bufferSize, OverflowPolicy overflowPolicy, MeterRegistry meterRegistry) {
+        this(bufferSize, overflowPolicy, meterRegistry, false);
+    }
+
+    /**
+     * Constructor for ArduinoEventBroadcaster.
+     *
+     * @param bufferSize     The number of events buffered for each subscriber
+     * @param overflowPolicy What happens to a new event when the buffer of a subscriber is full
+     * @param meterRegistry  The registry of the dropped events counter and the subscribers gauge
+     * @param virtualThreads true to deliver the events on virtual threads, false for platform daemon threads
+     * @throws IllegalArgumentException if the buffer size is not positive
+     */
+    public ArduinoEventBroadcaster(int bufferSize, OverflowPolicy overflowPolicy, MeterRegistry meterRegistry,
+                                   boolean virtualThreads) {
+        if (bufferSize < 1) {
+            throw new IllegalArgumentException("The event buffer size must be positive: " + bufferSize);
+        }
+        this.bufferSize = bufferSize;
+        this.overflowPolicy = overflowPolicy;
+        this.virtualThreads = virtualThreads;
+        this.dropped = Counter.builder(DROPPED).tag("policy", overflowPolicy.name().toLowerCase().replace('_', '-'))
+                .description("Events dropped because a subscriber was too slow").register(meterRegistry);
+        Gauge.builder(SUBSCRIBERS, subscriptions, List::size)
+                .description("Subscribers of the Arduino events").register(meterRegistry);
+    }
+
+    /**
+     * Subscribes to the events.
+     *
+     * @param types The types of events to receive, or null or empty for all of them
+     * @param sink  The subscriber, called on the delivery thread of the subscription
+     * @return The subscription, to close when the subscriber goes away
+     */
+    public EventSubscription subscribe(Set<ArduinoEventType> types, EventSubscription.Sink sink) {
+        Set<ArduinoEventType> wanted = types == null || types.isEmpty()
+                ? EnumSet.allOf(ArduinoEventType.class) : EnumSet.copyOf(types);
+        Thread.Builder threads = virtualThreads ? Thread.ofVirtual() : Thread.ofPlatform().daemon();
+        EventSubscription subscription = new EventSubscription(threads, "arduino-events-" + nextId.incrementAndGet(),
+                wanted, sink, bufferSize, overflowPolicy, subscriptions::remove);
+        subscriptions.add(subscription);
+        subscription.start();
+        log.debug("New subscriber of the Arduino events: {}", wanted);
+        return subscription;
+    }
+
+    /**
+     * Gets the number of open subscriptions.
+     *
+     * @return The number of subscribers
+     */
+    public int getSubscriberCount() {
+        return subscriptions.size();
+    }
+
+    @Override
+    public void onEvent(ArduinoEvent event) {
+        for (EventSubscription subscription : subscriptions) {
+            if (!subscription.offer(event)) {
+                dropped.increment();
+            }
+        }
+    }
+
+    /**
+     * Closes every subscription.
+     */
+    @Override
+    public void close() {
+        subscriptions.forEach(EventSubscription::close);
+    }
+}
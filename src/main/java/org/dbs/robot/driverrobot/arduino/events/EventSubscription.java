@@ -0,0 +1,179 @@
+package org.dbs.robot.driverrobot.arduino.events;
+
+import lombok.extern.slf4j.Slf4j;
+import org.dbs.robot.driverrobot.arduino.serial.ArduinoEvent;
+import org.dbs.robot.driverrobot.arduino.serial.ArduinoEventType;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+/**
+ * One subscriber of the Arduino events, with its own bounded buffer and delivery thread.
+ * Publishing only appends to the buffer, so a slow subscriber never delays the serial threads nor the other
+ * subscribers: once its buffer is full, events are dropped according to the overflow policy and counted.
+ * The subscription is closed when the sink fails, for example because the client went away.
+ * The buffer is guarded by a lock rather than a monitor, so that a virtual delivery thread waiting for events
+ * does not pin its carrier thread.
+ */
+@Slf4j
+public class EventSubscription implements AutoCloseable {
+
+    private final Set<ArduinoEventType> types;
+    private final Sink sink;
+    private final int bufferSize;
+    private final OverflowPolicy overflowPolicy;
+    private final Consumer<EventSubscription> onClose;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition available = lock.newCondition();
+    private final Deque<ArduinoEvent> buffer = new ArrayDeque<>();
+    private final AtomicLong dropped = new AtomicLong();
+    private final Thread deliveryThread;
+    private boolean closed;
+
+    /**
+     * Constructor for EventSubscription. The delivery thread is started by {@link #start()}.
+     *
+     * @param threads        The builder of the delivery thread, platform or virtual
+     * @param name           The name of the subscription, used to name its delivery thread
+     * @param types          The types of events delivered to the subscriber
+     * @param sink           The subscriber
+     * @param bufferSize     The number of events buffered for the subscriber
+     * @param overflowPolicy What happens to a new event when the buffer is full
+     * @param onClose        Called once when the subscription is closed
+     */
+    EventSubscription(Thread.Builder threads, String name, Set<ArduinoEventType> types, Sink sink, int bufferSize,
+                      OverflowPolicy overflowPolicy, Consumer<EventSubscription> onClose) {
+        this.types = types;
+        this.sink = sink;
+        this.bufferSize = bufferSize;
+        this.overflowPolicy = overflowPolicy;
+        this.onClose = onClose;
+        this.deliveryThread = threads.name(name).unstarted(this::deliver);
+    }
+
+    /**
+     * Starts delivering the events to the subscriber.
+     */
+    void start() {
+        deliveryThread.start();
+    }
+
+    /**
+     * Buffers an event for the subscriber without blocking, if the subscriber wants its type.
+     *
+     * @param event The event
+     * @return false if an event was dropped because the buffer was full, true otherwise
+     */
+    boolean offer(ArduinoEvent event) {
+        lock.lock();
+        try {
+            if (closed || !types.contains(event.type())) {
+                return true;
+            }
+            boolean kept = true;
+            if (buffer.size() >= bufferSize) {
+                dropped.incrementAndGet();
+                kept = false;
+                if (overflowPolicy == OverflowPolicy.DROP_NEWEST) {
+                    return false;
+                }
+                buffer.pollFirst();
+            }
+            buffer.addLast(event);
+            available.signal();
+            return kept;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Gets the number of events dropped because the subscriber was too slow.
+     *
+     * @return The number of dropped events
+     */
+    public long getDroppedCount() {
+        return dropped.get();
+    }
+
+    /**
+     * Checks if the subscription is closed.
+     *
+     * @return true if no more events are delivered
+     */
+    public boolean isClosed() {
+        lock.lock();
+        try {
+            return closed;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Stops delivering events and discards the buffered ones. Calling this method again has no effect.
+     */
+    @Override
+    public void close() {
+        lock.lock();
+        try {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            buffer.clear();
+            available.signal();
+        } finally {
+            lock.unlock();
+        }
+        onClose.accept(this);
+    }
+
+    private void deliver() {
+        try {
+            ArduinoEvent event;
+            while ((event = next()) != null) {
+                sink.send(event);
+            }
+        } catch (IOException | RuntimeException e) {
+            log.debug("Event subscriber {} failed, closing its subscription: {}", deliveryThread.getName(), e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        close();
+    }
+
+    private ArduinoEvent next() throws InterruptedException {
+        lock.lockInterruptibly();
+        try {
+            while (!closed && buffer.isEmpty()) {
+                available.await();
+            }
+            return closed ? null : buffer.pollFirst();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Receives the events of a subscription, one at a time, on the delivery thread of the subscription.
+     * It may block, for example on a slow network, without affecting the other subscribers.
+     */
+    @FunctionalInterface
+    public interface Sink {
+
+        /**
+         * Delivers an event to the subscriber.
+         *
+         * @param event The event
+         * @throws IOException if the subscriber cannot receive events anymore, which closes the subscription
+         */
+        void send(ArduinoEvent event) throws IOException;
+    }
+}
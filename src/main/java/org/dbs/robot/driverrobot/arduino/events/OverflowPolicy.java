@@ -0,0 +1,16 @@
+package org.dbs.robot.driverrobot.arduino.events;
+
+/**
+ * Behaviour of the buffer of an event subscriber when it is full because the subscriber is slower than the events.
+ */
+public enum OverflowPolicy {
+    /**
+     * Drops the oldest buffered event to make room for the new one, so the subscriber sees the latest events.
+     */
+    DROP_OLDEST,
+
+    /**
+     * Drops the new event, so the subscriber sees an uninterrupted sequence followed by a gap.
+     */
+    DROP_NEWEST
+}
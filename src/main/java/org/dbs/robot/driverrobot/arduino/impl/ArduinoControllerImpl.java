@@ -2,81 +2,104 @@ package org.dbs.robot.driverrobot.arduino.impl;
 
 import lombok.extern.slf4j.Slf4j;
 import org.dbs.robot.driverrobot.arduino.ArduinoController;
+import org.dbs.robot.driverrobot.arduino.DeviceOperation;
+import org.dbs.robot.driverrobot.arduino.protocol.ArduinoCommand;
+import org.dbs.robot.driverrobot.arduino.protocol.Opcode;
+import org.dbs.robot.driverrobot.arduino.serial.CommandPriority;
+import org.dbs.robot.driverrobot.arduino.serial.DeviceState;
 import org.dbs.robot.driverrobot.arduino.serial.SerialCommunicator;
+import org.dbs.robot.driverrobot.arduino.serial.SerialCommunicatorRegistry;
+
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+
+import static org.dbs.robot.driverrobot.arduino.impl.ArduinoProtocol.*;
 
 /**
  * Implementation of the ArduinoController interface for controlling an Arduino via serial communication.
  * This class is responsible for converting high-level commands to the Arduino protocol format
- * and delegating the actual communication to the SerialCommunicator.
+ * and delegating the actual communication to the SerialCommunicator of the board owning each device.
+ * The controller is ready when every board is ready, and shutting it down shuts down every board.
  */
 @Slf4j
 public class ArduinoControllerImpl implements ArduinoController {
 
-    private static final String OK_RESPONSE = "ok";
-    private static final String READY_RESPONSE = "ready";
-
-    private final SerialCommunicator serialCommunicator;
+    private final SerialCommunicatorRegistry registry;
 
     /**
      * Constructor for ArduinoControllerImpl.
      *
-     * @param serialCommunicator The serial communicator for Arduino communication
+     * @param registry The serial communicators of the Arduino boards, by device
      */
-    public ArduinoControllerImpl(SerialCommunicator serialCommunicator) {
-        this.serialCommunicator = serialCommunicator;
-        log.info("Arduino controller initialized with serial communicator");
+    public ArduinoControllerImpl(SerialCommunicatorRegistry registry) {
+        this.registry = registry;
+        log.info("Arduino controller initialized with {} board(s)", registry.all().size());
     }
 
     @Override
     public boolean controlLed(String name, boolean state) {
-        String stateStr = state ? "on" : "off";
-        String command = String.format("led(%s, %s)", name, stateStr);
-        return serialCommunicator.sendCommand(command, OK_RESPONSE);
+        return registry.forDevice(name).sendCommand(ArduinoCommand.led(name, state));
     }
 
     @Override
     public boolean positionServo(String name, int angle) {
-        String command = String.format("servo(%s, angle %d)", name, angle);
-        return serialCommunicator.sendCommand(command, OK_RESPONSE);
+        return registry.forDevice(name).sendCommand(ArduinoCommand.servoAngle(name, angle));
+    }
+
+    @Override
+    public Map<String, Boolean> positionServos(Map<String, Integer> angles) {
+        return resultsByName(angles, executeBatch(servoPositions(angles)));
     }
 
     @Override
     public boolean sweep(String name, int startAngle, int endAngle, int speed) {
-        String command = String.format("servo(%s, sweep %d %d %d)", name, startAngle, endAngle, speed);
-        return serialCommunicator.sendCommand(command, OK_RESPONSE);
+        return registry.forDevice(name).sendCommand(ArduinoCommand.servoMovement(name, Opcode.SWEEP, startAngle, endAngle, speed));
     }
 
     @Override
     public boolean halfSweep(String name, int startAngle, int endAngle, int speed) {
-        String command = String.format("servo(%s, half-sweep %d %d %d)", name, startAngle, endAngle, speed);
-        return serialCommunicator.sendCommand(command, OK_RESPONSE);
+        return registry.forDevice(name).sendCommand(ArduinoCommand.servoMovement(name, Opcode.HALF_SWEEP, startAngle, endAngle, speed));
     }
 
     @Override
     public boolean reverseHalfSweep(String name, int startAngle, int endAngle, int speed) {
-        String command = String.format("servo(%s, reverse-half-sweep %d %d %d)", name, startAngle, endAngle, speed);
-        return serialCommunicator.sendCommand(command, OK_RESPONSE);
+        return registry.forDevice(name).sendCommand(ArduinoCommand.servoMovement(name, Opcode.REVERSE_HALF_SWEEP, startAngle, endAngle, speed));
     }
 
     @Override
     public boolean reverseSweep(String name, int startAngle, int endAngle, int speed) {
-        String command = String.format("servo(%s, reverse-sweep %d %d %d)", name, startAngle, endAngle, speed);
-        return serialCommunicator.sendCommand(command, OK_RESPONSE);
+        return registry.forDevice(name).sendCommand(ArduinoCommand.servoMovement(name, Opcode.REVERSE_SWEEP, startAngle, endAngle, speed));
+    }
+
+    @Override
+    public List<Boolean> executeBatch(List<DeviceOperation> operations) {
+        return BoardRouting.sendBatchAsync(registry, operations, CommandPriority.NORMAL, null).stream()
+                .map(BoardRouting::await)
+                .toList();
+    }
+
+    @Override
+    public Map<String, DeviceState> getDeviceStates() {
+        Map<String, DeviceState> states = new TreeMap<>();
+        registry.all().forEach(serialCommunicator -> states.putAll(serialCommunicator.getDeviceStates()));
+        return states;
     }
 
     @Override
     public boolean isReady() {
-        if (!serialCommunicator.isOpen()) {
-            return false;
-        }
-        return serialCommunicator.sendCommand("status(arduino, ok)", READY_RESPONSE);
+        List<CompletableFuture<Boolean>> boards = registry.all().stream().map(SerialCommunicator::checkReadiness).toList();
+        return boards.stream().allMatch(CompletableFuture::join);
     }
 
     @Override
     public void shutdown() {
         log.info("Shutting down Arduino controller");
-        serialCommunicator.sendCommand("shutdown()", OK_RESPONSE);
-        serialCommunicator.close();
+        for (SerialCommunicator serialCommunicator : registry.all()) {
+            serialCommunicator.sendCommand(ArduinoCommand.shutdown(), CommandPriority.HIGH);
+            serialCommunicator.close();
+        }
         log.info("Arduino controller shut down successfully");
     }
 }
\ No newline at end of file
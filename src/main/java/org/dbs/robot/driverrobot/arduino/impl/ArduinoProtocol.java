@@ -0,0 +1,60 @@
+package org.dbs.robot.driverrobot.arduino.impl;
+
+import org.dbs.robot.driverrobot.arduino.DeviceOperation;
+import org.dbs.robot.driverrobot.arduino.protocol.ArduinoCommand;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Maps the operations of the controllers onto Arduino commands.
+ * Shared by the synchronous and asynchronous controller implementations so that both
+ * always send exactly the same commands.
+ */
+final class ArduinoProtocol {
+
+    private ArduinoProtocol() {
+    }
+
+    /**
+     * Builds the command of a batched operation.
+     *
+     * @param operation The operation
+     * @return The command
+     */
+    static ArduinoCommand command(DeviceOperation operation) {
+        return switch (operation.type()) {
+            case LED -> ArduinoCommand.led(operation.name(), operation.state());
+            case SERVO_POSITION -> ArduinoCommand.servoAngle(operation.name(), operation.angle());
+        };
+    }
+
+    /**
+     * Builds the servo positioning operations of a pose.
+     *
+     * @param angles The angle of each servomotor, by servomotor name
+     * @return The operations, in the iteration order of the map
+     */
+    static List<DeviceOperation> servoPositions(Map<String, Integer> angles) {
+        List<DeviceOperation> operations = new ArrayList<>(angles.size());
+        angles.forEach((name, angle) -> operations.add(DeviceOperation.servoPosition(name, angle)));
+        return operations;
+    }
+
+    /**
+     * Associates the results of a pose batch with the servomotor names.
+     *
+     * @param angles  The angle of each servomotor, by servomotor name
+     * @param results The result of each operation, in the iteration order of the map
+     * @return The result for each servomotor name
+     */
+    static Map<String, Boolean> resultsByName(Map<String, Integer> angles, List<Boolean> results) {
+        Map<String, Boolean> resultsByName = new LinkedHashMap<>();
+        Iterator<Boolean> result = results.iterator();
+        angles.keySet().forEach(name -> resultsByName.put(name, result.next()));
+        return resultsByName;
+    }
+}
@@ -0,0 +1,114 @@
+package org.dbs.robot.driverrobot.arduino.impl;
+
+import lombok.extern.slf4j.Slf4j;
+import org.dbs.robot.driverrobot.arduino.AsyncArduinoController;
+import org.dbs.robot.driverrobot.arduino.DeviceOperation;
+import org.dbs.robot.driverrobot.arduino.protocol.ArduinoCommand;
+import org.dbs.robot.driverrobot.arduino.protocol.Opcode;
+import org.dbs.robot.driverrobot.arduino.serial.CommandDeadline;
+import org.dbs.robot.driverrobot.arduino.serial.CommandPriority;
+import org.dbs.robot.driverrobot.arduino.serial.SerialCommunicator;
+import org.dbs.robot.driverrobot.arduino.serial.SerialCommunicatorRegistry;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import static org.dbs.robot.driverrobot.arduino.impl.ArduinoProtocol.*;
+
+/**
+ * Implementation of the AsyncArduinoController interface.
+ * Commands are handed to the pipelined engine of the SerialCommunicator of the board owning
+ * each device, which completes the returned futures from its reader thread.
+ * The views obtained with {@link #withDeadline(CommandDeadline)} send them with the deadline of their caller
+ * instead of the configured command timeout.
+ */
+@Slf4j
+public class AsyncArduinoControllerImpl implements AsyncArduinoController {
+
+    private final SerialCommunicatorRegistry registry;
+    private final CommandDeadline deadline;
+
+    /**
+     * Constructor for AsyncArduinoControllerImpl.
+     *
+     * @param registry The serial communicators of the Arduino boards, by device
+     */
+    public AsyncArduinoControllerImpl(SerialCommunicatorRegistry registry) {
+        this.registry = registry;
+        this.deadline = null;
+        log.info("Asynchronous Arduino controller initialized with {} board(s)", registry.all().size());
+    }
+
+    private AsyncArduinoControllerImpl(SerialCommunicatorRegistry registry, CommandDeadline deadline) {
+        this.registry = registry;
+        this.deadline = deadline;
+    }
+
+    @Override
+    public CompletableFuture<Boolean> controlLed(String name, boolean state) {
+        return send(name, ArduinoCommand.led(name, state));
+    }
+
+    @Override
+    public CompletableFuture<Boolean> positionServo(String name, int angle) {
+        return send(name, ArduinoCommand.servoAngle(name, angle));
+    }
+
+    @Override
+    public CompletableFuture<Map<String, Boolean>> positionServos(Map<String, Integer> angles) {
+        return executeBatch(servoPositions(angles)).thenApply(results -> resultsByName(angles, results));
+    }
+
+    @Override
+    public CompletableFuture<Boolean> sweep(String name, int startAngle, int endAngle, int speed) {
+        return send(name, ArduinoCommand.servoMovement(name, Opcode.SWEEP, startAngle, endAngle, speed));
+    }
+
+    @Override
+    public CompletableFuture<Boolean> halfSweep(String name, int startAngle, int endAngle, int speed) {
+        return send(name, ArduinoCommand.servoMovement(name, Opcode.HALF_SWEEP, startAngle, endAngle, speed));
+    }
+
+    @Override
+    public CompletableFuture<Boolean> reverseHalfSweep(String name, int startAngle, int endAngle, int speed) {
+        return send(name, ArduinoCommand.servoMovement(name, Opcode.REVERSE_HALF_SWEEP, startAngle, endAngle, speed));
+    }
+
+    @Override
+    public CompletableFuture<Boolean> reverseSweep(String name, int startAngle, int endAngle, int speed) {
+        return send(name, ArduinoCommand.servoMovement(name, Opcode.REVERSE_SWEEP, startAngle, endAngle, speed));
+    }
+
+    @Override
+    public CompletableFuture<List<Boolean>> executeBatch(List<DeviceOperation> operations) {
+        List<CompletableFuture<Boolean>> results =
+                BoardRouting.sendBatchAsync(registry, operations, CommandPriority.NORMAL, deadline).stream()
+                        .map(BoardRouting::outcome)
+                        .toList();
+        return CompletableFuture.allOf(results.toArray(CompletableFuture[]::new))
+                .thenApply(done -> results.stream().map(CompletableFuture::join).toList());
+    }
+
+    @Override
+    public CompletableFuture<Boolean> isReady() {
+        List<CompletableFuture<Boolean>> boards = registry.all().stream().map(SerialCommunicator::checkReadiness).toList();
+        return CompletableFuture.allOf(boards.toArray(CompletableFuture[]::new))
+                .thenApply(done -> boards.stream().allMatch(CompletableFuture::join));
+    }
+
+    @Override
+    public AsyncArduinoController withDeadline(CommandDeadline deadline) {
+        return new AsyncArduinoControllerImpl(registry, deadline);
+    }
+
+    /**
+     * Sends a command to the board owning a device, with the deadline of this view if it has one.
+     */
+    private CompletableFuture<Boolean> send(String name, ArduinoCommand command) {
+        SerialCommunicator board = registry.forDevice(name);
+        return deadline == null
+                ? board.sendCommandAsync(command)
+                : board.sendCommandAsync(command, CommandPriority.NORMAL, deadline);
+    }
+}
@@ -0,0 +1,95 @@
+package org.dbs.robot.driverrobot.arduino.impl;
+
+import lombok.extern.slf4j.Slf4j;
+import org.dbs.robot.driverrobot.arduino.DeviceOperation;
+import org.dbs.robot.driverrobot.arduino.protocol.ArduinoCommand;
+import org.dbs.robot.driverrobot.arduino.serial.CommandDeadline;
+import org.dbs.robot.driverrobot.arduino.serial.CommandPriority;
+import org.dbs.robot.driverrobot.arduino.serial.SerialCommunicator;
+import org.dbs.robot.driverrobot.arduino.serial.SerialCommunicatorRegistry;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Routes the operations of a batch to the boards owning their devices.
+ * Shared by the synchronous and asynchronous controller implementations.
+ */
+@Slf4j
+final class BoardRouting {
+
+    private BoardRouting() {
+    }
+
+    /**
+     * Sends a batch of operations, split into one batch per board. The batches of the different
+     * boards are sent in parallel, each keeping the order of its operations.
+     *
+     * @param registry   The serial communicators of the boards
+     * @param operations The operations, in order
+     * @param priority   The priority lane of the batches
+     * @param deadline   The instant past which the caller no longer waits for the operations,
+     *                   or null to wait for the configured command timeout
+     * @return For each operation, in order, a future completed with its outcome
+     * @throws IllegalArgumentException if no board owns the device of an operation; nothing is sent then
+     */
+    static List<CompletableFuture<Boolean>> sendBatchAsync(SerialCommunicatorRegistry registry,
+                                                           List<DeviceOperation> operations, CommandPriority priority,
+                                                           CommandDeadline deadline) {
+        Map<SerialCommunicator, List<Integer>> indicesByBoard = new LinkedHashMap<>();
+        for (int i = 0; i < operations.size(); i++) {
+            SerialCommunicator board = registry.forDevice(operations.get(i).name());
+            indicesByBoard.computeIfAbsent(board, key -> new ArrayList<>()).add(i);
+        }
+
+        @SuppressWarnings("unchecked")
+        CompletableFuture<Boolean>[] results = new CompletableFuture[operations.size()];
+        indicesByBoard.forEach((board, indices) -> {
+            List<ArduinoCommand> commands = indices.stream()
+                    .map(index -> ArduinoProtocol.command(operations.get(index)))
+                    .toList();
+            List<CompletableFuture<Boolean>> boardResults = deadline == null
+                    ? board.sendBatchAsync(commands, priority)
+                    : board.sendBatchAsync(commands, priority, deadline);
+            for (int i = 0; i < indices.size(); i++) {
+                results[indices.get(i)] = boardResults.get(i);
+            }
+        });
+        return Arrays.asList(results);
+    }
+
+    /**
+     * Turns the rejection or expiry of a command of a batch into a failed outcome, so that the other
+     * commands of the batch still report theirs.
+     *
+     * @param result The future of the command
+     * @return A future completed with the outcome of the command, false if it completed exceptionally
+     */
+    static CompletableFuture<Boolean> outcome(CompletableFuture<Boolean> result) {
+        return result.exceptionally(error -> {
+            Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+            log.warn("Batch command not sent: {}", cause.getMessage());
+            return false;
+        });
+    }
+
+    /**
+     * Waits for the outcome of a command.
+     *
+     * @param result The future of the command
+     * @return The outcome of the command, false if it was rejected by the command queue
+     */
+    static boolean await(CompletableFuture<Boolean> result) {
+        try {
+            return result.join();
+        } catch (CompletionException e) {
+            log.warn("Batch command not sent: {}", e.getCause().getMessage());
+            return false;
+        }
+    }
+}
@@ -0,0 +1,210 @@
+package org.dbs.robot.driverrobot.arduino.impl;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.dbs.robot.driverrobot.arduino.AsyncArduinoController;
+import org.dbs.robot.driverrobot.arduino.DeviceOperation;
+import org.dbs.robot.driverrobot.arduino.serial.CommandDeadline;
+import org.dbs.robot.driverrobot.arduino.serial.CommandRejectedException;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * AsyncArduinoController that coalesces the position commands of each servomotor, keeping only the latest angle.
+ * Each servomotor has a lock-free slot holding its newest setpoint not yet handed to the serial link, and at most
+ * one of its position commands is queued or in flight at a time. A new angle overwrites the pending one instead of
+ * queueing behind it, so a UI or joystick sending angles faster than the link can carry them never builds a backlog,
+ * and the link always carries the freshest setpoint. A caller whose angle was overwritten gets the outcome of the
+ * angle that replaced it. The other operations are passed through unchanged.
+ * The views obtained with {@link #withDeadline(CommandDeadline)} share the slots of this controller, and each
+ * setpoint is sent with the deadline of the caller that requested it.
+ * The setpoint pending when a command completes is sent from a virtual thread rather than from the thread that
+ * completed it, which is usually the serial reader: with the BLOCK rejection policy and a full queue, sending it
+ * there would park the reader, and no acknowledgement could be read to make room in the queue.
+ */
+@Slf4j
+public class CoalescingAsyncArduinoController implements AsyncArduinoController {
+
+    /**
+     * Counter of the servo setpoints overwritten by a newer one before being sent.
+     */
+    public static final String COALESCED = "arduino.servo.position.coalesced";
+
+    /**
+     * Counter of the servo setpoints that the command queue refused.
+     */
+    public static final String DROPPED = "arduino.servo.position.dropped";
+
+    /**
+     * Runs the completions that send the next setpoint, off the thread that completed the previous command.
+     */
+    private static final Executor SENDERS = task -> Thread.ofVirtual().name("servo-setpoints").start(task);
+
+    private final AsyncArduinoController delegate;
+    private final MeterRegistry meterRegistry;
+    private final ConcurrentMap<String, Slot> slots;
+
+    /**
+     * Constructor for CoalescingAsyncArduinoController.
+     *
+     * @param delegate      The controller sending the commands to the Arduino boards
+     * @param meterRegistry The registry of the coalesced and dropped counters
+     */
+    public CoalescingAsyncArduinoController(AsyncArduinoController delegate, MeterRegistry meterRegistry) {
+        this(delegate, meterRegistry, new ConcurrentHashMap<>());
+        log.info("Servo position commands are coalesced to the latest angle of each servomotor");
+    }
+
+    private CoalescingAsyncArduinoController(AsyncArduinoController delegate, MeterRegistry meterRegistry,
+                                             ConcurrentMap<String, Slot> slots) {
+        this.delegate = delegate;
+        this.meterRegistry = meterRegistry;
+        this.slots = slots;
+    }
+
+    @Override
+    public CompletableFuture<Boolean> controlLed(String name, boolean state) {
+        return delegate.controlLed(name, state);
+    }
+
+    /**
+     * Positions a servomotor, replacing its pending angle if a previous one was not sent yet.
+     *
+     * @param name  The name identifier of the servomotor
+     * @param angle The angle to position the servomotor
+     * @return A future completed with the outcome of this angle, or of the newer angle that replaced it
+     */
+    @Override
+    public CompletableFuture<Boolean> positionServo(String name, int angle) {
+        Slot slot = slots.computeIfAbsent(name, this::newSlot);
+        Setpoint setpoint = new Setpoint(angle, delegate, new CompletableFuture<>());
+        Setpoint replaced = slot.pending.getAndSet(setpoint);
+        if (replaced != null) {
+            slot.coalesced.increment();
+            setpoint.result().whenCompleteAsync((success, error) -> {
+                if (error != null) {
+                    replaced.result().completeExceptionally(error);
+                } else {
+                    replaced.result().complete(success);
+                }
+            }, SENDERS);
+        }
+        drain(name, slot);
+        return setpoint.result();
+    }
+
+    @Override
+    public CompletableFuture<Map<String, Boolean>> positionServos(Map<String, Integer> angles) {
+        return delegate.positionServos(angles);
+    }
+
+    @Override
+    public CompletableFuture<Boolean> sweep(String name, int startAngle, int endAngle, int speed) {
+        return delegate.sweep(name, startAngle, endAngle, speed);
+    }
+
+    @Override
+    public CompletableFuture<Boolean> halfSweep(String name, int startAngle, int endAngle, int speed) {
+        return delegate.halfSweep(name, startAngle, endAngle, speed);
+    }
+
+    @Override
+    public CompletableFuture<Boolean> reverseHalfSweep(String name, int startAngle, int endAngle, int speed) {
+        return delegate.reverseHalfSweep(name, startAngle, endAngle, speed);
+    }
+
+    @Override
+    public CompletableFuture<Boolean> reverseSweep(String name, int startAngle, int endAngle, int speed) {
+        return delegate.reverseSweep(name, startAngle, endAngle, speed);
+    }
+
+    @Override
+    public CompletableFuture<List<Boolean>> executeBatch(List<DeviceOperation> operations) {
+        return delegate.executeBatch(operations);
+    }
+
+    @Override
+    public CompletableFuture<Boolean> isReady() {
+        return delegate.isReady();
+    }
+
+    @Override
+    public AsyncArduinoController withDeadline(CommandDeadline deadline) {
+        return new CoalescingAsyncArduinoController(delegate.withDeadline(deadline), meterRegistry, slots);
+    }
+
+    /**
+     * Sends the pending setpoint of a servomotor unless one of its commands is already on its way.
+     * When the command on its way completes, the setpoint pending by then is sent from a virtual thread,
+     * so that the serial reader completing it never waits for room in the command queue.
+     */
+    private void drain(String name, Slot slot) {
+        while (slot.pending.get() != null && slot.sending.compareAndSet(false, true)) {
+            Setpoint next = slot.pending.getAndSet(null);
+            if (next == null) {
+                slot.sending.set(false);
+                continue;
+            }
+            CompletableFuture<Boolean> sent;
+            try {
+                sent = next.sender().positionServo(name, next.angle());
+            } catch (RuntimeException e) {
+                sent = CompletableFuture.failedFuture(e);
+            }
+            sent.whenCompleteAsync((success, error) -> {
+                if (error != null) {
+                    if (isRejection(error)) {
+                        slot.dropped.increment();
+                    }
+                    next.result().completeExceptionally(error);
+                } else {
+                    next.result().complete(success);
+                }
+                slot.sending.set(false);
+                drain(name, slot);
+            }, SENDERS);
+            return;
+        }
+    }
+
+    private static boolean isRejection(Throwable error) {
+        return error instanceof CommandRejectedException || error.getCause() instanceof CommandRejectedException;
+    }
+
+    private Slot newSlot(String name) {
+        return new Slot(Counter.builder(COALESCED).tag("device", name)
+                .description("Servo setpoints overwritten by a newer one before being sent").register(meterRegistry),
+                Counter.builder(DROPPED).tag("device", name)
+                        .description("Servo setpoints refused by the command queue").register(meterRegistry));
+    }
+
+    /**
+     * An angle requested by a caller, with the controller sending it and the future completed with its outcome.
+     */
+    private record Setpoint(int angle, AsyncArduinoController sender, CompletableFuture<Boolean> result) {
+    }
+
+    /**
+     * The latest setpoint of a servomotor not yet handed to the serial link,
+     * and whether one of its commands is queued or in flight.
+     */
+    private static final class Slot {
+        final AtomicReference<Setpoint> pending = new AtomicReference<>();
+        final AtomicBoolean sending = new AtomicBoolean();
+        final Counter coalesced;
+        final Counter dropped;
+
+        Slot(Counter coalesced, Counter dropped) {
+            this.coalesced = coalesced;
+            this.dropped = dropped;
+        }
+    }
+}
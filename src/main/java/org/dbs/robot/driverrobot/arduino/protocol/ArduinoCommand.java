@@ -0,0 +1,110 @@
+package org.dbs.robot.driverrobot.arduino.protocol;
+
+/**
+ * A command for the Arduino, independent of its encoding on the serial link.
+ * Unused arguments are zero.
+ *
+ * @param opcode The operation
+ * @param device The name identifier of the LED or servomotor, "arduino" for status, null for shutdown
+ * @param first  The first argument: LED state (1 for on), servo angle or start angle of a movement
+ * @param second The second argument: end angle of a movement
+ * @param third  The third argument: speed of a movement
+ */
+public record ArduinoCommand(Opcode opcode, String device, int first, int second, int third) {
+
+    private static final String ARDUINO_DEVICE = "arduino";
+
+    /**
+     * Creates an LED command.
+     *
+     * @param name  The name identifier of the LED
+     * @param state true to turn the LED on, false to turn it off
+     * @return The command
+     */
+    public static ArduinoCommand led(String name, boolean state) {
+        return new ArduinoCommand(Opcode.LED, name, state ? 1 : 0, 0, 0);
+    }
+
+    /**
+     * Creates a servo positioning command.
+     *
+     * @param name  The name identifier of the servomotor
+     * @param angle The angle to position the servomotor
+     * @return The command
+     */
+    public static ArduinoCommand servoAngle(String name, int angle) {
+        return new ArduinoCommand(Opcode.SERVO_ANGLE, name, angle, 0, 0);
+    }
+
+    /**
+     * Creates a servo movement command.
+     *
+     * @param name       The name identifier of the servomotor
+     * @param movement   The movement, one of the sweep opcodes
+     * @param startAngle The starting angle of the movement
+     * @param endAngle   The ending angle of the movement
+     * @param speed      The speed of the movement
+     * @return The command
+     * @throws IllegalArgumentException if the opcode is not a servo movement
+     */
+    public static ArduinoCommand servoMovement(String name, Opcode movement, int startAngle, int endAngle, int speed) {
+        if (!movement.isServoMovement()) {
+            throw new IllegalArgumentException("Not a servo movement: " + movement);
+        }
+        return new ArduinoCommand(movement, name, startAngle, endAngle, speed);
+    }
+
+    /**
+     * Creates the status command, answered with "ready" when the Arduino is ready.
+     *
+     * @return The command
+     */
+    public static ArduinoCommand status() {
+        return new ArduinoCommand(Opcode.STATUS, ARDUINO_DEVICE, 0, 0, 0);
+    }
+
+    /**
+     * Creates the shutdown command.
+     *
+     * @return The command
+     */
+    public static ArduinoCommand shutdown() {
+        return new ArduinoCommand(Opcode.SHUTDOWN, null, 0, 0, 0);
+    }
+
+    /**
+     * Gets the response expected from the Arduino when the command succeeds.
+     *
+     * @return READY for the status command, OK otherwise
+     */
+    public ResponseType expectedResponse() {
+        return opcode == Opcode.STATUS ? ResponseType.READY : ResponseType.OK;
+    }
+
+    /**
+     * Gets a numeric argument by position.
+     *
+     * @param index The position of the argument, from 0 to 2
+     * @return The argument
+     */
+    public int argument(int index) {
+        return switch (index) {
+            case 0 -> first;
+            case 1 -> second;
+            case 2 -> third;
+            default -> throw new IndexOutOfBoundsException("Argument index: " + index);
+        };
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder text = new StringBuilder(opcode.getKeyword()).append('(');
+        if (device != null) {
+            text.append(device);
+        }
+        for (int i = 0; i < opcode.getArgumentCount(); i++) {
+            text.append(' ').append(argument(i));
+        }
+        return text.append(')').toString();
+    }
+}
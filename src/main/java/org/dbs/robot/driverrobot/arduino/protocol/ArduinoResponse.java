@@ -0,0 +1,16 @@
+package org.dbs.robot.driverrobot.arduino.protocol;
+
+/**
+ * A response decoded from the serial link.
+ *
+ * @param type     The kind of response
+ * @param sequence The sequence number echoed by the Arduino, or -1 if the codec does not carry one
+ * @param text     The raw response, for logging
+ */
+public record ArduinoResponse(ResponseType type, int sequence, String text) {
+
+    /**
+     * Sequence number of responses that do not carry one.
+     */
+    public static final int NO_SEQUENCE = -1;
+}
@@ -0,0 +1,223 @@
+package org.dbs.robot.driverrobot.arduino.protocol;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.util.Map;
+
+/**
+ * Codec for the binary Arduino protocol.
+ * <p>
+ * A command is sent as the frame {@code 0xA5 | length | sequence | opcode | device id | arguments | crc},
+ * where the length counts the bytes from the sequence to the last argument, each argument is an unsigned byte,
+ * and the crc is a CRC-8 (polynomial 0x07) of the bytes from the length to the last argument.
+ * A response is the frame {@code 0xA5 | 2 | sequence | status | crc}, where the status is
+ * 0 for ok, 1 for ready and 2 for error. A response with a bad checksum is decoded as INVALID.
+ * <p>
+ * Devices are identified by the numeric ids configured for their names. The status and
+ * shutdown commands address the board itself, with id 0.
+ * <p>
+ * Encoding and decoding do not allocate: frames are written straight into the caller's buffer,
+ * and the known responses are shared instances.
+ */
+public class BinaryCommandCodec implements CommandCodec {
+
+    /**
+     * First byte of every frame.
+     */
+    public static final int START_OF_FRAME = 0xA5;
+
+    /**
+     * Status byte of an ok response.
+     */
+    public static final int STATUS_OK = 0;
+
+    /**
+     * Status byte of a ready response.
+     */
+    public static final int STATUS_READY = 1;
+
+    /**
+     * Status byte of an error response.
+     */
+    public static final int STATUS_ERROR = 2;
+
+    private static final int BOARD_ID = 0;
+    private static final int RESPONSE_LENGTH = 2;
+    private static final ArduinoResponse[][] RESPONSES = responses();
+
+    private final Map<String, Integer> deviceIds;
+
+    /**
+     * Constructor for BinaryCommandCodec.
+     *
+     * @param deviceIds The numeric id of each device, by device name, between 1 and 255
+     */
+    public BinaryCommandCodec(Map<String, Integer> deviceIds) {
+        this.deviceIds = Map.copyOf(deviceIds);
+    }
+
+    @Override
+    public void encode(ArduinoCommand command, int sequence, ByteBuffer buffer) {
+        Opcode opcode = command.opcode();
+        int deviceId = deviceId(command);
+        for (int i = 0; i < opcode.getArgumentCount(); i++) {
+            unsignedByte(command, command.argument(i));
+        }
+        int length = 3 + opcode.getArgumentCount();
+        if (buffer.remaining() < length + 3) {
+            throw new BufferOverflowException();
+        }
+        int start = buffer.position();
+        buffer.put((byte) START_OF_FRAME);
+        buffer.put((byte) length);
+        buffer.put((byte) sequence);
+        buffer.put((byte) opcode.getCode());
+        buffer.put((byte) deviceId);
+        for (int i = 0; i < opcode.getArgumentCount(); i++) {
+            buffer.put((byte) command.argument(i));
+        }
+        buffer.put((byte) crc8(buffer, start + 1, buffer.position()));
+    }
+
+    @Override
+    public ResponseDecoder newDecoder(InputStream inputStream) {
+        return new FrameDecoder(inputStream);
+    }
+
+    /**
+     * Computes the CRC-8 (polynomial 0x07, initial value 0) of a range of a buffer.
+     *
+     * @param buffer The buffer
+     * @param from   The index of the first byte, inclusive
+     * @param to     The index of the last byte, exclusive
+     * @return The checksum, between 0 and 255
+     */
+    static int crc8(ByteBuffer buffer, int from, int to) {
+        int crc = 0;
+        for (int i = from; i < to; i++) {
+            crc = crc8(crc, buffer.get(i));
+        }
+        return crc;
+    }
+
+    private static int crc8(int crc, byte b) {
+        crc ^= b & 0xFF;
+        for (int bit = 0; bit < 8; bit++) {
+            crc = (crc & 0x80) != 0 ? ((crc << 1) ^ 0x07) & 0xFF : (crc << 1) & 0xFF;
+        }
+        return crc;
+    }
+
+    private static ArduinoResponse[][] responses() {
+        ResponseType[] types = {ResponseType.OK, ResponseType.READY, ResponseType.ERROR};
+        ArduinoResponse[][] responses = new ArduinoResponse[types.length][256];
+        for (int status = 0; status < types.length; status++) {
+            for (int sequence = 0; sequence < 256; sequence++) {
+                responses[status][sequence] = new ArduinoResponse(types[status], sequence, types[status].name().toLowerCase());
+            }
+        }
+        return responses;
+    }
+
+    private int deviceId(ArduinoCommand command) {
+        if (command.opcode() == Opcode.STATUS || command.opcode() == Opcode.SHUTDOWN) {
+            return BOARD_ID;
+        }
+        Integer id = deviceIds.get(command.device());
+        if (id == null) {
+            throw new IllegalArgumentException("No device id configured for device: " + command.device());
+        }
+        return id;
+    }
+
+    private static int unsignedByte(ArduinoCommand command, int argument) {
+        if (argument < 0 || argument > 0xFF) {
+            throw new IllegalArgumentException("Argument out of range for the binary protocol in " + command);
+        }
+        return argument;
+    }
+
+    /**
+     * Assembles response frames from the input stream, resynchronizing on the start byte
+     * after garbage. A partial frame is kept between calls.
+     */
+    private static final class FrameDecoder implements ResponseDecoder {
+
+        private final InputStream inputStream;
+        private final byte[] readBuffer = new byte[64];
+        private final byte[] frame = new byte[RESPONSE_LENGTH + 3];
+        private int readPosition;
+        private int readLimit;
+        private int frameLength;
+
+        private FrameDecoder(InputStream inputStream) {
+            this.inputStream = inputStream;
+        }
+
+        @Override
+        public ArduinoResponse read(long deadlineNanos) throws IOException {
+            while (true) {
+                while (readPosition < readLimit) {
+                    ArduinoResponse response = accept(readBuffer[readPosition++]);
+                    if (response != null) {
+                        return response;
+                    }
+                }
+                if (System.nanoTime() - deadlineNanos >= 0) {
+                    return null;
+                }
+                fill();
+            }
+        }
+
+        private ArduinoResponse accept(byte b) {
+            if (frameLength == 0 && (b & 0xFF) != START_OF_FRAME) {
+                return null;
+            }
+            if (frameLength == 1 && b != RESPONSE_LENGTH) {
+                frameLength = (b & 0xFF) == START_OF_FRAME ? 1 : 0;
+                return null;
+            }
+            frame[frameLength++] = b;
+            if (frameLength < frame.length) {
+                return null;
+            }
+            frameLength = 0;
+            return decode();
+        }
+
+        private ArduinoResponse decode() {
+            int crc = 0;
+            for (int i = 1; i < frame.length - 1; i++) {
+                crc = crc8(crc, frame[i]);
+            }
+            int sequence = frame[2] & 0xFF;
+            int status = frame[3] & 0xFF;
+            if (crc != (frame[frame.length - 1] & 0xFF)) {
+                return new ArduinoResponse(ResponseType.INVALID, sequence, "bad checksum");
+            }
+            if (status < RESPONSES.length) {
+                return RESPONSES[status][sequence];
+            }
+            return new ArduinoResponse(ResponseType.INVALID, sequence, "status " + status);
+        }
+
+        private void fill() throws IOException {
+            readPosition = 0;
+            readLimit = 0;
+            try {
+                int count = inputStream.read(readBuffer, 0, readBuffer.length);
+                if (count < 0) {
+                    throw new EOFException("Serial input stream closed");
+                }
+                readLimit = count;
+            } catch (InterruptedIOException e) {
+                // Read timeout elapsed without data, the deadline is checked by the caller
+            }
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package org.dbs.robot.driverrobot.arduino.protocol;
+
+/**
+ * Encodings available for the serial link.
+ */
+public enum CodecType {
+    /**
+     * Human-readable lines such as {@code servo(head, angle 90)}, answered with {@code ok}.
+     */
+    TEXT,
+
+    /**
+     * Compact length-prefixed frames with numeric device ids, a sequence number and a CRC8.
+     */
+    BINARY
+}
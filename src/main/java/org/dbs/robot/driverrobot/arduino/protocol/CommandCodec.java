@@ -0,0 +1,47 @@
+package org.dbs.robot.driverrobot.arduino.protocol;
+
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.Map;
+
+/**
+ * Encoding of commands and responses on the serial link.
+ * The text codec is the default; the binary codec fits several times more commands
+ * per second on the same link, and needs a firmware that speaks it.
+ */
+public interface CommandCodec {
+    /**
+     * Writes the encoded command at the current position of the buffer.
+     *
+     * @param command  The command to encode
+     * @param sequence The sequence number of the command, between 0 and 255
+     * @param buffer   The buffer to write to
+     * @throws java.nio.BufferOverflowException if the buffer does not have enough room for the command,
+     *         in which case its position is left unchanged
+     * @throws IllegalArgumentException if the command cannot be represented by this codec,
+     *         in which case its position is left unchanged
+     */
+    void encode(ArduinoCommand command, int sequence, ByteBuffer buffer);
+
+    /**
+     * Creates a decoder for the responses sent on the given input stream.
+     *
+     * @param inputStream The input stream of the serial port
+     * @return A new decoder
+     */
+    ResponseDecoder newDecoder(InputStream inputStream);
+
+    /**
+     * Creates a codec.
+     *
+     * @param type      The type of codec
+     * @param deviceIds The numeric id of each device, by device name, used by the binary codec
+     * @return The codec
+     */
+    static CommandCodec create(CodecType type, Map<String, Integer> deviceIds) {
+        return switch (type) {
+            case TEXT -> new TextCommandCodec();
+            case BINARY -> new BinaryCommandCodec(deviceIds);
+        };
+    }
+}
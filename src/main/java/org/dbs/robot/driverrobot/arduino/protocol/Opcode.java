@@ -0,0 +1,72 @@
+package org.dbs.robot.driverrobot.arduino.protocol;
+
+/**
+ * Operations understood by the Arduino firmware.
+ * Each opcode has a numeric code, used by the binary codec, and a keyword, used by the text codec.
+ */
+public enum Opcode {
+    LED(0x01, "led", 1),
+    SERVO_ANGLE(0x02, "angle", 1),
+    SWEEP(0x03, "sweep", 3),
+    HALF_SWEEP(0x04, "half-sweep", 3),
+    REVERSE_HALF_SWEEP(0x05, "reverse-half-sweep", 3),
+    REVERSE_SWEEP(0x06, "reverse-sweep", 3),
+    STATUS(0x07, "status", 0),
+    SHUTDOWN(0x08, "shutdown", 0);
+
+    private final int code;
+    private final String keyword;
+    private final int argumentCount;
+
+    Opcode(int code, String keyword, int argumentCount) {
+        this.code = code;
+        this.keyword = keyword;
+        this.argumentCount = argumentCount;
+    }
+
+    /**
+     * Gets the numeric code of the operation.
+     *
+     * @return The code, between 0 and 255
+     */
+    public int getCode() {
+        return code;
+    }
+
+    /**
+     * Gets the keyword of the operation in the text protocol.
+     *
+     * @return The keyword
+     */
+    public String getKeyword() {
+        return keyword;
+    }
+
+    /**
+     * Gets the number of numeric arguments of the operation.
+     *
+     * @return The number of arguments, between 0 and 3
+     */
+    public int getArgumentCount() {
+        return argumentCount;
+    }
+
+    /**
+     * Checks if the operation is a servo movement performed by the firmware.
+     *
+     * @return true for the sweep movements, false otherwise
+     */
+    public boolean isServoMovement() {
+        return argumentCount == 3;
+    }
+
+    /**
+     * Checks if performing the operation twice leaves the Arduino in the same state as performing it once,
+     * so that it can safely be sent again when it is unknown whether the Arduino received it.
+     *
+     * @return false for the sweep movements, which would be performed twice, true otherwise
+     */
+    public boolean isIdempotent() {
+        return !isServoMovement();
+    }
+}
@@ -0,0 +1,18 @@
+package org.dbs.robot.driverrobot.arduino.protocol;
+
+import java.io.IOException;
+
+/**
+ * Decodes the responses of the Arduino from the input stream of a serial port.
+ * A decoder keeps partially received responses between calls and is used by a single reader thread.
+ */
+public interface ResponseDecoder {
+    /**
+     * Reads the next response, waiting at most until the given deadline.
+     *
+     * @param deadlineNanos The deadline, as a {@link System#nanoTime()} value
+     * @return The response, or null if the deadline passed before a complete response arrived
+     * @throws IOException if an I/O error occurs or the stream is closed
+     */
+    ArduinoResponse read(long deadlineNanos) throws IOException;
+}
@@ -0,0 +1,32 @@
+package org.dbs.robot.driverrobot.arduino.protocol;
+
+/**
+ * Kinds of responses sent back by the Arduino.
+ */
+public enum ResponseType {
+    /**
+     * The command was executed.
+     */
+    OK,
+
+    /**
+     * The Arduino is ready, in response to a status command.
+     */
+    READY,
+
+    /**
+     * The command failed.
+     */
+    ERROR,
+
+    /**
+     * A line the Arduino printed on its own, such as a movement completion notice or a debug print.
+     * It answers no command.
+     */
+    NOTICE,
+
+    /**
+     * A response that could not be decoded, such as a frame with a bad checksum.
+     */
+    INVALID
+}
@@ -0,0 +1,154 @@
+package org.dbs.robot.driverrobot.arduino.protocol;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Assembles newline-terminated lines from the serial input stream.
+ * Unlike a BufferedReader, a partial line is kept between calls, so a read timeout
+ * never loses data that has already arrived. A line is available as soon as its
+ * terminating newline is received, and stays available until the next read.
+ * Lines are kept as bytes and can be compared with tokens without building a String.
+ */
+class SerialLineReader {
+
+    private static final byte LF = '\n';
+    private static final byte CR = '\r';
+
+    private final InputStream inputStream;
+    private final byte[] readBuffer = new byte[256];
+    private int readPosition;
+    private int readLimit;
+    private byte[] line = new byte[64];
+    private int lineLength;
+    private boolean lineComplete;
+
+    /**
+     * Constructor for SerialLineReader.
+     *
+     * @param inputStream The input stream of the serial port
+     */
+    SerialLineReader(InputStream inputStream) {
+        this.inputStream = inputStream;
+    }
+
+    /**
+     * Reads the next line, waiting at most until the given deadline.
+     * The port is expected to use a short read timeout so that the deadline is checked regularly.
+     *
+     * @param deadlineNanos The deadline, as a {@link System#nanoTime()} value
+     * @return true if a full line, without its terminator, is now available, false if the deadline passed first
+     * @throws IOException if an I/O error occurs or the stream is closed
+     */
+    boolean readLine(long deadlineNanos) throws IOException {
+        if (lineComplete) {
+            lineLength = 0;
+            lineComplete = false;
+        }
+        while (true) {
+            while (readPosition < readLimit) {
+                byte b = readBuffer[readPosition++];
+                if (b == LF) {
+                    lineComplete = true;
+                    return true;
+                }
+                if (b != CR) {
+                    append(b);
+                }
+            }
+            if (System.nanoTime() - deadlineNanos >= 0) {
+                return false;
+            }
+            fill();
+        }
+    }
+
+    /**
+     * Checks if the current line contains only whitespace.
+     *
+     * @return true if the line is blank, false otherwise
+     */
+    boolean isBlank() {
+        return start() == end();
+    }
+
+    /**
+     * Checks if the current line, ignoring surrounding whitespace, is the given ASCII token, ignoring case.
+     *
+     * @param token The lower-case ASCII token
+     * @return true if the line matches the token, false otherwise
+     */
+    boolean matches(byte[] token) {
+        int start = start();
+        if (end() - start != token.length) {
+            return false;
+        }
+        for (int i = 0; i < token.length; i++) {
+            byte b = line[start + i];
+            if (b != token[i] && (b | 0x20) != token[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Gets the current line as a String.
+     *
+     * @return The line, without its terminator
+     */
+    String getLine() {
+        return new String(line, 0, lineLength, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Reads the next chunk of bytes from the stream into the read buffer.
+     * A read timeout simply leaves the buffer empty so that the caller can check its deadline.
+     *
+     * @throws IOException if an I/O error occurs or the stream is closed
+     */
+    private void fill() throws IOException {
+        readPosition = 0;
+        readLimit = 0;
+        try {
+            int count = inputStream.read(readBuffer, 0, readBuffer.length);
+            if (count < 0) {
+                throw new EOFException("Serial input stream closed");
+            }
+            readLimit = count;
+        } catch (InterruptedIOException e) {
+            // Read timeout elapsed without data, the deadline is checked by the caller
+        }
+    }
+
+    private void append(byte b) {
+        if (lineLength == line.length) {
+            line = Arrays.copyOf(line, line.length * 2);
+        }
+        line[lineLength++] = b;
+    }
+
+    private int start() {
+        int start = 0;
+        while (start < lineLength && isWhitespace(line[start])) {
+            start++;
+        }
+        return start;
+    }
+
+    private int end() {
+        int end = lineLength;
+        while (end > 0 && isWhitespace(line[end - 1])) {
+            end--;
+        }
+        return Math.max(end, start());
+    }
+
+    private static boolean isWhitespace(byte b) {
+        return b == ' ' || b == '\t';
+    }
+}
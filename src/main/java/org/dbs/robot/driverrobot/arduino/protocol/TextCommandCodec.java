@@ -0,0 +1,158 @@
+package org.dbs.robot.driverrobot.arduino.protocol;
+
+import java.io.InputStream;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Codec for the textual Arduino protocol.
+ * Commands are lines such as {@code led(red, on)}, {@code servo(head, angle 90)},
+ * {@code servo(arm, sweep 0 180 5)}, {@code status(arduino, ok)} and {@code shutdown()};
+ * responses are the lines {@code ok}, {@code ready} or {@code error}. Any other line is a notice
+ * printed by the firmware on its own, which answers no command.
+ * The text protocol carries no sequence number.
+ * <p>
+ * Encoding and decoding do not allocate: commands are assembled in the caller's buffer from
+ * pre-encoded fragments and cached device names, numbers are written digit by digit, and response
+ * lines are compared byte by byte with pre-encoded tokens.
+ */
+public class TextCommandCodec implements CommandCodec {
+
+    private static final byte[] LED = ascii("led(");
+    private static final byte[] SERVO = ascii("servo(");
+    private static final byte[] ON = ascii(", on)\n");
+    private static final byte[] OFF = ascii(", off)\n");
+    private static final byte[] STATUS = ascii("status(");
+    private static final byte[] STATUS_END = ascii(", ok)\n");
+    private static final byte[] SHUTDOWN = ascii("shutdown()\n");
+    private static final byte[] COMMAND_END = ascii(")\n");
+    private static final byte[] OK_TOKEN = ascii("ok");
+    private static final byte[] READY_TOKEN = ascii("ready");
+    private static final byte[] ERROR_TOKEN = ascii("error");
+    private static final byte[][] SERVO_KEYWORDS = servoKeywords();
+
+    private static final ArduinoResponse OK = new ArduinoResponse(ResponseType.OK, ArduinoResponse.NO_SEQUENCE, "ok");
+    private static final ArduinoResponse READY = new ArduinoResponse(ResponseType.READY, ArduinoResponse.NO_SEQUENCE, "ready");
+    private static final ArduinoResponse ERROR = new ArduinoResponse(ResponseType.ERROR, ArduinoResponse.NO_SEQUENCE, "error");
+
+    private static final int MAX_INT_DIGITS = 11;
+
+    private final Map<String, byte[]> deviceNames = new ConcurrentHashMap<>();
+
+    @Override
+    public void encode(ArduinoCommand command, int sequence, ByteBuffer buffer) {
+        int start = buffer.position();
+        try {
+            write(command, buffer);
+        } catch (BufferOverflowException e) {
+            buffer.position(start);
+            throw e;
+        }
+    }
+
+    @Override
+    public ResponseDecoder newDecoder(InputStream inputStream) {
+        SerialLineReader lineReader = new SerialLineReader(inputStream);
+        return deadlineNanos -> {
+            while (lineReader.readLine(deadlineNanos)) {
+                if (!lineReader.isBlank()) {
+                    return parse(lineReader);
+                }
+            }
+            return null;
+        };
+    }
+
+    private void write(ArduinoCommand command, ByteBuffer buffer) {
+        switch (command.opcode()) {
+            case LED -> {
+                buffer.put(LED).put(deviceName(command));
+                buffer.put(command.first() != 0 ? ON : OFF);
+            }
+            case SERVO_ANGLE, SWEEP, HALF_SWEEP, REVERSE_HALF_SWEEP, REVERSE_SWEEP -> {
+                buffer.put(SERVO).put(deviceName(command)).put(SERVO_KEYWORDS[command.opcode().ordinal()]);
+                for (int i = 0; i < command.opcode().getArgumentCount(); i++) {
+                    if (i > 0) {
+                        buffer.put((byte) ' ');
+                    }
+                    putInt(buffer, command.argument(i));
+                }
+                buffer.put(COMMAND_END);
+            }
+            case STATUS -> buffer.put(STATUS).put(deviceName(command)).put(STATUS_END);
+            case SHUTDOWN -> buffer.put(SHUTDOWN);
+        }
+    }
+
+    private byte[] deviceName(ArduinoCommand command) {
+        return deviceNames.computeIfAbsent(command.device(), TextCommandCodec::utf8);
+    }
+
+    /**
+     * Writes the decimal representation of a number without going through a String.
+     *
+     * @param buffer The buffer to write to
+     * @param value  The number
+     */
+    static void putInt(ByteBuffer buffer, int value) {
+        if (value == Integer.MIN_VALUE) {
+            buffer.put(ascii(Integer.toString(value)));
+            return;
+        }
+        if (value < 0) {
+            buffer.put((byte) '-');
+            value = -value;
+        }
+        int digits = 1;
+        for (int rest = value / 10; rest > 0; rest /= 10) {
+            digits++;
+        }
+        if (buffer.remaining() < digits) {
+            throw new BufferOverflowException();
+        }
+        int end = buffer.position() + digits;
+        for (int index = end - 1; index >= buffer.position(); index--) {
+            buffer.put(index, (byte) ('0' + value % 10));
+            value /= 10;
+        }
+        buffer.position(end);
+    }
+
+    /**
+     * Decodes the current line of the reader, which must not be blank.
+     *
+     * @param lineReader The line reader holding a complete line
+     * @return The response, a shared instance for the known responses
+     */
+    private static ArduinoResponse parse(SerialLineReader lineReader) {
+        if (lineReader.matches(OK_TOKEN)) {
+            return OK;
+        }
+        if (lineReader.matches(READY_TOKEN)) {
+            return READY;
+        }
+        if (lineReader.matches(ERROR_TOKEN)) {
+            return ERROR;
+        }
+        return new ArduinoResponse(ResponseType.NOTICE, ArduinoResponse.NO_SEQUENCE, lineReader.getLine().trim());
+    }
+
+    private static byte[][] servoKeywords() {
+        byte[][] keywords = new byte[Opcode.values().length][];
+        for (Opcode opcode : Opcode.values()) {
+            keywords[opcode.ordinal()] = ascii(", " + opcode.getKeyword() + " ");
+        }
+        return keywords;
+    }
+
+    private static byte[] ascii(String text) {
+        return text.getBytes(StandardCharsets.US_ASCII);
+    }
+
+    private static byte[] utf8(String text) {
+        return text.getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,34 @@
+package org.dbs.robot.driverrobot.arduino.sequence;
+
+import java.util.List;
+
+/**
+ * A choreography of LED and servo commands, run on the server by the {@link SequenceRunner}
+ * instead of being driven step by step by a client.
+ *
+ * @param name  A name for the sequence, shown in its status and logs; may be null
+ * @param steps The steps, in order
+ */
+public record Sequence(String name, List<SequenceStep> steps) {
+
+    /**
+     * Parses a sequence written in the script language, one step per line or separated by semicolons:
+     * <pre>
+     * led red on
+     * servo head 90
+     * sweep head 0 180 5            # also half-sweep, reverse-half-sweep and reverse-sweep
+     * wait 250                      # milliseconds
+     * parallel { servo head 0 | servo arm 180; wait 100; servo arm 90 }
+     * loop 3 { led red on; wait 100; led red off; wait 100 }
+     * </pre>
+     * The branches of a parallel block are separated by {@code |}. Text after {@code #} is a comment.
+     *
+     * @param name   A name for the sequence; may be null
+     * @param script The script
+     * @return The parsed sequence
+     * @throws IllegalArgumentException if the script is malformed
+     */
+    public static Sequence parse(String name, String script) {
+        return new Sequence(name, new SequenceParser(script).parse());
+    }
+}
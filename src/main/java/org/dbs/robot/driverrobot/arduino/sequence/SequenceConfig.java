@@ -0,0 +1,30 @@
+package org.dbs.robot.driverrobot.arduino.sequence;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Configuration properties of the sequence runner.
+ * These properties can be set in application.properties or application.yml.
+ *
+ * Example:
+ * arduino.sequence.max-commands=10000
+ * arduino.sequence.retained-runs=20
+ */
+@Data
+@ConfigurationProperties(prefix = "arduino.sequence")
+public class SequenceConfig {
+
+    /**
+     * The maximum number of device commands of a sequence, once its loops are unrolled.
+     * Longer sequences are refused, so that a loop count typo cannot keep a board busy for hours.
+     * Default is 10000.
+     */
+    private int maxCommands = 10000;
+
+    /**
+     * The number of finished runs whose status can still be queried.
+     * Default is 20.
+     */
+    private int retainedRuns = 20;
+}
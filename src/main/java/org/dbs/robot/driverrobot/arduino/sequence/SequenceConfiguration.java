@@ -0,0 +1,26 @@
+package org.dbs.robot.driverrobot.arduino.sequence;
+
+import org.dbs.robot.driverrobot.arduino.AsyncArduinoController;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Spring configuration of the sequence runner.
+ */
+@Configuration
+@EnableConfigurationProperties(SequenceConfig.class)
+public class SequenceConfiguration {
+
+    /**
+     * Creates the SequenceRunner bean sending its commands through the AsyncArduinoController.
+     *
+     * @param controller The asynchronous Arduino controller
+     * @param config     The sequence configuration properties
+     * @return An instance of SequenceRunner
+     */
+    @Bean
+    public SequenceRunner sequenceRunner(AsyncArduinoController controller, SequenceConfig config) {
+        return new SequenceRunner(controller, config.getMaxCommands(), config.getRetainedRuns());
+    }
+}
@@ -0,0 +1,164 @@
+package org.dbs.robot.driverrobot.arduino.sequence;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Handle on a sequence run by the {@link SequenceRunner}, to follow its progress, pause, resume or stop it.
+ */
+public class SequenceExecution {
+
+    private final String id;
+    private final Sequence sequence;
+    private final SequenceTimeline timeline;
+    private final CompletableFuture<SequenceStatus> result = new CompletableFuture<>();
+    private final AtomicReference<SequenceState> state = new AtomicReference<>(SequenceState.RUNNING);
+    private final AtomicInteger failedCommands = new AtomicInteger();
+    private volatile boolean stopped;
+    private volatile int sentCommands;
+    private volatile int batches;
+    private volatile long maxLatenessNanos;
+    private volatile Thread thread;
+
+    /**
+     * Constructor for SequenceExecution.
+     *
+     * @param id       The identifier of the run
+     * @param sequence The sequence being run
+     * @param timeline The compiled sequence
+     */
+    SequenceExecution(String id, Sequence sequence, SequenceTimeline timeline) {
+        this.id = id;
+        this.sequence = sequence;
+        this.timeline = timeline;
+    }
+
+    /**
+     * Gets the identifier of the run.
+     *
+     * @return The identifier
+     */
+    public String getId() {
+        return id;
+    }
+
+    /**
+     * Gets the sequence being run.
+     *
+     * @return The sequence
+     */
+    public Sequence getSequence() {
+        return sequence;
+    }
+
+    /**
+     * Gets the outcome of the run, completed once every command sent is acknowledged or failed,
+     * after the last step or after the run was stopped.
+     *
+     * @return A future completed with the final status of the run
+     */
+    public CompletableFuture<SequenceStatus> getResult() {
+        return result;
+    }
+
+    /**
+     * Gets the current state of the run.
+     *
+     * @return The state
+     */
+    public SequenceState getState() {
+        return state.get();
+    }
+
+    /**
+     * Gets the progress of the run, or its outcome once finished.
+     *
+     * @return The status
+     */
+    public SequenceStatus getStatus() {
+        return new SequenceStatus(id, sequence.name(), state.get(), timeline.cues().size(), sentCommands,
+                failedCommands.get(), batches, maxLatenessNanos / (double) TimeUnit.MILLISECONDS.toNanos(1));
+    }
+
+    /**
+     * Pauses the run before its next step. The commands already sent are not recalled.
+     *
+     * @return true if the run was paused, false if it was not running
+     */
+    public boolean pause() {
+        if (state.compareAndSet(SequenceState.RUNNING, SequenceState.PAUSED)) {
+            LockSupport.unpark(thread);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Resumes a paused run. The rest of the schedule is shifted by the time spent paused.
+     *
+     * @return true if the run was resumed, false if it was not paused
+     */
+    public boolean resume() {
+        if (state.compareAndSet(SequenceState.PAUSED, SequenceState.RUNNING)) {
+            LockSupport.unpark(thread);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Stops the run before its next step, even if it is paused. The devices stay where the last steps left them.
+     *
+     * @return true if the run was stopped, false if it was already finished
+     */
+    public boolean stop() {
+        if (state.get().isFinished()) {
+            return false;
+        }
+        stopped = true;
+        LockSupport.unpark(thread);
+        return true;
+    }
+
+    /**
+     * Checks if the run was asked to stop.
+     *
+     * @return true if the run was stopped, false otherwise
+     */
+    public boolean isStopped() {
+        return stopped;
+    }
+
+    SequenceTimeline getTimeline() {
+        return timeline;
+    }
+
+    boolean isPaused() {
+        return state.get() == SequenceState.PAUSED;
+    }
+
+    void setThread(Thread thread) {
+        this.thread = thread;
+    }
+
+    void sent(int commands, long latenessNanos) {
+        sentCommands += commands;
+        batches++;
+        if (latenessNanos > maxLatenessNanos) {
+            maxLatenessNanos = latenessNanos;
+        }
+    }
+
+    void failed(int commands) {
+        failedCommands.addAndGet(commands);
+    }
+
+    void finish() {
+        state.set(stopped ? SequenceState.STOPPED
+                : failedCommands.get() > 0 ? SequenceState.FAILED : SequenceState.COMPLETED);
+        result.complete(getStatus());
+    }
+}
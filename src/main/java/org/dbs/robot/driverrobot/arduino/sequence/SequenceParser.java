@@ -0,0 +1,177 @@
+package org.dbs.robot.driverrobot.arduino.sequence;
+
+import org.dbs.robot.driverrobot.arduino.protocol.Opcode;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+
+/**
+ * Recursive-descent parser of the script language described in {@link Sequence#parse(String, String)}.
+ * Line breaks and semicolons both end a step; braces and bars are tokens of their own.
+ */
+class SequenceParser {
+
+    private static final String END = "";
+
+    private final List<String> tokens = new ArrayList<>();
+    private int position;
+
+    /**
+     * Constructor for SequenceParser.
+     *
+     * @param script The script to parse
+     */
+    SequenceParser(String script) {
+        for (String line : script.split("\\R")) {
+            int comment = line.indexOf('#');
+            String code = comment >= 0 ? line.substring(0, comment) : line;
+            for (String token : code.replaceAll("([{};|])", " $1 ").trim().split("\\s+")) {
+                if (!token.isEmpty()) {
+                    tokens.add(token);
+                }
+            }
+            tokens.add(";");
+        }
+    }
+
+    /**
+     * Parses the whole script.
+     *
+     * @return The steps of the script, in order
+     * @throws IllegalArgumentException if the script is malformed
+     */
+    List<SequenceStep> parse() {
+        List<SequenceStep> steps = steps();
+        if (!peek().equals(END)) {
+            throw error("Unexpected '" + peek() + "'");
+        }
+        if (steps.isEmpty()) {
+            throw new IllegalArgumentException("The script has no step");
+        }
+        return steps;
+    }
+
+    /**
+     * Parses steps up to the end of the script, a closing brace or a branch separator.
+     */
+    private List<SequenceStep> steps() {
+        List<SequenceStep> steps = new ArrayList<>();
+        while (true) {
+            String token = peek();
+            if (token.equals(";")) {
+                position++;
+            } else if (token.equals(END) || token.equals("}") || token.equals("|")) {
+                return steps;
+            } else {
+                steps.add(step());
+            }
+        }
+    }
+
+    private SequenceStep step() {
+        String keyword = next().toLowerCase(Locale.ROOT);
+        return switch (keyword) {
+            case "led" -> new SequenceStep.Led(name(keyword), ledState());
+            case "servo" -> new SequenceStep.Servo(name(keyword), number("angle"));
+            case "wait" -> new SequenceStep.Wait(number("milliseconds"));
+            case "parallel" -> parallel();
+            case "loop" -> {
+                int count = number("count");
+                yield new SequenceStep.Loop(count, block());
+            }
+            default -> movement(keyword)
+                    .map(movement -> (SequenceStep) new SequenceStep.Sweep(name(keyword), movement,
+                            number("start angle"), number("end angle"), number("speed")))
+                    .orElseThrow(() -> error("Unknown step '" + keyword + "'"));
+        };
+    }
+
+    private SequenceStep parallel() {
+        expect("{");
+        List<List<SequenceStep>> branches = new ArrayList<>();
+        do {
+            branches.add(steps());
+        } while (accept("|"));
+        expect("}");
+        return new SequenceStep.Parallel(branches);
+    }
+
+    private List<SequenceStep> block() {
+        expect("{");
+        List<SequenceStep> steps = steps();
+        expect("}");
+        return steps;
+    }
+
+    private String name(String keyword) {
+        String name = next();
+        if (!isWord(name)) {
+            throw error("Missing device name after '" + keyword + "'");
+        }
+        return name;
+    }
+
+    private boolean ledState() {
+        String state = next().toLowerCase(Locale.ROOT);
+        return switch (state) {
+            case "on", "true" -> true;
+            case "off", "false" -> false;
+            default -> throw error("Malformed LED state '" + state + "'");
+        };
+    }
+
+    private int number(String what) {
+        String token = next();
+        try {
+            return Integer.parseInt(token);
+        } catch (NumberFormatException e) {
+            throw error("Malformed " + what + " '" + token + "'");
+        }
+    }
+
+    private static Optional<Opcode> movement(String keyword) {
+        return Arrays.stream(Opcode.values())
+                .filter(opcode -> opcode.isServoMovement() && opcode.getKeyword().equals(keyword))
+                .findFirst();
+    }
+
+    private static boolean isWord(String token) {
+        return !token.equals(END) && !token.equals(";") && !token.equals("{") && !token.equals("}") && !token.equals("|");
+    }
+
+    private void expect(String token) {
+        if (!accept(token)) {
+            throw error("Expected '" + token + "' but found '" + peek() + "'");
+        }
+    }
+
+    private boolean accept(String token) {
+        while (peek().equals(";") && !token.equals(";")) {
+            position++;
+        }
+        if (peek().equals(token)) {
+            position++;
+            return true;
+        }
+        return false;
+    }
+
+    private String peek() {
+        return position < tokens.size() ? tokens.get(position) : END;
+    }
+
+    private String next() {
+        String token = peek();
+        if (position < tokens.size()) {
+            position++;
+        }
+        return token;
+    }
+
+    private IllegalArgumentException error(String message) {
+        return new IllegalArgumentException(message + " at token " + (position + 1) + " of the script");
+    }
+}
@@ -0,0 +1,249 @@
+package org.dbs.robot.driverrobot.arduino.sequence;
+
+import lombok.extern.slf4j.Slf4j;
+import org.dbs.robot.driverrobot.arduino.AsyncArduinoController;
+import org.dbs.robot.driverrobot.arduino.DeviceOperation;
+import org.dbs.robot.driverrobot.arduino.protocol.Opcode;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
+
+/**
+ * Runs sequences on the server, so that a choreography costs one request instead of one request per step.
+ * Each sequence is compiled into a timeline and run on its own thread. Step n is due at start + its offset,
+ * computed from the start time rather than by sleeping after the previous step, so timing errors never accumulate.
+ * Commands are pipelined: a step is sent without waiting for the acknowledgement of the previous ones, and the LED
+ * and servo steps due at the same instant are sent in one batched write, so the sequence runs at the speed of the
+ * serial link rather than at the speed of round-trips. A paused sequence shifts the rest of its schedule by the time
+ * spent paused.
+ */
+@Slf4j
+public class SequenceRunner implements AutoCloseable {
+
+    /**
+     * Parking overshoots by a few hundred microseconds, so the end of the wait for a step is spent spinning.
+     */
+    private static final long SPIN_NANOS = TimeUnit.MICROSECONDS.toNanos(200);
+
+    private final AsyncArduinoController controller;
+    private final int maxCommands;
+    private final int retainedRuns;
+    private final ConcurrentMap<String, SequenceExecution> executions = new ConcurrentHashMap<>();
+    private final Queue<String> finished = new ConcurrentLinkedQueue<>();
+
+    /**
+     * Constructor for SequenceRunner.
+     *
+     * @param controller   The controller sending the commands to the Arduino boards
+     * @param maxCommands  The maximum number of device commands of a sequence, with its loops unrolled
+     * @param retainedRuns The number of finished runs whose status is kept
+     */
+    public SequenceRunner(AsyncArduinoController controller, int maxCommands, int retainedRuns) {
+        if (maxCommands < 1) {
+            throw new IllegalArgumentException("The maximum number of commands must be positive: " + maxCommands);
+        }
+        this.controller = controller;
+        this.maxCommands = maxCommands;
+        this.retainedRuns = Math.max(retainedRuns, 0);
+    }
+
+    /**
+     * Starts running a sequence. The steps due at its start are sent immediately.
+     *
+     * @param sequence The sequence to run
+     * @return The handle on the run, to follow, pause, resume or stop it
+     * @throws IllegalArgumentException if a step is invalid or the sequence has too many commands
+     */
+    public SequenceExecution start(Sequence sequence) {
+        SequenceTimeline timeline = SequenceTimeline.compile(sequence, maxCommands);
+        SequenceExecution execution = new SequenceExecution(UUID.randomUUID().toString(), sequence, timeline);
+        Thread thread = new Thread(() -> run(execution), "sequence-" + execution.getId());
+        thread.setDaemon(true);
+        execution.setThread(thread);
+        executions.put(execution.getId(), execution);
+        log.info("Running sequence {} ({}): {} commands over {} ms", execution.getId(), sequence.name(),
+                timeline.cues().size(), TimeUnit.NANOSECONDS.toMillis(timeline.duration()));
+        thread.start();
+        return execution;
+    }
+
+    /**
+     * Finds a run that is in progress or among the last finished ones.
+     *
+     * @param id The identifier of the run
+     * @return The run, or empty if it is unknown
+     */
+    public Optional<SequenceExecution> find(String id) {
+        return Optional.ofNullable(executions.get(id));
+    }
+
+    /**
+     * Gets the runs in progress and the last finished ones.
+     *
+     * @return The runs, in no particular order
+     */
+    public List<SequenceExecution> getExecutions() {
+        return List.copyOf(executions.values());
+    }
+
+    /**
+     * Stops the sequences being run.
+     */
+    @Override
+    public void close() {
+        executions.values().forEach(SequenceExecution::stop);
+    }
+
+    private void run(SequenceExecution execution) {
+        SequenceTimeline timeline = execution.getTimeline();
+        List<SequenceTimeline.Cue> cues = timeline.cues();
+        List<CompletableFuture<?>> pending = new ArrayList<>();
+        try {
+            long start = System.nanoTime();
+            int next = 0;
+            while (next < cues.size()) {
+                long offset = cues.get(next).offset();
+                start = awaitOffset(start, offset, execution);
+                if (execution.isStopped()) {
+                    break;
+                }
+                int end = next;
+                while (end < cues.size() && cues.get(end).offset() == offset) {
+                    end++;
+                }
+                send(cues.subList(next, end), System.nanoTime() - (start + offset), execution, pending);
+                next = end;
+            }
+            awaitOffset(start, timeline.duration(), execution);
+            CompletableFuture.allOf(pending.toArray(CompletableFuture[]::new)).handle((result, error) -> null).join();
+        } catch (RuntimeException e) {
+            log.error("Sequence {} failed", execution.getId(), e);
+        } finally {
+            retire(execution.getId());
+            execution.finish();
+            log.info("Sequence finished: {}", execution.getStatus());
+        }
+    }
+
+    /**
+     * Sends the steps due at the same instant, in order: consecutive LED and servo steps in one batch,
+     * and each sweep on its own.
+     */
+    private void send(List<SequenceTimeline.Cue> cues, long latenessNanos, SequenceExecution execution,
+                      List<CompletableFuture<?>> pending) {
+        List<DeviceOperation> batch = new ArrayList<>();
+        for (SequenceTimeline.Cue cue : cues) {
+            switch (cue.step()) {
+                case SequenceStep.Led led -> batch.add(DeviceOperation.led(led.name(), led.state()));
+                case SequenceStep.Servo servo -> batch.add(DeviceOperation.servoPosition(servo.name(), servo.angle()));
+                case SequenceStep.Sweep sweep -> {
+                    sendBatch(batch, latenessNanos, execution, pending);
+                    batch = new ArrayList<>();
+                    execution.sent(1, latenessNanos);
+                    pending.add(track(1, execution, () -> sweep(sweep)
+                            .thenApply(success -> success ? 0 : 1)));
+                }
+                default -> throw new IllegalStateException("Not a device step: " + cue.step());
+            }
+        }
+        sendBatch(batch, latenessNanos, execution, pending);
+    }
+
+    private void sendBatch(List<DeviceOperation> batch, long latenessNanos, SequenceExecution execution,
+                           List<CompletableFuture<?>> pending) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        execution.sent(batch.size(), latenessNanos);
+        pending.add(track(batch.size(), execution, () -> controller.executeBatch(batch)
+                .thenApply(results -> (int) results.stream().filter(success -> !success).count())));
+    }
+
+    private CompletableFuture<Boolean> sweep(SequenceStep.Sweep sweep) {
+        Opcode movement = sweep.movement();
+        return switch (movement) {
+            case SWEEP -> controller.sweep(sweep.name(), sweep.startAngle(), sweep.endAngle(), sweep.speed());
+            case HALF_SWEEP -> controller.halfSweep(sweep.name(), sweep.startAngle(), sweep.endAngle(), sweep.speed());
+            case REVERSE_HALF_SWEEP ->
+                    controller.reverseHalfSweep(sweep.name(), sweep.startAngle(), sweep.endAngle(), sweep.speed());
+            case REVERSE_SWEEP ->
+                    controller.reverseSweep(sweep.name(), sweep.startAngle(), sweep.endAngle(), sweep.speed());
+            default -> throw new IllegalStateException("Not a servo movement: " + movement);
+        };
+    }
+
+    /**
+     * Sends commands and counts the ones that fail, including when they are refused or their device is unknown.
+     */
+    private static CompletableFuture<?> track(int commands, SequenceExecution execution,
+                                              Supplier<CompletableFuture<Integer>> send) {
+        CompletableFuture<Integer> failures;
+        try {
+            failures = send.get();
+        } catch (RuntimeException e) {
+            failures = CompletableFuture.failedFuture(e);
+        }
+        return failures.handle((failed, error) -> {
+            if (error != null) {
+                log.debug("{} command(s) of sequence {} failed", commands, execution.getId(), error);
+            }
+            int count = error != null ? commands : failed;
+            if (count > 0) {
+                execution.failed(count);
+            }
+            return null;
+        });
+    }
+
+    /**
+     * Waits until an offset from the start of the sequence, parking until shortly before it then spinning.
+     * While the run is paused, the start is pushed back by the time spent paused.
+     *
+     * @return The start of the sequence, shifted by the pauses
+     */
+    private static long awaitOffset(long start, long offset, SequenceExecution execution) {
+        while (!execution.isStopped()) {
+            if (execution.isPaused()) {
+                long pausedAt = System.nanoTime();
+                while (execution.isPaused() && !execution.isStopped()) {
+                    LockSupport.park(execution);
+                }
+                start += System.nanoTime() - pausedAt;
+                continue;
+            }
+            long remaining = start + offset - System.nanoTime();
+            if (remaining <= 0) {
+                break;
+            }
+            if (remaining > SPIN_NANOS) {
+                LockSupport.parkNanos(execution, remaining - SPIN_NANOS);
+            } else {
+                Thread.onSpinWait();
+            }
+        }
+        return start;
+    }
+
+    /**
+     * Keeps the status of the last finished runs only.
+     */
+    private void retire(String id) {
+        finished.add(id);
+        while (finished.size() > retainedRuns) {
+            String oldest = finished.poll();
+            if (oldest != null) {
+                executions.remove(oldest);
+            }
+        }
+    }
+}
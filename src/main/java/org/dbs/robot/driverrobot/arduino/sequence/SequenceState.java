@@ -0,0 +1,36 @@
+package org.dbs.robot.driverrobot.arduino.sequence;
+
+/**
+ * States of a sequence run by the {@link SequenceRunner}.
+ */
+public enum SequenceState {
+    /**
+     * The steps are being sent on schedule.
+     */
+    RUNNING,
+    /**
+     * No step is sent until the run is resumed; the rest of the schedule is shifted by the pause.
+     */
+    PAUSED,
+    /**
+     * Every step was sent and acknowledged.
+     */
+    COMPLETED,
+    /**
+     * Every step was sent, but at least one of them was not acknowledged.
+     */
+    FAILED,
+    /**
+     * The run was stopped before its end.
+     */
+    STOPPED;
+
+    /**
+     * Checks if the run is over.
+     *
+     * @return true for COMPLETED, FAILED and STOPPED, false otherwise
+     */
+    public boolean isFinished() {
+        return this == COMPLETED || this == FAILED || this == STOPPED;
+    }
+}
@@ -0,0 +1,18 @@
+package org.dbs.robot.driverrobot.arduino.sequence;
+
+/**
+ * Progress, or outcome once finished, of a sequence run by the {@link SequenceRunner}.
+ *
+ * @param id             The identifier of the run
+ * @param name           The name of the sequence, or null
+ * @param state          The state of the run
+ * @param totalCommands  The number of device commands of the sequence, with its loops unrolled
+ * @param sentCommands   The number of device commands sent so far
+ * @param failedCommands The number of device commands the Arduino did not acknowledge so far
+ * @param batches        The number of writes sent so far; LED and servo commands due at the same instant
+ *                       share one batched write
+ * @param maxLatenessMs  The longest delay between the time a step was due and the time it was sent, in milliseconds
+ */
+public record SequenceStatus(String id, String name, SequenceState state, int totalCommands, int sentCommands,
+                             int failedCommands, int batches, double maxLatenessMs) {
+}
@@ -0,0 +1,94 @@
+package org.dbs.robot.driverrobot.arduino.sequence;
+
+import com.fasterxml.jackson.annotation.JsonSubTypes;
+import com.fasterxml.jackson.annotation.JsonTypeInfo;
+import org.dbs.robot.driverrobot.arduino.protocol.Opcode;
+
+import java.util.List;
+
+/**
+ * A step of a {@link Sequence}. In JSON, the kind of step is given by its {@code type} property:
+ * {@code led}, {@code servo}, {@code sweep}, {@code wait}, {@code parallel} or {@code loop}.
+ * Device steps only send a command and take no time on the timeline of the sequence; the time between them
+ * is set by the wait steps.
+ */
+@JsonTypeInfo(use = JsonTypeInfo.Id.NAME, property = "type")
+@JsonSubTypes({
+        @JsonSubTypes.Type(value = SequenceStep.Led.class, name = "led"),
+        @JsonSubTypes.Type(value = SequenceStep.Servo.class, name = "servo"),
+        @JsonSubTypes.Type(value = SequenceStep.Sweep.class, name = "sweep"),
+        @JsonSubTypes.Type(value = SequenceStep.Wait.class, name = "wait"),
+        @JsonSubTypes.Type(value = SequenceStep.Parallel.class, name = "parallel"),
+        @JsonSubTypes.Type(value = SequenceStep.Loop.class, name = "loop")
+})
+public sealed interface SequenceStep {
+
+    /**
+     * Turns an LED on or off.
+     *
+     * @param name  The name identifier of the LED
+     * @param state true to turn the LED on, false to turn it off
+     */
+    record Led(String name, boolean state) implements SequenceStep {
+    }
+
+    /**
+     * Positions a servomotor.
+     *
+     * @param name  The name identifier of the servomotor
+     * @param angle The angle to position the servomotor, between 0 and 180 degrees
+     */
+    record Servo(String name, int angle) implements SequenceStep {
+    }
+
+    /**
+     * Starts a sweep movement performed by the firmware.
+     * The movement takes time on the board but not on the timeline: follow it with a wait step
+     * long enough for the servomotor to get there.
+     *
+     * @param name       The name identifier of the servomotor
+     * @param movement   The movement: SWEEP, HALF_SWEEP, REVERSE_HALF_SWEEP or REVERSE_SWEEP; SWEEP if null
+     * @param startAngle The starting angle of the movement
+     * @param endAngle   The ending angle of the movement
+     * @param speed      The speed of the movement (higher values mean faster movement)
+     */
+    record Sweep(String name, Opcode movement, int startAngle, int endAngle, int speed) implements SequenceStep {
+
+        /**
+         * Gets the movement, defaulting to a full sweep.
+         *
+         * @return The movement
+         */
+        @Override
+        public Opcode movement() {
+            return movement != null ? movement : Opcode.SWEEP;
+        }
+    }
+
+    /**
+     * Waits before the next step.
+     *
+     * @param ms The time to wait, in milliseconds
+     */
+    record Wait(long ms) implements SequenceStep {
+    }
+
+    /**
+     * Runs several branches from the same instant. Each branch runs its steps in order from the start of the block,
+     * and the block ends when its longest branch ends. LED and servo steps of different branches due at the same
+     * instant are sent in one batch.
+     *
+     * @param branches The branches, each a list of steps in order
+     */
+    record Parallel(List<List<SequenceStep>> branches) implements SequenceStep {
+    }
+
+    /**
+     * Repeats steps.
+     *
+     * @param count The number of times to run the steps, at least 1
+     * @param steps The steps to repeat, in order
+     */
+    record Loop(int count, List<SequenceStep> steps) implements SequenceStep {
+    }
+}
@@ -0,0 +1,125 @@
+package org.dbs.robot.driverrobot.arduino.sequence;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A sequence compiled into the device steps it sends, each at its offset from the start of the sequence.
+ * Waits advance the offset, loops are unrolled and the branches of parallel blocks are merged, so running
+ * the sequence is a single walk through the cues in time order.
+ *
+ * @param cues     The device steps in time order; steps due at the same offset keep the order of the script
+ * @param duration The offset at which the sequence ends, in nanoseconds
+ */
+record SequenceTimeline(List<Cue> cues, long duration) {
+
+    /**
+     * A device step due at an offset from the start of the sequence.
+     *
+     * @param offset The offset in nanoseconds
+     * @param step   The LED, servo or sweep step
+     */
+    record Cue(long offset, SequenceStep step) {
+    }
+
+    /**
+     * Compiles a sequence, validating its steps.
+     *
+     * @param sequence    The sequence to compile
+     * @param maxCommands The maximum number of device commands once the loops are unrolled
+     * @return The timeline of the sequence
+     * @throws IllegalArgumentException if a step is invalid or the sequence has too many commands
+     */
+    static SequenceTimeline compile(Sequence sequence, int maxCommands) {
+        if (sequence.steps() == null || sequence.steps().isEmpty()) {
+            throw new IllegalArgumentException("The sequence has no step");
+        }
+        List<Cue> cues = new ArrayList<>();
+        long duration = compile(sequence.steps(), 0, cues, maxCommands);
+        cues.sort(Comparator.comparingLong(Cue::offset));
+        return new SequenceTimeline(List.copyOf(cues), duration);
+    }
+
+    /**
+     * Appends the cues of steps run in order from an offset.
+     *
+     * @return The offset at which the steps end
+     */
+    private static long compile(List<SequenceStep> steps, long offset, List<Cue> cues, int maxCommands) {
+        if (steps == null) {
+            throw new IllegalArgumentException("Missing steps");
+        }
+        for (SequenceStep step : steps) {
+            switch (step) {
+                case SequenceStep.Led led -> {
+                    checkName(led.name());
+                    add(cues, new Cue(offset, led), maxCommands);
+                }
+                case SequenceStep.Servo servo -> {
+                    checkName(servo.name());
+                    checkAngle(servo.angle());
+                    add(cues, new Cue(offset, servo), maxCommands);
+                }
+                case SequenceStep.Sweep sweep -> {
+                    checkName(sweep.name());
+                    if (!sweep.movement().isServoMovement()) {
+                        throw new IllegalArgumentException("Not a servo movement: " + sweep.movement());
+                    }
+                    checkAngle(sweep.startAngle());
+                    checkAngle(sweep.endAngle());
+                    add(cues, new Cue(offset, sweep), maxCommands);
+                }
+                case SequenceStep.Wait wait -> {
+                    if (wait.ms() < 0) {
+                        throw new IllegalArgumentException("Negative wait: " + wait.ms() + " ms");
+                    }
+                    offset += TimeUnit.MILLISECONDS.toNanos(wait.ms());
+                }
+                case SequenceStep.Parallel parallel -> {
+                    if (parallel.branches() == null || parallel.branches().isEmpty()) {
+                        throw new IllegalArgumentException("A parallel block needs at least one branch");
+                    }
+                    long end = offset;
+                    for (List<SequenceStep> branch : parallel.branches()) {
+                        end = Math.max(end, compile(branch, offset, cues, maxCommands));
+                    }
+                    offset = end;
+                }
+                case SequenceStep.Loop loop -> {
+                    if (loop.count() < 1) {
+                        throw new IllegalArgumentException("A loop must run at least once: " + loop.count());
+                    }
+                    if (loop.steps() == null || loop.steps().isEmpty()) {
+                        throw new IllegalArgumentException("A loop needs at least one step");
+                    }
+                    for (int i = 0; i < loop.count(); i++) {
+                        offset = compile(loop.steps(), offset, cues, maxCommands);
+                    }
+                }
+                case null -> throw new IllegalArgumentException("Missing step");
+            }
+        }
+        return offset;
+    }
+
+    private static void add(List<Cue> cues, Cue cue, int maxCommands) {
+        if (cues.size() >= maxCommands) {
+            throw new IllegalArgumentException("The sequence sends more than " + maxCommands + " commands");
+        }
+        cues.add(cue);
+    }
+
+    private static void checkName(String name) {
+        if (name == null || name.isBlank()) {
+            throw new IllegalArgumentException("Missing device name");
+        }
+    }
+
+    private static void checkAngle(int angle) {
+        if (angle < 0 || angle > 180) {
+            throw new IllegalArgumentException("Angle out of range [0, 180]: " + angle);
+        }
+    }
+}
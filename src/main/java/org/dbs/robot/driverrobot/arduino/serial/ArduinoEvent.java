@@ -0,0 +1,83 @@
+package org.dbs.robot.driverrobot.arduino.serial;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import org.dbs.robot.driverrobot.arduino.protocol.ArduinoCommand;
+
+import java.time.Instant;
+
+/**
+ * Something that happened on the serial link of a board, pushed to the event subscribers.
+ * Only the fields of the event type are set; the others are null.
+ *
+ * @param type        The kind of event
+ * @param board       The name of the board
+ * @param timestamp   When the event happened
+ * @param command     For an acknowledgement, the command, in its readable form
+ * @param success     For an acknowledgement, true if the Arduino answered with the expected response
+ * @param device      For an acknowledgement or a device state, the name of the LED or servomotor, if any
+ * @param deviceState For a device state, the state acknowledged by the Arduino
+ * @param connection  For a connection event, the new state of the connection
+ * @param line        For an unsolicited response or a notice, the raw line sent by the Arduino
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record ArduinoEvent(ArduinoEventType type, String board, Instant timestamp, String command, Boolean success,
+                           String device, DeviceState deviceState, ConnectionState connection, String line) {
+
+    /**
+     * Creates the event of a command that got its outcome.
+     *
+     * @param board   The name of the board
+     * @param command The command
+     * @param success true if the Arduino answered with the expected response
+     * @return The event
+     */
+    public static ArduinoEvent acknowledgement(String board, ArduinoCommand command, boolean success) {
+        return new ArduinoEvent(ArduinoEventType.ACKNOWLEDGEMENT, board, Instant.now(), command.toString(), success,
+                command.device(), null, null, null);
+    }
+
+    /**
+     * Creates the event of a device state acknowledged by the Arduino.
+     *
+     * @param device The name of the LED or servomotor
+     * @param state  The new state
+     * @return The event
+     */
+    public static ArduinoEvent deviceState(String device, DeviceState state) {
+        return new ArduinoEvent(ArduinoEventType.DEVICE_STATE, state.board(), state.acknowledgedAt(), null, null,
+                device, state, null, null);
+    }
+
+    /**
+     * Creates the event of a change of the connection state.
+     *
+     * @param board The name of the board
+     * @param state The new connection state
+     * @return The event
+     */
+    public static ArduinoEvent connection(String board, ConnectionState state) {
+        return new ArduinoEvent(ArduinoEventType.CONNECTION, board, Instant.now(), null, null, null, null, state, null);
+    }
+
+    /**
+     * Creates the event of a response that answers no command.
+     *
+     * @param board The name of the board
+     * @param line  The raw line
+     * @return The event
+     */
+    public static ArduinoEvent unsolicited(String board, String line) {
+        return new ArduinoEvent(ArduinoEventType.UNSOLICITED, board, Instant.now(), null, null, null, null, null, line);
+    }
+
+    /**
+     * Creates the event of a line printed by the firmware on its own.
+     *
+     * @param board The name of the board
+     * @param line  The raw line
+     * @return The event
+     */
+    public static ArduinoEvent notice(String board, String line) {
+        return new ArduinoEvent(ArduinoEventType.NOTICE, board, Instant.now(), null, null, null, null, null, line);
+    }
+}
@@ -0,0 +1,23 @@
+package org.dbs.robot.driverrobot.arduino.serial;
+
+/**
+ * Receives the events of the serial communicators.
+ * Events are published from the serial reader and supervisor threads, so implementations must return
+ * quickly and never block: a slow listener would delay every response of the board.
+ */
+@FunctionalInterface
+public interface ArduinoEventListener {
+
+    /**
+     * Listener ignoring every event.
+     */
+    ArduinoEventListener NONE = event -> {
+    };
+
+    /**
+     * Called for each event, in the order the events happened on a board.
+     *
+     * @param event The event
+     */
+    void onEvent(ArduinoEvent event);
+}
@@ -0,0 +1,31 @@
+package org.dbs.robot.driverrobot.arduino.serial;
+
+/**
+ * Kinds of events published by the serial communicators.
+ */
+public enum ArduinoEventType {
+    /**
+     * A command got its outcome: acknowledged by the Arduino, failed, timed out or rejected.
+     */
+    ACKNOWLEDGEMENT,
+
+    /**
+     * The Arduino acknowledged a new state for an LED or a servomotor.
+     */
+    DEVICE_STATE,
+
+    /**
+     * The connection with a board changed state.
+     */
+    CONNECTION,
+
+    /**
+     * The Arduino sent a response that answers no command in flight, such as a response arriving after its deadline.
+     */
+    UNSOLICITED,
+
+    /**
+     * The firmware printed a line on its own, such as a movement completion notice or a debug print.
+     */
+    NOTICE
+}
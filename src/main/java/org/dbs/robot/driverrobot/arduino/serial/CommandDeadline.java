@@ -0,0 +1,33 @@
+package org.dbs.robot.driverrobot.arduino.serial;
+
+import java.time.Duration;
+
+/**
+ * The instant past which a command is no longer useful to its caller, such as the deadline of an HTTP request.
+ * It travels with the command through the queue: a command still queued at its deadline is dropped before being
+ * written, and its future completes exceptionally with a {@link CommandExpiredException}, as does a command in flight
+ * whose response did not arrive in time.
+ *
+ * @param nanoTime The deadline, as a {@link System#nanoTime()} value
+ */
+public record CommandDeadline(long nanoTime) {
+
+    /**
+     * Creates the deadline falling after a time from now.
+     *
+     * @param timeout The time left to the commands
+     * @return The deadline
+     */
+    public static CommandDeadline after(Duration timeout) {
+        return new CommandDeadline(System.nanoTime() + timeout.toNanos());
+    }
+
+    /**
+     * Gets the time left before the deadline.
+     *
+     * @return The remaining time in nanoseconds, zero or negative if the deadline has passed
+     */
+    public long remainingNanos() {
+        return nanoTime - System.nanoTime();
+    }
+}
@@ -0,0 +1,17 @@
+package org.dbs.robot.driverrobot.arduino.serial;
+
+/**
+ * Exception completing the future of a command sent with a {@link CommandDeadline} when the deadline passed
+ * before the Arduino acknowledged the command, whether it was still queued or already in flight.
+ */
+public class CommandExpiredException extends RuntimeException {
+
+    /**
+     * Constructor for CommandExpiredException.
+     *
+     * @param message The command and the stage it reached
+     */
+    public CommandExpiredException(String message) {
+        super(message);
+    }
+}
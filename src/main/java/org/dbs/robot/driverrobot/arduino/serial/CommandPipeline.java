@@ -0,0 +1,592 @@
+package org.dbs.robot.driverrobot.arduino.serial;
+
+import lombok.extern.slf4j.Slf4j;
+import org.dbs.robot.driverrobot.arduino.protocol.ArduinoCommand;
+import org.dbs.robot.driverrobot.arduino.protocol.ArduinoResponse;
+import org.dbs.robot.driverrobot.arduino.protocol.CommandCodec;
+import org.dbs.robot.driverrobot.arduino.protocol.ResponseDecoder;
+import org.dbs.robot.driverrobot.arduino.protocol.ResponseType;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Pipelined command engine for one serial link.
+ * A writer thread sends queued commands while keeping at most the limit of its {@link InFlightWindow} of commands
+ * in flight, and a reader thread matches each response to the oldest command
+ * in flight. The Arduino answers commands in the order it receives them. The reader feeds the round-trip
+ * latency of each response, and each timeout, back to the window, which may adapt its limit.
+ * <p>
+ * The reader demultiplexes everything the Arduino sends: notices the firmware prints on its own never take
+ * the place of a response, and responses carrying a sequence number go to the command sent with it, so a lost
+ * or late response fails only its own command instead of shifting every later response by one. Responses
+ * without a sequence number, on the text protocol, are matched in FIFO order. Lines that answer no command
+ * are handed to the listener.
+ * Commands are encoded by the codec into a buffer owned by the writer thread, and
+ * a batch of commands is written with a single flush. With a {@link WriteCoalescer}, the entries of concurrent
+ * callers queued behind the first one are gathered into the same flush while the link is busy.
+ * With a {@link CreditWindow}, the writer also keeps the bytes in flight within the receive buffer of the Arduino:
+ * it flushes what it has encoded and waits for responses to return credits before sending a command that does
+ * not fit.
+ * With a {@link RetransmitPolicy}, delivery is reliable on a protocol that echoes sequence numbers: a command whose
+ * acknowledgement is missing, because a later command was answered first or the link stayed silent past the
+ * retransmission timeout, is put back at the head of the queue and sent again alone, with a new sequence number,
+ * instead of failing, unless a later command for the same device superseded it.
+ * Corrupt acknowledgements are discarded and end up handled as missing ones.
+ * The writer thread is the single owner of the output stream, so concurrent callers
+ * can never interleave their writes or take each other's responses.
+ * <p>
+ * A pipeline lives as long as one connection: the queue outlives it, and the commands still
+ * in flight when it stops are handed back to the owner, which decides whether to send them again.
+ */
+@Slf4j
+class CommandPipeline {
+
+    private static final long READ_POLL_NANOS = TimeUnit.MILLISECONDS.toNanos(50);
+    private static final long STOP_TIMEOUT_MS = 1000;
+    private static final int WRITE_BUFFER_SIZE = 512;
+
+    private final String portName;
+    private final OutputStream outputStream;
+    private final CommandCodec codec;
+    private final ResponseDecoder decoder;
+    private final ByteBuffer writeBuffer = ByteBuffer.allocate(WRITE_BUFFER_SIZE);
+    private final InFlightWindow window;
+    private final CommandQueue outbound;
+    private final Listener listener;
+    private final SerialMetrics metrics;
+    private final WriteCoalescer coalescer;
+    private final CreditWindow credits;
+    private final RetransmitPolicy retransmits;
+    private final AtomicBoolean linkLost = new AtomicBoolean();
+    private final Queue<SerialCommand> inFlight = new ConcurrentLinkedQueue<>();
+    private final Thread writerThread;
+    private final Thread readerThread;
+    private volatile boolean running;
+    private int nextSequence;
+    private int drainedBytes;
+    private int flushCommands;
+
+    /**
+     * Constructor for CommandPipeline.
+     *
+     * @param portName     The name of the serial port, used to name the I/O threads
+     * @param outputStream The output stream of the serial port
+     * @param codec        The codec encoding the commands
+     * @param decoder      The decoder of the responses read from the serial port
+     * @param window       The window limiting the number of commands awaiting a response at the same time
+     * @param outbound     The queue of commands waiting to be sent
+     * @param listener     The listener notified of the health of the link
+     * @param metrics      The metrics of the board
+     * @param coalescer    The window gathering the entries of concurrent callers into one flush,
+     *                     or null to flush each entry on its own
+     * @param credits      The budget of bytes sent and not yet acknowledged,
+     *                     or null to send without credit-based flow control
+     * @param retransmits  The policy sending again the commands whose acknowledgement is missing or corrupt,
+     *                     or null to fail them
+     */
+    CommandPipeline(String portName, OutputStream outputStream, CommandCodec codec, ResponseDecoder decoder,
+                    InFlightWindow window, CommandQueue outbound, Listener listener, SerialMetrics metrics,
+                    WriteCoalescer coalescer, CreditWindow credits, RetransmitPolicy retransmits) {
+        this.portName = portName;
+        this.outbound = outbound;
+        this.listener = listener;
+        this.metrics = metrics;
+        this.coalescer = coalescer;
+        this.credits = credits;
+        this.retransmits = retransmits;
+        this.outputStream = outputStream;
+        this.codec = codec;
+        this.decoder = decoder;
+        this.window = window;
+        this.writerThread = new Thread(this::writeLoop, "serial-writer-" + portName);
+        this.readerThread = new Thread(this::readLoop, "serial-reader-" + portName);
+        writerThread.setDaemon(true);
+        readerThread.setDaemon(true);
+    }
+
+    /**
+     * Starts the writer and reader threads.
+     */
+    void start() {
+        running = true;
+        writerThread.start();
+        readerThread.start();
+        log.debug("Command pipeline started on port {}", portName);
+    }
+
+    /**
+     * Stops the writer and reader threads. The queued commands are left in the queue.
+     *
+     * @return The commands sent that did not get their response, in the order they were sent
+     */
+    List<SerialCommand> stop() {
+        running = false;
+        writerThread.interrupt();
+        readerThread.interrupt();
+        try {
+            writerThread.join(STOP_TIMEOUT_MS);
+            readerThread.join(STOP_TIMEOUT_MS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        List<SerialCommand> unanswered = new ArrayList<>();
+        SerialCommand command;
+        while ((command = inFlight.poll()) != null) {
+            unanswered.add(command);
+        }
+        log.debug("Command pipeline stopped on port {}", portName);
+        return unanswered;
+    }
+
+    /**
+     * Gets the number of commands sent and awaiting a response.
+     *
+     * @return The number of commands in flight
+     */
+    int getInFlightCount() {
+        return inFlight.size();
+    }
+
+    /**
+     * Gets the current maximum number of commands awaiting a response.
+     *
+     * @return The limit of the in-flight window
+     */
+    int getWindowLimit() {
+        return window.limit();
+    }
+
+    private void writeLoop() {
+        try {
+            while (running) {
+                window.awaitSlot();
+                List<SerialCommand> entry = unexpired(outbound.take());
+                if (!entry.isEmpty()) {
+                    write(entry);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Writes a command or a batch of commands, followed with a coalescer by the entries gathered behind it,
+     * with a single flush.
+     * The buffer is written out early if the commands do not fit in it, and a command
+     * that cannot be encoded fails alone without affecting the rest of the flush.
+     * If the write fails, the commands stay in flight until the owner stops the pipeline,
+     * since the Arduino may have received some of them.
+     *
+     * @param entry The commands to write
+     * @throws InterruptedException if interrupted while waiting for more commands to coalesce
+     */
+    private void write(List<SerialCommand> entry) throws InterruptedException {
+        writeBuffer.clear();
+        drainedBytes = 0;
+        flushCommands = 0;
+        try {
+            boolean idle = inFlight.isEmpty();
+            send(entry);
+            if (coalescer != null) {
+                coalescer.flushed(1 + coalesce(idle));
+            }
+            drain();
+            outputStream.flush();
+            metrics.flushed(flushCommands);
+        } catch (IOException e) {
+            log.error("Error sending {} command(s) on port {}", flushCommands, portName, e);
+            linkFailed(e);
+        }
+    }
+
+    /**
+     * Gathers the entries queued behind the first one of a flush, and while the link is busy the entries
+     * arriving within the linger time of the coalescer, as long as the in-flight window has room for them.
+     *
+     * @param idle true if no command was in flight when the first entry was taken
+     * @return The number of entries gathered
+     */
+    private int coalesce(boolean idle) throws IOException, InterruptedException {
+        long deadline = System.nanoTime() + coalescer.lingerNanos(idle);
+        int entries = 0;
+        while (!coalescer.isFull(drainedBytes + writeBuffer.position())) {
+            int room = window.available();
+            if (room == 0) {
+                break;
+            }
+            List<SerialCommand> next = outbound.poll(room, deadline - System.nanoTime());
+            if (next == null) {
+                break;
+            }
+            List<SerialCommand> entry = unexpired(next);
+            if (!entry.isEmpty()) {
+                send(entry);
+                entries++;
+            }
+        }
+        return entries;
+    }
+
+    /**
+     * Encodes commands into the write buffer and puts them in flight. A command waiting for credits
+     * is not in flight yet, so that it cannot be evicted before its bytes are written.
+     * If the writer is interrupted while waiting, the commands of the entry not yet in flight fail.
+     */
+    private void send(List<SerialCommand> entry) throws IOException, InterruptedException {
+        for (int i = 0; i < entry.size(); i++) {
+            SerialCommand command = entry.get(i);
+            log.debug("Sending command: {}", command.getCommand());
+            try {
+                if (!encode(command)) {
+                    continue;
+                }
+            } catch (InterruptedException e) {
+                entry.subList(i, entry.size()).forEach(SerialCommand::fail);
+                throw e;
+            }
+            window.occupy(1);
+            inFlight.add(command);
+            command.markSent(System.nanoTime());
+            flushCommands++;
+        }
+    }
+
+    /**
+     * Leaves out the commands whose deadline passed while they were queued, so that the link is not spent
+     * on commands their caller no longer waits for.
+     */
+    private List<SerialCommand> unexpired(List<SerialCommand> taken) {
+        List<SerialCommand> entry = taken.stream()
+                .filter(command -> !command.isDone())
+                .toList();
+        if (entry.size() < taken.size()) {
+            metrics.queuedTimeouts(taken.size() - entry.size());
+        }
+        return entry;
+    }
+
+    /**
+     * Encodes a command into the write buffer, once the receive buffer of the Arduino has room for it
+     * with credit-based flow control.
+     *
+     * @return true if the command is encoded, false if it cannot be encoded or expired before being written
+     */
+    private boolean encode(SerialCommand command) throws IOException, InterruptedException {
+        int sequence = nextSequence;
+        try {
+            int bytes = encode(command.getCommand(), sequence);
+            if (credits != null && !credits.tryAcquire(bytes)) {
+                writeBuffer.position(writeBuffer.position() - bytes);
+                awaitCredits(bytes);
+                encode(command.getCommand(), sequence);
+            }
+            // Marked before the last check, so that a command whose deadline passes from now on counts as sent
+            command.markWritten();
+            if (command.isDone()) {
+                writeBuffer.position(writeBuffer.position() - bytes);
+                if (credits != null) {
+                    credits.release(bytes);
+                }
+                metrics.queuedTimeouts(1);
+                return false;
+            }
+            command.setCredits(credits != null ? bytes : 0);
+            command.setSequence(sequence);
+            nextSequence = (sequence + 1) & 0xFF;
+            return true;
+        } catch (BufferOverflowException | IllegalArgumentException e) {
+            log.error("Cannot encode command: {}", command.getCommand(), e);
+            abandon(command);
+            return false;
+        }
+    }
+
+    /**
+     * Encodes a command at the end of the write buffer, writing the buffer out first if the command does not fit.
+     *
+     * @return The number of bytes of the encoded command
+     */
+    private int encode(ArduinoCommand command, int sequence) throws IOException {
+        int start = writeBuffer.position();
+        try {
+            codec.encode(command, sequence, writeBuffer);
+        } catch (BufferOverflowException e) {
+            drain();
+            start = 0;
+            codec.encode(command, sequence, writeBuffer);
+        }
+        return writeBuffer.position() - start;
+    }
+
+    /**
+     * Writes out and flushes the commands encoded so far, so that the Arduino answers them,
+     * then waits for their responses to return enough credits for the next command.
+     *
+     * @param bytes The number of bytes of the next command
+     */
+    private void awaitCredits(int bytes) throws IOException, InterruptedException {
+        drain();
+        outputStream.flush();
+        if (flushCommands > 0) {
+            metrics.flushed(flushCommands);
+            flushCommands = 0;
+        }
+        metrics.creditStall();
+        credits.acquire(bytes);
+    }
+
+    private void drain() throws IOException {
+        if (writeBuffer.position() > 0) {
+            outputStream.write(writeBuffer.array(), 0, writeBuffer.position());
+            metrics.bytesWritten(writeBuffer.position());
+            drainedBytes += writeBuffer.position();
+            writeBuffer.clear();
+        }
+    }
+
+    private void abandon(SerialCommand command) {
+        if (inFlight.remove(command)) {
+            release(command);
+        }
+        command.fail();
+    }
+
+    /**
+     * Frees the slot and the credits of a command leaving the flight.
+     */
+    private void release(SerialCommand command) {
+        window.release(1);
+        if (credits != null) {
+            credits.release(command.getCredits());
+        }
+    }
+
+    private void readLoop() {
+        try {
+            while (running) {
+                ArduinoResponse response = decoder.read(System.nanoTime() + READ_POLL_NANOS);
+                if (response == null) {
+                    evictExpired();
+                } else {
+                    dispatch(response);
+                }
+            }
+        } catch (IOException e) {
+            if (running) {
+                log.error("Error reading from serial port {}", portName, e);
+                linkFailed(e);
+            }
+        }
+    }
+
+    /**
+     * Reports the loss of the serial link to the listener, once, unless the pipeline is being stopped.
+     * The writer thread stops taking commands from the queue.
+     *
+     * @param cause The I/O error that revealed the loss of the link
+     */
+    private void linkFailed(IOException cause) {
+        if (running && linkLost.compareAndSet(false, true)) {
+            running = false;
+            listener.linkLost(cause);
+        }
+    }
+
+    /**
+     * Hands a response to the command it answers: the command sent with its sequence number if it carries one,
+     * the oldest command in flight otherwise. Notices are handed to the listener without touching the commands.
+     *
+     * @param response The decoded response
+     */
+    private void dispatch(ArduinoResponse response) {
+        if (response.type() == ResponseType.NOTICE) {
+            log.debug("Notice from the Arduino: {}", response.text());
+            metrics.notice();
+            listener.unsolicitedResponse(response);
+            return;
+        }
+        if (response.type() == ResponseType.INVALID && retransmits != null) {
+            log.debug("Discarding corrupt response: {}", response.text());
+            metrics.corruptResponse();
+            return;
+        }
+        SerialCommand command = hasSequence(response) ? pollSequence(response.sequence()) : inFlight.poll();
+        if (command == null) {
+            log.debug("Ignoring unsolicited response: {}", response.text());
+            metrics.unsolicitedResponse();
+            listener.unsolicitedResponse(response);
+            return;
+        }
+        release(command);
+        long roundTripNanos = command.getRoundTripNanos(System.nanoTime());
+        window.answered(roundTripNanos);
+        log.debug("Received response: {}", response.text());
+        metrics.recordRoundTrip(command.getCommand(), roundTripNanos);
+        if (response.type() != command.getCommand().expectedResponse()) {
+            metrics.unexpectedResponse();
+        }
+        listener.responseReceived();
+        command.complete(response);
+    }
+
+    private static boolean hasSequence(ArduinoResponse response) {
+        return response.sequence() != ArduinoResponse.NO_SEQUENCE && response.type() != ResponseType.INVALID;
+    }
+
+    /**
+     * Takes the command in flight sent with a sequence number. The Arduino answers in order, so the commands
+     * sent before it lost their response: they are sent again if the retransmit policy allows it, and failed
+     * at once otherwise instead of waiting for their deadline.
+     *
+     * @param sequence The sequence number echoed by the response
+     * @return The command, or null if no command in flight has this sequence number, for a late response
+     */
+    private SerialCommand pollSequence(int sequence) {
+        if (inFlight.stream().noneMatch(command -> command.getSequence() == sequence)) {
+            return null;
+        }
+        List<SerialCommand> sent = new ArrayList<>(inFlight);
+        List<SerialCommand> missed = new ArrayList<>();
+        SerialCommand answered = null;
+        Iterator<SerialCommand> commands = inFlight.iterator();
+        while (answered == null && commands.hasNext()) {
+            SerialCommand command = commands.next();
+            commands.remove();
+            if (command.getSequence() == sequence) {
+                answered = command;
+            } else {
+                release(command);
+                window.lost();
+                metrics.skippedResponse();
+                missed.add(command);
+            }
+        }
+        retransmitOrFail(missed, sent, "a later command was answered");
+        return answered;
+    }
+
+    /**
+     * Sends again the commands whose acknowledgement is missing, in the order they were sent, if the retransmit
+     * policy allows it, and fails the others. The commands are already out of flight.
+     * A command sent again goes out after the commands that followed it, so a command superseded by a later command
+     * for the same device, answered, in flight or sent again too, is failed instead: sending it again would leave
+     * its device in a stale state, such as a servomotor back at an old angle.
+     *
+     * @param missed The commands whose acknowledgement is missing
+     * @param sent   The commands that were in flight, in the order they were sent, including the missed ones
+     * @param reason Why the acknowledgement is known to be missing, for logging
+     */
+    private void retransmitOrFail(List<SerialCommand> missed, List<SerialCommand> sent, String reason) {
+        List<SerialCommand> resent = new ArrayList<>();
+        for (SerialCommand command : missed) {
+            if (retransmits != null && retransmits.canRetransmit(command) && isSuperseded(command, sent)) {
+                log.debug("No response received for command: {}, {}, superseded by a later command",
+                        command.getCommand(), reason);
+                command.fail();
+            } else if (retransmits != null && retransmits.canRetransmit(command)) {
+                command.retransmitted();
+                log.debug("No response received for command: {}, {}, sending it again", command.getCommand(), reason);
+                metrics.retransmit();
+                resent.add(command);
+            } else {
+                log.warn("No response received for command: {}, {}", command.getCommand(), reason);
+                command.fail();
+            }
+        }
+        if (!resent.isEmpty()) {
+            outbound.requeue(resent);
+        }
+    }
+
+    /**
+     * Checks if a command was followed by another command for the same device.
+     *
+     * @param command The command whose acknowledgement is missing
+     * @param sent    The commands that were in flight, in the order they were sent
+     * @return true if a command sent after it targets the same device
+     */
+    private static boolean isSuperseded(SerialCommand command, List<SerialCommand> sent) {
+        String device = command.getCommand().device();
+        int index = sent.indexOf(command);
+        return device != null && index >= 0 && sent.subList(index + 1, sent.size()).stream()
+                .anyMatch(later -> device.equals(later.getCommand().device()));
+    }
+
+    /**
+     * Gives up on the commands whose deadline passed while the link stayed silent, and with a retransmit policy
+     * sends again those whose acknowledgement is overdue.
+     * A response that is still on its way is consumed by its own command, so commands
+     * are only evicted once no line arrived for a whole read poll.
+     */
+    private void evictExpired() {
+        long now = System.nanoTime();
+        SerialCommand command;
+        while ((command = inFlight.peek()) != null && command.isExpired(now)) {
+            if (inFlight.remove(command)) {
+                release(command);
+                window.lost();
+                log.warn("No response received for command: {}", command.getCommand());
+                metrics.inFlightTimeout();
+                listener.responseMissed();
+                command.expire();
+            }
+        }
+        if (retransmits != null) {
+            List<SerialCommand> sent = new ArrayList<>(inFlight);
+            List<SerialCommand> overdue = new ArrayList<>();
+            for (SerialCommand candidate : inFlight) {
+                if (retransmits.isOverdue(candidate, now) && retransmits.canRetransmit(candidate)
+                        && inFlight.remove(candidate)) {
+                    release(candidate);
+                    window.lost();
+                    overdue.add(candidate);
+                }
+            }
+            retransmitOrFail(overdue, sent, "the link stayed silent");
+        }
+    }
+
+    /**
+     * Receives the events revealing the health of the serial link, and the lines that answer no command.
+     * The methods are called from the reader and writer threads and must not block.
+     */
+    interface Listener {
+
+        /**
+         * Called when a response arrived for a command in flight.
+         */
+        void responseReceived();
+
+        /**
+         * Called when a command in flight reached its deadline without a response while the link stayed silent.
+         */
+        void responseMissed();
+
+        /**
+         * Called when a line answering no command arrived: a notice of the firmware, a response while no command
+         * was in flight, or a response whose sequence number matches no command in flight.
+         *
+         * @param response The decoded line
+         */
+        void unsolicitedResponse(ArduinoResponse response);
+
+        /**
+         * Called once when reading or writing fails, which means the link is lost.
+         * The pipeline stops taking commands from the queue; the owner is expected to stop it.
+         *
+         * @param cause The I/O error
+         */
+        void linkLost(IOException cause);
+    }
+}
@@ -0,0 +1,23 @@
+package org.dbs.robot.driverrobot.arduino.serial;
+
+/**
+ * Priority lanes of the serial command queue.
+ * Commands of a higher lane are always sent before any queued command of a lower lane;
+ * within a lane, commands are sent in submission order.
+ */
+public enum CommandPriority {
+    /**
+     * Lifecycle commands such as status and shutdown, which must not wait behind device traffic.
+     */
+    HIGH,
+
+    /**
+     * Regular device commands.
+     */
+    NORMAL,
+
+    /**
+     * Bulk traffic, such as streamed servo motion, that yields to everything else.
+     */
+    LOW
+}
@@ -0,0 +1,210 @@
+package org.dbs.robot.driverrobot.arduino.serial;
+
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Bounded, prioritized queue of commands waiting for the writer thread of a serial link.
+ * Each {@link CommandPriority} has its own FIFO lane, and the capacity is shared by all lanes.
+ * When the queue is full, the configured {@link RejectionPolicy} decides what happens.
+ * An entry is either a single command or a batch of commands that must be sent together;
+ * a batch takes one slot of the capacity.
+ */
+class CommandQueue {
+
+    private static final CommandPriority[] PRIORITIES = CommandPriority.values();
+
+    private final int capacity;
+    private final RejectionPolicy rejectionPolicy;
+    private final ArrayDeque<List<SerialCommand>>[] lanes;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notEmpty = lock.newCondition();
+    private final Condition notFull = lock.newCondition();
+    private int size;
+
+    /**
+     * Constructor for CommandQueue.
+     *
+     * @param capacity        The maximum number of queued commands
+     * @param rejectionPolicy The behaviour when the queue is full
+     */
+    @SuppressWarnings("unchecked")
+    CommandQueue(int capacity, RejectionPolicy rejectionPolicy) {
+        this.capacity = Math.max(capacity, 1);
+        this.rejectionPolicy = rejectionPolicy;
+        this.lanes = new ArrayDeque[PRIORITIES.length];
+        for (int i = 0; i < lanes.length; i++) {
+            lanes[i] = new ArrayDeque<>();
+        }
+    }
+
+    /**
+     * Adds a command, or a batch of commands sharing the same priority, to its priority lane.
+     * If the queue is full, the entry or an older one is rejected according to the rejection policy:
+     * every command of the rejected entry is completed exceptionally with a {@link CommandRejectedException}.
+     *
+     * @param entry The command or batch of commands to queue
+     * @return true if the entry was queued, false if it was rejected
+     * @throws InterruptedException if interrupted while waiting for room in the queue
+     */
+    boolean offer(List<SerialCommand> entry) throws InterruptedException {
+        CommandPriority priority = entry.get(0).getPriority();
+        List<SerialCommand> rejected = null;
+        lock.lockInterruptibly();
+        try {
+            if (size >= capacity) {
+                switch (rejectionPolicy) {
+                    case FAIL_FAST -> rejected = entry;
+                    case BLOCK -> rejected = awaitRoom(entry);
+                    case DROP_OLDEST -> rejected = dropOldest(entry, priority);
+                }
+            }
+            if (rejected != entry) {
+                lanes[priority.ordinal()].addLast(entry);
+                size++;
+                notEmpty.signal();
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        if (rejected != null) {
+            CommandRejectedException cause = new CommandRejectedException("Command queue full (" + capacity
+                    + " entries), " + (rejected == entry ? "command rejected" : "oldest command dropped"));
+            rejected.forEach(command -> command.reject(cause));
+        }
+        return rejected != entry;
+    }
+
+    /**
+     * Puts commands back at the head of their priority lanes, ahead of the queued entries, in their original order.
+     * The commands were already admitted to the queue once, so they do not count against the capacity.
+     *
+     * @param commands The commands to send again, in the order they were first sent
+     */
+    void requeue(List<SerialCommand> commands) {
+        lock.lock();
+        try {
+            for (int i = commands.size() - 1; i >= 0; i--) {
+                SerialCommand command = commands.get(i);
+                lanes[command.getPriority().ordinal()].addFirst(List.of(command));
+                size++;
+            }
+            notEmpty.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Takes the oldest entry of the highest non-empty priority lane, waiting until one is available.
+     *
+     * @return The next command or batch of commands to send
+     * @throws InterruptedException if interrupted while waiting
+     */
+    List<SerialCommand> take() throws InterruptedException {
+        lock.lockInterruptibly();
+        try {
+            while (size == 0) {
+                notEmpty.await();
+            }
+            return removeFirst();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Takes the next entry without waiting.
+     *
+     * @return The next command or batch of commands to send, or null if the queue is empty
+     */
+    List<SerialCommand> poll() {
+        lock.lock();
+        try {
+            return size == 0 ? null : removeFirst();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Takes the next entry if it has at most a number of commands, waiting for one for at most a time.
+     * An entry with more commands is left at the head of its lane.
+     *
+     * @param maxCommands  The maximum number of commands of the entry
+     * @param timeoutNanos The maximum time to wait for an entry, in nanoseconds
+     * @return The next command or batch of commands to send, or null if none came in time or it is too large
+     * @throws InterruptedException if interrupted while waiting
+     */
+    List<SerialCommand> poll(int maxCommands, long timeoutNanos) throws InterruptedException {
+        lock.lockInterruptibly();
+        try {
+            long remaining = timeoutNanos;
+            while (size == 0) {
+                if (remaining <= 0) {
+                    return null;
+                }
+                remaining = notEmpty.awaitNanos(remaining);
+            }
+            for (ArrayDeque<List<SerialCommand>> lane : lanes) {
+                List<SerialCommand> entry = lane.peekFirst();
+                if (entry != null) {
+                    return entry.size() <= maxCommands ? removeFirst() : null;
+                }
+            }
+            throw new IllegalStateException("Command queue size out of sync with its lanes");
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Gets the number of queued entries.
+     *
+     * @return The number of queued commands and batches
+     */
+    int size() {
+        lock.lock();
+        try {
+            return size;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private List<SerialCommand> awaitRoom(List<SerialCommand> entry) throws InterruptedException {
+        long remaining = entry.get(0).getRemainingNanos();
+        while (size >= capacity) {
+            if (remaining <= 0) {
+                return entry;
+            }
+            remaining = notFull.awaitNanos(remaining);
+        }
+        return null;
+    }
+
+    private List<SerialCommand> dropOldest(List<SerialCommand> entry, CommandPriority priority) {
+        for (int i = lanes.length - 1; i >= priority.ordinal(); i--) {
+            if (!lanes[i].isEmpty()) {
+                size--;
+                return lanes[i].removeFirst();
+            }
+        }
+        return entry;
+    }
+
+    private List<SerialCommand> removeFirst() {
+        for (ArrayDeque<List<SerialCommand>> lane : lanes) {
+            List<SerialCommand> entry = lane.pollFirst();
+            if (entry != null) {
+                size--;
+                notFull.signal();
+                return entry;
+            }
+        }
+        throw new IllegalStateException("Command queue size out of sync with its lanes");
+    }
+}
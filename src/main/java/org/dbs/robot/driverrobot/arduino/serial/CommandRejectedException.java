@@ -0,0 +1,17 @@
+package org.dbs.robot.driverrobot.arduino.serial;
+
+/**
+ * Exception completing the future of a command that the serial command queue refused
+ * or dropped because it was full.
+ */
+public class CommandRejectedException extends RuntimeException {
+
+    /**
+     * Constructor for CommandRejectedException.
+     *
+     * @param message The reason of the rejection
+     */
+    public CommandRejectedException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,29 @@
+package org.dbs.robot.driverrobot.arduino.serial;
+
+/**
+ * States of the connection of a {@link SerialCommunicator} with its board.
+ */
+public enum ConnectionState {
+    /**
+     * The first connection attempt is in progress. Commands are not accepted.
+     */
+    CONNECTING,
+    /**
+     * The board answered the handshake and answers commands.
+     */
+    READY,
+    /**
+     * The serial link is up but the last command got no response before its deadline.
+     * The connection is READY again as soon as a response arrives.
+     */
+    DEGRADED,
+    /**
+     * The serial link is down and the port is being looked for again with exponential backoff.
+     * Commands are queued until the board is back or their deadline passes.
+     */
+    RECONNECTING,
+    /**
+     * The communicator was closed. Commands are not accepted.
+     */
+    CLOSED
+}
@@ -0,0 +1,42 @@
+package org.dbs.robot.driverrobot.arduino.serial;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Input stream of a serial port that reports the number of bytes read to the metrics of its board.
+ */
+class CountingInputStream extends FilterInputStream {
+
+    private final SerialMetrics metrics;
+
+    /**
+     * Constructor for CountingInputStream.
+     *
+     * @param inputStream The input stream of the serial port
+     * @param metrics     The metrics of the board
+     */
+    CountingInputStream(InputStream inputStream, SerialMetrics metrics) {
+        super(inputStream);
+        this.metrics = metrics;
+    }
+
+    @Override
+    public int read() throws IOException {
+        int b = super.read();
+        if (b >= 0) {
+            metrics.bytesRead(1);
+        }
+        return b;
+    }
+
+    @Override
+    public int read(byte[] buffer, int offset, int length) throws IOException {
+        int count = super.read(buffer, offset, length);
+        if (count > 0) {
+            metrics.bytesRead(count);
+        }
+        return count;
+    }
+}
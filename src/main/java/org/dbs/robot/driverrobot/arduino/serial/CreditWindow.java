@@ -0,0 +1,100 @@
+package org.dbs.robot.driverrobot.arduino.serial;
+
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Limits the number of bytes sent to the Arduino and not yet acknowledged, so that they never overflow
+ * the receive buffer of the board. Each command in flight holds the credits of its encoded bytes until
+ * its response arrives, since the firmware has read its line from the buffer by the time it answers.
+ * A command larger than the whole budget is still sent once nothing else is outstanding.
+ */
+class CreditWindow {
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition creditsReturned = lock.newCondition();
+    private final int budget;
+    private int outstanding;
+
+    /**
+     * Constructor for CreditWindow.
+     *
+     * @param budget The maximum number of bytes sent and not yet acknowledged
+     */
+    CreditWindow(int budget) {
+        this.budget = Math.max(budget, 1);
+    }
+
+    /**
+     * Takes the credits of a command if the budget has room for it, without waiting.
+     *
+     * @param bytes The number of bytes of the encoded command
+     * @return true if the credits were taken, false if the command has to wait for credits to return
+     */
+    boolean tryAcquire(int bytes) {
+        lock.lock();
+        try {
+            if (!fits(bytes)) {
+                return false;
+            }
+            outstanding += bytes;
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Waits until the budget has room for a command, then takes its credits.
+     *
+     * @param bytes The number of bytes of the encoded command
+     * @throws InterruptedException if interrupted while waiting
+     */
+    void acquire(int bytes) throws InterruptedException {
+        lock.lockInterruptibly();
+        try {
+            while (!fits(bytes)) {
+                creditsReturned.await();
+            }
+            outstanding += bytes;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the credits of a command that was answered, timed out or failed.
+     *
+     * @param bytes The number of bytes the command holds
+     */
+    void release(int bytes) {
+        if (bytes == 0) {
+            return;
+        }
+        lock.lock();
+        try {
+            outstanding = Math.max(outstanding - bytes, 0);
+            creditsReturned.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Gets the number of bytes sent and not yet acknowledged.
+     *
+     * @return The credits in use
+     */
+    int outstanding() {
+        lock.lock();
+        try {
+            return outstanding;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private boolean fits(int bytes) {
+        return outstanding == 0 || outstanding + bytes <= budget;
+    }
+}
@@ -0,0 +1,14 @@
+package org.dbs.robot.driverrobot.arduino.serial;
+
+import java.time.Instant;
+
+/**
+ * Last state of an LED or servomotor acknowledged by its Arduino board.
+ *
+ * @param board          The name of the board owning the device
+ * @param on             For an LED, true if it is on, false if it is off; null for a servomotor
+ * @param angle          For a servomotor, its angle in degrees; null for an LED
+ * @param acknowledgedAt When the board acknowledged the command that set this state
+ */
+public record DeviceState(String board, Boolean on, Integer angle, Instant acknowledgedAt) {
+}
@@ -0,0 +1,129 @@
+package org.dbs.robot.driverrobot.arduino.serial;
+
+import org.dbs.robot.driverrobot.arduino.protocol.ArduinoCommand;
+import org.dbs.robot.driverrobot.arduino.protocol.Opcode;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Last acknowledged state of the LEDs and servomotors of one board, used to skip commands that would not change it.
+ * A command is redundant only when the cached state already matches it and no other command for the same device
+ * is queued or in flight, since that command could change the state in the meantime.
+ * A state is only recorded once the Arduino acknowledged it; a failed or timed-out command makes the state of its
+ * device unknown, and so does a servo movement, whose final angle the host does not track.
+ * The cache is cleared when the board may have been reset, so that it never claims a state the board lost.
+ */
+class DeviceStateCache {
+
+    private final String board;
+    private final int servoDeadband;
+    private final ConcurrentMap<String, DeviceState> states = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, AtomicInteger> pending = new ConcurrentHashMap<>();
+
+    /**
+     * Constructor for DeviceStateCache.
+     *
+     * @param board         The name of the board
+     * @param servoDeadband The largest angle difference in degrees for which a servo command is considered redundant
+     */
+    DeviceStateCache(String board, int servoDeadband) {
+        this.board = board;
+        this.servoDeadband = Math.max(servoDeadband, 0);
+    }
+
+    /**
+     * Checks if a command would leave its device in the state it is already known to be in.
+     *
+     * @param command The command
+     * @return true if the command can be skipped, false if it must be sent
+     */
+    boolean isRedundant(ArduinoCommand command) {
+        Opcode opcode = command.opcode();
+        if (opcode != Opcode.LED && opcode != Opcode.SERVO_ANGLE) {
+            return false;
+        }
+        AtomicInteger outstanding = pending.get(command.device());
+        if (outstanding != null && outstanding.get() > 0) {
+            return false;
+        }
+        DeviceState state = states.get(command.device());
+        if (state == null) {
+            return false;
+        }
+        if (opcode == Opcode.LED) {
+            return state.on() != null && state.on() == (command.first() != 0);
+        }
+        return state.angle() != null && Math.abs(state.angle() - command.first()) <= servoDeadband;
+    }
+
+    /**
+     * Records that a command was queued for its device. Every submitted command must be completed.
+     *
+     * @param command The command
+     */
+    void submitted(ArduinoCommand command) {
+        if (tracks(command)) {
+            pending.computeIfAbsent(command.device(), device -> new AtomicInteger()).incrementAndGet();
+        }
+    }
+
+    /**
+     * Records the outcome of a submitted command.
+     *
+     * @param command      The command
+     * @param acknowledged true if the Arduino acknowledged the command, false if it failed or its outcome is unknown
+     * @param sent         false if the command was rejected or dropped before reaching the serial link,
+     *                     leaving the state as it was; a command that expired after being written may still
+     *                     have been executed, so it makes the state of its device unknown
+     * @return The state the command acknowledged for its device, or null if it recorded none
+     */
+    DeviceState completed(ArduinoCommand command, boolean acknowledged, boolean sent) {
+        if (command.opcode() == Opcode.SHUTDOWN && sent) {
+            states.clear();
+            return null;
+        }
+        if (!tracks(command)) {
+            return null;
+        }
+        DeviceState state = null;
+        if (acknowledged && command.opcode() == Opcode.LED) {
+            state = new DeviceState(board, command.first() != 0, null, Instant.now());
+        } else if (acknowledged && command.opcode() == Opcode.SERVO_ANGLE) {
+            state = new DeviceState(board, null, command.first(), Instant.now());
+        }
+        if (state != null) {
+            states.put(command.device(), state);
+        } else if (sent) {
+            states.remove(command.device());
+        }
+        pending.get(command.device()).decrementAndGet();
+        return state;
+    }
+
+    /**
+     * Forgets every state, for example because the board was reset.
+     * Commands still queued keep being tracked and record their state once acknowledged.
+     */
+    void invalidate() {
+        states.clear();
+    }
+
+    /**
+     * Gets the known states, by device name.
+     *
+     * @return A snapshot of the states, sorted by device name
+     */
+    Map<String, DeviceState> snapshot() {
+        return new TreeMap<>(states);
+    }
+
+    private static boolean tracks(ArduinoCommand command) {
+        return command.device() != null && (command.opcode() == Opcode.LED || command.opcode().isServoMovement()
+                || command.opcode() == Opcode.SERVO_ANGLE);
+    }
+}
@@ -0,0 +1,192 @@
+package org.dbs.robot.driverrobot.arduino.serial;
+
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Limits the number of commands sent to the Arduino and still awaiting their response.
+ * The writer waits for a free slot before sending a command or a batch; a batch is then
+ * sent as a whole, even if it takes the window over its limit, so that it goes out in one flush.
+ * <p>
+ * An adaptive window tunes its limit like the congestion window of TCP, additive increase and multiplicative
+ * decrease: each response received within the latency target grows the limit by one command per window
+ * of responses, and a timeout, a lost response or a response slower than the target halves it. Since the
+ * Arduino answers in order, a deeper window only makes the commands wait longer on the board once the link
+ * is saturated, so the limit settles where the latency reaches its target. The limit is cut at most once
+ * per window of responses, since the responses of the commands sent before a cut would cut it again.
+ */
+class InFlightWindow {
+
+    private static final double DECREASE_FACTOR = 0.5;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition slotFreed = lock.newCondition();
+    private final boolean adaptive;
+    private final int maxLimit;
+    private final long latencyTargetNanos;
+    private double size;
+    private int limit;
+    private int used;
+    private int responsesSinceDecrease = Integer.MAX_VALUE;
+
+    /**
+     * Constructor for a fixed InFlightWindow.
+     *
+     * @param limit The maximum number of commands in flight
+     */
+    InFlightWindow(int limit) {
+        this(limit, limit, 0, false);
+    }
+
+    private InFlightWindow(int initialLimit, int maxLimit, long latencyTargetNanos, boolean adaptive) {
+        this.maxLimit = Math.max(maxLimit, 1);
+        this.limit = Math.min(Math.max(initialLimit, 1), this.maxLimit);
+        this.size = limit;
+        this.latencyTargetNanos = latencyTargetNanos;
+        this.adaptive = adaptive;
+    }
+
+    /**
+     * Creates a window tuning its limit to the round-trip latency of the responses.
+     *
+     * @param initialLimit       The limit to start from
+     * @param maxLimit           The limit the window never grows beyond
+     * @param latencyTargetNanos The round-trip latency above which the limit is cut, in nanoseconds
+     * @return The adaptive window
+     */
+    static InFlightWindow adaptive(int initialLimit, int maxLimit, long latencyTargetNanos) {
+        return new InFlightWindow(initialLimit, maxLimit, latencyTargetNanos, true);
+    }
+
+    /**
+     * Waits until fewer commands than the limit are in flight.
+     *
+     * @throws InterruptedException if interrupted while waiting
+     */
+    void awaitSlot() throws InterruptedException {
+        lock.lockInterruptibly();
+        try {
+            while (used >= limit) {
+                slotFreed.await();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Gets the number of commands that can still be sent before the limit is reached.
+     *
+     * @return The number of free slots, 0 if the window is full
+     */
+    int available() {
+        lock.lock();
+        try {
+            return Math.max(limit - used, 0);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Gets the current maximum number of commands in flight.
+     *
+     * @return The limit of the window
+     */
+    int limit() {
+        lock.lock();
+        try {
+            return limit;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Records commands as sent.
+     *
+     * @param count The number of commands sent
+     */
+    void occupy(int count) {
+        lock.lock();
+        try {
+            used += count;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Records commands as answered, timed out or failed.
+     *
+     * @param count The number of commands leaving the window
+     */
+    void release(int count) {
+        lock.lock();
+        try {
+            used = Math.max(used - count, 0);
+            slotFreed.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Feeds the round-trip latency of a response to an adaptive window: the limit grows while the latency
+     * stays within the target and is cut when it goes over. A fixed window ignores it.
+     *
+     * @param roundTripNanos The time between writing the command and receiving its response
+     */
+    void answered(long roundTripNanos) {
+        if (!adaptive) {
+            return;
+        }
+        lock.lock();
+        try {
+            if (responsesSinceDecrease < Integer.MAX_VALUE) {
+                responsesSinceDecrease++;
+            }
+            if (roundTripNanos > latencyTargetNanos) {
+                decrease();
+            } else {
+                size = Math.min(size + 1 / size, maxLimit);
+                resize();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Cuts the limit of an adaptive window because a command timed out or lost its response.
+     * A fixed window ignores it.
+     */
+    void lost() {
+        if (!adaptive) {
+            return;
+        }
+        lock.lock();
+        try {
+            decrease();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void decrease() {
+        if (responsesSinceDecrease < limit) {
+            return;
+        }
+        size = Math.max(size * DECREASE_FACTOR, 1);
+        responsesSinceDecrease = 0;
+        resize();
+    }
+
+    private void resize() {
+        int previous = limit;
+        limit = (int) size;
+        if (limit > previous) {
+            slotFreed.signalAll();
+        }
+    }
+}
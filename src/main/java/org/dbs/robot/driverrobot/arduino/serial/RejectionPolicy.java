@@ -0,0 +1,22 @@
+package org.dbs.robot.driverrobot.arduino.serial;
+
+/**
+ * Behaviour of the serial command queue when it is full.
+ */
+public enum RejectionPolicy {
+    /**
+     * Rejects the new command immediately.
+     */
+    FAIL_FAST,
+
+    /**
+     * Blocks the caller until there is room in the queue, or until the command deadline passes.
+     */
+    BLOCK,
+
+    /**
+     * Rejects the oldest queued command of the lowest priority lane to make room for the new one.
+     * The new command is rejected instead if it has a lower priority than every queued command.
+     */
+    DROP_OLDEST
+}
@@ -0,0 +1,48 @@
+package org.dbs.robot.driverrobot.arduino.serial;
+
+/**
+ * Decides which commands in flight are sent again when their acknowledgement is missing or corrupt,
+ * for reliable delivery on a protocol whose responses echo the sequence number of their command.
+ * Only the idempotent commands are sent again, since the Arduino may have executed the command and only
+ * its acknowledgement was lost; the servo movements fail as before.
+ */
+final class RetransmitPolicy {
+
+    private final int maxRetransmits;
+    private final long timeoutNanos;
+
+    /**
+     * Constructor for RetransmitPolicy.
+     *
+     * @param maxRetransmits The number of times a command is sent again before it fails
+     * @param timeoutNanos   The time without acknowledgement after which a command is sent again,
+     *                       once the link went silent, in nanoseconds
+     */
+    RetransmitPolicy(int maxRetransmits, long timeoutNanos) {
+        this.maxRetransmits = maxRetransmits;
+        this.timeoutNanos = timeoutNanos;
+    }
+
+    /**
+     * Checks if a command whose acknowledgement is missing can be sent again.
+     *
+     * @param command The command in flight
+     * @return true if the command is idempotent, still awaited and has retransmissions left, false otherwise
+     */
+    boolean canRetransmit(SerialCommand command) {
+        return command.getCommand().opcode().isIdempotent()
+                && command.getRetransmits() < maxRetransmits
+                && !command.isDone();
+    }
+
+    /**
+     * Checks if a command waited for its acknowledgement longer than the retransmission timeout.
+     *
+     * @param command  The command in flight
+     * @param nowNanos The current {@link System#nanoTime()} value
+     * @return true if the acknowledgement is overdue, false otherwise
+     */
+    boolean isOverdue(SerialCommand command, long nowNanos) {
+        return command.getRoundTripNanos(nowNanos) >= timeoutNanos;
+    }
+}
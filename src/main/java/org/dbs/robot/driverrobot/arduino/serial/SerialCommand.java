@@ -0,0 +1,257 @@
+package org.dbs.robot.driverrobot.arduino.serial;
+
+import org.dbs.robot.driverrobot.arduino.protocol.ArduinoCommand;
+import org.dbs.robot.driverrobot.arduino.protocol.ArduinoResponse;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A command travelling through the command pipeline, together with the future
+ * that is completed when its response arrives or its deadline passes.
+ * At the end of a timeout the future completes with false; at a caller's {@link CommandDeadline} it completes
+ * exceptionally with a {@link CommandExpiredException}, so that the caller can tell a stale command from a failed one.
+ * A command written before the deadline of its caller stays in flight until its response arrives or the timeout
+ * of the link passes, so that a late response is consumed by its own command rather than by the next one.
+ */
+final class SerialCommand {
+
+    private static final ScheduledThreadPoolExecutor DEADLINES = deadlineTimer();
+
+    private final ArduinoCommand command;
+    private final CommandPriority priority;
+    private final long deadlineNanos;
+    private final long linkTimeoutNanos;
+    private final CompletableFuture<Boolean> result;
+    private final boolean callerDeadline;
+    private volatile long evictionNanos;
+    private long sentNanos;
+    private volatile int sequence = ArduinoResponse.NO_SEQUENCE;
+    private volatile int credits;
+    private volatile int retransmits;
+    private volatile boolean written;
+
+    /**
+     * Constructor for SerialCommand.
+     *
+     * @param command  The command to send
+     * @param priority The priority lane of the command
+     * @param timeout  The maximum time to wait for the response
+     */
+    SerialCommand(ArduinoCommand command, CommandPriority priority, Duration timeout) {
+        this.command = command;
+        this.priority = priority;
+        this.deadlineNanos = System.nanoTime() + timeout.toNanos();
+        this.linkTimeoutNanos = 0;
+        this.evictionNanos = deadlineNanos;
+        this.result = new CompletableFuture<Boolean>().completeOnTimeout(false, timeout.toNanos(), TimeUnit.NANOSECONDS);
+        this.callerDeadline = false;
+    }
+
+    /**
+     * Constructor for SerialCommand with the deadline of its caller.
+     *
+     * @param command     The command to send
+     * @param priority    The priority lane of the command
+     * @param deadline    The instant past which the command is no longer useful
+     * @param linkTimeout The maximum time a written command waits for its response before leaving the flight
+     */
+    SerialCommand(ArduinoCommand command, CommandPriority priority, CommandDeadline deadline, Duration linkTimeout) {
+        this.command = command;
+        this.priority = priority;
+        this.deadlineNanos = deadline.nanoTime();
+        this.linkTimeoutNanos = linkTimeout.toNanos();
+        this.evictionNanos = deadlineNanos;
+        this.result = new CompletableFuture<>();
+        this.callerDeadline = true;
+        ScheduledFuture<?> timer = DEADLINES.schedule(this::expire, Math.max(deadline.remainingNanos(), 0),
+                TimeUnit.NANOSECONDS);
+        result.whenComplete((success, error) -> timer.cancel(false));
+    }
+
+    private static ScheduledThreadPoolExecutor deadlineTimer() {
+        ScheduledThreadPoolExecutor timer = new ScheduledThreadPoolExecutor(1, runnable -> {
+            Thread thread = new Thread(runnable, "serial-command-deadlines");
+            thread.setDaemon(true);
+            return thread;
+        });
+        timer.setRemoveOnCancelPolicy(true);
+        return timer;
+    }
+
+    ArduinoCommand getCommand() {
+        return command;
+    }
+
+    CommandPriority getPriority() {
+        return priority;
+    }
+
+    CompletableFuture<Boolean> getResult() {
+        return result;
+    }
+
+    /**
+     * Records that the command was encoded into the write buffer, from which it reaches the serial link.
+     * Called by the writer thread. A command with the deadline of its caller then stays in flight
+     * until the timeout of the link, even if the deadline of its caller passes first.
+     */
+    void markWritten() {
+        if (callerDeadline) {
+            long linkDeadlineNanos = System.nanoTime() + linkTimeoutNanos;
+            this.evictionNanos = linkDeadlineNanos - deadlineNanos > 0 ? linkDeadlineNanos : deadlineNanos;
+        }
+        this.written = true;
+    }
+
+    /**
+     * Checks if the command was handed to the serial link, in which case the Arduino may execute it
+     * even if its future completed first.
+     *
+     * @return true if the command was encoded for the serial link, false if it was dropped or rejected before
+     */
+    boolean isWritten() {
+        return written;
+    }
+
+    /**
+     * Records when the command was written to the serial port. Called by the writer thread.
+     *
+     * @param nowNanos The current {@link System#nanoTime()} value
+     */
+    void markSent(long nowNanos) {
+        this.sentNanos = nowNanos;
+    }
+
+    /**
+     * Records the sequence number the command was encoded with. Called by the writer thread.
+     *
+     * @param sequence The sequence number
+     */
+    void setSequence(int sequence) {
+        this.sequence = sequence;
+    }
+
+    /**
+     * Gets the sequence number of the last encoding of the command, echoed by the codecs that carry one.
+     *
+     * @return The sequence number, or {@link ArduinoResponse#NO_SEQUENCE} if the command was not encoded
+     */
+    int getSequence() {
+        return sequence;
+    }
+
+    /**
+     * Records the receive buffer credits the command holds while in flight. Called by the writer thread.
+     *
+     * @param credits The number of bytes of the encoded command, or 0 without credit-based flow control
+     */
+    void setCredits(int credits) {
+        this.credits = credits;
+    }
+
+    /**
+     * Gets the receive buffer credits the command holds while in flight.
+     *
+     * @return The number of bytes of the encoded command, or 0 if it holds no credit
+     */
+    int getCredits() {
+        return credits;
+    }
+
+    /**
+     * Records that the command is sent again because its acknowledgement was missing or corrupt.
+     * Called by the reader thread.
+     */
+    void retransmitted() {
+        retransmits++;
+    }
+
+    /**
+     * Gets the number of times the command was sent again because its acknowledgement was missing or corrupt.
+     *
+     * @return The number of retransmissions
+     */
+    int getRetransmits() {
+        return retransmits;
+    }
+
+    /**
+     * Gets the time elapsed since the command was written to the serial port.
+     *
+     * @param nowNanos The current {@link System#nanoTime()} value
+     * @return The round-trip time so far, in nanoseconds
+     */
+    long getRoundTripNanos(long nowNanos) {
+        return nowNanos - sentNanos;
+    }
+
+    /**
+     * Gets the time left before the deadline of this command.
+     *
+     * @return The remaining time in nanoseconds, zero or negative if the deadline has passed
+     */
+    long getRemainingNanos() {
+        return deadlineNanos - System.nanoTime();
+    }
+
+    /**
+     * Checks if the command in flight can be given up on: its deadline passed, or for a command with the deadline
+     * of its caller, the later of that deadline and the timeout of the link since it was written.
+     *
+     * @param nowNanos The current {@link System#nanoTime()} value
+     * @return true if the command can leave the flight, false otherwise
+     */
+    boolean isExpired(long nowNanos) {
+        return nowNanos - evictionNanos >= 0;
+    }
+
+    /**
+     * Checks if the command no longer needs to be sent, because it timed out or was cancelled while queued.
+     *
+     * @return true if the result is already known, false otherwise
+     */
+    boolean isDone() {
+        return result.isDone();
+    }
+
+    /**
+     * Completes the command with the response received from the Arduino.
+     *
+     * @param response The decoded response
+     */
+    void complete(ArduinoResponse response) {
+        result.complete(response.type() == command.expectedResponse());
+    }
+
+    /**
+     * Completes the command because its deadline passed: exceptionally with a {@link CommandExpiredException}
+     * for the deadline of a caller, with false at the end of a timeout.
+     */
+    void expire() {
+        if (callerDeadline) {
+            result.completeExceptionally(new CommandExpiredException("Deadline passed before the acknowledgement of " + command));
+        } else {
+            result.complete(false);
+        }
+    }
+
+    /**
+     * Completes the command as failed.
+     */
+    void fail() {
+        result.complete(false);
+    }
+
+    /**
+     * Completes the command exceptionally because it was not accepted for sending.
+     *
+     * @param cause The reason of the rejection
+     */
+    void reject(RuntimeException cause) {
+        result.completeExceptionally(cause);
+    }
+}
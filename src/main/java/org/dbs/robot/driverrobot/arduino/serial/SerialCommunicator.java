@@ -1,72 +1,404 @@
 package org.dbs.robot.driverrobot.arduino.serial;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.composite.CompositeMeterRegistry;
 import lombok.extern.slf4j.Slf4j;
 import org.dbs.robot.driverrobot.arduino.config.ArduinoConfig;
+import org.dbs.robot.driverrobot.arduino.config.BoardConfig;
+import org.dbs.robot.driverrobot.arduino.protocol.ArduinoCommand;
+import org.dbs.robot.driverrobot.arduino.protocol.ArduinoResponse;
+import org.dbs.robot.driverrobot.arduino.protocol.CodecType;
+import org.dbs.robot.driverrobot.arduino.protocol.CommandCodec;
+import org.dbs.robot.driverrobot.arduino.protocol.ResponseDecoder;
+import org.dbs.robot.driverrobot.arduino.protocol.ResponseType;
 
-import java.io.BufferedReader;
 import java.io.IOException;
-import java.io.InputStreamReader;
+import java.io.InputStream;
 import java.io.OutputStream;
-import java.nio.charset.StandardCharsets;
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Semaphore;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.function.Supplier;
 
 /**
  * Class responsible for handling serial communication with the Arduino.
  * This class encapsulates all serial port operations, including initialization,
  * sending commands, and reading responses.
+ * Commands are encoded on the link by the configured {@link CommandCodec}.
+ * <p>
+ * Creating a communicator does not touch the serial port: {@link #connect()} starts a supervisor thread
+ * that opens it in the background and polls the Arduino with status commands until it answers "ready",
+ * so a slow or missing board never blocks the application startup.
+ * <p>
+ * The supervisor keeps the board connected, following the {@link ConnectionState} state machine.
+ * When the link drops, for example because the USB cable was unplugged, it looks for the port again
+ * with exponential backoff. The command queue survives the outage: queued commands are sent once the
+ * board is back, if their deadline has not passed. The commands that were in flight may or may not
+ * have reached the Arduino, so the idempotent ones are sent again and the others, the servo movements,
+ * are failed.
+ * <p>
+ * The command path is instrumented with Micrometer: round-trip latency per command type and device,
+ * queue depth, commands in flight, bytes written and read, timeouts, mismatched responses and reconnects.
+ * <p>
+ * The last acknowledged state of each LED and servomotor is cached, and LED and servo angle commands that
+ * would not change it are completed without touching the link. The cache is cleared whenever the board
+ * may have been reset: on reconnection, on shutdown and on close.
+ * <p>
+ * Readiness checks are answered from memory: every response proves that the board is alive, and while the link
+ * is idle the supervisor sends a status command every heartbeat interval. Only when the last sign of life is older
+ * than the readiness TTL does a check cost a round-trip, shared by all the checks made meanwhile.
+ * <p>
+ * The outcome of every command, every acknowledged device state, every change of the connection state and
+ * every line that answers no command, notices of the firmware included, are published to an {@link ArduinoEventListener}.
  */
 @Slf4j
 public class SerialCommunicator {
 
-    private static final int COMMAND_TIMEOUT_MS = 5000;
-    private static final long COMMAND_DELAY_MS = 200;
+    private static final int READ_POLL_INTERVAL_MS = 50;
+    private static final int HANDSHAKE_BUFFER_SIZE = 64;
+    private static final long STOP_TIMEOUT_MS = 2000;
 
+    private final String boardName;
     private final String portName;
     private final int baudRate;
+    private final Duration commandTimeout;
+    private final int pipelineDepth;
+    private final boolean writeCoalescing;
+    private final Duration writeCoalescingMaxDelay;
+    private final int writeCoalescingMaxBytes;
+    private final int creditBytes;
+    private final boolean adaptivePipeline;
+    private final int pipelineMaxDepth;
+    private final Duration pipelineLatencyTarget;
+    private final boolean reliableDelivery;
+    private final int maxRetransmits;
+    private final Duration retransmitTimeout;
+    private final CommandCodec codec;
+    private final Duration bootTimeout;
+    private final Duration handshakeInterval;
+    private final Duration reconnectInitialBackoff;
+    private final Duration reconnectMaxBackoff;
+    private final Duration heartbeatInterval;
+    private final Duration readinessTtl;
     private final SerialPortFactory serialPortFactory;
-    private SerialPortWrapper serialPort;
-    private BufferedReader reader;
+    private final CommandQueue queue;
+    private final SerialMetrics metrics;
+    private final DeviceStateCache deviceStates;
+    private final boolean suppressRedundantCommands;
+    private final ArduinoEventListener eventListener;
+    private final ReentrantLock stateLock = new ReentrantLock();
+    private final Semaphore linkLost = new Semaphore(0);
+    private final AtomicReference<CompletableFuture<Boolean>> readinessProbe = new AtomicReference<>();
+    private volatile long lastResponseNanos;
+    private volatile long lastProbeNanos;
+    private volatile boolean lastProbeReady;
+    private CompletableFuture<Boolean> connection;
+    private Thread supervisor;
+    private volatile ConnectionState state = ConnectionState.CONNECTING;
+    private volatile SerialPortWrapper serialPort;
+    private InputStream inputStream;
+    private ResponseDecoder decoder;
     private OutputStream outputStream;
+    private volatile CommandPipeline pipeline;
 
     /**
-     * Constructor for SerialCommunicator.
+     * Constructor for SerialCommunicator, for the single board of the configuration.
      *
      * @param config The Arduino configuration properties
      * @param serialPortFactory The factory for creating SerialPortWrapper instances
      */
     public SerialCommunicator(ArduinoConfig config, SerialPortFactory serialPortFactory) {
-        this.portName = config.getPort();
-        this.baudRate = config.getBaudrate();
+        this(config, config.getEffectiveBoards().get(0), serialPortFactory);
+    }
+
+    /**
+     * Constructor for SerialCommunicator, for one board of the configuration, without metrics.
+     *
+     * @param config The Arduino configuration properties shared by all boards
+     * @param board The board to connect to, with its baud rate resolved
+     * @param serialPortFactory The factory for creating SerialPortWrapper instances
+     */
+    public SerialCommunicator(ArduinoConfig config, BoardConfig board, SerialPortFactory serialPortFactory) {
+        this(config, board, serialPortFactory, new CompositeMeterRegistry());
+    }
+
+    /**
+     * Constructor for SerialCommunicator, for one board of the configuration.
+     *
+     * @param config The Arduino configuration properties shared by all boards
+     * @param board The board to connect to, with its baud rate resolved
+     * @param serialPortFactory The factory for creating SerialPortWrapper instances
+     * @param meterRegistry The registry of the metrics of the command path, tagged with the board name
+     */
+    public SerialCommunicator(ArduinoConfig config, BoardConfig board, SerialPortFactory serialPortFactory,
+                              MeterRegistry meterRegistry) {
+        this(config, board, serialPortFactory, meterRegistry, ArduinoEventListener.NONE);
+    }
+
+    /**
+     * Constructor for SerialCommunicator, for one board of the configuration, publishing its events.
+     *
+     * @param config The Arduino configuration properties shared by all boards
+     * @param board The board to connect to, with its baud rate resolved
+     * @param serialPortFactory The factory for creating SerialPortWrapper instances
+     * @param meterRegistry The registry of the metrics of the command path, tagged with the board name
+     * @param eventListener The listener of the events of the board, which must not block
+     */
+    public SerialCommunicator(ArduinoConfig config, BoardConfig board, SerialPortFactory serialPortFactory,
+                              MeterRegistry meterRegistry, ArduinoEventListener eventListener) {
+        this.boardName = board.getName();
+        this.portName = board.getPort();
+        this.baudRate = board.getBaudrate();
+        this.commandTimeout = Duration.ofMillis(config.getCommandTimeoutMs());
+        this.pipelineDepth = config.getPipelineDepth();
+        this.writeCoalescing = config.isWriteCoalescing();
+        this.writeCoalescingMaxDelay = Duration.ofNanos(TimeUnit.MICROSECONDS.toNanos(config.getWriteCoalescingMaxDelayUs()));
+        this.writeCoalescingMaxBytes = config.getWriteCoalescingMaxBytes();
+        this.creditBytes = config.getCreditBytes();
+        this.adaptivePipeline = config.isPipelineAdaptive();
+        this.pipelineMaxDepth = config.getPipelineMaxDepth();
+        this.pipelineLatencyTarget = Duration.ofMillis(config.getPipelineLatencyTargetMs());
+        this.reliableDelivery = config.isReliableDelivery() && config.getCodec() == CodecType.BINARY;
+        if (config.isReliableDelivery() && !reliableDelivery) {
+            log.warn("Reliable delivery needs the binary codec, whose responses echo their sequence number; "
+                    + "it is disabled on board {}", board.getName());
+        }
+        this.maxRetransmits = config.getMaxRetransmits();
+        this.retransmitTimeout = Duration.ofMillis(config.getRetransmitTimeoutMs());
+        this.codec = CommandCodec.create(config.getCodec(), config.getDeviceIds());
+        this.bootTimeout = Duration.ofMillis(config.getBootTimeoutMs());
+        this.handshakeInterval = Duration.ofMillis(config.getHandshakeIntervalMs());
+        this.reconnectInitialBackoff = Duration.ofMillis(config.getReconnectInitialBackoffMs());
+        this.reconnectMaxBackoff = Duration.ofMillis(config.getReconnectMaxBackoffMs());
+        this.heartbeatInterval = Duration.ofMillis(config.getHeartbeatIntervalMs());
+        this.readinessTtl = Duration.ofMillis(config.getReadinessTtlMs());
+        this.lastResponseNanos = System.nanoTime() - readinessTtl.toNanos() - 1;
+        this.lastProbeNanos = lastResponseNanos;
         this.serialPortFactory = serialPortFactory;
-        initialize();
+        this.queue = new CommandQueue(config.getQueueCapacity(), config.getRejectionPolicy());
+        this.metrics = new SerialMetrics(meterRegistry, boardName);
+        this.deviceStates = new DeviceStateCache(boardName, config.getServoDeadband());
+        this.suppressRedundantCommands = config.isSuppressRedundantCommands();
+        this.eventListener = eventListener;
+        metrics.bindGauges(this);
+    }
+
+    /**
+     * Connects to the Arduino in the background and keeps it connected until {@link #close()}.
+     * Calling this method again returns the same connection attempt.
+     *
+     * @return A future completed with true once the Arduino answered the status handshake,
+     *         or with false if the port could not be opened or the Arduino did not answer in time;
+     *         in that case the supervisor keeps trying to connect with backoff
+     */
+    public CompletableFuture<Boolean> connect() {
+        stateLock.lock();
+        try {
+            if (connection == null) {
+                connection = new CompletableFuture<>();
+                supervisor = new Thread(this::supervise, "serial-supervisor-" + portName);
+                supervisor.setDaemon(true);
+                supervisor.start();
+            }
+            return connection;
+        } finally {
+            stateLock.unlock();
+        }
+    }
+
+    /**
+     * Gets the state of the connection with the board.
+     *
+     * @return The connection state
+     */
+    public ConnectionState getState() {
+        return state;
+    }
+
+    /**
+     * Runs the connection state machine on the supervisor thread, which is the single owner of the serial port.
+     * After the first attempt, the supervisor either waits for the link to be lost while the board is connected,
+     * sending heartbeats meanwhile, or tries to connect again with a delay doubling after each failure,
+     * up to the maximum backoff.
+     * When the communicator is closed, it releases the port and fails every pending command.
+     */
+    private void supervise() {
+        try {
+            connection.complete(establish());
+            long backoffNanos = reconnectInitialBackoff.toNanos();
+            while (state != ConnectionState.CLOSED) {
+                if (state == ConnectionState.RECONNECTING) {
+                    LockSupport.parkNanos(this, backoffNanos);
+                    if (state == ConnectionState.CLOSED) {
+                        break;
+                    }
+                    boolean reconnected = establish();
+                    metrics.reconnect(reconnected);
+                    if (reconnected) {
+                        backoffNanos = reconnectInitialBackoff.toNanos();
+                    } else {
+                        backoffNanos = Math.min(backoffNanos * 2, reconnectMaxBackoff.toNanos());
+                        log.info("Board {} still not connected, next attempt in {} ms",
+                                boardName, TimeUnit.NANOSECONDS.toMillis(backoffNanos));
+                    }
+                } else if (awaitLinkLost()) {
+                    recover();
+                }
+            }
+        } finally {
+            teardown().forEach(SerialCommand::fail);
+            failQueued();
+            deviceStates.invalidate();
+            connection.complete(false);
+        }
     }
 
     /**
-     * Initializes the serial connection to the Arduino.
-     * This method orchestrates the initialization process by:
+     * Establishes the serial connection to the Arduino.
+     * This method orchestrates the connection process by:
      * 1. Finding the appropriate serial port
      * 2. Configuring and opening the port
      * 3. Creating input/output streams
-     * 4. Waiting for the Arduino to initialize
+     * 4. Waiting for the Arduino to answer the status handshake
+     * 5. Starting the command pipeline
+     *
+     * @return true if the Arduino is ready, false otherwise
      */
-    private void initialize() {
+    private boolean establish() {
         try {
-            log.info("Initializing serial communication on port {} with baud rate {}", portName, baudRate);
+            log.info("Connecting to board {} on port {} with baud rate {}", boardName, portName, baudRate);
+            long start = System.nanoTime();
 
             findSerialPort();
             configureAndOpenPort();
             createStreams();
-            waitForArduinoInitialization();
+            if (!awaitHandshake()) {
+                log.error("Board {} did not answer the status handshake within {} ms", boardName, bootTimeout.toMillis());
+                return disconnected();
+            }
+            deviceStates.invalidate();
+            lastResponseNanos = System.nanoTime();
+            startPipeline();
+            stateLock.lock();
+            try {
+                if (state == ConnectionState.CLOSED) {
+                    return false;
+                }
+                setState(ConnectionState.READY);
+            } finally {
+                stateLock.unlock();
+            }
 
-            log.info("Serial communication initialized successfully");
+            log.info("Serial communication established with board {} in {} ms",
+                    boardName, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+            return true;
         } catch (Exception e) {
-            log.error("Error initializing serial communication", e);
-            throw new IllegalStateException("Failed to initialize serial communication", e);
+            log.error("Error connecting to board {} on port {}: {}", boardName, portName, e.getMessage());
+            return disconnected();
+        }
+    }
+
+    /**
+     * Waits for the link to be lost while the board is connected. When the board has not answered anything
+     * for a whole heartbeat interval, sends it a status command to check that it is still alive.
+     *
+     * @return true if the link was lost or the communicator closed, false after a heartbeat interval
+     */
+    private boolean awaitLinkLost() {
+        if (heartbeatInterval.isZero()) {
+            linkLost.acquireUninterruptibly();
+            return true;
+        }
+        try {
+            if (linkLost.tryAcquire(heartbeatInterval.toNanos(), TimeUnit.NANOSECONDS)) {
+                return true;
+            }
+        } catch (InterruptedException e) {
+            linkLost.acquireUninterruptibly();
+            return true;
+        }
+        if (isOpen() && System.nanoTime() - lastResponseNanos >= heartbeatInterval.toNanos()) {
+            log.debug("No response from board {} for {} ms, sending a heartbeat", boardName, heartbeatInterval.toMillis());
+            probeReadiness();
+        }
+        return false;
+    }
+
+    /**
+     * Releases what a failed connection attempt opened and schedules the next attempt.
+     *
+     * @return false, the outcome of the connection attempt
+     */
+    private boolean disconnected() {
+        teardown();
+        stateLock.lock();
+        try {
+            if (state != ConnectionState.CLOSED) {
+                setState(ConnectionState.RECONNECTING);
+            }
+        } finally {
+            stateLock.unlock();
+        }
+        return false;
+    }
+
+    /**
+     * Recovers from the loss of the serial link: releases the port and applies the replay policy
+     * to the commands that were in flight, before the supervisor starts reconnecting.
+     */
+    private void recover() {
+        stateLock.lock();
+        try {
+            if (state == ConnectionState.CLOSED) {
+                return;
+            }
+            setState(ConnectionState.RECONNECTING);
+        } finally {
+            stateLock.unlock();
         }
+        log.warn("Lost the serial link with board {} on port {}, reconnecting", boardName, portName);
+        deviceStates.invalidate();
+        replay(teardown());
+    }
+
+    /**
+     * Puts the idempotent commands that were in flight back at the head of the queue,
+     * and fails the others because the Arduino may already have performed them.
+     *
+     * @param unanswered The commands in flight when the link was lost, in the order they were sent
+     */
+    private void replay(List<SerialCommand> unanswered) {
+        List<SerialCommand> replayed = new ArrayList<>();
+        for (SerialCommand command : unanswered) {
+            if (command.isDone()) {
+                continue;
+            }
+            if (command.getCommand().opcode().isIdempotent()) {
+                replayed.add(command);
+            } else {
+                log.warn("Command {} may have been performed before the link was lost, not sending it again",
+                        command.getCommand());
+                command.fail();
+            }
+        }
+        queue.requeue(replayed);
+        log.info("{} command(s) in flight will be sent again to board {}", replayed.size(), boardName);
     }
 
     /**
      * Finds the serial port by name from the available ports.
+     * The ports are listed again on every attempt, since a board that was unplugged
+     * and plugged back is a new port for the operating system.
      * 
      * @throws IllegalStateException if the specified port is not found
      */
@@ -82,22 +414,23 @@ public class SerialCommunicator {
         }
 
         if (serialPort == null) {
-            log.error("Serial port {} not found", portName);
             throw new IllegalStateException("Serial port not found: " + portName);
         }
     }
 
     /**
      * Configures and opens the serial port with the specified settings.
+     * Reads return as soon as data is available; the short read timeout only bounds
+     * how long a read may block before the command deadline is checked again.
      * 
      * @throws IllegalStateException if the port cannot be opened
      */
     private void configureAndOpenPort() {
         serialPort.setBaudRate(baudRate);
-        serialPort.setComPortTimeouts(SerialPortWrapper.TIMEOUT_READ_SEMI_BLOCKING, COMMAND_TIMEOUT_MS, 0);
+        serialPort.setComPortTimeouts(SerialPortWrapper.TIMEOUT_READ_SEMI_BLOCKING, READ_POLL_INTERVAL_MS, 0);
 
         if (!serialPort.openPort()) {
-            log.error("Failed to open serial port {}", portName);
+            serialPort = null;
             throw new IllegalStateException("Failed to open serial port: " + portName);
         }
     }
@@ -106,149 +439,548 @@ public class SerialCommunicator {
      * Creates input and output streams for communication with the serial port.
      */
     private void createStreams() {
-        reader = new BufferedReader(new InputStreamReader(serialPort.getInputStream(), StandardCharsets.UTF_8));
+        inputStream = new CountingInputStream(serialPort.getInputStream(), metrics);
+        decoder = codec.newDecoder(inputStream);
         outputStream = serialPort.getOutputStream();
     }
 
     /**
-     * Waits for the Arduino to initialize after opening the port.
-     * Arduino typically needs a short time to reset after a serial connection is established.
+     * Starts the writer and reader threads of the command pipeline, which take their commands from the queue.
      */
-    private void waitForArduinoInitialization() {
-        try {
-            TimeUnit.SECONDS.sleep(2);
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
+    private void startPipeline() {
+        WriteCoalescer coalescer = writeCoalescing
+                ? new WriteCoalescer(writeCoalescingMaxDelay.toNanos(), writeCoalescingMaxBytes)
+                : null;
+        CreditWindow credits = creditBytes > 0 ? new CreditWindow(creditBytes) : null;
+        RetransmitPolicy retransmits = reliableDelivery
+                ? new RetransmitPolicy(maxRetransmits, retransmitTimeout.toNanos())
+                : null;
+        InFlightWindow window = adaptivePipeline
+                ? InFlightWindow.adaptive(pipelineDepth, pipelineMaxDepth, pipelineLatencyTarget.toNanos())
+                : new InFlightWindow(pipelineDepth);
+        pipeline = new CommandPipeline(portName, outputStream, codec, decoder, window, queue, new LinkMonitor(),
+                metrics, coalescer, credits, retransmits);
+        pipeline.start();
+    }
+
+    /**
+     * Waits for the Arduino to be ready after opening the port.
+     * The Arduino resets when a serial connection is established, so status commands are sent
+     * until one is answered with "ready", which is also what a boot banner line looks like.
+     * Commands sent while the bootloader runs are lost. The handshake talks to the port directly,
+     * before the pipeline starts, so that queued commands are not sent to a board that is still booting.
+     *
+     * @return true if the Arduino answered before the boot timeout, false otherwise
+     * @throws IOException if reading or writing fails
+     */
+    private boolean awaitHandshake() throws IOException {
+        ByteBuffer status = ByteBuffer.allocate(HANDSHAKE_BUFFER_SIZE);
+        codec.encode(ArduinoCommand.status(), 0, status);
+        long deadline = System.nanoTime() + bootTimeout.toNanos();
+        while (System.nanoTime() - deadline < 0 && state != ConnectionState.CLOSED) {
+            outputStream.write(status.array(), 0, status.position());
+            outputStream.flush();
+            metrics.bytesWritten(status.position());
+            long attemptDeadline = System.nanoTime() + handshakeInterval.toNanos();
+            if (attemptDeadline - deadline > 0) {
+                attemptDeadline = deadline;
+            }
+            ArduinoResponse response;
+            while ((response = decoder.read(attemptDeadline)) != null) {
+                if (response.type() == ResponseType.READY) {
+                    return true;
+                }
+            }
         }
+        return false;
+    }
+
+    /**
+     * Sends a command to the Arduino in the normal priority lane and waits for a response
+     * within the configured command timeout.
+     *
+     * @param command The command to send
+     * @return true if the command was successful (Arduino answered with the response expected for the command), false otherwise
+     * @see #sendCommand(ArduinoCommand, CommandPriority, Duration)
+     */
+    public boolean sendCommand(ArduinoCommand command) {
+        return sendCommand(command, CommandPriority.NORMAL, commandTimeout);
+    }
+
+    /**
+     * Sends a command to the Arduino and waits for a response within the configured command timeout.
+     *
+     * @param command The command to send
+     * @param priority The priority lane of the command
+     * @return true if the command was successful (Arduino answered with the response expected for the command), false otherwise
+     * @see #sendCommand(ArduinoCommand, CommandPriority, Duration)
+     */
+    public boolean sendCommand(ArduinoCommand command, CommandPriority priority) {
+        return sendCommand(command, priority, commandTimeout);
+    }
+
+    /**
+     * Sends a command to the Arduino in the normal priority lane and waits for a response.
+     *
+     * @param command The command to send
+     * @param timeout The maximum time to wait for the response
+     * @return true if the command was successful (Arduino answered with the response expected for the command), false otherwise
+     * @see #sendCommand(ArduinoCommand, CommandPriority, Duration)
+     */
+    public boolean sendCommand(ArduinoCommand command, Duration timeout) {
+        return sendCommand(command, CommandPriority.NORMAL, timeout);
     }
 
     /**
      * Sends a command to the Arduino and waits for a response.
-     * This method orchestrates the command sending process by:
-     * 1. Validating the port is open
-     * 2. Writing the command to the output stream
-     * 3. Waiting for the Arduino to process the command
-     * 4. Reading and validating the response
+     * The command goes through the command queue and pipeline, so it completes as soon as its
+     * response arrives, or fails at the deadline.
      *
      * @param command The command to send
-     * @param expectedResponse The expected response for success
-     * @return true if the command was successful (Arduino responded with the expected response), false otherwise
+     * @param priority The priority lane of the command
+     * @param timeout The maximum time to wait for the response
+     * @return true if the command was successful (Arduino answered with the response expected for the command),
+     *         false otherwise, including when the command queue rejected the command
      */
-    public boolean sendCommand(String command, String expectedResponse) {
-        if (!isPortOpen()) {
+    public boolean sendCommand(ArduinoCommand command, CommandPriority priority, Duration timeout) {
+        try {
+            return sendCommandAsync(command, priority, timeout).join();
+        } catch (CompletionException e) {
+            log.warn("Command {} not sent: {}", command, e.getCause().getMessage());
             return false;
         }
+    }
 
-        try {
-            writeCommand(command);
-            waitForProcessing();
-            String response = readResponse();
-            return validateResponse(response, expectedResponse);
-        } catch (IOException e) {
-            log.error("Error sending command: {}", command, e);
-            return false;
+    /**
+     * Sends a command to the Arduino in the normal priority lane without waiting for the response.
+     *
+     * @param command The command to send
+     * @return A future completed with the outcome of the command
+     * @see #sendCommandAsync(ArduinoCommand, CommandPriority, Duration)
+     */
+    public CompletableFuture<Boolean> sendCommandAsync(ArduinoCommand command) {
+        return sendCommandAsync(command, CommandPriority.NORMAL, commandTimeout);
+    }
+
+    /**
+     * Sends a command to the Arduino without waiting for the response.
+     *
+     * @param command The command to send
+     * @param priority The priority lane of the command
+     * @return A future completed with the outcome of the command
+     * @see #sendCommandAsync(ArduinoCommand, CommandPriority, Duration)
+     */
+    public CompletableFuture<Boolean> sendCommandAsync(ArduinoCommand command, CommandPriority priority) {
+        return sendCommandAsync(command, priority, commandTimeout);
+    }
+
+    /**
+     * Sends a command to the Arduino without waiting for the response.
+     * The command is queued in its priority lane for the writer thread, which keeps up to the
+     * configured pipeline depth of commands in flight. When the queue is full, the configured
+     * rejection policy applies; with {@link RejectionPolicy#BLOCK} this method blocks the caller.
+     *
+     * @param command The command to send
+     * @param priority The priority lane of the command
+     * @param timeout The maximum time to wait for the response
+     * @return A future completed with true if the Arduino answered with the response expected for the command,
+     *         or at once if the device is known to be in the state the command sets already,
+     *         with false if it responded otherwise or the command timed out, or exceptionally
+     *         with a {@link CommandRejectedException} if the command queue rejected the command
+     */
+    public CompletableFuture<Boolean> sendCommandAsync(ArduinoCommand command, CommandPriority priority,
+                                                       Duration timeout) {
+        return sendCommandAsync(command, () -> new SerialCommand(command, priority, timeout));
+    }
+
+    /**
+     * Sends a command to the Arduino that is only useful to the caller until a deadline, without waiting for the response.
+     * The deadline travels with the command through the queue: the writer thread drops the command if the deadline
+     * passes before it is written, so that under overload the link is only spent on commands that still matter.
+     * A command written before the deadline stays in flight until its response arrives or the command timeout
+     * passes, so that its late response is not taken for the response of the next command.
+     *
+     * @param command The command to send
+     * @param priority The priority lane of the command
+     * @param deadline The instant past which the caller no longer waits for the command
+     * @return A future completed as by {@link #sendCommandAsync(ArduinoCommand, CommandPriority, Duration)},
+     *         or exceptionally with a {@link CommandExpiredException} if the deadline passed before the response arrived
+     */
+    public CompletableFuture<Boolean> sendCommandAsync(ArduinoCommand command, CommandPriority priority,
+                                                       CommandDeadline deadline) {
+        return sendCommandAsync(command, () -> new SerialCommand(command, priority, deadline, commandTimeout));
+    }
+
+    private CompletableFuture<Boolean> sendCommandAsync(ArduinoCommand command, Supplier<SerialCommand> serialCommands) {
+        if (!isAcceptingCommands()) {
+            return CompletableFuture.completedFuture(false);
         }
+        if (isRedundant(command)) {
+            return CompletableFuture.completedFuture(true);
+        }
+
+        SerialCommand serialCommand = track(serialCommands.get());
+        submit(List.of(serialCommand));
+        return serialCommand.getResult();
     }
 
     /**
-     * Checks if the serial port is open and ready for communication.
-     * 
-     * @return true if the port is open, false otherwise
+     * Sends a batch of commands to the Arduino in the normal priority lane and waits for all the responses.
+     *
+     * @param commands The commands to send, in order
+     * @return For each command, in order, true if the Arduino answered with the response expected for the command, false otherwise
+     * @see #sendBatchAsync(List, CommandPriority)
+     */
+    public List<Boolean> sendBatch(List<ArduinoCommand> commands) {
+        return sendBatchAsync(commands, CommandPriority.NORMAL).stream()
+                .map(result -> {
+                    try {
+                        return result.join();
+                    } catch (CompletionException e) {
+                        log.warn("Batch command not sent: {}", e.getCause().getMessage());
+                        return false;
+                    }
+                })
+                .toList();
+    }
+
+    /**
+     * Sends a batch of commands to the Arduino without waiting for the responses.
+     * The batch takes a single entry of the command queue, and the writer thread sends all its commands
+     * with a single flush, so the whole batch costs about one round-trip instead of one per command.
+     * Commands that would not change the state of their device are left out of the batch and completed at once.
+     *
+     * @param commands The commands to send, in order
+     * @param priority The priority lane of the batch
+     * @return For each command, in order, a future completed with its outcome
+     * @see #sendCommandAsync(ArduinoCommand, CommandPriority, Duration)
+     */
+    public List<CompletableFuture<Boolean>> sendBatchAsync(List<ArduinoCommand> commands, CommandPriority priority) {
+        return sendBatchAsync(commands, command -> new SerialCommand(command, priority, commandTimeout));
+    }
+
+    /**
+     * Sends a batch of commands to the Arduino that are only useful to the caller until a deadline,
+     * without waiting for the responses.
+     *
+     * @param commands The commands to send, in order
+     * @param priority The priority lane of the batch
+     * @param deadline The instant past which the caller no longer waits for the commands
+     * @return For each command, in order, a future completed with its outcome, or exceptionally
+     *         with a {@link CommandExpiredException} if the deadline passed before its response arrived
+     * @see #sendCommandAsync(ArduinoCommand, CommandPriority, CommandDeadline)
+     */
+    public List<CompletableFuture<Boolean>> sendBatchAsync(List<ArduinoCommand> commands, CommandPriority priority,
+                                                           CommandDeadline deadline) {
+        return sendBatchAsync(commands, command -> new SerialCommand(command, priority, deadline, commandTimeout));
+    }
+
+    private List<CompletableFuture<Boolean>> sendBatchAsync(List<ArduinoCommand> commands,
+                                                            Function<ArduinoCommand, SerialCommand> serialCommands) {
+        if (commands.isEmpty() || !isAcceptingCommands()) {
+            return commands.stream().map(command -> CompletableFuture.completedFuture(false)).toList();
+        }
+
+        List<CompletableFuture<Boolean>> results = new ArrayList<>(commands.size());
+        List<SerialCommand> batch = new ArrayList<>(commands.size());
+        for (ArduinoCommand command : commands) {
+            if (isRedundant(command)) {
+                results.add(CompletableFuture.completedFuture(true));
+            } else {
+                SerialCommand serialCommand = track(serialCommands.apply(command));
+                batch.add(serialCommand);
+                results.add(serialCommand.getResult());
+            }
+        }
+        if (!batch.isEmpty()) {
+            submit(batch);
+        }
+        return results;
+    }
+
+    /**
+     * Checks if a command can be skipped because its device is already in the state it sets, counting it if so.
+     *
+     * @param command The command
+     * @return true if the command must not be sent
      */
-    private boolean isPortOpen() {
-        if (serialPort == null || !serialPort.isOpen()) {
-            log.error("Serial port is not open");
+    private boolean isRedundant(ArduinoCommand command) {
+        if (!suppressRedundantCommands || !deviceStates.isRedundant(command)) {
             return false;
         }
+        log.debug("Skipping {}, the device is already in that state", command);
+        metrics.suppressed(command);
         return true;
     }
 
     /**
-     * Writes a command to the Arduino.
-     * 
-     * @param command The command to send
-     * @throws IOException if an I/O error occurs
+     * Moves the connection to a new state, publishing the change.
+     *
+     * @param next The new connection state
      */
-    private void writeCommand(String command) throws IOException {
-        log.debug("Sending command: {}", command);
-        byte[] bytes = (command + "\n").getBytes(StandardCharsets.UTF_8);
-        outputStream.write(bytes);
-        outputStream.flush();
+    private void setState(ConnectionState next) {
+        ConnectionState previous = state;
+        state = next;
+        if (previous != next) {
+            publish(ArduinoEvent.connection(boardName, next));
+        }
     }
 
     /**
-     * Waits for the Arduino to process the command.
-     * Arduino typically needs a short time to process commands.
+     * Hands an event to the listener, which must not make the serial threads fail.
+     *
+     * @param event The event
      */
-    private void waitForProcessing() {
+    private void publish(ArduinoEvent event) {
         try {
-            Thread.sleep(COMMAND_DELAY_MS);
+            eventListener.onEvent(event);
+        } catch (RuntimeException e) {
+            log.warn("Event listener failed on {}", event, e);
+        }
+    }
+
+    /**
+     * Makes the device state cache follow a command until its outcome is known, and publishes its outcome.
+     *
+     * @param serialCommand The command about to be queued
+     * @return The command
+     */
+    private SerialCommand track(SerialCommand serialCommand) {
+        ArduinoCommand command = serialCommand.getCommand();
+        deviceStates.submitted(command);
+        serialCommand.getResult().whenComplete((success, error) -> {
+            boolean acknowledged = error == null && success;
+            DeviceState state = deviceStates.completed(command, acknowledged, error == null || serialCommand.isWritten());
+            publish(ArduinoEvent.acknowledgement(boardName, command, acknowledged));
+            if (state != null) {
+                publish(ArduinoEvent.deviceState(command.device(), state));
+            }
+        });
+        return serialCommand;
+    }
+
+    /**
+     * Gets the last state acknowledged by the board for each of its LEDs and servomotors.
+     * Devices whose state is unknown, for example since the board was reconnected, are not included.
+     *
+     * @return The known device states, by device name
+     */
+    public Map<String, DeviceState> getDeviceStates() {
+        return deviceStates.snapshot();
+    }
+
+    /**
+     * Queues a command, or a batch of commands to be written together, for the pipeline.
+     * The commands are rejected according to the rejection policy of the queue if the queue is full,
+     * and failed if the communicator was closed in the meantime.
+     *
+     * @param entry The command or batch of commands to send
+     */
+    private void submit(List<SerialCommand> entry) {
+        try {
+            queue.offer(entry);
         } catch (InterruptedException e) {
             Thread.currentThread().interrupt();
+            CommandRejectedException cause = new CommandRejectedException("Interrupted while waiting for room in the command queue");
+            entry.forEach(command -> command.reject(cause));
+        }
+        if (state == ConnectionState.CLOSED) {
+            failQueued();
         }
     }
 
     /**
-     * Reads the response from the Arduino.
-     * 
-     * @return The response string
-     * @throws IOException if an I/O error occurs
+     * Fails every command waiting in the queue.
+     */
+    private void failQueued() {
+        List<SerialCommand> entry;
+        while ((entry = queue.poll()) != null) {
+            entry.forEach(SerialCommand::fail);
+        }
+    }
+
+    /**
+     * Gets the number of commands waiting in the command queue.
+     *
+     * @return The number of queued commands
+     */
+    public int getQueuedCommandCount() {
+        return queue.size();
+    }
+
+    /**
+     * Gets the number of commands sent to the Arduino and still awaiting their response.
+     *
+     * @return The number of commands in flight, 0 if the port is closed
+     */
+    public int getInFlightCommandCount() {
+        CommandPipeline currentPipeline = pipeline;
+        return currentPipeline == null ? 0 : currentPipeline.getInFlightCount();
+    }
+
+    /**
+     * Gets the maximum number of commands the pipeline currently keeps in flight,
+     * which moves with the round-trip latency when the pipeline depth is adaptive.
+     *
+     * @return The limit of the in-flight window, the configured pipeline depth if the port is closed
+     */
+    public int getPipelineDepth() {
+        CommandPipeline currentPipeline = pipeline;
+        return currentPipeline == null ? pipelineDepth : currentPipeline.getWindowLimit();
+    }
+
+    /**
+     * Gets the name of the board this communicator is connected to.
+     *
+     * @return The board name
      */
-    private String readResponse() throws IOException {
-        String response = reader.readLine();
-        log.debug("Received response: {}", response);
-        return response;
+    public String getBoardName() {
+        return boardName;
     }
 
     /**
-     * Validates the response against the expected response.
+     * Checks if commands can be queued for the board, logging an error if they cannot.
+     * Commands are accepted while the board is connected, and while it is reconnecting,
+     * in which case they wait in the queue for the board to come back.
      * 
-     * @param response The actual response from the Arduino
-     * @param expectedResponse The expected response
-     * @return true if the response matches the expected response, false otherwise
+     * @return true if commands are accepted, false before the first connection and after closing
+     */
+    private boolean isAcceptingCommands() {
+        ConnectionState current = state;
+        if (current == ConnectionState.CONNECTING || current == ConnectionState.CLOSED) {
+            log.error("Board {} is not connected on port {}", boardName, portName);
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Checks if the board is ready to perform commands, without a round-trip on the serial link when possible.
+     * The board is ready if it is connected and answered something, a command or a status check,
+     * within the readiness TTL. Otherwise a status command is sent, once for all the concurrent checks.
+     *
+     * @return A future completed with true if the board is ready, false otherwise; never completed exceptionally
+     */
+    public CompletableFuture<Boolean> checkReadiness() {
+        if (!isOpen()) {
+            return CompletableFuture.completedFuture(false);
+        }
+        long now = System.nanoTime();
+        if (now - lastResponseNanos <= readinessTtl.toNanos()) {
+            return CompletableFuture.completedFuture(true);
+        }
+        if (now - lastProbeNanos <= readinessTtl.toNanos()) {
+            return CompletableFuture.completedFuture(lastProbeReady);
+        }
+        return probeReadiness();
+    }
+
+    /**
+     * Checks if the board is ready to perform commands, waiting for the status command if one is needed.
+     *
+     * @return true if the board is ready, false otherwise
+     * @see #checkReadiness()
      */
-    private boolean validateResponse(String response, String expectedResponse) {
-        return expectedResponse.equalsIgnoreCase(response);
+    public boolean isReady() {
+        return checkReadiness().join();
     }
 
     /**
-     * Checks if the serial port is ready for communication.
+     * Gets the time elapsed since the board last answered anything, or since it was connected.
      *
-     * @return true if the serial port is open, false otherwise
+     * @return The time since the last sign of life of the board
+     */
+    public Duration getTimeSinceLastResponse() {
+        return Duration.ofNanos(System.nanoTime() - lastResponseNanos);
+    }
+
+    /**
+     * Sends a status command in the high priority lane, unless one is already on its way,
+     * and records its outcome for the readiness checks.
+     *
+     * @return A future completed with the outcome of the status command
+     */
+    private CompletableFuture<Boolean> probeReadiness() {
+        while (true) {
+            CompletableFuture<Boolean> current = readinessProbe.get();
+            if (current != null) {
+                return current;
+            }
+            CompletableFuture<Boolean> probe = new CompletableFuture<>();
+            if (readinessProbe.compareAndSet(null, probe)) {
+                sendCommandAsync(ArduinoCommand.status(), CommandPriority.HIGH).handle((ready, error) -> {
+                    lastProbeReady = error == null && ready;
+                    lastProbeNanos = System.nanoTime();
+                    readinessProbe.set(null);
+                    return probe.complete(lastProbeReady);
+                });
+                return probe;
+            }
+        }
+    }
+
+    /**
+     * Checks if the board is ready for communication: its serial port is open
+     * and it answered the status handshake.
+     *
+     * @return true if the board is connected, false otherwise
      */
     public boolean isOpen() {
-        return serialPort != null && serialPort.isOpen();
+        ConnectionState current = state;
+        return current == ConnectionState.READY || current == ConnectionState.DEGRADED;
     }
 
     /**
      * Closes the serial port and releases all resources.
-     * This method ensures proper cleanup by:
-     * 1. Checking if the port is open
-     * 2. Closing input/output streams
-     * 3. Closing the serial port
-     * 4. Releasing all resources
+     * This method stops the supervisor, which then:
+     * 1. Stops the command pipeline
+     * 2. Closes input/output streams
+     * 3. Closes the serial port
+     * 4. Fails the commands still waiting to be sent or waiting for a response
+     * A closed communicator does not reconnect.
      */
     public void close() {
-        if (!isPortOpenForClosing()) {
-            return;
+        Thread currentSupervisor;
+        stateLock.lock();
+        try {
+            if (state == ConnectionState.CLOSED) {
+                return;
+            }
+            setState(ConnectionState.CLOSED);
+            if (connection == null) {
+                connection = CompletableFuture.completedFuture(false);
+            }
+            currentSupervisor = supervisor;
+        } finally {
+            stateLock.unlock();
         }
 
-        log.info("Closing serial communication");
-
-        closeStreams();
-        closePort();
-        releaseResources();
-
+        log.info("Closing serial communication with board {}", boardName);
+        if (currentSupervisor == null) {
+            failQueued();
+            return;
+        }
+        linkLost.release();
+        LockSupport.unpark(currentSupervisor);
+        try {
+            currentSupervisor.join(STOP_TIMEOUT_MS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
         log.info("Serial communication closed successfully");
     }
 
     /**
-     * Checks if the serial port is open and available for closing.
-     * 
-     * @return true if the port is open, false otherwise
+     * Releases the serial port: stops the command pipeline, closes the streams and the port.
+     *
+     * @return The commands that were in flight, in the order they were sent
      */
-    private boolean isPortOpenForClosing() {
-        return serialPort != null && serialPort.isOpen();
+    private List<SerialCommand> teardown() {
+        List<SerialCommand> unanswered = pipeline == null ? List.of() : pipeline.stop();
+        closeStreams();
+        closePort();
+        releaseResources();
+        return unanswered;
     }
 
     /**
@@ -256,8 +988,8 @@ public class SerialCommunicator {
      */
     private void closeStreams() {
         try {
-            if (reader != null) {
-                reader.close();
+            if (inputStream != null) {
+                inputStream.close();
             }
             if (outputStream != null) {
                 outputStream.close();
@@ -272,7 +1004,9 @@ public class SerialCommunicator {
      */
     private void closePort() {
         try {
-            serialPort.closePort();
+            if (serialPort != null) {
+                serialPort.closePort();
+            }
         } catch (Exception e) {
             log.error("Error closing serial port", e);
         }
@@ -282,8 +1016,59 @@ public class SerialCommunicator {
      * Releases all resources by setting them to null.
      */
     private void releaseResources() {
-        reader = null;
+        decoder = null;
+        inputStream = null;
         outputStream = null;
+        pipeline = null;
         serialPort = null;
     }
+
+    /**
+     * Moves the connection between READY and DEGRADED as responses arrive or go missing, records the time
+     * of the last response for the readiness checks, publishes the lines that answer no command,
+     * and wakes the supervisor up when the link is lost.
+     */
+    private class LinkMonitor implements CommandPipeline.Listener {
+
+        @Override
+        public void responseReceived() {
+            lastResponseNanos = System.nanoTime();
+            if (state == ConnectionState.DEGRADED) {
+                stateLock.lock();
+                try {
+                    if (state == ConnectionState.DEGRADED) {
+                        setState(ConnectionState.READY);
+                        log.info("Board {} answers again", boardName);
+                    }
+                } finally {
+                    stateLock.unlock();
+                }
+            }
+        }
+
+        @Override
+        public void responseMissed() {
+            stateLock.lock();
+            try {
+                if (state == ConnectionState.READY) {
+                    setState(ConnectionState.DEGRADED);
+                    log.warn("Board {} stopped answering", boardName);
+                }
+            } finally {
+                stateLock.unlock();
+            }
+        }
+
+        @Override
+        public void unsolicitedResponse(ArduinoResponse response) {
+            publish(response.type() == ResponseType.NOTICE
+                    ? ArduinoEvent.notice(boardName, response.text())
+                    : ArduinoEvent.unsolicited(boardName, response.text()));
+        }
+
+        @Override
+        public void linkLost(IOException cause) {
+            linkLost.release();
+        }
+    }
 }
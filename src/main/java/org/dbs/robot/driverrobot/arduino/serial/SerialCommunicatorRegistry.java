@@ -0,0 +1,137 @@
+package org.dbs.robot.driverrobot.arduino.serial;
+
+import lombok.extern.slf4j.Slf4j;
+import org.dbs.robot.driverrobot.arduino.config.BoardConfig;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+
+/**
+ * The serial communicators of all the Arduino boards of a cell, with the routing of devices to boards.
+ * Each board has its own communicator, and so its own queue and I/O threads, so commands
+ * for different boards travel fully in parallel.
+ * All the boards connect concurrently in the background, so startup time does not grow with their number.
+ */
+@Slf4j
+public class SerialCommunicatorRegistry {
+
+    private final Map<String, SerialCommunicator> boards = new LinkedHashMap<>();
+    private final Map<String, SerialCommunicator> devices = new HashMap<>();
+    private SerialCommunicator defaultBoard;
+    private final CompletableFuture<Boolean> connection;
+
+    /**
+     * Constructor for SerialCommunicatorRegistry. Starts connecting to every board without waiting.
+     *
+     * @param boardConfigs The boards of the cell
+     * @param connector    Creates the serial communicator of a board
+     * @throws IllegalStateException if a device is owned by two boards, or several boards have no devices
+     */
+    public SerialCommunicatorRegistry(List<BoardConfig> boardConfigs, Function<BoardConfig, SerialCommunicator> connector) {
+        validate(boardConfigs);
+        List<SerialCommunicator> connected = new ArrayList<>();
+        try {
+            for (BoardConfig board : boardConfigs) {
+                SerialCommunicator communicator = connector.apply(board);
+                connected.add(communicator);
+                register(board, communicator);
+            }
+        } catch (RuntimeException e) {
+            connected.forEach(SerialCommunicator::close);
+            throw e;
+        }
+        List<CompletableFuture<Boolean>> connections = boards.values().stream().map(SerialCommunicator::connect).toList();
+        connection = CompletableFuture.allOf(connections.toArray(CompletableFuture[]::new))
+                .thenApply(done -> connections.stream().allMatch(CompletableFuture::join));
+        log.info("Connecting to {} board(s) in the background: {}", boards.size(), boards.keySet());
+    }
+
+    /**
+     * Gets the outcome of the connection of all the boards.
+     *
+     * @return A future completed with true once every board is connected,
+     *         or with false once every connection attempt ended and at least one failed
+     */
+    public CompletableFuture<Boolean> whenConnected() {
+        return connection;
+    }
+
+    /**
+     * Gets the serial communicator of the board that owns a device.
+     *
+     * @param device The name identifier of the LED or servomotor
+     * @return The serial communicator of the board owning the device, or of the default board
+     * @throws IllegalArgumentException if no board owns the device and there is no default board
+     */
+    public SerialCommunicator forDevice(String device) {
+        SerialCommunicator communicator = devices.getOrDefault(device, defaultBoard);
+        if (communicator == null) {
+            throw new IllegalArgumentException("No board owns device: " + device);
+        }
+        return communicator;
+    }
+
+    /**
+     * Gets the serial communicator of a board.
+     *
+     * @param board The name of the board
+     * @return The serial communicator of the board
+     * @throws IllegalArgumentException if there is no such board
+     */
+    public SerialCommunicator forBoard(String board) {
+        SerialCommunicator communicator = boards.get(board);
+        if (communicator == null) {
+            throw new IllegalArgumentException("Unknown board: " + board);
+        }
+        return communicator;
+    }
+
+    /**
+     * Gets the serial communicators of all the boards.
+     *
+     * @return The serial communicators, in configuration order
+     */
+    public Collection<SerialCommunicator> all() {
+        return boards.values();
+    }
+
+    /**
+     * Closes the serial communicators of all the boards.
+     */
+    public void close() {
+        boards.values().forEach(SerialCommunicator::close);
+    }
+
+    private void register(BoardConfig board, SerialCommunicator communicator) {
+        boards.put(board.getName(), communicator);
+        if (board.getDevices().isEmpty()) {
+            defaultBoard = communicator;
+        }
+        board.getDevices().forEach(device -> devices.put(device, communicator));
+    }
+
+    private static void validate(List<BoardConfig> boardConfigs) {
+        Map<String, String> owners = new HashMap<>();
+        List<String> defaultBoards = new ArrayList<>();
+        for (BoardConfig board : boardConfigs) {
+            if (board.getDevices().isEmpty()) {
+                defaultBoards.add(board.getName());
+            }
+            for (String device : board.getDevices()) {
+                String owner = owners.put(device, board.getName());
+                if (owner != null) {
+                    throw new IllegalStateException("Device " + device + " is owned by boards " + owner + " and " + board.getName());
+                }
+            }
+        }
+        if (defaultBoards.size() > 1) {
+            throw new IllegalStateException("Only one board may have no devices, found: " + defaultBoards);
+        }
+    }
+}
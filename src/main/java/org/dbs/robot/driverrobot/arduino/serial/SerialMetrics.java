@@ -0,0 +1,250 @@
+package org.dbs.robot.driverrobot.arduino.serial;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import org.dbs.robot.driverrobot.arduino.protocol.ArduinoCommand;
+import org.dbs.robot.driverrobot.arduino.protocol.Opcode;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Micrometer meters of the command path of one board, all tagged with the board name.
+ * The latency timers are created on first use for each command type and device and then cached,
+ * so that recording a round-trip on the reader thread allocates nothing.
+ */
+final class SerialMetrics {
+
+    static final String LATENCY = "arduino.command.latency";
+    static final String QUEUE_DEPTH = "arduino.command.queue.depth";
+    static final String IN_FLIGHT = "arduino.command.in.flight";
+    static final String WINDOW = "arduino.command.window";
+    static final String TIMEOUTS = "arduino.command.timeouts";
+    static final String MISMATCHED = "arduino.response.mismatched";
+    static final String BYTES_WRITTEN = "arduino.serial.bytes.written";
+    static final String BYTES_READ = "arduino.serial.bytes.read";
+    static final String RECONNECTS = "arduino.reconnects";
+    static final String SUPPRESSED = "arduino.command.suppressed";
+    static final String NOTICES = "arduino.response.notices";
+    static final String FLUSH_SIZE = "arduino.serial.flush.size";
+    static final String CREDIT_STALLS = "arduino.serial.credit.stalls";
+    static final String RETRANSMITS = "arduino.command.retransmits";
+
+    private static final String NO_DEVICE = "none";
+
+    private final MeterRegistry registry;
+    private final Tags boardTags;
+    private final Map<Opcode, Map<String, Timer>> latencies = new EnumMap<>(Opcode.class);
+    private final Counter queuedTimeouts;
+    private final Counter inFlightTimeouts;
+    private final Counter unexpectedResponses;
+    private final Counter unsolicitedResponses;
+    private final Counter skippedResponses;
+    private final Counter corruptResponses;
+    private final Counter retransmits;
+    private final Counter notices;
+    private final Counter bytesWritten;
+    private final Counter bytesRead;
+    private final DistributionSummary flushSizes;
+    private final Counter creditStalls;
+    private final Counter reconnectSuccesses;
+    private final Counter reconnectFailures;
+    private final Counter suppressedLeds;
+    private final Counter suppressedAngles;
+
+    /**
+     * Constructor for SerialMetrics.
+     *
+     * @param registry The registry the meters are registered in
+     * @param board    The name of the board, used as the board tag of every meter
+     */
+    SerialMetrics(MeterRegistry registry, String board) {
+        this.registry = registry;
+        this.boardTags = Tags.of("board", board);
+        for (Opcode opcode : Opcode.values()) {
+            latencies.put(opcode, new ConcurrentHashMap<>());
+        }
+        this.queuedTimeouts = counter(TIMEOUTS, "Commands that reached their deadline", "stage", "queued");
+        this.inFlightTimeouts = counter(TIMEOUTS, "Commands that reached their deadline", "stage", "in-flight");
+        this.unexpectedResponses = counter(MISMATCHED, "Responses that did not match their command", "reason", "unexpected");
+        this.unsolicitedResponses = counter(MISMATCHED, "Responses that did not match their command", "reason", "unsolicited");
+        this.skippedResponses = counter(MISMATCHED, "Responses that did not match their command", "reason", "skipped");
+        this.corruptResponses = counter(MISMATCHED, "Responses that did not match their command", "reason", "corrupt");
+        this.retransmits = Counter.builder(RETRANSMITS).tags(boardTags)
+                .description("Commands sent again because their acknowledgement was missing or corrupt").register(registry);
+        this.notices = Counter.builder(NOTICES).tags(boardTags)
+                .description("Lines printed by the firmware on its own").register(registry);
+        this.bytesWritten = Counter.builder(BYTES_WRITTEN).baseUnit("bytes").tags(boardTags)
+                .description("Bytes written to the serial port").register(registry);
+        this.bytesRead = Counter.builder(BYTES_READ).baseUnit("bytes").tags(boardTags)
+                .description("Bytes read from the serial port").register(registry);
+        this.flushSizes = DistributionSummary.builder(FLUSH_SIZE).baseUnit("commands").tags(boardTags)
+                .description("Commands written with each flush of the serial port").register(registry);
+        this.creditStalls = Counter.builder(CREDIT_STALLS).tags(boardTags)
+                .description("Writes paused until the Arduino acknowledged enough bytes").register(registry);
+        this.reconnectSuccesses = counter(RECONNECTS, "Attempts to connect the board again", "outcome", "success");
+        this.reconnectFailures = counter(RECONNECTS, "Attempts to connect the board again", "outcome", "failure");
+        this.suppressedLeds = counter(SUPPRESSED, "Commands skipped because the device was already in their state",
+                "command", Opcode.LED.getKeyword());
+        this.suppressedAngles = counter(SUPPRESSED, "Commands skipped because the device was already in their state",
+                "command", Opcode.SERVO_ANGLE.getKeyword());
+    }
+
+    /**
+     * Registers the gauges of the queue depth, of the number of commands in flight and of the in-flight window
+     * of a communicator.
+     *
+     * @param communicator The communicator of the board
+     */
+    void bindGauges(SerialCommunicator communicator) {
+        Gauge.builder(QUEUE_DEPTH, communicator, SerialCommunicator::getQueuedCommandCount).tags(boardTags)
+                .description("Commands waiting to be sent").register(registry);
+        Gauge.builder(IN_FLIGHT, communicator, SerialCommunicator::getInFlightCommandCount).tags(boardTags)
+                .description("Commands sent and awaiting their response").register(registry);
+        Gauge.builder(WINDOW, communicator, SerialCommunicator::getPipelineDepth).tags(boardTags)
+                .description("Commands the pipeline currently keeps in flight at most").register(registry);
+    }
+
+    /**
+     * Records the time between writing a command and receiving its response.
+     *
+     * @param command        The command
+     * @param roundTripNanos The round-trip time in nanoseconds
+     */
+    void recordRoundTrip(ArduinoCommand command, long roundTripNanos) {
+        String device = command.device() == null ? NO_DEVICE : command.device();
+        Timer timer = latencies.get(command.opcode()).computeIfAbsent(device, name -> latencyTimer(command.opcode(), name));
+        timer.record(roundTripNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Counts commands that reached their deadline before the writer thread took them from the queue.
+     *
+     * @param count The number of expired commands
+     */
+    void queuedTimeouts(int count) {
+        queuedTimeouts.increment(count);
+    }
+
+    /**
+     * Counts a command that reached its deadline without a response.
+     */
+    void inFlightTimeout() {
+        inFlightTimeouts.increment();
+    }
+
+    /**
+     * Counts a response of another type than the one expected for its command, such as an error.
+     */
+    void unexpectedResponse() {
+        unexpectedResponses.increment();
+    }
+
+    /**
+     * Counts a response that answers no command in flight.
+     */
+    void unsolicitedResponse() {
+        unsolicitedResponses.increment();
+    }
+
+    /**
+     * Counts a command whose response never arrived, detected because a later command was answered.
+     */
+    void skippedResponse() {
+        skippedResponses.increment();
+    }
+
+    /**
+     * Counts a response discarded because it was corrupt, with reliable delivery.
+     */
+    void corruptResponse() {
+        corruptResponses.increment();
+    }
+
+    /**
+     * Counts a command sent again because its acknowledgement was missing or corrupt.
+     */
+    void retransmit() {
+        retransmits.increment();
+    }
+
+    /**
+     * Counts a line printed by the firmware on its own.
+     */
+    void notice() {
+        notices.increment();
+    }
+
+    /**
+     * Counts bytes written to the serial port.
+     *
+     * @param count The number of bytes
+     */
+    void bytesWritten(int count) {
+        bytesWritten.increment(count);
+    }
+
+    /**
+     * Records a flush of the serial port.
+     *
+     * @param commands The number of commands written with the flush
+     */
+    void flushed(int commands) {
+        flushSizes.record(commands);
+    }
+
+    /**
+     * Counts a write paused because the receive buffer of the Arduino had no room for the next command.
+     */
+    void creditStall() {
+        creditStalls.increment();
+    }
+
+    /**
+     * Counts bytes read from the serial port.
+     *
+     * @param count The number of bytes
+     */
+    void bytesRead(int count) {
+        bytesRead.increment(count);
+    }
+
+    /**
+     * Counts an attempt to connect the board again after a failure or the loss of the link.
+     *
+     * @param success true if the board is connected again, false otherwise
+     */
+    void reconnect(boolean success) {
+        (success ? reconnectSuccesses : reconnectFailures).increment();
+    }
+
+    /**
+     * Counts a command skipped because its device was already in the state it sets.
+     *
+     * @param command The skipped LED or servo angle command
+     */
+    void suppressed(ArduinoCommand command) {
+        (command.opcode() == Opcode.LED ? suppressedLeds : suppressedAngles).increment();
+    }
+
+    private Timer latencyTimer(Opcode opcode, String device) {
+        return Timer.builder(LATENCY)
+                .description("Round-trip time between writing a command and receiving its response")
+                .tags(boardTags.and("command", opcode.getKeyword(), "device", device))
+                .publishPercentileHistogram()
+                .minimumExpectedValue(Duration.ofMillis(1))
+                .maximumExpectedValue(Duration.ofSeconds(10))
+                .register(registry);
+    }
+
+    private Counter counter(String name, String description, String tag, String value) {
+        return Counter.builder(name).description(description).tags(boardTags.and(tag, value)).register(registry);
+    }
+}
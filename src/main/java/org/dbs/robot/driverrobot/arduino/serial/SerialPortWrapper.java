@@ -9,7 +9,8 @@ import java.io.OutputStream;
  */
 public interface SerialPortWrapper {
     // Timeout modes from SerialPort
-    int TIMEOUT_READ_SEMI_BLOCKING = 8;
+    int TIMEOUT_READ_SEMI_BLOCKING = 1;
+
     /**
      * Gets the system port name.
      *
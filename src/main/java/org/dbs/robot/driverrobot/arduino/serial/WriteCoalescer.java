@@ -0,0 +1,68 @@
+package org.dbs.robot.driverrobot.arduino.serial;
+
+/**
+ * Adaptive window during which the writer thread gathers the commands of concurrent callers into one flush.
+ * USB-serial adapters hold small writes back for their latency timer, so each flush of a few bytes can cost
+ * milliseconds; one flush for many commands pays that cost once.
+ * <p>
+ * The window never delays a command sent while the link is idle. While the link is busy, the writer first takes
+ * the commands already queued, then waits for more for the current linger time, bounded by the maximum delay and
+ * by the number of bytes gathered. The linger time doubles each time a flush gathered several entries, and halves
+ * each time a flush went out with a single one, so it grows under load and falls back to zero when the load stops.
+ * Only the writer thread uses a coalescer.
+ */
+final class WriteCoalescer {
+
+    private final long maxDelayNanos;
+    private final int maxBytes;
+    private final long minLingerNanos;
+    private long lingerNanos;
+
+    /**
+     * Constructor for WriteCoalescer.
+     *
+     * @param maxDelayNanos The longest time the writer waits for more commands before flushing
+     * @param maxBytes      The number of bytes after which the writer flushes without waiting for more commands
+     */
+    WriteCoalescer(long maxDelayNanos, int maxBytes) {
+        this.maxDelayNanos = Math.max(maxDelayNanos, 0);
+        this.maxBytes = Math.max(maxBytes, 1);
+        this.minLingerNanos = this.maxDelayNanos / 16;
+    }
+
+    /**
+     * Gets the time to wait for more commands after the first one of a flush.
+     *
+     * @param idle true if no command was in flight when the first command was taken
+     * @return The linger time in nanoseconds, 0 when the link was idle
+     */
+    long lingerNanos(boolean idle) {
+        return idle ? 0 : lingerNanos;
+    }
+
+    /**
+     * Checks if enough bytes were gathered to flush without waiting for more commands.
+     *
+     * @param bytes The number of bytes gathered for the current flush
+     * @return true if the flush must go out now
+     */
+    boolean isFull(int bytes) {
+        return bytes >= maxBytes;
+    }
+
+    /**
+     * Adapts the linger time to the number of entries the last flush gathered.
+     *
+     * @param entries The number of queue entries written with the last flush
+     */
+    void flushed(int entries) {
+        if (entries > 1) {
+            lingerNanos = Math.min(maxDelayNanos, Math.max(lingerNanos * 2, minLingerNanos));
+        } else {
+            lingerNanos /= 2;
+            if (lingerNanos < minLingerNanos) {
+                lingerNanos = 0;
+            }
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package org.dbs.robot.driverrobot.arduino.simulator;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Model of the Arduino firmware: parses the lines of the text protocol and keeps the state of the LEDs
+ * and servomotors. A line is answered with "ok", "ready" for the status command, or "error" for a line
+ * the firmware does not understand or an angle out of range.
+ * Servo movements leave the servomotor where the movement ends: full sweeps come back to the angle they
+ * started from, half sweeps stop at the other end.
+ */
+@Slf4j
+public class SimulatedArduino {
+
+    private static final Pattern LED = Pattern.compile("led\\(([^,]+), (on|off)\\)");
+    private static final Pattern ANGLE = Pattern.compile("servo\\(([^,]+), angle (-?\\d+)\\)");
+    private static final Pattern MOVEMENT = Pattern.compile(
+            "servo\\(([^,]+), (sweep|half-sweep|reverse-half-sweep|reverse-sweep) (-?\\d+) (-?\\d+) (-?\\d+)\\)");
+    private static final Pattern STATUS = Pattern.compile("status\\(.*\\)");
+    private static final String SHUTDOWN = "shutdown()";
+    private static final int MAX_ANGLE = 180;
+
+    private final Map<String, Boolean> leds = new ConcurrentHashMap<>();
+    private final Map<String, Integer> servos = new ConcurrentHashMap<>();
+    private final AtomicLong commandCount = new AtomicLong();
+    private volatile boolean shutdown;
+
+    /**
+     * Handles a line received from the serial link.
+     *
+     * @param line The line, without its terminator
+     * @return The response line, without its terminator
+     */
+    public String execute(String line) {
+        commandCount.incrementAndGet();
+        String command = line.trim();
+        Matcher matcher;
+        if ((matcher = LED.matcher(command)).matches()) {
+            leds.put(matcher.group(1), matcher.group(2).equals("on"));
+            return "ok";
+        }
+        if ((matcher = ANGLE.matcher(command)).matches()) {
+            int angle = Integer.parseInt(matcher.group(2));
+            if (!isValidAngle(angle)) {
+                return "error";
+            }
+            servos.put(matcher.group(1), angle);
+            return "ok";
+        }
+        if ((matcher = MOVEMENT.matcher(command)).matches()) {
+            return move(matcher.group(1), matcher.group(2), Integer.parseInt(matcher.group(3)),
+                    Integer.parseInt(matcher.group(4)), Integer.parseInt(matcher.group(5)));
+        }
+        if (STATUS.matcher(command).matches()) {
+            return "ready";
+        }
+        if (command.equals(SHUTDOWN)) {
+            leds.replaceAll((name, state) -> false);
+            shutdown = true;
+            return "ok";
+        }
+        log.debug("Simulated Arduino does not understand: {}", line);
+        return "error";
+    }
+
+    /**
+     * Resets the firmware, like the reset of the board that happens when its serial port is opened.
+     */
+    public void reset() {
+        leds.clear();
+        servos.clear();
+        shutdown = false;
+    }
+
+    /**
+     * Gets the state of an LED.
+     *
+     * @param name The name identifier of the LED
+     * @return true if the LED is on, false if it is off, null if it was never set
+     */
+    public Boolean getLedState(String name) {
+        return leds.get(name);
+    }
+
+    /**
+     * Gets the angle of a servomotor.
+     *
+     * @param name The name identifier of the servomotor
+     * @return The angle, or null if the servomotor was never moved
+     */
+    public Integer getServoAngle(String name) {
+        return servos.get(name);
+    }
+
+    /**
+     * Gets the number of lines handled since the simulator started, including those answered with an error.
+     *
+     * @return The number of lines
+     */
+    public long getCommandCount() {
+        return commandCount.get();
+    }
+
+    /**
+     * Checks if the firmware received the shutdown command since its last reset.
+     *
+     * @return true if shut down, false otherwise
+     */
+    public boolean isShutdown() {
+        return shutdown;
+    }
+
+    private String move(String name, String movement, int startAngle, int endAngle, int speed) {
+        if (!isValidAngle(startAngle) || !isValidAngle(endAngle) || speed <= 0) {
+            return "error";
+        }
+        int finalAngle = switch (movement) {
+            case "sweep", "reverse-half-sweep" -> startAngle;
+            default -> endAngle;
+        };
+        servos.put(name, finalAngle);
+        return "ok";
+    }
+
+    private static boolean isValidAngle(int angle) {
+        return angle >= 0 && angle <= MAX_ANGLE;
+    }
+}
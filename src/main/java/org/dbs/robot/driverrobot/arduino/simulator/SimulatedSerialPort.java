@@ -0,0 +1,325 @@
+package org.dbs.robot.driverrobot.arduino.simulator;
+
+import org.dbs.robot.driverrobot.arduino.serial.SerialPortWrapper;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Random;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serial port connected to a {@link SimulatedArduino} instead of a real board.
+ * The port models the timing of the link: each line takes the time of its bytes on the wire
+ * at the baud rate, 10 bits per byte, the firmware handles one line at a time with a processing
+ * delay and random jitter, and the response takes its own time on the wire back.
+ * Faults can be injected: lines lost on their way to the Arduino, and corrupted response bytes.
+ * The receive buffer of the Arduino is finite: a line waits in it until the firmware is done with the previous
+ * ones, and a line arriving when the buffer has no room for it is lost, as the serial interrupt of a real board
+ * drops the bytes it cannot store.
+ * <p>
+ * Like a real board, the Arduino resets when the port is opened and ignores the lines received
+ * until it has booted. Reads follow the semi-blocking semantics of jSerialComm.
+ */
+public class SimulatedSerialPort implements SerialPortWrapper {
+
+    private static final int BITS_PER_BYTE = 10;
+    private static final int DEFAULT_BAUD_RATE = 9600;
+
+    private final String name;
+    private final SimulatedArduino arduino;
+    private final SimulatorConfig config;
+    private final Random random;
+    private final BlockingQueue<byte[]> incoming = new LinkedBlockingQueue<>();
+    private final InputStream inputStream = new SimulatedInputStream();
+    private final OutputStream outputStream = new SimulatedOutputStream();
+    private final Deque<StoredLine> receiveBuffer = new ArrayDeque<>();
+    private volatile boolean open;
+    private volatile int readTimeoutMs;
+    private volatile long byteNanos;
+    private volatile long bootedAtNanos;
+    private ScheduledThreadPoolExecutor firmware;
+    private long wireToArduinoFreeAt;
+    private long firmwareFreeAt;
+    private long wireFromArduinoFreeAt;
+    private int receiveBufferBytes;
+    private volatile long overruns;
+
+    /**
+     * Constructor for SimulatedSerialPort.
+     *
+     * @param name    The system port name
+     * @param arduino The simulated firmware behind the port
+     * @param config  The timing and fault settings of the simulator
+     * @param random  The source of jitter and faults
+     */
+    public SimulatedSerialPort(String name, SimulatedArduino arduino, SimulatorConfig config, Random random) {
+        this.name = name;
+        this.arduino = arduino;
+        this.config = config;
+        this.random = random;
+        setBaudRate(DEFAULT_BAUD_RATE);
+    }
+
+    /**
+     * Gets the simulated firmware behind this port.
+     *
+     * @return The simulated Arduino
+     */
+    public SimulatedArduino getArduino() {
+        return arduino;
+    }
+
+    /**
+     * Gets the number of lines lost because the receive buffer of the Arduino was full when they arrived.
+     *
+     * @return The number of receive buffer overruns since the port was created
+     */
+    public long getOverrunCount() {
+        return overruns;
+    }
+
+    @Override
+    public String getSystemPortName() {
+        return name;
+    }
+
+    @Override
+    public String getDescriptivePortName() {
+        return "Simulated Arduino " + name;
+    }
+
+    @Override
+    public boolean setBaudRate(int baudRate) {
+        if (baudRate <= 0) {
+            return false;
+        }
+        byteNanos = config.isThrottleToBaudRate() ? TimeUnit.SECONDS.toNanos(BITS_PER_BYTE) / baudRate : 0;
+        return true;
+    }
+
+    @Override
+    public void setComPortTimeouts(int mode, int readTimeout, int writeTimeout) {
+        this.readTimeoutMs = readTimeout;
+    }
+
+    @Override
+    public synchronized boolean openPort() {
+        if (open) {
+            return true;
+        }
+        arduino.reset();
+        incoming.clear();
+        long now = System.nanoTime();
+        bootedAtNanos = now + TimeUnit.MILLISECONDS.toNanos(config.getBootDelayMs());
+        wireToArduinoFreeAt = now;
+        firmwareFreeAt = now;
+        wireFromArduinoFreeAt = now;
+        receiveBuffer.clear();
+        receiveBufferBytes = 0;
+        firmware = new ScheduledThreadPoolExecutor(1, runnable -> {
+            Thread thread = new Thread(runnable, "arduino-simulator-" + name);
+            thread.setDaemon(true);
+            return thread;
+        });
+        open = true;
+        return true;
+    }
+
+    @Override
+    public boolean isOpen() {
+        return open;
+    }
+
+    @Override
+    public InputStream getInputStream() {
+        return inputStream;
+    }
+
+    @Override
+    public OutputStream getOutputStream() {
+        return outputStream;
+    }
+
+    @Override
+    public synchronized boolean closePort() {
+        open = false;
+        if (firmware != null) {
+            firmware.shutdownNow();
+            firmware = null;
+        }
+        return true;
+    }
+
+    /**
+     * Schedules the handling of a line fully written by the host, unless it is lost on the wire
+     * or finds the receive buffer full.
+     * Called by the writer thread with the output stream lock held.
+     *
+     * @param line The line, without its terminator
+     * @param size The number of bytes of the line on the wire, including its terminator
+     */
+    private synchronized void transmitToArduino(String line, int size) {
+        if (!open) {
+            return;
+        }
+        long now = System.nanoTime();
+        long receivedAt = Math.max(now, wireToArduinoFreeAt) + size * byteNanos;
+        wireToArduinoFreeAt = receivedAt;
+        if (random.nextDouble() < config.getDropRate()) {
+            return;
+        }
+        long readAt = Math.max(receivedAt, firmwareFreeAt);
+        if (!store(receivedAt, readAt, size)) {
+            overruns++;
+            return;
+        }
+        long handledAt = readAt + processingNanos();
+        firmwareFreeAt = handledAt;
+        firmware.schedule(() -> handle(line), handledAt - now, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Lets the firmware handle a line and sends its response back. Runs on the simulator thread.
+     *
+     * @param line The line received
+     */
+    private void handle(String line) {
+        if (System.nanoTime() - bootedAtNanos < 0) {
+            return;
+        }
+        byte[] response = (arduino.execute(line) + "\r\n").getBytes(StandardCharsets.US_ASCII);
+        garble(response);
+        long now = System.nanoTime();
+        long deliveredAt = Math.max(now, wireFromArduinoFreeAt) + response.length * byteNanos;
+        wireFromArduinoFreeAt = deliveredAt;
+        synchronized (this) {
+            if (open) {
+                firmware.schedule(() -> incoming.add(response), deliveredAt - now, TimeUnit.NANOSECONDS);
+            }
+        }
+    }
+
+    /**
+     * Stores a line in the receive buffer from its arrival until the firmware reads it,
+     * once the lines read before its arrival have left the buffer.
+     *
+     * @param receivedAt When the last byte of the line arrives
+     * @param readAt     When the firmware reads the line out of the buffer
+     * @param size       The number of bytes of the line
+     * @return true if the buffer has room for the line, false if it overflows
+     */
+    private boolean store(long receivedAt, long readAt, int size) {
+        while (!receiveBuffer.isEmpty() && receiveBuffer.peekFirst().readAt() - receivedAt <= 0) {
+            receiveBufferBytes -= receiveBuffer.pollFirst().size();
+        }
+        if (config.getRxBufferBytes() > 0 && receiveBufferBytes + size > config.getRxBufferBytes()) {
+            return false;
+        }
+        if (readAt - receivedAt > 0) {
+            receiveBuffer.addLast(new StoredLine(readAt, size));
+            receiveBufferBytes += size;
+        }
+        return true;
+    }
+
+    private long processingNanos() {
+        long jitter = config.getJitterMicros() > 0 ? random.nextLong(config.getJitterMicros() + 1) : 0;
+        return TimeUnit.MICROSECONDS.toNanos(config.getProcessingDelayMicros() + jitter);
+    }
+
+    /**
+     * Corrupts each byte of the response, except its terminator, with the configured probability.
+     *
+     * @param response The response bytes
+     */
+    private void garble(byte[] response) {
+        if (config.getGarbleRate() <= 0) {
+            return;
+        }
+        for (int i = 0; i < response.length - 2; i++) {
+            if (random.nextDouble() < config.getGarbleRate()) {
+                response[i] = (byte) (response[i] ^ (1 + random.nextInt(0x1F)));
+            }
+        }
+    }
+
+    /**
+     * A line waiting in the receive buffer of the Arduino.
+     *
+     * @param readAt When the firmware reads the line out of the buffer
+     * @param size   The number of bytes of the line
+     */
+    private record StoredLine(long readAt, int size) {
+    }
+
+    private class SimulatedInputStream extends InputStream {
+
+        private byte[] chunk = new byte[0];
+        private int position;
+
+        @Override
+        public int read() throws IOException {
+            byte[] single = new byte[1];
+            return read(single, 0, 1) < 0 ? -1 : single[0] & 0xFF;
+        }
+
+        @Override
+        public synchronized int read(byte[] buffer, int offset, int length) throws IOException {
+            if (!open) {
+                return -1;
+            }
+            if (position == chunk.length) {
+                byte[] next;
+                try {
+                    next = incoming.poll(Math.max(readTimeoutMs, 1), TimeUnit.MILLISECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException("Interrupted while reading");
+                }
+                if (next == null) {
+                    throw new InterruptedIOException("The read operation timed out before any data was returned.");
+                }
+                chunk = next;
+                position = 0;
+            }
+            int count = Math.min(length, chunk.length - position);
+            System.arraycopy(chunk, position, buffer, offset, count);
+            position += count;
+            return count;
+        }
+    }
+
+    private class SimulatedOutputStream extends OutputStream {
+
+        private final ByteArrayOutputStream currentLine = new ByteArrayOutputStream();
+
+        @Override
+        public synchronized void write(int b) throws IOException {
+            if (!open) {
+                throw new IOException("Port " + name + " is closed");
+            }
+            currentLine.write(b);
+            if (b == '\n') {
+                String line = currentLine.toString(StandardCharsets.US_ASCII).stripTrailing();
+                transmitToArduino(line, currentLine.size());
+                currentLine.reset();
+            }
+        }
+
+        @Override
+        public synchronized void write(byte[] buffer, int offset, int length) throws IOException {
+            for (int i = offset; i < offset + length; i++) {
+                write(buffer[i]);
+            }
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package org.dbs.robot.driverrobot.arduino.simulator;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Configuration properties of the Arduino simulator, used with the "simulator" Spring profile.
+ * These properties can be set in application-simulator.properties.
+ *
+ * Example:
+ * arduino.simulator.boot-delay-ms=1500
+ * arduino.simulator.processing-delay-micros=500
+ * arduino.simulator.jitter-micros=200
+ * arduino.simulator.throttle-to-baud-rate=true
+ * arduino.simulator.rx-buffer-bytes=64
+ * arduino.simulator.drop-rate=0.01
+ * arduino.simulator.garble-rate=0.001
+ * arduino.simulator.seed=42
+ */
+@Data
+@ConfigurationProperties(prefix = "arduino.simulator")
+public class SimulatorConfig {
+
+    /**
+     * The time in milliseconds the virtual Arduino takes to boot after its port is opened.
+     * Like a real board, it resets when the port is opened and ignores the lines received while booting.
+     * Default is 1500.
+     */
+    private long bootDelayMs = 1500;
+
+    /**
+     * The time in microseconds the firmware takes to handle a line once it is fully received.
+     * Default is 500.
+     */
+    private long processingDelayMicros = 500;
+
+    /**
+     * The maximum random time in microseconds added to the processing delay of each line.
+     * Default is 200.
+     */
+    private long jitterMicros = 200;
+
+    /**
+     * Whether lines take the time of their bytes on the wire at the baud rate of the port,
+     * 10 bits per byte, in each direction.
+     * Default is true.
+     */
+    private boolean throttleToBaudRate = true;
+
+    /**
+     * The size in bytes of the receive buffer of the virtual Arduino. The lines wait in it while the firmware
+     * handles the previous ones, and a line arriving when it is full is lost. 0 makes the buffer unbounded.
+     * Default is 64, like the hardware serial port of an Arduino Uno.
+     */
+    private int rxBufferBytes = 64;
+
+    /**
+     * The probability, between 0 and 1, that a line sent to the Arduino is lost.
+     * Default is 0.
+     */
+    private double dropRate;
+
+    /**
+     * The probability, between 0 and 1, that a byte of a response line is corrupted on its way back.
+     * Default is 0.
+     */
+    private double garbleRate;
+
+    /**
+     * The seed of the random faults and jitter, for reproducible runs. Random when not set.
+     */
+    private Long seed;
+}
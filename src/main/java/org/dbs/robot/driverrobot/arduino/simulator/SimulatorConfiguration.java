@@ -0,0 +1,33 @@
+package org.dbs.robot.driverrobot.arduino.simulator;
+
+import lombok.extern.slf4j.Slf4j;
+import org.dbs.robot.driverrobot.arduino.config.ArduinoConfig;
+import org.dbs.robot.driverrobot.arduino.serial.SerialPortFactory;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+
+/**
+ * Spring configuration replacing the serial ports with virtual Arduinos when the "simulator" profile is active,
+ * for example to load-test the REST and shell layers on machines without hardware.
+ */
+@Slf4j
+@Configuration
+@Profile("simulator")
+@EnableConfigurationProperties(SimulatorConfig.class)
+public class SimulatorConfiguration {
+
+    /**
+     * Creates a SerialPortFactory bean exposing a virtual Arduino on the port of each configured board.
+     *
+     * @param arduinoConfig The Arduino configuration properties
+     * @param simulatorConfig The timing and fault settings of the simulator
+     * @return An instance of SimulatorSerialPortFactory
+     */
+    @Bean
+    public SerialPortFactory serialPortFactory(ArduinoConfig arduinoConfig, SimulatorConfig simulatorConfig) {
+        log.info("Using simulated Arduino boards instead of serial ports");
+        return new SimulatorSerialPortFactory(arduinoConfig.getEffectiveBoards(), simulatorConfig);
+    }
+}
@@ -0,0 +1,64 @@
+package org.dbs.robot.driverrobot.arduino.simulator;
+
+import org.dbs.robot.driverrobot.arduino.config.BoardConfig;
+import org.dbs.robot.driverrobot.arduino.serial.SerialPortFactory;
+import org.dbs.robot.driverrobot.arduino.serial.SerialPortWrapper;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * SerialPortFactory exposing one {@link SimulatedSerialPort} per configured board, each with its own
+ * virtual Arduino, so that the whole application runs without hardware.
+ * The ports are created once, so the state of each virtual Arduino can be inspected between commands.
+ */
+public class SimulatorSerialPortFactory implements SerialPortFactory {
+
+    private final Map<String, SimulatedSerialPort> ports = new LinkedHashMap<>();
+
+    /**
+     * Constructor for SimulatorSerialPortFactory.
+     *
+     * @param boards The boards of the configuration, one virtual Arduino is created on the port of each
+     * @param config The timing and fault settings of the simulator
+     */
+    public SimulatorSerialPortFactory(List<BoardConfig> boards, SimulatorConfig config) {
+        Random random = config.getSeed() == null ? new Random() : new Random(config.getSeed());
+        for (BoardConfig board : boards) {
+            ports.put(board.getPort(), new SimulatedSerialPort(board.getPort(), new SimulatedArduino(), config, random));
+        }
+    }
+
+    @Override
+    public SerialPortWrapper[] getCommPorts() {
+        return ports.values().toArray(SerialPortWrapper[]::new);
+    }
+
+    /**
+     * Gets the virtual Arduino connected to a port.
+     *
+     * @param portName The system port name of the board
+     * @return The simulated Arduino
+     * @throws IllegalArgumentException if no board is simulated on the port
+     */
+    public SimulatedArduino getArduino(String portName) {
+        return getPort(portName).getArduino();
+    }
+
+    /**
+     * Gets the simulated serial port of a board.
+     *
+     * @param portName The system port name of the board
+     * @return The simulated serial port
+     * @throws IllegalArgumentException if no board is simulated on the port
+     */
+    public SimulatedSerialPort getPort(String portName) {
+        SimulatedSerialPort port = ports.get(portName);
+        if (port == null) {
+            throw new IllegalArgumentException("No simulated Arduino on port " + portName);
+        }
+        return port;
+    }
+}
@@ -0,0 +1,22 @@
+package org.dbs.robot.driverrobot.arduino.trajectory;
+
+/**
+ * Velocity and acceleration limits of the servomotors following a trajectory.
+ *
+ * @param maxVelocity     The maximum angular velocity, in degrees per second
+ * @param maxAcceleration The maximum angular acceleration, in degrees per second squared
+ */
+public record MotionLimits(double maxVelocity, double maxAcceleration) {
+
+    /**
+     * Validates the limits.
+     *
+     * @throws IllegalArgumentException if a limit is not strictly positive
+     */
+    public MotionLimits {
+        if (!(maxVelocity > 0) || !(maxAcceleration > 0)) {
+            throw new IllegalArgumentException("Motion limits must be positive: velocity " + maxVelocity
+                    + ", acceleration " + maxAcceleration);
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package org.dbs.robot.driverrobot.arduino.trajectory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Poses of a trajectory as a dense table of angles, one row per pose and one column per servomotor.
+ *
+ * @param servos The names of the servomotors, by column
+ * @param angles The angle of each servomotor at each pose, in degrees
+ */
+record PoseTable(List<String> servos, double[][] angles) {
+
+    private static final int MIN_ANGLE = 0;
+    private static final int MAX_ANGLE = 180;
+
+    /**
+     * Builds the table, filling the servomotors missing from a pose with their angle at the previous pose.
+     *
+     * @param poses The poses, in order
+     * @return The table
+     * @throws IllegalArgumentException if there are fewer than two poses, the first pose misses a servomotor
+     *                                  of a later one, or an angle is out of range
+     */
+    static PoseTable of(List<Map<String, Integer>> poses) {
+        if (poses == null || poses.size() < 2) {
+            throw new IllegalArgumentException("A trajectory needs at least two waypoints");
+        }
+        List<String> servos = new ArrayList<>(poses.get(0).keySet());
+        if (servos.isEmpty()) {
+            throw new IllegalArgumentException("The first waypoint must give the angle of every servo");
+        }
+        double[][] angles = new double[poses.size()][servos.size()];
+        for (int pose = 0; pose < poses.size(); pose++) {
+            for (String servo : poses.get(pose).keySet()) {
+                if (!servos.contains(servo)) {
+                    throw new IllegalArgumentException("Servo " + servo + " is missing from the first waypoint");
+                }
+            }
+            for (int servo = 0; servo < servos.size(); servo++) {
+                Integer angle = poses.get(pose).get(servos.get(servo));
+                if (angle == null) {
+                    angles[pose][servo] = angles[pose - 1][servo];
+                } else if (angle < MIN_ANGLE || angle > MAX_ANGLE) {
+                    throw new IllegalArgumentException("Angle " + angle + " of servo " + servos.get(servo)
+                            + " is out of range [" + MIN_ANGLE + ", " + MAX_ANGLE + "]");
+                } else {
+                    angles[pose][servo] = angle;
+                }
+            }
+        }
+        return new PoseTable(List.copyOf(servos), angles);
+    }
+}
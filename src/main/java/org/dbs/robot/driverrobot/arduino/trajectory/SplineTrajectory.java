@@ -0,0 +1,141 @@
+package org.dbs.robot.driverrobot.arduino.trajectory;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Trajectory going through timed poses with a clamped cubic spline per servomotor:
+ * positions, velocities and accelerations are continuous, and the velocity is zero at both ends.
+ * The acceleration of a cubic spline is linear between knots and its velocity quadratic, so their peaks
+ * are found exactly; when they exceed the limits, time is stretched uniformly by the smallest factor
+ * that brings them back within the limits.
+ */
+final class SplineTrajectory implements Trajectory {
+
+    private final List<String> servos;
+    private final double[][] angles;
+    private final double[] knots;
+    private final double[][] secondDerivatives;
+    private final double timeScale;
+
+    /**
+     * Constructor for SplineTrajectory.
+     *
+     * @param poses  The poses to go through
+     * @param times  The time of each pose, strictly increasing
+     * @param limits The velocity and acceleration limits of the servomotors
+     */
+    SplineTrajectory(PoseTable poses, double[] times, MotionLimits limits) {
+        this.servos = poses.servos();
+        this.angles = poses.angles();
+        this.knots = new double[times.length];
+        for (int i = 0; i < times.length; i++) {
+            knots[i] = times[i] - times[0];
+        }
+        this.secondDerivatives = new double[servos.size()][];
+        double peakVelocity = 0;
+        double peakAcceleration = 0;
+        for (int servo = 0; servo < servos.size(); servo++) {
+            secondDerivatives[servo] = solveClamped(servo);
+            for (int segment = 0; segment < knots.length - 1; segment++) {
+                peakVelocity = Math.max(peakVelocity, peakVelocity(servo, segment));
+            }
+            for (double secondDerivative : secondDerivatives[servo]) {
+                peakAcceleration = Math.max(peakAcceleration, Math.abs(secondDerivative));
+            }
+        }
+        this.timeScale = Math.max(1, Math.max(peakVelocity / limits.maxVelocity(),
+                Math.sqrt(peakAcceleration / limits.maxAcceleration())));
+    }
+
+    @Override
+    public List<String> servos() {
+        return servos;
+    }
+
+    @Override
+    public double duration() {
+        return knots[knots.length - 1] * timeScale;
+    }
+
+    @Override
+    public double position(int servo, double time) {
+        double x = Math.min(Math.max(time / timeScale, 0), knots[knots.length - 1]);
+        int segment = Arrays.binarySearch(knots, x);
+        if (segment < 0) {
+            segment = -segment - 2;
+        }
+        segment = Math.min(segment, knots.length - 2);
+        double h = knots[segment + 1] - knots[segment];
+        double before = x - knots[segment];
+        double after = knots[segment + 1] - x;
+        double[] m = secondDerivatives[servo];
+        return m[segment] * after * after * after / (6 * h)
+                + m[segment + 1] * before * before * before / (6 * h)
+                + (angles[segment][servo] / h - m[segment] * h / 6) * after
+                + (angles[segment + 1][servo] / h - m[segment + 1] * h / 6) * before;
+    }
+
+    /**
+     * Solves the tridiagonal system of the second derivatives at the knots of a clamped spline
+     * with zero velocity at both ends, with the Thomas algorithm.
+     */
+    private double[] solveClamped(int servo) {
+        int n = knots.length;
+        double[] lower = new double[n];
+        double[] diagonal = new double[n];
+        double[] upper = new double[n];
+        double[] rhs = new double[n];
+        for (int i = 0; i < n; i++) {
+            double slopeBefore = 0;
+            double slopeAfter = 0;
+            if (i > 0) {
+                double h = knots[i] - knots[i - 1];
+                lower[i] = h;
+                diagonal[i] += 2 * h;
+                slopeBefore = (angles[i][servo] - angles[i - 1][servo]) / h;
+            }
+            if (i < n - 1) {
+                double h = knots[i + 1] - knots[i];
+                upper[i] = h;
+                diagonal[i] += 2 * h;
+                slopeAfter = (angles[i + 1][servo] - angles[i][servo]) / h;
+            }
+            rhs[i] = 6 * (slopeAfter - slopeBefore);
+        }
+        for (int i = 1; i < n; i++) {
+            double factor = lower[i] / diagonal[i - 1];
+            diagonal[i] -= factor * upper[i - 1];
+            rhs[i] -= factor * rhs[i - 1];
+        }
+        double[] solution = new double[n];
+        solution[n - 1] = rhs[n - 1] / diagonal[n - 1];
+        for (int i = n - 2; i >= 0; i--) {
+            solution[i] = (rhs[i] - upper[i] * solution[i + 1]) / diagonal[i];
+        }
+        return solution;
+    }
+
+    /**
+     * Finds the peak absolute velocity of a servomotor over a segment: at one of its ends,
+     * or where its acceleration crosses zero inside the segment.
+     */
+    private double peakVelocity(int servo, int segment) {
+        double h = knots[segment + 1] - knots[segment];
+        double[] m = secondDerivatives[servo];
+        double peak = Math.max(Math.abs(velocity(servo, segment, 0)), Math.abs(velocity(servo, segment, h)));
+        if (m[segment] * m[segment + 1] < 0) {
+            double inflection = m[segment] * h / (m[segment] - m[segment + 1]);
+            peak = Math.max(peak, Math.abs(velocity(servo, segment, inflection)));
+        }
+        return peak;
+    }
+
+    private double velocity(int servo, int segment, double before) {
+        double h = knots[segment + 1] - knots[segment];
+        double after = h - before;
+        double[] m = secondDerivatives[servo];
+        return -m[segment] * after * after / (2 * h) + m[segment + 1] * before * before / (2 * h)
+                + (angles[segment + 1][servo] - angles[segment][servo]) / h - (m[segment + 1] - m[segment]) * h / 6;
+    }
+}
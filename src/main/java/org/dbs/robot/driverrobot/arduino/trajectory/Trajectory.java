@@ -0,0 +1,95 @@
+package org.dbs.robot.driverrobot.arduino.trajectory;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Motion of one or more servomotors over time, sampled by the {@link TrajectoryStreamer} at each control tick.
+ * Trajectories are immutable and can be followed several times.
+ */
+public interface Trajectory {
+
+    /**
+     * Gets the servomotors moved by this trajectory.
+     * The index of a servomotor in this list is its index for {@link #position(int, double)}.
+     *
+     * @return The names of the servomotors
+     */
+    List<String> servos();
+
+    /**
+     * Gets the time the trajectory takes from its first pose to its last pose.
+     *
+     * @return The duration in seconds
+     */
+    double duration();
+
+    /**
+     * Samples the angle of a servomotor.
+     *
+     * @param servo The index of the servomotor in {@link #servos()}
+     * @param time  The time in seconds since the start of the trajectory, between 0 and {@link #duration()}
+     * @return The angle in degrees
+     */
+    double position(int servo, double time);
+
+    /**
+     * Creates a trajectory moving straight from one pose to the next, stopping at each pose.
+     * Each move follows a trapezoidal velocity profile: it accelerates at the maximum acceleration,
+     * cruises at the maximum velocity and decelerates the same way. All the servomotors of a move
+     * start and arrive together, paced by the one with the longest way to go.
+     *
+     * @param poses  The poses in order; the first pose is the start and must give every servomotor
+     * @param limits The velocity and acceleration limits of the servomotors
+     * @return The trajectory
+     * @throws IllegalArgumentException if there are fewer than two poses or an angle is out of range
+     */
+    static Trajectory waypoints(List<Map<String, Integer>> poses, MotionLimits limits) {
+        return new WaypointTrajectory(PoseTable.of(poses), limits);
+    }
+
+    /**
+     * Creates a trajectory going smoothly through timed poses with a clamped cubic spline,
+     * so that the servomotors start and end at rest. When the spline would exceed the limits,
+     * the whole trajectory is slowed down uniformly until it does not.
+     *
+     * @param waypoints The timed poses, in strictly increasing time order; the first one must give every servomotor
+     * @param limits    The velocity and acceleration limits of the servomotors
+     * @return The trajectory
+     * @throws IllegalArgumentException if there are fewer than two waypoints, times are not increasing
+     *                                  or an angle is out of range
+     */
+    static Trajectory spline(List<Waypoint> waypoints, MotionLimits limits) {
+        if (waypoints == null || waypoints.size() < 2) {
+            throw new IllegalArgumentException("A trajectory needs at least two waypoints");
+        }
+        double[] times = new double[waypoints.size()];
+        for (int i = 0; i < times.length; i++) {
+            times[i] = waypoints.get(i).time();
+            if (i > 0 && !(times[i] > times[i - 1])) {
+                throw new IllegalArgumentException("Waypoint times must be strictly increasing: "
+                        + times[i - 1] + " then " + times[i]);
+            }
+        }
+        return new SplineTrajectory(PoseTable.of(waypoints.stream().map(Waypoint::angles).toList()), times, limits);
+    }
+
+    /**
+     * Creates a trajectory of the given type.
+     *
+     * @param type      The kind of trajectory
+     * @param waypoints The poses to go through
+     * @param limits    The velocity and acceleration limits of the servomotors
+     * @return The trajectory
+     * @throws IllegalArgumentException if the waypoints do not describe a valid trajectory
+     */
+    static Trajectory of(TrajectoryType type, List<Waypoint> waypoints, MotionLimits limits) {
+        if (waypoints == null) {
+            throw new IllegalArgumentException("A trajectory needs at least two waypoints");
+        }
+        return switch (type) {
+            case WAYPOINTS -> waypoints(waypoints.stream().map(Waypoint::angles).toList(), limits);
+            case SPLINE -> spline(waypoints, limits);
+        };
+    }
+}
@@ -0,0 +1,64 @@
+package org.dbs.robot.driverrobot.arduino.trajectory;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Configuration properties of the trajectory streaming engine.
+ * These properties can be set in application.properties or application.yml.
+ *
+ * Example:
+ * arduino.trajectory.control-rate-hz=50
+ * arduino.trajectory.max-velocity=180
+ * arduino.trajectory.max-acceleration=720
+ * arduino.trajectory.max-concurrent-runs=4
+ * arduino.trajectory.retained-runs=20
+ */
+@Data
+@ConfigurationProperties(prefix = "arduino.trajectory")
+public class TrajectoryConfig {
+
+    /**
+     * The number of setpoint ticks per second while a trajectory is streamed.
+     * Each tick writes at most one batch per board, so the serial link must carry a batch within a period;
+     * ticks are skipped otherwise.
+     * Default is 50.
+     */
+    private double controlRateHz = 50;
+
+    /**
+     * The default maximum angular velocity of the servomotors, in degrees per second.
+     * Default is 180.
+     */
+    private double maxVelocity = 180;
+
+    /**
+     * The default maximum angular acceleration of the servomotors, in degrees per second squared.
+     * Default is 720.
+     */
+    private double maxAcceleration = 720;
+
+    /**
+     * The maximum number of trajectories streamed at once, each on its own thread.
+     * Default is 4.
+     */
+    private int maxConcurrentRuns = 4;
+
+    /**
+     * The number of finished runs whose status can still be queried.
+     * Default is 20.
+     */
+    private int retainedRuns = 20;
+
+    /**
+     * Gets the motion limits of a trajectory, falling back to the defaults above.
+     *
+     * @param maxVelocity     The maximum velocity of the trajectory, or null for the default
+     * @param maxAcceleration The maximum acceleration of the trajectory, or null for the default
+     * @return The motion limits
+     */
+    public MotionLimits limits(Double maxVelocity, Double maxAcceleration) {
+        return new MotionLimits(maxVelocity != null ? maxVelocity : this.maxVelocity,
+                maxAcceleration != null ? maxAcceleration : this.maxAcceleration);
+    }
+}
@@ -0,0 +1,27 @@
+package org.dbs.robot.driverrobot.arduino.trajectory;
+
+import org.dbs.robot.driverrobot.arduino.AsyncArduinoController;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Spring configuration of the trajectory streaming engine.
+ */
+@Configuration
+@EnableConfigurationProperties(TrajectoryConfig.class)
+public class TrajectoryConfiguration {
+
+    /**
+     * Creates the TrajectoryStreamer bean sending its setpoints through the AsyncArduinoController.
+     *
+     * @param controller The asynchronous Arduino controller
+     * @param config     The trajectory configuration properties
+     * @return An instance of TrajectoryStreamer
+     */
+    @Bean
+    public TrajectoryStreamer trajectoryStreamer(AsyncArduinoController controller, TrajectoryConfig config) {
+        return new TrajectoryStreamer(controller, config.getControlRateHz(), config.getMaxConcurrentRuns(),
+                config.getRetainedRuns());
+    }
+}
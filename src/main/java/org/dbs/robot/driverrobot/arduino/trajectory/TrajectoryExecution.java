@@ -0,0 +1,92 @@
+package org.dbs.robot.driverrobot.arduino.trajectory;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Handle on a trajectory being streamed by the {@link TrajectoryStreamer}, to follow its progress or cancel it.
+ */
+public class TrajectoryExecution {
+
+    private final String id;
+    private final Trajectory trajectory;
+    private final CompletableFuture<TrajectoryResult> result = new CompletableFuture<>();
+    private volatile boolean cancelled;
+    private volatile Thread thread;
+
+    /**
+     * Constructor for TrajectoryExecution.
+     *
+     * @param id         The identifier of the run
+     * @param trajectory The trajectory being streamed
+     */
+    TrajectoryExecution(String id, Trajectory trajectory) {
+        this.id = id;
+        this.trajectory = trajectory;
+    }
+
+    /**
+     * Gets the identifier of the run.
+     *
+     * @return The identifier
+     */
+    public String getId() {
+        return id;
+    }
+
+    /**
+     * Gets the trajectory being streamed.
+     *
+     * @return The trajectory
+     */
+    public Trajectory getTrajectory() {
+        return trajectory;
+    }
+
+    /**
+     * Gets the outcome of the streaming, completed once the last setpoints are acknowledged
+     * or the trajectory is cancelled.
+     *
+     * @return A future completed with the outcome of the streaming
+     */
+    public CompletableFuture<TrajectoryResult> getResult() {
+        return result;
+    }
+
+    /**
+     * Gets the progress of the streaming, or its outcome once finished.
+     *
+     * @return The status
+     */
+    public TrajectoryStatus getStatus() {
+        TrajectoryResult outcome = result.getNow(null);
+        return new TrajectoryStatus(id, trajectory.servos(), trajectory.duration(), outcome != null, outcome);
+    }
+
+    /**
+     * Stops streaming the trajectory at the next tick. The servomotors stay where the last setpoints left them.
+     *
+     * @return true if the trajectory was cancelled, false if it was already finished
+     */
+    public boolean cancel() {
+        if (result.isDone()) {
+            return false;
+        }
+        cancelled = true;
+        LockSupport.unpark(thread);
+        return true;
+    }
+
+    /**
+     * Checks if the trajectory was cancelled.
+     *
+     * @return true if the trajectory was cancelled, false otherwise
+     */
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    void setThread(Thread thread) {
+        this.thread = thread;
+    }
+}
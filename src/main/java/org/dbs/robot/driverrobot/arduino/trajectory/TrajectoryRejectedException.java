@@ -0,0 +1,17 @@
+package org.dbs.robot.driverrobot.arduino.trajectory;
+
+/**
+ * Exception thrown when the {@link TrajectoryStreamer} refuses a trajectory because one of its servomotors is
+ * already following another trajectory, or because the maximum number of trajectories are already being streamed.
+ */
+public class TrajectoryRejectedException extends RuntimeException {
+
+    /**
+     * Constructor for TrajectoryRejectedException.
+     *
+     * @param message The reason of the rejection
+     */
+    public TrajectoryRejectedException(String message) {
+        super(message);
+    }
+}
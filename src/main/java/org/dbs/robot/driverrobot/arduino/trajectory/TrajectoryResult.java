@@ -0,0 +1,25 @@
+package org.dbs.robot.driverrobot.arduino.trajectory;
+
+/**
+ * Outcome of the streaming of a trajectory to the servomotors.
+ *
+ * @param ticks           The number of control ticks that sampled the trajectory
+ * @param batches         The number of batched writes sent to the Arduino, at most one per tick
+ * @param setpoints       The number of servo setpoints sent; unchanged angles are not sent again
+ * @param skippedTicks    The number of ticks skipped because the previous batch was still on the serial link
+ *                        or because the scheduler was late by more than one period
+ * @param failedSetpoints The number of setpoints the Arduino did not acknowledge
+ * @param cancelled       true if the trajectory was cancelled before its end
+ */
+public record TrajectoryResult(int ticks, int batches, int setpoints, int skippedTicks, int failedSetpoints,
+                               boolean cancelled) {
+
+    /**
+     * Checks if the whole trajectory was streamed and acknowledged.
+     *
+     * @return true if the trajectory ran to its end and every setpoint was acknowledged
+     */
+    public boolean isSuccessful() {
+        return !cancelled && failedSetpoints == 0;
+    }
+}
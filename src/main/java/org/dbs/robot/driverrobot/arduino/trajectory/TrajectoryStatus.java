@@ -0,0 +1,16 @@
+package org.dbs.robot.driverrobot.arduino.trajectory;
+
+import java.util.List;
+
+/**
+ * Progress, or outcome once finished, of a trajectory streamed by the {@link TrajectoryStreamer}.
+ *
+ * @param id       The identifier of the run
+ * @param servos   The servomotors moved by the trajectory
+ * @param duration The duration of the trajectory in seconds
+ * @param finished true once the trajectory ran to its end or was cancelled
+ * @param result   The outcome of the streaming, or null while the trajectory is being streamed
+ */
+public record TrajectoryStatus(String id, List<String> servos, double duration, boolean finished,
+                               TrajectoryResult result) {
+}
@@ -0,0 +1,240 @@
+package org.dbs.robot.driverrobot.arduino.trajectory;
+
+import lombok.extern.slf4j.Slf4j;
+import org.dbs.robot.driverrobot.arduino.AsyncArduinoController;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Streams trajectories to the servomotors as position setpoints at a fixed control rate.
+ * Each trajectory runs on its own thread. Tick n is due at start + n periods, computed from the start time
+ * rather than by sleeping one period after the previous tick, so scheduling jitter never accumulates into drift.
+ * At each tick, the trajectory is sampled at the tick time and the setpoints whose angle changed are coalesced
+ * into a single batched write per board. A tick is skipped when the previous batch is still on the serial link,
+ * so a slow link drops intermediate setpoints instead of queueing an ever-growing backlog;
+ * the last pose is always sent.
+ * A servomotor follows one trajectory at a time, and the number of trajectories streamed at once is capped,
+ * so that two clients never fight over a servomotor and cannot start an unbounded number of streaming threads.
+ */
+@Slf4j
+public class TrajectoryStreamer implements AutoCloseable {
+
+    /**
+     * Parking overshoots by a few hundred microseconds, so the end of the wait for a tick is spent spinning.
+     */
+    private static final long SPIN_NANOS = TimeUnit.MICROSECONDS.toNanos(200);
+
+    private final AsyncArduinoController controller;
+    private final long periodNanos;
+    private final int maxRuns;
+    private final int retainedRuns;
+    private final AtomicInteger threadCount = new AtomicInteger();
+    private final Set<TrajectoryExecution> running = ConcurrentHashMap.newKeySet();
+    private final ConcurrentMap<String, TrajectoryExecution> executions = new ConcurrentHashMap<>();
+    private final Queue<String> finished = new ConcurrentLinkedQueue<>();
+
+    /**
+     * Constructor for TrajectoryStreamer.
+     *
+     * @param controller    The controller sending the setpoints to the Arduino boards
+     * @param controlRateHz The number of setpoint ticks per second
+     * @param maxRuns       The maximum number of trajectories streamed at once
+     * @param retainedRuns  The number of finished runs whose status is kept
+     */
+    public TrajectoryStreamer(AsyncArduinoController controller, double controlRateHz, int maxRuns, int retainedRuns) {
+        if (!(controlRateHz > 0)) {
+            throw new IllegalArgumentException("The control rate must be positive: " + controlRateHz);
+        }
+        if (maxRuns < 1) {
+            throw new IllegalArgumentException("The maximum number of trajectories must be positive: " + maxRuns);
+        }
+        this.controller = controller;
+        this.periodNanos = Math.round(TimeUnit.SECONDS.toNanos(1) / controlRateHz);
+        this.maxRuns = maxRuns;
+        this.retainedRuns = Math.max(retainedRuns, 0);
+    }
+
+    /**
+     * Starts streaming a trajectory. The first setpoints are sent immediately.
+     *
+     * @param trajectory The trajectory to follow
+     * @return The handle on the streaming, to follow its progress, wait for its outcome or cancel it
+     * @throws TrajectoryRejectedException if one of its servomotors is already following a trajectory,
+     *                                     or if the maximum number of trajectories are already being streamed
+     */
+    public synchronized TrajectoryExecution follow(Trajectory trajectory) {
+        if (running.size() >= maxRuns) {
+            throw new TrajectoryRejectedException("Already streaming " + running.size() + " trajectories, the maximum");
+        }
+        for (TrajectoryExecution other : running) {
+            for (String servo : trajectory.servos()) {
+                if (other.getTrajectory().servos().contains(servo)) {
+                    throw new TrajectoryRejectedException("Servo " + servo + " is already following trajectory "
+                            + other.getId());
+                }
+            }
+        }
+        TrajectoryExecution execution = new TrajectoryExecution(UUID.randomUUID().toString(), trajectory);
+        Thread thread = new Thread(() -> stream(execution), "trajectory-" + threadCount.incrementAndGet());
+        thread.setDaemon(true);
+        execution.setThread(thread);
+        running.add(execution);
+        executions.put(execution.getId(), execution);
+        log.info("Following trajectory {} of {} s for servos {}", execution.getId(), trajectory.duration(),
+                trajectory.servos());
+        thread.start();
+        return execution;
+    }
+
+    /**
+     * Finds a trajectory that is being streamed or among the last finished ones.
+     *
+     * @param id The identifier of the run
+     * @return The run, or empty if it is unknown
+     */
+    public Optional<TrajectoryExecution> find(String id) {
+        return Optional.ofNullable(executions.get(id));
+    }
+
+    /**
+     * Cancels the trajectories being streamed.
+     */
+    @Override
+    public void close() {
+        running.forEach(TrajectoryExecution::cancel);
+    }
+
+    private void stream(TrajectoryExecution execution) {
+        Trajectory trajectory = execution.getTrajectory();
+        List<String> servos = trajectory.servos();
+        int[] sent = new int[servos.size()];
+        Arrays.fill(sent, -1);
+        long durationNanos = Math.round(trajectory.duration() * TimeUnit.SECONDS.toNanos(1));
+        Counters counters = new Counters();
+        CompletableFuture<?> pending = CompletableFuture.completedFuture(null);
+        long start = System.nanoTime();
+        try {
+            for (long tick = 0; !execution.isCancelled(); tick++) {
+                long late = System.nanoTime() - (start + tick * periodNanos);
+                if (late >= periodNanos) {
+                    counters.skippedTicks += (int) (late / periodNanos);
+                    tick += late / periodNanos;
+                }
+                if (!awaitTick(start + tick * periodNanos, execution)) {
+                    break;
+                }
+                long elapsed = Math.min(tick * periodNanos, durationNanos);
+                boolean last = elapsed == durationNanos;
+                counters.ticks++;
+                if (last) {
+                    pending.handle((result, error) -> null).join();
+                }
+                if (pending.isDone()) {
+                    pending = sendSetpoints(trajectory, elapsed / 1e9, sent, counters);
+                } else {
+                    counters.skippedTicks++;
+                }
+                if (last) {
+                    break;
+                }
+            }
+            pending.handle((result, error) -> null).join();
+        } catch (RuntimeException e) {
+            log.error("Trajectory streaming failed", e);
+        } finally {
+            running.remove(execution);
+            retire(execution.getId());
+            TrajectoryResult result = counters.toResult(execution.isCancelled());
+            log.info("Trajectory {} finished: {}", execution.getId(), result);
+            execution.getResult().complete(result);
+        }
+    }
+
+    /**
+     * Samples the trajectory and sends the setpoints whose angle changed since the last batch, in one batch.
+     */
+    private CompletableFuture<?> sendSetpoints(Trajectory trajectory, double time, int[] sent, Counters counters) {
+        List<String> servos = trajectory.servos();
+        Map<String, Integer> setpoints = new LinkedHashMap<>();
+        for (int servo = 0; servo < servos.size(); servo++) {
+            int angle = (int) Math.round(Math.min(180, Math.max(0, trajectory.position(servo, time))));
+            if (angle != sent[servo]) {
+                setpoints.put(servos.get(servo), angle);
+                sent[servo] = angle;
+            }
+        }
+        if (setpoints.isEmpty()) {
+            return CompletableFuture.completedFuture(null);
+        }
+        counters.batches++;
+        counters.setpoints += setpoints.size();
+        return controller.positionServos(setpoints).handle((results, error) -> {
+            int failed = error != null ? setpoints.size()
+                    : (int) results.values().stream().filter(success -> !success).count();
+            if (failed > 0) {
+                counters.failedSetpoints.addAndGet(failed);
+                log.debug("{} setpoint(s) of {} failed", failed, setpoints, error);
+            }
+            return null;
+        });
+    }
+
+    /**
+     * Keeps the status of the last finished runs only.
+     */
+    private void retire(String id) {
+        finished.add(id);
+        while (finished.size() > retainedRuns) {
+            String oldest = finished.poll();
+            if (oldest != null) {
+                executions.remove(oldest);
+            }
+        }
+    }
+
+    /**
+     * Parks until shortly before the deadline of a tick, then spins until the deadline.
+     *
+     * @return false if the trajectory was cancelled while waiting
+     */
+    private static boolean awaitTick(long deadline, TrajectoryExecution execution) {
+        long remaining;
+        while ((remaining = deadline - System.nanoTime()) > 0 && !execution.isCancelled()) {
+            if (remaining > SPIN_NANOS) {
+                LockSupport.parkNanos(remaining - SPIN_NANOS);
+            } else {
+                Thread.onSpinWait();
+            }
+        }
+        return !execution.isCancelled();
+    }
+
+    /**
+     * Statistics of one streaming. Only the failures are updated from other threads.
+     */
+    private static final class Counters {
+        int ticks;
+        int batches;
+        int setpoints;
+        int skippedTicks;
+        final AtomicInteger failedSetpoints = new AtomicInteger();
+
+        TrajectoryResult toResult(boolean cancelled) {
+            return new TrajectoryResult(ticks, batches, setpoints, skippedTicks, failedSetpoints.get(), cancelled);
+        }
+    }
+}
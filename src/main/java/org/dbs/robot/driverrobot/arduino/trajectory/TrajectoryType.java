@@ -0,0 +1,17 @@
+package org.dbs.robot.driverrobot.arduino.trajectory;
+
+/**
+ * Kinds of trajectories through a list of waypoints.
+ */
+public enum TrajectoryType {
+    /**
+     * Straight moves from one waypoint to the next, stopping at each waypoint,
+     * as fast as the motion limits allow.
+     */
+    WAYPOINTS,
+    /**
+     * A smooth cubic spline through the waypoints at their times, starting and ending at rest,
+     * slowed down as a whole when it would exceed the motion limits.
+     */
+    SPLINE
+}
@@ -0,0 +1,64 @@
+package org.dbs.robot.driverrobot.arduino.trajectory;
+
+/**
+ * Time-optimal velocity profile of a move over a distance from rest to rest:
+ * constant acceleration up to the maximum velocity, cruise, then constant deceleration.
+ * Short moves never reach the maximum velocity and have a triangular profile.
+ */
+final class TrapezoidalProfile {
+
+    private final double distance;
+    private final double acceleration;
+    private final double peakVelocity;
+    private final double accelerationTime;
+    private final double duration;
+
+    /**
+     * Constructor for TrapezoidalProfile.
+     *
+     * @param distance The length of the move, in degrees
+     * @param limits   The velocity and acceleration limits
+     */
+    TrapezoidalProfile(double distance, MotionLimits limits) {
+        this.distance = Math.abs(distance);
+        this.acceleration = limits.maxAcceleration();
+        this.peakVelocity = Math.min(limits.maxVelocity(), Math.sqrt(this.distance * acceleration));
+        this.accelerationTime = peakVelocity / acceleration;
+        double cruiseTime = peakVelocity == 0 ? 0 : this.distance / peakVelocity - accelerationTime;
+        this.duration = 2 * accelerationTime + cruiseTime;
+    }
+
+    /**
+     * Gets the time the move takes.
+     *
+     * @return The duration in seconds
+     */
+    double duration() {
+        return duration;
+    }
+
+    /**
+     * Gets the fraction of the distance travelled at a given time.
+     *
+     * @param time The time in seconds since the start of the move
+     * @return The travelled fraction, from 0 at the start to 1 at the end
+     */
+    double fraction(double time) {
+        if (distance == 0 || time >= duration) {
+            return 1;
+        }
+        if (time <= 0) {
+            return 0;
+        }
+        double travelled;
+        if (time < accelerationTime) {
+            travelled = acceleration * time * time / 2;
+        } else if (time <= duration - accelerationTime) {
+            travelled = peakVelocity * accelerationTime / 2 + peakVelocity * (time - accelerationTime);
+        } else {
+            double remaining = duration - time;
+            travelled = distance - acceleration * remaining * remaining / 2;
+        }
+        return travelled / distance;
+    }
+}
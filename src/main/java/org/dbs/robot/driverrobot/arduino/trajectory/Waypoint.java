@@ -0,0 +1,14 @@
+package org.dbs.robot.driverrobot.arduino.trajectory;
+
+import java.util.Map;
+
+/**
+ * A pose of one or more servomotors that a trajectory goes through.
+ * A servomotor missing from a waypoint keeps its angle from the previous waypoint.
+ *
+ * @param time   The time in seconds at which a spline trajectory goes through the pose;
+ *               ignored by waypoint trajectories, whose timing follows from the motion limits
+ * @param angles The angle of each servomotor, by servomotor name
+ */
+public record Waypoint(double time, Map<String, Integer> angles) {
+}
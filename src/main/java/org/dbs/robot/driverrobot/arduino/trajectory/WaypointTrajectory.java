@@ -0,0 +1,62 @@
+package org.dbs.robot.driverrobot.arduino.trajectory;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Trajectory moving straight from one pose to the next with a trapezoidal velocity profile, stopping at each pose.
+ * All the servomotors of a move share the profile of the longest one, scaled to their own distance,
+ * so that they start and arrive together without exceeding the limits.
+ */
+final class WaypointTrajectory implements Trajectory {
+
+    private final List<String> servos;
+    private final double[][] angles;
+    private final TrapezoidalProfile[] moves;
+    private final double[] startTimes;
+    private final double duration;
+
+    /**
+     * Constructor for WaypointTrajectory.
+     *
+     * @param poses  The poses to go through
+     * @param limits The velocity and acceleration limits of the servomotors
+     */
+    WaypointTrajectory(PoseTable poses, MotionLimits limits) {
+        this.servos = poses.servos();
+        this.angles = poses.angles();
+        this.moves = new TrapezoidalProfile[angles.length - 1];
+        this.startTimes = new double[angles.length - 1];
+        double time = 0;
+        for (int move = 0; move < moves.length; move++) {
+            double longest = 0;
+            for (int servo = 0; servo < servos.size(); servo++) {
+                longest = Math.max(longest, Math.abs(angles[move + 1][servo] - angles[move][servo]));
+            }
+            moves[move] = new TrapezoidalProfile(longest, limits);
+            startTimes[move] = time;
+            time += moves[move].duration();
+        }
+        this.duration = time;
+    }
+
+    @Override
+    public List<String> servos() {
+        return servos;
+    }
+
+    @Override
+    public double duration() {
+        return duration;
+    }
+
+    @Override
+    public double position(int servo, double time) {
+        int move = Arrays.binarySearch(startTimes, time);
+        if (move < 0) {
+            move = Math.max(0, -move - 2);
+        }
+        double fraction = moves[move].fraction(time - startTimes[move]);
+        return angles[move][servo] + (angles[move + 1][servo] - angles[move][servo]) * fraction;
+    }
+}
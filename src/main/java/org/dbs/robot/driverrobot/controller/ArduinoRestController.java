@@ -9,12 +9,47 @@ import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
 import org.dbs.robot.driverrobot.arduino.ArduinoController;
+import org.dbs.robot.driverrobot.arduino.AsyncArduinoController;
+import org.dbs.robot.driverrobot.arduino.DeviceOperation;
+import org.dbs.robot.driverrobot.arduino.events.ArduinoEventBroadcaster;
+import org.dbs.robot.driverrobot.arduino.events.EventSubscription;
+import org.dbs.robot.driverrobot.arduino.sequence.Sequence;
+import org.dbs.robot.driverrobot.arduino.sequence.SequenceExecution;
+import org.dbs.robot.driverrobot.arduino.sequence.SequenceRunner;
+import org.dbs.robot.driverrobot.arduino.sequence.SequenceStatus;
+import org.dbs.robot.driverrobot.arduino.serial.ArduinoEventType;
+import org.dbs.robot.driverrobot.arduino.serial.CommandDeadline;
+import org.dbs.robot.driverrobot.arduino.serial.CommandExpiredException;
+import org.dbs.robot.driverrobot.arduino.serial.CommandRejectedException;
+import org.dbs.robot.driverrobot.arduino.serial.DeviceState;
+import org.dbs.robot.driverrobot.arduino.trajectory.Trajectory;
+import org.dbs.robot.driverrobot.arduino.trajectory.TrajectoryConfig;
+import org.dbs.robot.driverrobot.arduino.trajectory.TrajectoryExecution;
+import org.dbs.robot.driverrobot.arduino.trajectory.TrajectoryRejectedException;
+import org.dbs.robot.driverrobot.arduino.trajectory.TrajectoryStatus;
+import org.dbs.robot.driverrobot.arduino.trajectory.TrajectoryStreamer;
+import org.dbs.robot.driverrobot.arduino.trajectory.TrajectoryType;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Predicate;
+import java.util.stream.IntStream;
 
 /**
  * REST controller for Arduino operations.
  * This controller provides HTTP endpoints to control LEDs and servomotors.
+ * Device commands are handled asynchronously, so no request thread waits for the Arduino's response,
+ * and their outcomes are also pushed to the subscribers of the event stream.
+ * A caller can bound the time its device commands are useful with the {@value #DEADLINE_HEADER} header: commands
+ * still queued when the deadline passes are dropped before being written, and the request gets a 504 Gateway Timeout.
  */
 @RestController
 @RequestMapping("/api/arduino")
@@ -22,7 +57,17 @@ import org.springframework.web.bind.annotation.*;
 @Tag(name = "Arduino Controller", description = "API for controlling Arduino devices with LEDs and servomotors")
 public class ArduinoRestController {
 
+    /**
+     * Header giving the time in milliseconds, from the arrival of the request, within which its commands are still useful.
+     */
+    public static final String DEADLINE_HEADER = "X-Deadline-Ms";
+
     private final ArduinoController arduinoController;
+    private final AsyncArduinoController asyncArduinoController;
+    private final TrajectoryStreamer trajectoryStreamer;
+    private final TrajectoryConfig trajectoryConfig;
+    private final SequenceRunner sequenceRunner;
+    private final ArduinoEventBroadcaster eventBroadcaster;
 
     /**
      * Checks if the Arduino is ready.
@@ -54,12 +99,70 @@ public class ArduinoRestController {
         }
     }
 
+    /**
+     * Gets the last acknowledged state of the LEDs and servomotors, served from memory without querying the Arduino.
+     *
+     * @return HTTP 200 OK with the known state of each device, by device name
+     */
+    @Operation(
+        summary = "Get device states",
+        description = "Returns the last state acknowledged by the Arduino boards for each LED and servomotor; "
+                + "devices whose state is unknown since their board was reset are left out"
+    )
+    @ApiResponses(value = {
+        @ApiResponse(
+            responseCode = "200",
+            description = "The known device states",
+            content = @Content(mediaType = "application/json")
+        )
+    })
+    @GetMapping("/state")
+    public ResponseEntity<Map<String, DeviceState>> getDeviceStates() {
+        return ResponseEntity.ok(arduinoController.getDeviceStates());
+    }
+
+    /**
+     * Streams the events of the Arduino boards as Server-Sent Events, named after their type in lower case.
+     * Each client has its own bounded buffer, so a slow client drops events instead of slowing the boards down.
+     *
+     * @param types The types of events to stream, all of them if omitted
+     * @return The event stream, open until the client disconnects
+     */
+    @Operation(
+        summary = "Stream Arduino events",
+        description = "Pushes command acknowledgements, device states, connection states and unsolicited lines "
+                + "of the Arduino boards as Server-Sent Events"
+    )
+    @ApiResponses(value = {
+        @ApiResponse(
+            responseCode = "200",
+            description = "The event stream",
+            content = @Content(mediaType = "text/event-stream")
+        )
+    })
+    @GetMapping(path = "/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamEvents(
+            @Parameter(description = "Types of events to stream, all of them if omitted")
+            @RequestParam(required = false) Set<ArduinoEventType> types) {
+        SseEmitter emitter = new SseEmitter(0L);
+        EventSubscription subscription = eventBroadcaster.subscribe(types, event -> emitter.send(SseEmitter.event()
+                .name(event.type().name().toLowerCase())
+                .data(event, MediaType.APPLICATION_JSON)));
+        emitter.onCompletion(subscription::close);
+        emitter.onTimeout(subscription::close);
+        emitter.onError(error -> subscription.close());
+        return emitter;
+    }
+
     /**
      * Controls an LED.
      *
      * @param name  The name of the LED
      * @param state The state to set (true for on, false for off)
-     * @return HTTP 200 OK if successful, HTTP 500 Internal Server Error if failed
+     * @param deadlineMs The time in milliseconds within which the command is still useful, or null
+     * @return HTTP 200 OK if successful, HTTP 500 Internal Server Error if failed,
+     *         HTTP 503 Service Unavailable if the command queue is full,
+     *         HTTP 504 Gateway Timeout if the deadline passed first
      */
     @Operation(
         summary = "Control LED",
@@ -75,17 +178,31 @@ public class ArduinoRestController {
             responseCode = "500", 
             description = "Failed to control LED",
             content = @Content(mediaType = "text/plain", schema = @Schema(type = "string"))
+        ),
+        @ApiResponse(
+            responseCode = "503",
+            description = "The command queue is full",
+            content = @Content(mediaType = "text/plain", schema = @Schema(type = "string"))
+        ),
+        @ApiResponse(
+            responseCode = "504",
+            description = "The deadline passed before the Arduino acknowledged the command",
+            content = @Content(mediaType = "text/plain", schema = @Schema(type = "string"))
         )
     })
     @PostMapping("/led/{name}")
-    public ResponseEntity<String> controlLed(
+    public CompletableFuture<ResponseEntity<String>> controlLed(
             @Parameter(description = "LED name identifier", required = true) @PathVariable String name,
-            @Parameter(description = "LED state (true for on, false for off)", required = true) @RequestParam boolean state) {
-        if (arduinoController.controlLed(name, state)) {
-            return ResponseEntity.ok("LED " + name + " " + (state ? "turned on" : "turned off"));
-        } else {
-            return ResponseEntity.status(500).body("Failed to control LED " + name);
-        }
+            @Parameter(description = "LED state (true for on, false for off)", required = true) @RequestParam boolean state,
+            @Parameter(description = "Time in milliseconds within which the command is still useful, the configured command timeout if omitted")
+            @RequestHeader(name = DEADLINE_HEADER, required = false) Long deadlineMs) {
+        return async(deadlineMs).controlLed(name, state).thenApply(success -> {
+            if (success) {
+                return ResponseEntity.ok("LED " + name + " " + (state ? "turned on" : "turned off"));
+            } else {
+                return ResponseEntity.status(500).body("Failed to control LED " + name);
+            }
+        });
     }
 
     /**
@@ -93,7 +210,10 @@ public class ArduinoRestController {
      *
      * @param name  The name of the servomotor
      * @param angle The angle to position the servomotor
-     * @return HTTP 200 OK if successful, HTTP 500 Internal Server Error if failed
+     * @param deadlineMs The time in milliseconds within which the command is still useful, or null
+     * @return HTTP 200 OK if successful, HTTP 500 Internal Server Error if failed,
+     *         HTTP 503 Service Unavailable if the command queue is full,
+     *         HTTP 504 Gateway Timeout if the deadline passed first
      */
     @Operation(
         summary = "Position servomotor",
@@ -109,17 +229,31 @@ public class ArduinoRestController {
             responseCode = "500", 
             description = "Failed to position servo",
             content = @Content(mediaType = "text/plain", schema = @Schema(type = "string"))
+        ),
+        @ApiResponse(
+            responseCode = "503",
+            description = "The command queue is full",
+            content = @Content(mediaType = "text/plain", schema = @Schema(type = "string"))
+        ),
+        @ApiResponse(
+            responseCode = "504",
+            description = "The deadline passed before the Arduino acknowledged the command",
+            content = @Content(mediaType = "text/plain", schema = @Schema(type = "string"))
         )
     })
     @PostMapping("/servo/{name}/position")
-    public ResponseEntity<String> positionServo(
+    public CompletableFuture<ResponseEntity<String>> positionServo(
             @Parameter(description = "Servo name identifier", required = true) @PathVariable String name,
-            @Parameter(description = "Angle in degrees (typically 0-180)", required = true) @RequestParam int angle) {
-        if (arduinoController.positionServo(name, angle)) {
-            return ResponseEntity.ok("Servo " + name + " positioned at " + angle + " degrees");
-        } else {
-            return ResponseEntity.status(500).body("Failed to position servo " + name);
-        }
+            @Parameter(description = "Angle in degrees (typically 0-180)", required = true) @RequestParam int angle,
+            @Parameter(description = "Time in milliseconds within which the command is still useful, the configured command timeout if omitted")
+            @RequestHeader(name = DEADLINE_HEADER, required = false) Long deadlineMs) {
+        return async(deadlineMs).positionServo(name, angle).thenApply(success -> {
+            if (success) {
+                return ResponseEntity.ok("Servo " + name + " positioned at " + angle + " degrees");
+            } else {
+                return ResponseEntity.status(500).body("Failed to position servo " + name);
+            }
+        });
     }
 
     /**
@@ -129,7 +263,10 @@ public class ArduinoRestController {
      * @param startAngle The starting angle of the sweep
      * @param endAngle   The ending angle of the sweep
      * @param speed      The speed of the sweep
-     * @return HTTP 200 OK if successful, HTTP 500 Internal Server Error if failed
+     * @param deadlineMs The time in milliseconds within which the command is still useful, or null
+     * @return HTTP 200 OK if successful, HTTP 500 Internal Server Error if failed,
+     *         HTTP 503 Service Unavailable if the command queue is full,
+     *         HTTP 504 Gateway Timeout if the deadline passed first
      */
     @Operation(
         summary = "Perform sweep movement",
@@ -145,19 +282,33 @@ public class ArduinoRestController {
             responseCode = "500", 
             description = "Failed to sweep servo",
             content = @Content(mediaType = "text/plain", schema = @Schema(type = "string"))
+        ),
+        @ApiResponse(
+            responseCode = "503",
+            description = "The command queue is full",
+            content = @Content(mediaType = "text/plain", schema = @Schema(type = "string"))
+        ),
+        @ApiResponse(
+            responseCode = "504",
+            description = "The deadline passed before the Arduino acknowledged the command",
+            content = @Content(mediaType = "text/plain", schema = @Schema(type = "string"))
         )
     })
     @PostMapping("/servo/{name}/sweep")
-    public ResponseEntity<String> sweepServo(
+    public CompletableFuture<ResponseEntity<String>> sweepServo(
             @Parameter(description = "Servo name identifier", required = true) @PathVariable String name,
             @Parameter(description = "Starting angle in degrees", required = true) @RequestParam int startAngle,
             @Parameter(description = "Ending angle in degrees", required = true) @RequestParam int endAngle,
-            @Parameter(description = "Speed of movement (higher values mean faster movement)", required = true) @RequestParam int speed) {
-        if (arduinoController.sweep(name, startAngle, endAngle, speed)) {
-            return ResponseEntity.ok("Servo " + name + " sweeping from " + startAngle + " to " + endAngle);
-        } else {
-            return ResponseEntity.status(500).body("Failed to sweep servo " + name);
-        }
+            @Parameter(description = "Speed of movement (higher values mean faster movement)", required = true) @RequestParam int speed,
+            @Parameter(description = "Time in milliseconds within which the command is still useful, the configured command timeout if omitted")
+            @RequestHeader(name = DEADLINE_HEADER, required = false) Long deadlineMs) {
+        return async(deadlineMs).sweep(name, startAngle, endAngle, speed).thenApply(success -> {
+            if (success) {
+                return ResponseEntity.ok("Servo " + name + " sweeping from " + startAngle + " to " + endAngle);
+            } else {
+                return ResponseEntity.status(500).body("Failed to sweep servo " + name);
+            }
+        });
     }
 
     /**
@@ -167,7 +318,10 @@ public class ArduinoRestController {
      * @param startAngle The starting angle of the sweep
      * @param endAngle   The ending angle of the sweep
      * @param speed      The speed of the sweep
-     * @return HTTP 200 OK if successful, HTTP 500 Internal Server Error if failed
+     * @param deadlineMs The time in milliseconds within which the command is still useful, or null
+     * @return HTTP 200 OK if successful, HTTP 500 Internal Server Error if failed,
+     *         HTTP 503 Service Unavailable if the command queue is full,
+     *         HTTP 504 Gateway Timeout if the deadline passed first
      */
     @Operation(
         summary = "Perform half-sweep movement",
@@ -183,19 +337,33 @@ public class ArduinoRestController {
             responseCode = "500", 
             description = "Failed to half-sweep servo",
             content = @Content(mediaType = "text/plain", schema = @Schema(type = "string"))
+        ),
+        @ApiResponse(
+            responseCode = "503",
+            description = "The command queue is full",
+            content = @Content(mediaType = "text/plain", schema = @Schema(type = "string"))
+        ),
+        @ApiResponse(
+            responseCode = "504",
+            description = "The deadline passed before the Arduino acknowledged the command",
+            content = @Content(mediaType = "text/plain", schema = @Schema(type = "string"))
         )
     })
     @PostMapping("/servo/{name}/half-sweep")
-    public ResponseEntity<String> halfSweepServo(
+    public CompletableFuture<ResponseEntity<String>> halfSweepServo(
             @Parameter(description = "Servo name identifier", required = true) @PathVariable String name,
             @Parameter(description = "Starting angle in degrees", required = true) @RequestParam int startAngle,
             @Parameter(description = "Ending angle in degrees", required = true) @RequestParam int endAngle,
-            @Parameter(description = "Speed of movement (higher values mean faster movement)", required = true) @RequestParam int speed) {
-        if (arduinoController.halfSweep(name, startAngle, endAngle, speed)) {
-            return ResponseEntity.ok("Servo " + name + " half-sweeping from " + startAngle + " to " + endAngle);
-        } else {
-            return ResponseEntity.status(500).body("Failed to half-sweep servo " + name);
-        }
+            @Parameter(description = "Speed of movement (higher values mean faster movement)", required = true) @RequestParam int speed,
+            @Parameter(description = "Time in milliseconds within which the command is still useful, the configured command timeout if omitted")
+            @RequestHeader(name = DEADLINE_HEADER, required = false) Long deadlineMs) {
+        return async(deadlineMs).halfSweep(name, startAngle, endAngle, speed).thenApply(success -> {
+            if (success) {
+                return ResponseEntity.ok("Servo " + name + " half-sweeping from " + startAngle + " to " + endAngle);
+            } else {
+                return ResponseEntity.status(500).body("Failed to half-sweep servo " + name);
+            }
+        });
     }
 
     /**
@@ -205,7 +373,10 @@ public class ArduinoRestController {
      * @param startAngle The starting angle of the sweep
      * @param endAngle   The ending angle of the sweep
      * @param speed      The speed of the sweep
-     * @return HTTP 200 OK if successful, HTTP 500 Internal Server Error if failed
+     * @param deadlineMs The time in milliseconds within which the command is still useful, or null
+     * @return HTTP 200 OK if successful, HTTP 500 Internal Server Error if failed,
+     *         HTTP 503 Service Unavailable if the command queue is full,
+     *         HTTP 504 Gateway Timeout if the deadline passed first
      */
     @Operation(
         summary = "Perform reverse-half-sweep movement",
@@ -221,19 +392,33 @@ public class ArduinoRestController {
             responseCode = "500", 
             description = "Failed to reverse-half-sweep servo",
             content = @Content(mediaType = "text/plain", schema = @Schema(type = "string"))
+        ),
+        @ApiResponse(
+            responseCode = "503",
+            description = "The command queue is full",
+            content = @Content(mediaType = "text/plain", schema = @Schema(type = "string"))
+        ),
+        @ApiResponse(
+            responseCode = "504",
+            description = "The deadline passed before the Arduino acknowledged the command",
+            content = @Content(mediaType = "text/plain", schema = @Schema(type = "string"))
         )
     })
     @PostMapping("/servo/{name}/reverse-half-sweep")
-    public ResponseEntity<String> reverseHalfSweepServo(
+    public CompletableFuture<ResponseEntity<String>> reverseHalfSweepServo(
             @Parameter(description = "Servo name identifier", required = true) @PathVariable String name,
             @Parameter(description = "Starting angle in degrees", required = true) @RequestParam int startAngle,
             @Parameter(description = "Ending angle in degrees", required = true) @RequestParam int endAngle,
-            @Parameter(description = "Speed of movement (higher values mean faster movement)", required = true) @RequestParam int speed) {
-        if (arduinoController.reverseHalfSweep(name, startAngle, endAngle, speed)) {
-            return ResponseEntity.ok("Servo " + name + " reverse-half-sweeping from " + startAngle + " to " + endAngle);
-        } else {
-            return ResponseEntity.status(500).body("Failed to reverse-half-sweep servo " + name);
-        }
+            @Parameter(description = "Speed of movement (higher values mean faster movement)", required = true) @RequestParam int speed,
+            @Parameter(description = "Time in milliseconds within which the command is still useful, the configured command timeout if omitted")
+            @RequestHeader(name = DEADLINE_HEADER, required = false) Long deadlineMs) {
+        return async(deadlineMs).reverseHalfSweep(name, startAngle, endAngle, speed).thenApply(success -> {
+            if (success) {
+                return ResponseEntity.ok("Servo " + name + " reverse-half-sweeping from " + startAngle + " to " + endAngle);
+            } else {
+                return ResponseEntity.status(500).body("Failed to reverse-half-sweep servo " + name);
+            }
+        });
     }
 
     /**
@@ -243,7 +428,10 @@ public class ArduinoRestController {
      * @param startAngle The starting angle of the sweep
      * @param endAngle   The ending angle of the sweep
      * @param speed      The speed of the sweep
-     * @return HTTP 200 OK if successful, HTTP 500 Internal Server Error if failed
+     * @param deadlineMs The time in milliseconds within which the command is still useful, or null
+     * @return HTTP 200 OK if successful, HTTP 500 Internal Server Error if failed,
+     *         HTTP 503 Service Unavailable if the command queue is full,
+     *         HTTP 504 Gateway Timeout if the deadline passed first
      */
     @Operation(
         summary = "Perform reverse-sweep movement",
@@ -259,19 +447,301 @@ public class ArduinoRestController {
             responseCode = "500", 
             description = "Failed to reverse-sweep servo",
             content = @Content(mediaType = "text/plain", schema = @Schema(type = "string"))
+        ),
+        @ApiResponse(
+            responseCode = "503",
+            description = "The command queue is full",
+            content = @Content(mediaType = "text/plain", schema = @Schema(type = "string"))
+        ),
+        @ApiResponse(
+            responseCode = "504",
+            description = "The deadline passed before the Arduino acknowledged the command",
+            content = @Content(mediaType = "text/plain", schema = @Schema(type = "string"))
         )
     })
     @PostMapping("/servo/{name}/reverse-sweep")
-    public ResponseEntity<String> reverseSweepServo(
+    public CompletableFuture<ResponseEntity<String>> reverseSweepServo(
             @Parameter(description = "Servo name identifier", required = true) @PathVariable String name,
             @Parameter(description = "Starting angle in degrees", required = true) @RequestParam int startAngle,
             @Parameter(description = "Ending angle in degrees", required = true) @RequestParam int endAngle,
-            @Parameter(description = "Speed of movement (higher values mean faster movement)", required = true) @RequestParam int speed) {
-        if (arduinoController.reverseSweep(name, startAngle, endAngle, speed)) {
-            return ResponseEntity.ok("Servo " + name + " reverse-sweeping from " + startAngle + " to " + endAngle);
-        } else {
-            return ResponseEntity.status(500).body("Failed to reverse-sweep servo " + name);
-        }
+            @Parameter(description = "Speed of movement (higher values mean faster movement)", required = true) @RequestParam int speed,
+            @Parameter(description = "Time in milliseconds within which the command is still useful, the configured command timeout if omitted")
+            @RequestHeader(name = DEADLINE_HEADER, required = false) Long deadlineMs) {
+        return async(deadlineMs).reverseSweep(name, startAngle, endAngle, speed).thenApply(success -> {
+            if (success) {
+                return ResponseEntity.ok("Servo " + name + " reverse-sweeping from " + startAngle + " to " + endAngle);
+            } else {
+                return ResponseEntity.status(500).body("Failed to reverse-sweep servo " + name);
+            }
+        });
+    }
+
+    /**
+     * Executes a batch of LED and servo operations.
+     * All the commands are written to the serial link in one flush and their acknowledgements
+     * are collected in one pass, so a full pose costs about one round-trip.
+     *
+     * @param operations The operations to execute, in order
+     * @param deadlineMs The time in milliseconds within which the operations are still useful, or null
+     * @return HTTP 200 OK if every operation was successful, HTTP 500 Internal Server Error otherwise,
+     *         with the outcome of each operation, an operation rejected by the queue or whose deadline passed
+     *         counting as failed
+     */
+    @Operation(
+        summary = "Execute a batch of operations",
+        description = "Sends several LED and servo operations to the Arduino at once and reports the outcome of each"
+    )
+    @ApiResponses(value = {
+        @ApiResponse(
+            responseCode = "200",
+            description = "All operations were successful",
+            content = @Content(mediaType = "application/json")
+        ),
+        @ApiResponse(
+            responseCode = "500",
+            description = "At least one operation failed",
+            content = @Content(mediaType = "application/json")
+        )
+    })
+    @PostMapping("/batch")
+    public CompletableFuture<ResponseEntity<List<BatchItemResult>>> executeBatch(
+            @RequestBody List<DeviceOperation> operations,
+            @Parameter(description = "Time in milliseconds within which the command is still useful, the configured command timeout if omitted")
+            @RequestHeader(name = DEADLINE_HEADER, required = false) Long deadlineMs) {
+        return async(deadlineMs).executeBatch(operations).thenApply(results -> {
+            List<BatchItemResult> items = IntStream.range(0, operations.size())
+                    .mapToObj(i -> new BatchItemResult(i, operations.get(i), results.get(i)))
+                    .toList();
+            if (results.stream().allMatch(Boolean::booleanValue)) {
+                return ResponseEntity.ok(items);
+            } else {
+                return ResponseEntity.status(500).body(items);
+            }
+        });
+    }
+
+    /**
+     * Moves one or more servomotors along a trajectory interpolated on the host.
+     * The trajectory is sampled at the configured control rate and streamed to the Arduino as position setpoints,
+     * one batched write per tick.
+     *
+     * The request does not wait for the end of the motion, which can outlast any HTTP timeout.
+     *
+     * @param request The kind of trajectory, its waypoints and optional motion limits
+     * @return HTTP 202 Accepted with the status of the run, whose location is that of its status
+     */
+    @Operation(
+        summary = "Follow a servo trajectory",
+        description = "Interpolates a waypoint or spline trajectory within velocity and acceleration limits "
+                + "and streams the servo setpoints at a fixed control rate; the run can then be followed and cancelled"
+    )
+    @ApiResponses(value = {
+        @ApiResponse(
+            responseCode = "202",
+            description = "The trajectory is being streamed",
+            content = @Content(mediaType = "application/json")
+        ),
+        @ApiResponse(
+            responseCode = "400",
+            description = "The trajectory is invalid",
+            content = @Content(mediaType = "text/plain", schema = @Schema(type = "string"))
+        ),
+        @ApiResponse(
+            responseCode = "409",
+            description = "A servo is already following a trajectory, or too many trajectories are being streamed",
+            content = @Content(mediaType = "text/plain", schema = @Schema(type = "string"))
+        )
+    })
+    @PostMapping("/trajectory")
+    public ResponseEntity<TrajectoryStatus> followTrajectory(@RequestBody TrajectoryRequest request) {
+        TrajectoryType type = request.type() != null ? request.type() : TrajectoryType.WAYPOINTS;
+        Trajectory trajectory = Trajectory.of(type, request.waypoints(),
+                trajectoryConfig.limits(request.maxVelocity(), request.maxAcceleration()));
+        TrajectoryExecution execution = trajectoryStreamer.follow(trajectory);
+        return ResponseEntity.accepted()
+                .location(URI.create("/api/arduino/trajectories/" + execution.getId()))
+                .body(execution.getStatus());
+    }
+
+    /**
+     * Gets the progress of a trajectory run, or its outcome once finished.
+     *
+     * @param id The identifier of the run
+     * @return HTTP 200 OK with the status of the run, HTTP 404 Not Found if the run is unknown
+     */
+    @Operation(
+        summary = "Get a trajectory run",
+        description = "Returns the progress of a trajectory run, or its streaming statistics once finished"
+    )
+    @ApiResponses(value = {
+        @ApiResponse(
+            responseCode = "200",
+            description = "The status of the run",
+            content = @Content(mediaType = "application/json")
+        ),
+        @ApiResponse(
+            responseCode = "404",
+            description = "The run is unknown or too old"
+        )
+    })
+    @GetMapping("/trajectories/{id}")
+    public ResponseEntity<TrajectoryStatus> getTrajectory(
+            @Parameter(description = "Run identifier", required = true) @PathVariable String id) {
+        return trajectoryStreamer.find(id)
+                .map(execution -> ResponseEntity.ok(execution.getStatus()))
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    /**
+     * Cancels a trajectory run at its next tick.
+     *
+     * @param id The identifier of the run
+     * @return HTTP 200 OK with the status of the run, HTTP 409 Conflict if it is already finished,
+     *         HTTP 404 Not Found if the run is unknown
+     */
+    @Operation(summary = "Cancel a trajectory run", description = "Stops streaming the setpoints of a run")
+    @PostMapping("/trajectories/{id}/cancel")
+    public ResponseEntity<TrajectoryStatus> cancelTrajectory(
+            @Parameter(description = "Run identifier", required = true) @PathVariable String id) {
+        return trajectoryStreamer.find(id)
+                .map(execution -> execution.cancel()
+                        ? ResponseEntity.ok(execution.getStatus())
+                        : ResponseEntity.status(409).body(execution.getStatus()))
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    /**
+     * Starts running a sequence of LED, servo, sweep, wait, parallel and loop steps on the server.
+     * The steps are sent at link speed on a precise schedule, instead of one HTTP round-trip per step.
+     *
+     * @param sequence The sequence to run
+     * @return HTTP 202 Accepted with the status of the run, whose location is that of its status
+     */
+    @Operation(
+        summary = "Run a sequence",
+        description = "Runs a choreography of LED, servo, sweep, wait, parallel and loop steps on the server; "
+                + "the run can then be followed, paused, resumed and stopped"
+    )
+    @ApiResponses(value = {
+        @ApiResponse(
+            responseCode = "202",
+            description = "The sequence is running",
+            content = @Content(mediaType = "application/json")
+        ),
+        @ApiResponse(
+            responseCode = "400",
+            description = "The sequence is invalid",
+            content = @Content(mediaType = "text/plain", schema = @Schema(type = "string"))
+        )
+    })
+    @PostMapping(path = "/sequences", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<SequenceStatus> runSequence(@RequestBody Sequence sequence) {
+        SequenceExecution execution = sequenceRunner.start(sequence);
+        return ResponseEntity.accepted()
+                .location(URI.create("/api/arduino/sequences/" + execution.getId()))
+                .body(execution.getStatus());
+    }
+
+    /**
+     * Starts running a sequence written in the script language, one step per line or separated by semicolons,
+     * for example {@code loop 3 { led red on; wait 100; led red off; wait 100 }}.
+     *
+     * @param name   A name for the sequence
+     * @param script The script
+     * @return HTTP 202 Accepted with the status of the run, whose location is that of its status
+     */
+    @Operation(
+        summary = "Run a sequence script",
+        description = "Runs a script of led, servo, sweep, wait, parallel and loop steps on the server"
+    )
+    @ApiResponses(value = {
+        @ApiResponse(
+            responseCode = "202",
+            description = "The sequence is running",
+            content = @Content(mediaType = "application/json")
+        ),
+        @ApiResponse(
+            responseCode = "400",
+            description = "The script is malformed",
+            content = @Content(mediaType = "text/plain", schema = @Schema(type = "string"))
+        )
+    })
+    @PostMapping(path = "/sequences", consumes = MediaType.TEXT_PLAIN_VALUE)
+    public ResponseEntity<SequenceStatus> runSequenceScript(
+            @Parameter(description = "Name of the sequence") @RequestParam(required = false) String name,
+            @RequestBody String script) {
+        return runSequence(Sequence.parse(name, script));
+    }
+
+    /**
+     * Gets the progress of a sequence run, or its outcome once finished.
+     *
+     * @param id The identifier of the run
+     * @return HTTP 200 OK with the status of the run, HTTP 404 Not Found if the run is unknown
+     */
+    @Operation(
+        summary = "Get a sequence run",
+        description = "Returns the progress of a sequence run, or its outcome once finished"
+    )
+    @ApiResponses(value = {
+        @ApiResponse(
+            responseCode = "200",
+            description = "The status of the run",
+            content = @Content(mediaType = "application/json")
+        ),
+        @ApiResponse(
+            responseCode = "404",
+            description = "The run is unknown or too old"
+        )
+    })
+    @GetMapping("/sequences/{id}")
+    public ResponseEntity<SequenceStatus> getSequence(
+            @Parameter(description = "Run identifier", required = true) @PathVariable String id) {
+        return sequenceRunner.find(id)
+                .map(execution -> ResponseEntity.ok(execution.getStatus()))
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    /**
+     * Pauses a sequence run before its next step.
+     *
+     * @param id The identifier of the run
+     * @return HTTP 200 OK with the status of the run, HTTP 409 Conflict if it is not running,
+     *         HTTP 404 Not Found if the run is unknown
+     */
+    @Operation(summary = "Pause a sequence run", description = "Stops sending the steps of a run until it is resumed")
+    @PostMapping("/sequences/{id}/pause")
+    public ResponseEntity<SequenceStatus> pauseSequence(
+            @Parameter(description = "Run identifier", required = true) @PathVariable String id) {
+        return controlSequence(id, SequenceExecution::pause);
+    }
+
+    /**
+     * Resumes a paused sequence run, shifting the rest of its schedule by the time spent paused.
+     *
+     * @param id The identifier of the run
+     * @return HTTP 200 OK with the status of the run, HTTP 409 Conflict if it is not paused,
+     *         HTTP 404 Not Found if the run is unknown
+     */
+    @Operation(summary = "Resume a sequence run", description = "Resumes sending the steps of a paused run")
+    @PostMapping("/sequences/{id}/resume")
+    public ResponseEntity<SequenceStatus> resumeSequence(
+            @Parameter(description = "Run identifier", required = true) @PathVariable String id) {
+        return controlSequence(id, SequenceExecution::resume);
+    }
+
+    /**
+     * Stops a sequence run before its next step.
+     *
+     * @param id The identifier of the run
+     * @return HTTP 200 OK with the status of the run, HTTP 409 Conflict if it is already finished,
+     *         HTTP 404 Not Found if the run is unknown
+     */
+    @Operation(summary = "Stop a sequence run", description = "Stops a run before its next step")
+    @PostMapping("/sequences/{id}/stop")
+    public ResponseEntity<SequenceStatus> stopSequence(
+            @Parameter(description = "Run identifier", required = true) @PathVariable String id) {
+        return controlSequence(id, SequenceExecution::stop);
     }
 
     /**
@@ -295,4 +765,74 @@ public class ArduinoRestController {
         arduinoController.shutdown();
         return ResponseEntity.ok("Arduino controller shut down");
     }
+
+    private ResponseEntity<SequenceStatus> controlSequence(String id, Predicate<SequenceExecution> action) {
+        return sequenceRunner.find(id)
+                .map(execution -> action.test(execution)
+                        ? ResponseEntity.ok(execution.getStatus())
+                        : ResponseEntity.status(409).body(execution.getStatus()))
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    /**
+     * Handles commands refused by the serial command queue because it is full.
+     *
+     * @param e The rejection
+     * @return HTTP 503 Service Unavailable, so that callers back off
+     */
+    @ExceptionHandler(CommandRejectedException.class)
+    public ResponseEntity<String> handleCommandRejected(CommandRejectedException e) {
+        return ResponseEntity.status(503).body(e.getMessage());
+    }
+
+    /**
+     * Handles commands whose deadline passed before the Arduino acknowledged them.
+     *
+     * @param e The expiry
+     * @return HTTP 504 Gateway Timeout, so that callers can tell a stale command from a failed one
+     */
+    @ExceptionHandler(CommandExpiredException.class)
+    public ResponseEntity<String> handleCommandExpired(CommandExpiredException e) {
+        return ResponseEntity.status(504).body(e.getMessage());
+    }
+
+    /**
+     * Handles trajectories refused because a servomotor is already following one, or too many are being streamed.
+     *
+     * @param e The rejection
+     * @return HTTP 409 Conflict
+     */
+    @ExceptionHandler(TrajectoryRejectedException.class)
+    public ResponseEntity<String> handleTrajectoryRejected(TrajectoryRejectedException e) {
+        return ResponseEntity.status(409).body(e.getMessage());
+    }
+
+    /**
+     * Gets the controller sending the commands of a request, with the deadline of the request if it has one.
+     *
+     * @param deadlineMs The time within which the commands are still useful, or null for the configured command timeout
+     * @return The asynchronous controller
+     * @throws IllegalArgumentException if the deadline is not positive
+     */
+    private AsyncArduinoController async(Long deadlineMs) {
+        if (deadlineMs == null) {
+            return asyncArduinoController;
+        }
+        if (deadlineMs <= 0) {
+            throw new IllegalArgumentException("The deadline must be a positive number of milliseconds: " + deadlineMs);
+        }
+        return asyncArduinoController.withDeadline(CommandDeadline.after(Duration.ofMillis(deadlineMs)));
+    }
+
+    /**
+     * Handles invalid requests, such as commands for a device that no configured board owns,
+     * trajectories that cannot be interpolated or malformed sequences.
+     *
+     * @param e The validation error
+     * @return HTTP 400 Bad Request
+     */
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<String> handleUnknownDevice(IllegalArgumentException e) {
+        return ResponseEntity.badRequest().body(e.getMessage());
+    }
 }
@@ -0,0 +1,13 @@
+package org.dbs.robot.driverrobot.controller;
+
+import org.dbs.robot.driverrobot.arduino.DeviceOperation;
+
+/**
+ * Outcome of one operation of a batch request.
+ *
+ * @param index     The position of the operation in the batch
+ * @param operation The operation
+ * @param success   true if the operation was successful, false otherwise
+ */
+public record BatchItemResult(int index, DeviceOperation operation, boolean success) {
+}
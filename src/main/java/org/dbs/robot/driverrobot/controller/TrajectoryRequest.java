@@ -0,0 +1,19 @@
+package org.dbs.robot.driverrobot.controller;
+
+import org.dbs.robot.driverrobot.arduino.trajectory.TrajectoryType;
+import org.dbs.robot.driverrobot.arduino.trajectory.Waypoint;
+
+import java.util.List;
+
+/**
+ * Body of a trajectory request.
+ *
+ * @param type            The kind of trajectory: WAYPOINTS or SPLINE
+ * @param waypoints       The poses to go through, the first one being the start pose
+ * @param maxVelocity     The maximum angular velocity in degrees per second, or null for the configured default
+ * @param maxAcceleration The maximum angular acceleration in degrees per second squared,
+ *                        or null for the configured default
+ */
+public record TrajectoryRequest(TrajectoryType type, List<Waypoint> waypoints, Double maxVelocity,
+                                Double maxAcceleration) {
+}
@@ -2,19 +2,51 @@ package org.dbs.robot.driverrobot.shell;
 
 import lombok.RequiredArgsConstructor;
 import org.dbs.robot.driverrobot.arduino.ArduinoController;
+import org.dbs.robot.driverrobot.arduino.AsyncArduinoController;
+import org.dbs.robot.driverrobot.arduino.DeviceOperation;
+import org.dbs.robot.driverrobot.arduino.sequence.Sequence;
+import org.dbs.robot.driverrobot.arduino.sequence.SequenceRunner;
+import org.dbs.robot.driverrobot.arduino.sequence.SequenceStatus;
+import org.dbs.robot.driverrobot.arduino.serial.CommandDeadline;
+import org.dbs.robot.driverrobot.arduino.serial.CommandExpiredException;
+import org.dbs.robot.driverrobot.arduino.trajectory.Trajectory;
+import org.dbs.robot.driverrobot.arduino.trajectory.TrajectoryConfig;
+import org.dbs.robot.driverrobot.arduino.trajectory.TrajectoryResult;
+import org.dbs.robot.driverrobot.arduino.trajectory.TrajectoryStreamer;
+import org.dbs.robot.driverrobot.arduino.trajectory.TrajectoryType;
+import org.dbs.robot.driverrobot.arduino.trajectory.Waypoint;
 import org.springframework.shell.standard.ShellComponent;
 import org.springframework.shell.standard.ShellMethod;
 import org.springframework.shell.standard.ShellOption;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
 /**
  * Spring Shell commands for Arduino operations.
  * This class provides command-line commands to control LEDs and servomotors.
+ * The device commands take an optional deadline, past which their commands are dropped instead of being sent late.
  */
 @ShellComponent
 @RequiredArgsConstructor
 public class ArduinoCommands {
 
     private final ArduinoController arduinoController;
+    private final AsyncArduinoController asyncArduinoController;
+    private final TrajectoryStreamer trajectoryStreamer;
+    private final TrajectoryConfig trajectoryConfig;
+    private final SequenceRunner sequenceRunner;
 
     /**
      * Checks if the Arduino is ready.
@@ -30,40 +62,54 @@ public class ArduinoCommands {
         }
     }
 
+    /**
+     * Shows the last acknowledged state of the LEDs and servomotors.
+     *
+     * @return One line per device with a known state
+     */
+    @ShellMethod(value = "Show the last acknowledged state of the LEDs and servos", key = "arduino-state")
+    public String getDeviceStates() {
+        StringBuilder message = new StringBuilder();
+        arduinoController.getDeviceStates().forEach((name, state) -> message.append(name).append(": ")
+                .append(state.on() != null ? (state.on() ? "on" : "off") : state.angle() + " degrees")
+                .append(" (board ").append(state.board()).append(')').append(System.lineSeparator()));
+        return message.isEmpty() ? "No known device state" : message.toString().stripTrailing();
+    }
+
     /**
      * Controls an LED.
      *
-     * @param name  The name of the LED
-     * @param state The state to set (true for on, false for off)
+     * @param name     The name of the LED
+     * @param state    The state to set (true for on, false for off)
+     * @param deadline The time in milliseconds within which the command is still useful, or null
      * @return Status message
      */
     @ShellMethod(value = "Control an LED", key = "led-control")
     public String controlLed(
             @ShellOption(help = "LED name") String name,
-            @ShellOption(help = "LED state (true for on, false for off)") boolean state) {
-        if (arduinoController.controlLed(name, state)) {
-            return "LED " + name + " " + (state ? "turned on" : "turned off");
-        } else {
-            return "Failed to control LED " + name;
-        }
+            @ShellOption(help = "LED state (true for on, false for off)") boolean state,
+            @ShellOption(help = "Milliseconds within which the command is still useful", defaultValue = ShellOption.NULL) Long deadline) {
+        return execute(deadline, () -> arduinoController.controlLed(name, state),
+                async -> async.controlLed(name, state),
+                success -> success ? "LED " + name + " " + (state ? "turned on" : "turned off") : "Failed to control LED " + name);
     }
 
     /**
      * Positions a servomotor.
      *
-     * @param name  The name of the servomotor
-     * @param angle The angle to position the servomotor
+     * @param name     The name of the servomotor
+     * @param angle    The angle to position the servomotor
+     * @param deadline The time in milliseconds within which the command is still useful, or null
      * @return Status message
      */
     @ShellMethod(value = "Position a servomotor", key = "servo-position")
     public String positionServo(
             @ShellOption(help = "Servo name") String name,
-            @ShellOption(help = "Angle (0-180)") int angle) {
-        if (arduinoController.positionServo(name, angle)) {
-            return "Servo " + name + " positioned at " + angle + " degrees";
-        } else {
-            return "Failed to position servo " + name;
-        }
+            @ShellOption(help = "Angle (0-180)") int angle,
+            @ShellOption(help = "Milliseconds within which the command is still useful", defaultValue = ShellOption.NULL) Long deadline) {
+        return execute(deadline, () -> arduinoController.positionServo(name, angle),
+                async -> async.positionServo(name, angle),
+                success -> success ? "Servo " + name + " positioned at " + angle + " degrees" : "Failed to position servo " + name);
     }
 
     /**
@@ -73,6 +119,7 @@ public class ArduinoCommands {
      * @param startAngle The starting angle of the sweep
      * @param endAngle   The ending angle of the sweep
      * @param speed      The speed of the sweep
+     * @param deadline   The time in milliseconds within which the command is still useful, or null
      * @return Status message
      */
     @ShellMethod(value = "Perform a sweep movement on a servomotor", key = "servo-sweep")
@@ -80,12 +127,11 @@ public class ArduinoCommands {
             @ShellOption(help = "Servo name") String name,
             @ShellOption(help = "Start angle") int startAngle,
             @ShellOption(help = "End angle") int endAngle,
-            @ShellOption(help = "Speed (1-10)") int speed) {
-        if (arduinoController.sweep(name, startAngle, endAngle, speed)) {
-            return "Servo " + name + " sweeping from " + startAngle + " to " + endAngle;
-        } else {
-            return "Failed to sweep servo " + name;
-        }
+            @ShellOption(help = "Speed (1-10)") int speed,
+            @ShellOption(help = "Milliseconds within which the command is still useful", defaultValue = ShellOption.NULL) Long deadline) {
+        return execute(deadline, () -> arduinoController.sweep(name, startAngle, endAngle, speed),
+                async -> async.sweep(name, startAngle, endAngle, speed),
+                success -> success ? "Servo " + name + " sweeping from " + startAngle + " to " + endAngle : "Failed to sweep servo " + name);
     }
 
     /**
@@ -95,6 +141,7 @@ public class ArduinoCommands {
      * @param startAngle The starting angle of the sweep
      * @param endAngle   The ending angle of the sweep
      * @param speed      The speed of the sweep
+     * @param deadline   The time in milliseconds within which the command is still useful, or null
      * @return Status message
      */
     @ShellMethod(value = "Perform a half-sweep movement on a servomotor", key = "servo-half-sweep")
@@ -102,12 +149,11 @@ public class ArduinoCommands {
             @ShellOption(help = "Servo name") String name,
             @ShellOption(help = "Start angle") int startAngle,
             @ShellOption(help = "End angle") int endAngle,
-            @ShellOption(help = "Speed (1-10)") int speed) {
-        if (arduinoController.halfSweep(name, startAngle, endAngle, speed)) {
-            return "Servo " + name + " half-sweeping from " + startAngle + " to " + endAngle;
-        } else {
-            return "Failed to half-sweep servo " + name;
-        }
+            @ShellOption(help = "Speed (1-10)") int speed,
+            @ShellOption(help = "Milliseconds within which the command is still useful", defaultValue = ShellOption.NULL) Long deadline) {
+        return execute(deadline, () -> arduinoController.halfSweep(name, startAngle, endAngle, speed),
+                async -> async.halfSweep(name, startAngle, endAngle, speed),
+                success -> success ? "Servo " + name + " half-sweeping from " + startAngle + " to " + endAngle : "Failed to half-sweep servo " + name);
     }
 
     /**
@@ -117,6 +163,7 @@ public class ArduinoCommands {
      * @param startAngle The starting angle of the sweep
      * @param endAngle   The ending angle of the sweep
      * @param speed      The speed of the sweep
+     * @param deadline   The time in milliseconds within which the command is still useful, or null
      * @return Status message
      */
     @ShellMethod(value = "Perform a reverse-half-sweep movement on a servomotor", key = "servo-reverse-half-sweep")
@@ -124,12 +171,11 @@ public class ArduinoCommands {
             @ShellOption(help = "Servo name") String name,
             @ShellOption(help = "Start angle") int startAngle,
             @ShellOption(help = "End angle") int endAngle,
-            @ShellOption(help = "Speed (1-10)") int speed) {
-        if (arduinoController.reverseHalfSweep(name, startAngle, endAngle, speed)) {
-            return "Servo " + name + " reverse-half-sweeping from " + startAngle + " to " + endAngle;
-        } else {
-            return "Failed to reverse-half-sweep servo " + name;
-        }
+            @ShellOption(help = "Speed (1-10)") int speed,
+            @ShellOption(help = "Milliseconds within which the command is still useful", defaultValue = ShellOption.NULL) Long deadline) {
+        return execute(deadline, () -> arduinoController.reverseHalfSweep(name, startAngle, endAngle, speed),
+                async -> async.reverseHalfSweep(name, startAngle, endAngle, speed),
+                success -> success ? "Servo " + name + " reverse-half-sweeping from " + startAngle + " to " + endAngle : "Failed to reverse-half-sweep servo " + name);
     }
 
     /**
@@ -139,6 +185,7 @@ public class ArduinoCommands {
      * @param startAngle The starting angle of the sweep
      * @param endAngle   The ending angle of the sweep
      * @param speed      The speed of the sweep
+     * @param deadline   The time in milliseconds within which the command is still useful, or null
      * @return Status message
      */
     @ShellMethod(value = "Perform a reverse-sweep movement on a servomotor", key = "servo-reverse-sweep")
@@ -146,12 +193,98 @@ public class ArduinoCommands {
             @ShellOption(help = "Servo name") String name,
             @ShellOption(help = "Start angle") int startAngle,
             @ShellOption(help = "End angle") int endAngle,
-            @ShellOption(help = "Speed (1-10)") int speed) {
-        if (arduinoController.reverseSweep(name, startAngle, endAngle, speed)) {
-            return "Servo " + name + " reverse-sweeping from " + startAngle + " to " + endAngle;
-        } else {
-            return "Failed to reverse-sweep servo " + name;
+            @ShellOption(help = "Speed (1-10)") int speed,
+            @ShellOption(help = "Milliseconds within which the command is still useful", defaultValue = ShellOption.NULL) Long deadline) {
+        return execute(deadline, () -> arduinoController.reverseSweep(name, startAngle, endAngle, speed),
+                async -> async.reverseSweep(name, startAngle, endAngle, speed),
+                success -> success ? "Servo " + name + " reverse-sweeping from " + startAngle + " to " + endAngle : "Failed to reverse-sweep servo " + name);
+    }
+
+    /**
+     * Executes a batch of LED and servo operations with a single round-trip.
+     *
+     * @param operations The operations, e.g. led:red:on,servo:head:90
+     * @param deadline   The time in milliseconds within which the operations are still useful, or null
+     * @return Status message with the outcome of each operation
+     */
+    @ShellMethod(value = "Send several LED and servo operations at once", key = "batch")
+    public String batch(
+            @ShellOption(help = "Comma-separated operations: led:name:on|off or servo:name:angle") String operations,
+            @ShellOption(help = "Milliseconds within which the operations are still useful", defaultValue = ShellOption.NULL) Long deadline) {
+        List<DeviceOperation> parsed = DeviceOperation.parseList(operations);
+        return execute(deadline, () -> arduinoController.executeBatch(parsed), async -> async.executeBatch(parsed),
+                results -> {
+                    StringBuilder message = new StringBuilder();
+                    for (int i = 0; i < parsed.size(); i++) {
+                        DeviceOperation operation = parsed.get(i);
+                        message.append(operation.type()).append(' ').append(operation.name()).append(": ")
+                                .append(results.get(i) ? "ok" : "failed").append(System.lineSeparator());
+                    }
+                    return message.toString().stripTrailing();
+                });
+    }
+
+    /**
+     * Moves servomotors along a trajectory interpolated on the host and streamed at the configured control rate.
+     *
+     * @param waypoints       The poses, e.g. head:0,arm:90;head:180,arm:45
+     * @param spline          true for a smooth spline through the poses, false for straight moves
+     * @param interval        The time in seconds between two poses of a spline
+     * @param maxVelocity     The maximum velocity in degrees per second, or null for the configured default
+     * @param maxAcceleration The maximum acceleration in degrees per second squared, or null for the configured default
+     * @return Status message with the streaming statistics
+     */
+    @ShellMethod(value = "Move servos along a trajectory interpolated on the host", key = "servo-trajectory")
+    public String trajectory(
+            @ShellOption(help = "Semicolon-separated poses of comma-separated name:angle") String waypoints,
+            @ShellOption(help = "Smooth spline through the poses instead of straight moves", defaultValue = "false") boolean spline,
+            @ShellOption(help = "Seconds between two poses of a spline", defaultValue = "1") double interval,
+            @ShellOption(help = "Maximum velocity in degrees per second", defaultValue = ShellOption.NULL) Double maxVelocity,
+            @ShellOption(help = "Maximum acceleration in degrees per second squared", defaultValue = ShellOption.NULL) Double maxAcceleration) {
+        List<Waypoint> poses = new ArrayList<>();
+        for (String pose : waypoints.split(";")) {
+            Map<String, Integer> angles = new LinkedHashMap<>();
+            for (String setpoint : pose.split(",")) {
+                String[] parts = setpoint.trim().split(":");
+                if (parts.length != 2) {
+                    throw new IllegalArgumentException("Malformed setpoint, expected name:angle: " + setpoint);
+                }
+                angles.put(parts[0], Integer.parseInt(parts[1]));
+            }
+            poses.add(new Waypoint(poses.size() * interval, angles));
         }
+        Trajectory trajectory = Trajectory.of(spline ? TrajectoryType.SPLINE : TrajectoryType.WAYPOINTS, poses,
+                trajectoryConfig.limits(maxVelocity, maxAcceleration));
+        TrajectoryResult result = trajectoryStreamer.follow(trajectory).getResult().join();
+        return String.format("Trajectory of %.2f s %s: %d setpoints in %d batches, %d ticks skipped",
+                trajectory.duration(), result.isSuccessful() ? "done" : "failed",
+                result.setpoints(), result.batches(), result.skippedTicks());
+    }
+
+    /**
+     * Runs a sequence of LED, servo, sweep, wait, parallel and loop steps on the server and waits for its end.
+     *
+     * @param script The script, e.g. "loop 3 { led red on; wait 100; led red off; wait 100 }"
+     * @param file   A file holding the script, one step per line, instead of the script option
+     * @return Status message with the outcome of the run
+     */
+    @ShellMethod(value = "Run a sequence of LED and servo steps on the server", key = "sequence-run")
+    public String runSequence(
+            @ShellOption(help = "Script of steps separated by semicolons", defaultValue = ShellOption.NULL) String script,
+            @ShellOption(help = "File holding the script, one step per line", defaultValue = ShellOption.NULL) String file) {
+        if ((script == null) == (file == null)) {
+            throw new IllegalArgumentException("Give either a script or a file");
+        }
+        Sequence sequence;
+        try {
+            sequence = file != null ? Sequence.parse(file, Files.readString(Path.of(file))) : Sequence.parse(null, script);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read the script " + file, e);
+        }
+        SequenceStatus result = sequenceRunner.start(sequence).getResult().join();
+        return String.format("Sequence %s: %d of %d commands sent in %d writes, %d failed, at most %.1f ms late",
+                result.state().name().toLowerCase(), result.sentCommands(), result.totalCommands(),
+                result.batches(), result.failedCommands(), result.maxLatenessMs());
     }
 
     /**
@@ -164,4 +297,37 @@ public class ArduinoCommands {
         arduinoController.shutdown();
         return "Arduino controller shut down";
     }
+
+    /**
+     * Runs an operation and describes its outcome. Without deadline the operation waits for the configured
+     * command timeout; with one, it is sent through the asynchronous controller, which drops its commands
+     * if they are still queued when the deadline passes.
+     *
+     * @param deadline        The time in milliseconds within which the operation is still useful, or null
+     * @param operation       The operation without deadline
+     * @param timedOperation  The operation on a controller bound to the deadline
+     * @param message         Describes the outcome of the operation
+     * @param <T>             The type of the outcome
+     * @return Status message, telling apart an operation whose deadline passed
+     * @throws IllegalArgumentException if the deadline is not positive
+     */
+    private <T> String execute(Long deadline, Supplier<T> operation,
+                               Function<AsyncArduinoController, CompletableFuture<T>> timedOperation,
+                               Function<T, String> message) {
+        if (deadline == null) {
+            return message.apply(operation.get());
+        }
+        if (deadline <= 0) {
+            throw new IllegalArgumentException("The deadline must be a positive number of milliseconds: " + deadline);
+        }
+        try {
+            return message.apply(timedOperation.apply(
+                    asyncArduinoController.withDeadline(CommandDeadline.after(Duration.ofMillis(deadline)))).join());
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof CommandExpiredException expired) {
+                return "Expired after " + deadline + " ms: " + expired.getMessage();
+            }
+            throw e.getCause() instanceof RuntimeException cause ? cause : e;
+        }
+    }
 }
\ No newline at end of file
@@ -3,7 +3,7 @@ package org.dbs.robot.driverrobot;
 import org.junit.jupiter.api.Test;
 import org.springframework.boot.test.context.SpringBootTest;
 
-@SpringBootTest
+@SpringBootTest(properties = "spring.shell.interactive.enabled=false")
 class DriverRobotApplicationTests {
 
     @Test
@@ -0,0 +1,151 @@
+package org.dbs.robot.driverrobot.arduino.events;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.dbs.robot.driverrobot.arduino.serial.ArduinoEvent;
+import org.dbs.robot.driverrobot.arduino.serial.ArduinoEventType;
+import org.dbs.robot.driverrobot.arduino.serial.ConnectionState;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ArduinoEventBroadcasterTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private ArduinoEventBroadcaster broadcaster;
+
+    @AfterEach
+    void tearDown() {
+        broadcaster.close();
+    }
+
+    @Test
+    void onEvent_shouldNotWaitForASlowSubscriber_andDropItsOldestEvents() throws Exception {
+        // Arrange
+        broadcaster = new ArduinoEventBroadcaster(4, OverflowPolicy.DROP_OLDEST, meterRegistry);
+        List<String> received = new CopyOnWriteArrayList<>();
+        CountDownLatch blocked = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        broadcaster.subscribe(null, slowSink(received, blocked, release));
+        broadcaster.onEvent(unsolicited(0));
+        assertTrue(blocked.await(5, TimeUnit.SECONDS));
+
+        // Act
+        long start = System.nanoTime();
+        IntStream.range(1, 10).forEach(i -> broadcaster.onEvent(unsolicited(i)));
+        long publishMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        release.countDown();
+        await(() -> received.size() == 5);
+
+        // Assert
+        assertTrue(publishMs < 1000, "publishing took " + publishMs + " ms");
+        assertEquals(List.of("0", "6", "7", "8", "9"), received);
+        assertEquals(5, meterRegistry.get(ArduinoEventBroadcaster.DROPPED).counter().count());
+    }
+
+    @Test
+    void onEvent_shouldDropTheNewEvents_whenThePolicyIsDropNewest() throws Exception {
+        // Arrange
+        broadcaster = new ArduinoEventBroadcaster(4, OverflowPolicy.DROP_NEWEST, meterRegistry);
+        List<String> received = new CopyOnWriteArrayList<>();
+        CountDownLatch blocked = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        EventSubscription subscription = broadcaster.subscribe(null, slowSink(received, blocked, release));
+        broadcaster.onEvent(unsolicited(0));
+        assertTrue(blocked.await(5, TimeUnit.SECONDS));
+
+        // Act
+        IntStream.range(1, 10).forEach(i -> broadcaster.onEvent(unsolicited(i)));
+        release.countDown();
+        await(() -> received.size() == 5);
+
+        // Assert
+        assertEquals(List.of("0", "1", "2", "3", "4"), received);
+        assertEquals(5, subscription.getDroppedCount());
+    }
+
+    @Test
+    void subscribe_shouldOnlyDeliverTheRequestedTypes() throws Exception {
+        // Arrange
+        broadcaster = new ArduinoEventBroadcaster(16, OverflowPolicy.DROP_OLDEST, meterRegistry);
+        List<ArduinoEvent> received = new CopyOnWriteArrayList<>();
+        broadcaster.subscribe(Set.of(ArduinoEventType.CONNECTION), received::add);
+
+        // Act
+        broadcaster.onEvent(unsolicited(1));
+        broadcaster.onEvent(ArduinoEvent.connection("arm", ConnectionState.READY));
+        await(() -> !received.isEmpty());
+        Thread.sleep(50);
+
+        // Assert
+        assertEquals(1, received.size());
+        assertEquals(ConnectionState.READY, received.get(0).connection());
+    }
+
+    @Test
+    void subscription_shouldBeClosed_whenTheSubscriberFails() throws Exception {
+        // Arrange
+        broadcaster = new ArduinoEventBroadcaster(16, OverflowPolicy.DROP_OLDEST, meterRegistry);
+        EventSubscription subscription = broadcaster.subscribe(null, event -> {
+            throw new IOException("Broken pipe");
+        });
+        assertEquals(1, broadcaster.getSubscriberCount());
+
+        // Act
+        broadcaster.onEvent(unsolicited(1));
+        await(subscription::isClosed);
+
+        // Assert
+        assertEquals(0, broadcaster.getSubscriberCount());
+        assertEquals(0, meterRegistry.get(ArduinoEventBroadcaster.SUBSCRIBERS).gauge().value());
+    }
+
+    @Test
+    void subscribe_shouldDeliverOnAVirtualThread_inTheVirtualThreadMode() throws Exception {
+        // Arrange
+        broadcaster = new ArduinoEventBroadcaster(16, OverflowPolicy.DROP_OLDEST, meterRegistry, true);
+        List<Thread> deliveryThreads = new CopyOnWriteArrayList<>();
+        broadcaster.subscribe(null, event -> deliveryThreads.add(Thread.currentThread()));
+
+        // Act
+        broadcaster.onEvent(unsolicited(1));
+        await(() -> !deliveryThreads.isEmpty());
+
+        // Assert
+        assertTrue(deliveryThreads.get(0).isVirtual());
+        assertEquals("arduino-events-1", deliveryThreads.get(0).getName());
+    }
+
+    private static EventSubscription.Sink slowSink(List<String> received, CountDownLatch blocked, CountDownLatch release) {
+        return event -> {
+            received.add(event.line());
+            blocked.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        };
+    }
+
+    private static ArduinoEvent unsolicited(int index) {
+        return ArduinoEvent.unsolicited("arm", String.valueOf(index));
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean() && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        assertTrue(condition.getAsBoolean());
+    }
+}
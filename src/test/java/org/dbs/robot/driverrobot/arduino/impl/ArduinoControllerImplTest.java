@@ -1,13 +1,27 @@
 package org.dbs.robot.driverrobot.arduino.impl;
 
+import org.dbs.robot.driverrobot.arduino.DeviceOperation;
+import org.dbs.robot.driverrobot.arduino.protocol.ArduinoCommand;
+import org.dbs.robot.driverrobot.arduino.protocol.Opcode;
+import org.dbs.robot.driverrobot.arduino.serial.CommandPriority;
+import org.dbs.robot.driverrobot.arduino.serial.DeviceState;
 import org.dbs.robot.driverrobot.arduino.serial.SerialCommunicator;
+import org.dbs.robot.driverrobot.arduino.serial.SerialCommunicatorRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
@@ -15,174 +29,247 @@ import static org.mockito.Mockito.*;
 @ExtendWith(MockitoExtension.class)
 class ArduinoControllerImplTest {
 
-    private static final String OK_RESPONSE = "ok";
-    private static final String READY_RESPONSE = "ready";
-
     @Mock
     private SerialCommunicator serialCommunicator;
 
+    @Mock
+    private SerialCommunicatorRegistry registry;
+
     private ArduinoControllerImpl controller;
 
     @BeforeEach
     void setUp() {
-        controller = new ArduinoControllerImpl(serialCommunicator);
+        lenient().when(registry.forDevice(anyString())).thenReturn(serialCommunicator);
+        lenient().when(registry.all()).thenReturn(List.of(serialCommunicator));
+        controller = new ArduinoControllerImpl(registry);
     }
 
     @Test
     void controlLed_shouldSendCorrectCommand_whenTurningOn() {
         // Arrange
-        when(serialCommunicator.sendCommand(anyString(), eq(OK_RESPONSE))).thenReturn(true);
+        when(serialCommunicator.sendCommand(any(ArduinoCommand.class))).thenReturn(true);
 
         // Act
         boolean result = controller.controlLed("red", true);
 
         // Assert
         assertTrue(result);
-        verify(serialCommunicator).sendCommand("led(red, on)", OK_RESPONSE);
+        verify(serialCommunicator).sendCommand(ArduinoCommand.led("red", true));
     }
 
     @Test
     void controlLed_shouldSendCorrectCommand_whenTurningOff() {
         // Arrange
-        when(serialCommunicator.sendCommand(anyString(), eq(OK_RESPONSE))).thenReturn(true);
+        when(serialCommunicator.sendCommand(any(ArduinoCommand.class))).thenReturn(true);
 
         // Act
         boolean result = controller.controlLed("red", false);
 
         // Assert
         assertTrue(result);
-        verify(serialCommunicator).sendCommand("led(red, off)", OK_RESPONSE);
+        verify(serialCommunicator).sendCommand(ArduinoCommand.led("red", false));
     }
 
     @Test
     void controlLed_shouldHandleFailure() {
         // Arrange
-        when(serialCommunicator.sendCommand(anyString(), eq(OK_RESPONSE))).thenReturn(false);
+        when(serialCommunicator.sendCommand(any(ArduinoCommand.class))).thenReturn(false);
 
         // Act
         boolean result = controller.controlLed("red", true);
 
         // Assert
         assertFalse(result);
-        verify(serialCommunicator).sendCommand("led(red, on)", OK_RESPONSE);
+        verify(serialCommunicator).sendCommand(ArduinoCommand.led("red", true));
     }
 
     @Test
     void positionServo_shouldSendCorrectCommand() {
         // Arrange
-        when(serialCommunicator.sendCommand(anyString(), eq(OK_RESPONSE))).thenReturn(true);
+        when(serialCommunicator.sendCommand(any(ArduinoCommand.class))).thenReturn(true);
 
         // Act
         boolean result = controller.positionServo("head", 90);
 
         // Assert
         assertTrue(result);
-        verify(serialCommunicator).sendCommand("servo(head, angle 90)", OK_RESPONSE);
+        verify(serialCommunicator).sendCommand(ArduinoCommand.servoAngle("head", 90));
+    }
+
+    @Test
+    void positionServos_shouldSendAllCommandsInOneBatch() {
+        // Arrange
+        Map<String, Integer> pose = new LinkedHashMap<>();
+        pose.put("head", 90);
+        pose.put("arm", 45);
+        when(serialCommunicator.sendBatchAsync(anyList(), eq(CommandPriority.NORMAL)))
+                .thenReturn(List.of(CompletableFuture.completedFuture(true), CompletableFuture.completedFuture(false)));
+
+        // Act
+        Map<String, Boolean> result = controller.positionServos(pose);
+
+        // Assert
+        assertEquals(Map.of("head", true, "arm", false), result);
+        verify(serialCommunicator).sendBatchAsync(
+                List.of(ArduinoCommand.servoAngle("head", 90), ArduinoCommand.servoAngle("arm", 45)), CommandPriority.NORMAL);
+    }
+
+    @Test
+    void executeBatch_shouldSendLedAndServoCommandsInOrder() {
+        // Arrange
+        when(serialCommunicator.sendBatchAsync(anyList(), eq(CommandPriority.NORMAL)))
+                .thenReturn(List.of(CompletableFuture.completedFuture(true), CompletableFuture.completedFuture(true)));
+
+        // Act
+        List<Boolean> result = controller.executeBatch(
+                List.of(DeviceOperation.led("red", false), DeviceOperation.servoPosition("head", 10)));
+
+        // Assert
+        assertEquals(List.of(true, true), result);
+        verify(serialCommunicator).sendBatchAsync(
+                List.of(ArduinoCommand.led("red", false), ArduinoCommand.servoAngle("head", 10)), CommandPriority.NORMAL);
+    }
+
+    @Test
+    void executeBatch_shouldSplitTheBatchByBoardAndKeepTheResultsInOrder() {
+        // Arrange
+        SerialCommunicator baseBoard = mock(SerialCommunicator.class);
+        when(registry.forDevice("wheel")).thenReturn(baseBoard);
+        when(serialCommunicator.sendBatchAsync(anyList(), eq(CommandPriority.NORMAL)))
+                .thenReturn(List.of(CompletableFuture.completedFuture(true), CompletableFuture.completedFuture(true)));
+        when(baseBoard.sendBatchAsync(anyList(), eq(CommandPriority.NORMAL)))
+                .thenReturn(List.of(CompletableFuture.completedFuture(false)));
+
+        // Act
+        List<Boolean> result = controller.executeBatch(List.of(DeviceOperation.servoPosition("head", 10),
+                DeviceOperation.servoPosition("wheel", 20), DeviceOperation.led("red", true)));
+
+        // Assert
+        assertEquals(List.of(true, false, true), result);
+        verify(serialCommunicator).sendBatchAsync(
+                List.of(ArduinoCommand.servoAngle("head", 10), ArduinoCommand.led("red", true)), CommandPriority.NORMAL);
+        verify(baseBoard).sendBatchAsync(List.of(ArduinoCommand.servoAngle("wheel", 20)), CommandPriority.NORMAL);
+    }
+
+    @Test
+    void getDeviceStates_shouldMergeTheStatesOfAllBoards() {
+        // Arrange
+        SerialCommunicator baseBoard = mock(SerialCommunicator.class);
+        DeviceState red = new DeviceState("arm", true, null, Instant.now());
+        DeviceState wheel = new DeviceState("base", null, 90, Instant.now());
+        when(registry.all()).thenReturn(List.of(serialCommunicator, baseBoard));
+        when(serialCommunicator.getDeviceStates()).thenReturn(Map.of("red", red));
+        when(baseBoard.getDeviceStates()).thenReturn(Map.of("wheel", wheel));
+
+        // Act
+        Map<String, DeviceState> states = controller.getDeviceStates();
+
+        // Assert
+        assertEquals(Map.of("red", red, "wheel", wheel), states);
+    }
+
+    @Test
+    void isReady_shouldReturnFalse_whenOneBoardIsNotReady() {
+        // Arrange
+        SerialCommunicator baseBoard = mock(SerialCommunicator.class);
+        when(registry.all()).thenReturn(List.of(serialCommunicator, baseBoard));
+        when(serialCommunicator.checkReadiness()).thenReturn(CompletableFuture.completedFuture(true));
+        when(baseBoard.checkReadiness()).thenReturn(CompletableFuture.completedFuture(false));
+
+        // Act
+        boolean result = controller.isReady();
+
+        // Assert
+        assertFalse(result);
     }
 
     @Test
     void sweep_shouldSendCorrectCommand() {
         // Arrange
-        when(serialCommunicator.sendCommand(anyString(), eq(OK_RESPONSE))).thenReturn(true);
+        when(serialCommunicator.sendCommand(any(ArduinoCommand.class))).thenReturn(true);
 
         // Act
         boolean result = controller.sweep("arm", 0, 180, 5);
 
         // Assert
         assertTrue(result);
-        verify(serialCommunicator).sendCommand("servo(arm, sweep 0 180 5)", OK_RESPONSE);
+        verify(serialCommunicator).sendCommand(ArduinoCommand.servoMovement("arm", Opcode.SWEEP, 0, 180, 5));
     }
 
     @Test
     void halfSweep_shouldSendCorrectCommand() {
         // Arrange
-        when(serialCommunicator.sendCommand(anyString(), eq(OK_RESPONSE))).thenReturn(true);
+        when(serialCommunicator.sendCommand(any(ArduinoCommand.class))).thenReturn(true);
 
         // Act
         boolean result = controller.halfSweep("claw", 10, 90, 3);
 
         // Assert
         assertTrue(result);
-        verify(serialCommunicator).sendCommand("servo(claw, half-sweep 10 90 3)", OK_RESPONSE);
+        verify(serialCommunicator).sendCommand(ArduinoCommand.servoMovement("claw", Opcode.HALF_SWEEP, 10, 90, 3));
     }
 
     @Test
     void reverseHalfSweep_shouldSendCorrectCommand() {
         // Arrange
-        when(serialCommunicator.sendCommand(anyString(), eq(OK_RESPONSE))).thenReturn(true);
+        when(serialCommunicator.sendCommand(any(ArduinoCommand.class))).thenReturn(true);
 
         // Act
         boolean result = controller.reverseHalfSweep("base", 45, 120, 7);
 
         // Assert
         assertTrue(result);
-        verify(serialCommunicator).sendCommand("servo(base, reverse-half-sweep 45 120 7)", OK_RESPONSE);
+        verify(serialCommunicator).sendCommand(ArduinoCommand.servoMovement("base", Opcode.REVERSE_HALF_SWEEP, 45, 120, 7));
     }
 
     @Test
     void reverseSweep_shouldSendCorrectCommand() {
         // Arrange
-        when(serialCommunicator.sendCommand(anyString(), eq(OK_RESPONSE))).thenReturn(true);
+        when(serialCommunicator.sendCommand(any(ArduinoCommand.class))).thenReturn(true);
 
         // Act
         boolean result = controller.reverseSweep("wrist", 30, 150, 2);
 
         // Assert
         assertTrue(result);
-        verify(serialCommunicator).sendCommand("servo(wrist, reverse-sweep 30 150 2)", OK_RESPONSE);
+        verify(serialCommunicator).sendCommand(ArduinoCommand.servoMovement("wrist", Opcode.REVERSE_SWEEP, 30, 150, 2));
     }
 
     @Test
-    void isReady_shouldReturnTrueWhenSerialCommunicatorIsOpenAndArduinoIsReady() {
+    void isReady_shouldReturnTrueWhenArduinoIsReady() {
         // Arrange
-        when(serialCommunicator.isOpen()).thenReturn(true);
-        when(serialCommunicator.sendCommand(anyString(), eq(READY_RESPONSE))).thenReturn(true);
+        when(serialCommunicator.checkReadiness()).thenReturn(CompletableFuture.completedFuture(true));
 
         // Act
         boolean result = controller.isReady();
 
         // Assert
         assertTrue(result);
-        verify(serialCommunicator).sendCommand("status(arduino, ok)", READY_RESPONSE);
-    }
-
-    @Test
-    void isReady_shouldReturnFalseWhenSerialCommunicatorIsNotOpen() {
-        // Arrange
-        when(serialCommunicator.isOpen()).thenReturn(false);
-
-        // Act
-        boolean result = controller.isReady();
-
-        // Assert
-        assertFalse(result);
-        verify(serialCommunicator, never()).sendCommand(anyString(), anyString());
+        verify(serialCommunicator, never()).sendCommand(any(ArduinoCommand.class), any(CommandPriority.class));
     }
 
     @Test
     void isReady_shouldReturnFalseWhenArduinoIsNotReady() {
         // Arrange
-        when(serialCommunicator.isOpen()).thenReturn(true);
-        when(serialCommunicator.sendCommand(anyString(), eq(READY_RESPONSE))).thenReturn(false);
+        when(serialCommunicator.checkReadiness()).thenReturn(CompletableFuture.completedFuture(false));
 
         // Act
         boolean result = controller.isReady();
 
         // Assert
         assertFalse(result);
-        verify(serialCommunicator).sendCommand("status(arduino, ok)", READY_RESPONSE);
     }
 
     @Test
     void shutdown_shouldSendShutdownCommandAndCloseSerialCommunicator() {
         // Arrange
-        when(serialCommunicator.sendCommand(anyString(), eq(OK_RESPONSE))).thenReturn(true);
+        when(serialCommunicator.sendCommand(any(ArduinoCommand.class), eq(CommandPriority.HIGH))).thenReturn(true);
 
         // Act
         controller.shutdown();
 
         // Assert
-        verify(serialCommunicator).sendCommand("shutdown()", OK_RESPONSE);
+        verify(serialCommunicator).sendCommand(ArduinoCommand.shutdown(), CommandPriority.HIGH);
         verify(serialCommunicator).close();
     }
 }
\ No newline at end of file
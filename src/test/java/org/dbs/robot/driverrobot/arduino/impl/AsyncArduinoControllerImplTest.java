@@ -0,0 +1,160 @@
+package org.dbs.robot.driverrobot.arduino.impl;
+
+import org.dbs.robot.driverrobot.arduino.DeviceOperation;
+import org.dbs.robot.driverrobot.arduino.protocol.ArduinoCommand;
+import org.dbs.robot.driverrobot.arduino.protocol.Opcode;
+import org.dbs.robot.driverrobot.arduino.serial.CommandDeadline;
+import org.dbs.robot.driverrobot.arduino.serial.CommandPriority;
+import org.dbs.robot.driverrobot.arduino.serial.CommandRejectedException;
+import org.dbs.robot.driverrobot.arduino.serial.SerialCommunicator;
+import org.dbs.robot.driverrobot.arduino.serial.SerialCommunicatorRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AsyncArduinoControllerImplTest {
+
+    @Mock
+    private SerialCommunicator serialCommunicator;
+
+    @Mock
+    private SerialCommunicatorRegistry registry;
+
+    private AsyncArduinoControllerImpl controller;
+
+    @BeforeEach
+    void setUp() {
+        lenient().when(registry.forDevice(anyString())).thenReturn(serialCommunicator);
+        lenient().when(registry.all()).thenReturn(List.of(serialCommunicator));
+        controller = new AsyncArduinoControllerImpl(registry);
+    }
+
+    @Test
+    void controlLed_shouldSendCorrectCommand() {
+        // Arrange
+        when(serialCommunicator.sendCommandAsync(any(ArduinoCommand.class)))
+                .thenReturn(CompletableFuture.completedFuture(true));
+
+        // Act
+        CompletableFuture<Boolean> result = controller.controlLed("red", true);
+
+        // Assert
+        assertTrue(result.join());
+        verify(serialCommunicator).sendCommandAsync(ArduinoCommand.led("red", true));
+    }
+
+    @Test
+    void positionServo_shouldNotWaitForTheResponse() {
+        // Arrange
+        CompletableFuture<Boolean> pending = new CompletableFuture<>();
+        when(serialCommunicator.sendCommandAsync(any(ArduinoCommand.class))).thenReturn(pending);
+
+        // Act
+        CompletableFuture<Boolean> result = controller.positionServo("head", 90);
+
+        // Assert
+        assertFalse(result.isDone());
+        pending.complete(true);
+        assertTrue(result.join());
+        verify(serialCommunicator).sendCommandAsync(ArduinoCommand.servoAngle("head", 90));
+    }
+
+    @Test
+    void sweep_shouldSendCorrectCommand() {
+        // Arrange
+        when(serialCommunicator.sendCommandAsync(any(ArduinoCommand.class)))
+                .thenReturn(CompletableFuture.completedFuture(true));
+
+        // Act
+        CompletableFuture<Boolean> result = controller.sweep("arm", 0, 180, 5);
+
+        // Assert
+        assertTrue(result.join());
+        verify(serialCommunicator).sendCommandAsync(ArduinoCommand.servoMovement("arm", Opcode.SWEEP, 0, 180, 5));
+    }
+
+    @Test
+    void reverseHalfSweep_shouldHandleFailure() {
+        // Arrange
+        when(serialCommunicator.sendCommandAsync(any(ArduinoCommand.class)))
+                .thenReturn(CompletableFuture.completedFuture(false));
+
+        // Act
+        CompletableFuture<Boolean> result = controller.reverseHalfSweep("base", 45, 120, 7);
+
+        // Assert
+        assertFalse(result.join());
+        verify(serialCommunicator).sendCommandAsync(ArduinoCommand.servoMovement("base", Opcode.REVERSE_HALF_SWEEP, 45, 120, 7));
+    }
+
+    @Test
+    void withDeadline_shouldSendTheCommandsWithTheDeadlineOfTheCaller() {
+        // Arrange
+        CommandDeadline deadline = CommandDeadline.after(Duration.ofMillis(50));
+        when(serialCommunicator.sendCommandAsync(any(ArduinoCommand.class), any(CommandPriority.class), eq(deadline)))
+                .thenReturn(CompletableFuture.completedFuture(true));
+
+        // Act
+        CompletableFuture<Boolean> result = controller.withDeadline(deadline).positionServo("head", 90);
+
+        // Assert
+        assertTrue(result.join());
+        verify(serialCommunicator).sendCommandAsync(ArduinoCommand.servoAngle("head", 90), CommandPriority.NORMAL, deadline);
+        verify(serialCommunicator, never()).sendCommandAsync(any(ArduinoCommand.class));
+    }
+
+    @Test
+    void executeBatch_shouldReportEachOutcome_whenTheQueueRejectsAnOperation() {
+        // Arrange
+        when(serialCommunicator.sendBatchAsync(anyList(), eq(CommandPriority.NORMAL))).thenReturn(List.of(
+                CompletableFuture.completedFuture(true),
+                CompletableFuture.failedFuture(new CommandRejectedException("Command queue full"))));
+
+        // Act
+        CompletableFuture<List<Boolean>> result = controller.executeBatch(
+                List.of(DeviceOperation.led("red", true), DeviceOperation.servoPosition("head", 90)));
+
+        // Assert
+        assertEquals(List.of(true, false), result.join());
+    }
+
+    @Test
+    void isReady_shouldReturnFalseWhenTheBoardIsNotReady() {
+        // Arrange
+        when(serialCommunicator.checkReadiness()).thenReturn(CompletableFuture.completedFuture(false));
+
+        // Act
+        CompletableFuture<Boolean> result = controller.isReady();
+
+        // Assert
+        assertFalse(result.join());
+        verify(serialCommunicator, never()).sendCommandAsync(any(ArduinoCommand.class), any(CommandPriority.class));
+    }
+
+    @Test
+    void isReady_shouldUseTheReadinessOfTheBoard() {
+        // Arrange
+        when(serialCommunicator.checkReadiness()).thenReturn(CompletableFuture.completedFuture(true));
+
+        // Act
+        CompletableFuture<Boolean> result = controller.isReady();
+
+        // Assert
+        assertTrue(result.join());
+        verify(serialCommunicator).checkReadiness();
+    }
+}
@@ -0,0 +1,133 @@
+package org.dbs.robot.driverrobot.arduino.impl;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.dbs.robot.driverrobot.arduino.AsyncArduinoController;
+import org.dbs.robot.driverrobot.arduino.serial.CommandRejectedException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CoalescingAsyncArduinoControllerTest {
+
+    @Mock
+    private AsyncArduinoController delegate;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private CoalescingAsyncArduinoController controller;
+
+    @BeforeEach
+    void setUp() {
+        controller = new CoalescingAsyncArduinoController(delegate, meterRegistry);
+    }
+
+    @Test
+    void positionServo_shouldOnlySendTheLatestAngle_whileAPreviousOneIsOnItsWay() {
+        // Arrange
+        CompletableFuture<Boolean> onItsWay = new CompletableFuture<>();
+        when(delegate.positionServo("head", 10)).thenReturn(onItsWay);
+        when(delegate.positionServo("head", 40)).thenReturn(CompletableFuture.completedFuture(true));
+
+        // Act
+        CompletableFuture<Boolean> first = controller.positionServo("head", 10);
+        CompletableFuture<Boolean> second = controller.positionServo("head", 20);
+        CompletableFuture<Boolean> third = controller.positionServo("head", 30);
+        CompletableFuture<Boolean> latest = controller.positionServo("head", 40);
+        verify(delegate, times(1)).positionServo(eq("head"), anyInt());
+        onItsWay.complete(true);
+
+        // Assert
+        assertTrue(first.join() && second.join() && third.join() && latest.join());
+        verify(delegate).positionServo("head", 10);
+        verify(delegate).positionServo("head", 40);
+        verifyNoMoreInteractions(delegate);
+        assertEquals(2, counter(CoalescingAsyncArduinoController.COALESCED, "head"));
+    }
+
+    @Test
+    void positionServo_shouldNotDelayOtherServos() {
+        // Arrange
+        when(delegate.positionServo("head", 10)).thenReturn(new CompletableFuture<>());
+        when(delegate.positionServo("arm", 90)).thenReturn(CompletableFuture.completedFuture(true));
+
+        // Act
+        controller.positionServo("head", 10);
+        CompletableFuture<Boolean> arm = controller.positionServo("arm", 90);
+
+        // Assert
+        assertTrue(arm.join());
+        assertEquals(0, counter(CoalescingAsyncArduinoController.COALESCED, "arm"));
+    }
+
+    @Test
+    void positionServo_shouldCountDroppedSetpoints_whenTheQueueRefusesThem() {
+        // Arrange
+        when(delegate.positionServo("head", 10))
+                .thenReturn(CompletableFuture.failedFuture(new CommandRejectedException("Command queue full")));
+        when(delegate.positionServo("head", 20)).thenReturn(CompletableFuture.completedFuture(true));
+
+        // Act
+        CompletableFuture<Boolean> rejected = controller.positionServo("head", 10);
+        CompletableFuture<Boolean> next = controller.positionServo("head", 20);
+
+        // Assert
+        CompletionException exception = assertThrows(CompletionException.class, rejected::join);
+        assertInstanceOf(CommandRejectedException.class, exception.getCause());
+        assertTrue(next.join());
+        assertEquals(1, counter(CoalescingAsyncArduinoController.DROPPED, "head"));
+    }
+
+    @Test
+    void positionServo_shouldNotStallTheCompletingThread_whenTheNextSetpointWaitsForRoomInTheQueue() {
+        // Arrange: the next setpoint blocks like an offer to a full queue with the BLOCK policy
+        CompletableFuture<Boolean> onItsWay = new CompletableFuture<>();
+        CountDownLatch room = new CountDownLatch(1);
+        when(delegate.positionServo("head", 10)).thenReturn(onItsWay);
+        when(delegate.positionServo("head", 20)).thenAnswer(invocation -> {
+            room.await();
+            return CompletableFuture.completedFuture(true);
+        });
+        CompletableFuture<Boolean> first = controller.positionServo("head", 10);
+        CompletableFuture<Boolean> next = controller.positionServo("head", 20);
+
+        try {
+            // Act: the serial reader acknowledges the command on its way
+            assertTimeoutPreemptively(Duration.ofSeconds(1), () -> onItsWay.complete(true));
+        } finally {
+            room.countDown();
+        }
+
+        // Assert
+        assertTrue(first.join());
+        assertTrue(next.join());
+        verify(delegate).positionServo("head", 20);
+    }
+
+    @Test
+    void otherOperations_shouldBePassedThrough() {
+        // Arrange
+        when(delegate.controlLed("red", true)).thenReturn(CompletableFuture.completedFuture(true));
+
+        // Act
+        boolean result = controller.controlLed("red", true).join();
+
+        // Assert
+        assertTrue(result);
+        verify(delegate).controlLed("red", true);
+    }
+
+    private double counter(String name, String device) {
+        return meterRegistry.get(name).tag("device", device).counter().count();
+    }
+}
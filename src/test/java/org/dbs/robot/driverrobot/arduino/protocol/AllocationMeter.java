@@ -0,0 +1,29 @@
+package org.dbs.robot.driverrobot.arduino.protocol;
+
+import java.lang.management.ManagementFactory;
+
+/**
+ * Measures the heap allocations of the current thread, to check that a hot path does not allocate.
+ */
+final class AllocationMeter {
+
+    private AllocationMeter() {
+    }
+
+    /**
+     * Runs an action and measures what it allocates.
+     *
+     * @param action The action, run on the current thread
+     * @return The number of bytes allocated by the current thread while running the action
+     */
+    static long allocatedBytes(Runnable action) {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().threadId();
+        long calibration = threads.getThreadAllocatedBytes(threadId);
+        long before = threads.getThreadAllocatedBytes(threadId);
+        long overhead = before - calibration;
+        action.run();
+        long after = threads.getThreadAllocatedBytes(threadId);
+        return Math.max(0, after - before - overhead);
+    }
+}
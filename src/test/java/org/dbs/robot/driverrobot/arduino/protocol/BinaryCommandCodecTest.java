@@ -0,0 +1,141 @@
+package org.dbs.robot.driverrobot.arduino.protocol;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BinaryCommandCodecTest {
+
+    private static final int ROUND_TRIPS = 100_000;
+
+    private final BinaryCommandCodec codec = new BinaryCommandCodec(Map.of("red", 1, "head", 2));
+
+    @Test
+    void encode_shouldWriteALengthPrefixedFrameWithSequenceAndChecksum() {
+        // Act
+        byte[] frame = encode(ArduinoCommand.servoMovement("head", Opcode.SWEEP, 0, 180, 5), 42);
+
+        // Assert
+        assertEquals(9, frame.length);
+        assertEquals((byte) 0xA5, frame[0]);
+        assertEquals(6, frame[1]);
+        assertEquals(42, frame[2]);
+        assertEquals(Opcode.SWEEP.getCode(), frame[3]);
+        assertEquals(2, frame[4]);
+        assertEquals(0, frame[5]);
+        assertEquals((byte) 180, frame[6]);
+        assertEquals(5, frame[7]);
+        assertEquals((byte) BinaryCommandCodec.crc8(ByteBuffer.wrap(frame), 1, 8), frame[8]);
+    }
+
+    @Test
+    void encode_shouldBeMuchShorterThanTheTextProtocol() {
+        // Act
+        byte[] frame = encode(ArduinoCommand.servoAngle("head", 90), 0);
+
+        // Assert
+        assertEquals(7, frame.length);
+        assertArrayEquals(new byte[]{(byte) 0xA5, 4, 0, 2, 2, 90}, Arrays.copyOf(frame, 6));
+    }
+
+    @Test
+    void encode_shouldAddressTheBoard_forStatusAndShutdown() {
+        assertEquals(0, encode(ArduinoCommand.status(), 1)[4]);
+        assertEquals(0, encode(ArduinoCommand.shutdown(), 1)[4]);
+    }
+
+    @Test
+    void encode_shouldReject_whenDeviceHasNoIdOrArgumentDoesNotFitInAByte() {
+        ByteBuffer buffer = ByteBuffer.allocate(16);
+        assertThrows(IllegalArgumentException.class, () -> codec.encode(ArduinoCommand.led("blue", true), 0, buffer));
+        assertThrows(IllegalArgumentException.class, () -> codec.encode(ArduinoCommand.servoAngle("head", 300), 0, buffer));
+    }
+
+    @Test
+    void encode_shouldLeaveTheBufferUnchanged_whenAnArgumentDoesNotFitInAByte() {
+        // Arrange
+        ByteBuffer buffer = ByteBuffer.allocate(32);
+        codec.encode(ArduinoCommand.led("red", true), 0, buffer);
+        int position = buffer.position();
+
+        // Act
+        assertThrows(IllegalArgumentException.class,
+                () -> codec.encode(ArduinoCommand.servoMovement("head", Opcode.SWEEP, 0, 180, 300), 1, buffer));
+
+        // Assert: no partial frame follows the previous one
+        assertEquals(position, buffer.position());
+    }
+
+    @Test
+    void newDecoder_shouldDecodeResponseFramesAndResynchronizeAfterGarbage() throws IOException {
+        // Arrange
+        byte[] ok = response(7, BinaryCommandCodec.STATUS_OK);
+        byte[] ready = response(8, BinaryCommandCodec.STATUS_READY);
+        byte[] corrupted = response(9, BinaryCommandCodec.STATUS_ERROR);
+        corrupted[4] ^= 0x01;
+        byte[] input = concat(new byte[]{0x13, 0x37}, ok, ready, corrupted);
+        ResponseDecoder decoder = codec.newDecoder(new ByteArrayInputStream(input));
+        long deadline = System.nanoTime() + 1_000_000_000L;
+
+        // Act
+        ArduinoResponse first = decoder.read(deadline);
+        ArduinoResponse second = decoder.read(deadline);
+        ArduinoResponse third = decoder.read(deadline);
+
+        // Assert
+        assertEquals(new ArduinoResponse(ResponseType.OK, 7, "ok"), first);
+        assertEquals(new ArduinoResponse(ResponseType.READY, 8, "ready"), second);
+        assertEquals(ResponseType.INVALID, third.type());
+    }
+
+    @Test
+    void encodeAndDecode_shouldNotAllocate() throws IOException {
+        // Arrange
+        ArduinoCommand command = ArduinoCommand.servoAngle("head", 90);
+        ByteBuffer buffer = ByteBuffer.allocate(16);
+        ResponseDecoder decoder = codec.newDecoder(new RepeatingInputStream(response(3, BinaryCommandCodec.STATUS_OK)));
+        long deadline = System.nanoTime() + 10_000_000_000L;
+        Runnable roundTrips = () -> {
+            try {
+                for (int i = 0; i < ROUND_TRIPS; i++) {
+                    buffer.clear();
+                    codec.encode(command, i & 0xFF, buffer);
+                    decoder.read(deadline);
+                }
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+        };
+        roundTrips.run();
+
+        // Act
+        long allocatedBytes = AllocationMeter.allocatedBytes(roundTrips);
+
+        // Assert: less than one byte per command, only the constant cost of measuring
+        assertTrue(allocatedBytes < ROUND_TRIPS, allocatedBytes + " bytes allocated for " + ROUND_TRIPS + " commands");
+    }
+
+    private byte[] encode(ArduinoCommand command, int sequence) {
+        ByteBuffer buffer = ByteBuffer.allocate(16);
+        codec.encode(command, sequence, buffer);
+        return Arrays.copyOf(buffer.array(), buffer.position());
+    }
+
+    private static byte[] response(int sequence, int status) {
+        byte[] frame = {(byte) 0xA5, 2, (byte) sequence, (byte) status, 0};
+        frame[4] = (byte) BinaryCommandCodec.crc8(ByteBuffer.wrap(frame), 1, 4);
+        return frame;
+    }
+
+    private static byte[] concat(byte[]... parts) {
+        ByteBuffer buffer = ByteBuffer.allocate(Arrays.stream(parts).mapToInt(part -> part.length).sum());
+        Arrays.stream(parts).forEach(buffer::put);
+        return buffer.array();
+    }
+}
@@ -0,0 +1,36 @@
+package org.dbs.robot.driverrobot.arduino.protocol;
+
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Endless input stream that repeats the same bytes, without allocating on reads.
+ */
+final class RepeatingInputStream extends InputStream {
+
+    private final byte[] content;
+    private int position;
+
+    RepeatingInputStream(String content) {
+        this(content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    RepeatingInputStream(byte[] content) {
+        this.content = content;
+    }
+
+    @Override
+    public int read() {
+        int b = content[position] & 0xFF;
+        position = (position + 1) % content.length;
+        return b;
+    }
+
+    @Override
+    public int read(byte[] buffer, int offset, int length) {
+        int count = Math.min(length, content.length - position);
+        System.arraycopy(content, position, buffer, offset, count);
+        position = (position + count) % content.length;
+        return count;
+    }
+}
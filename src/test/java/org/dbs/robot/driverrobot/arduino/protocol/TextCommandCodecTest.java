@@ -0,0 +1,99 @@
+package org.dbs.robot.driverrobot.arduino.protocol;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TextCommandCodecTest {
+
+    private static final int ROUND_TRIPS = 100_000;
+
+    private final TextCommandCodec codec = new TextCommandCodec();
+
+    @Test
+    void encode_shouldWriteTheTextualCommandOfEachOpcode() {
+        assertEquals("led(red, on)\n", encode(ArduinoCommand.led("red", true)));
+        assertEquals("led(red, off)\n", encode(ArduinoCommand.led("red", false)));
+        assertEquals("servo(head, angle 90)\n", encode(ArduinoCommand.servoAngle("head", 90)));
+        assertEquals("servo(arm, sweep 0 180 5)\n", encode(ArduinoCommand.servoMovement("arm", Opcode.SWEEP, 0, 180, 5)));
+        assertEquals("servo(claw, half-sweep 10 90 3)\n",
+                encode(ArduinoCommand.servoMovement("claw", Opcode.HALF_SWEEP, 10, 90, 3)));
+        assertEquals("servo(base, reverse-half-sweep 45 120 7)\n",
+                encode(ArduinoCommand.servoMovement("base", Opcode.REVERSE_HALF_SWEEP, 45, 120, 7)));
+        assertEquals("servo(wrist, reverse-sweep 30 150 2)\n",
+                encode(ArduinoCommand.servoMovement("wrist", Opcode.REVERSE_SWEEP, 30, 150, 2)));
+        assertEquals("status(arduino, ok)\n", encode(ArduinoCommand.status()));
+        assertEquals("shutdown()\n", encode(ArduinoCommand.shutdown()));
+    }
+
+    @Test
+    void encode_shouldLeaveTheBufferUnchanged_whenTheCommandDoesNotFit() {
+        // Arrange
+        ByteBuffer buffer = ByteBuffer.allocate(8);
+
+        // Act & Assert
+        assertThrows(BufferOverflowException.class, () -> codec.encode(ArduinoCommand.servoAngle("head", 90), 0, buffer));
+        assertEquals(0, buffer.position());
+    }
+
+    @Test
+    void newDecoder_shouldDecodeEachResponseLineAndSkipBlankLines() throws IOException {
+        // Arrange
+        ResponseDecoder decoder = decoder("ok\r\n\r\nREADY\nerror\nbusy\n");
+        long deadline = System.nanoTime() + 1_000_000_000L;
+
+        // Act & Assert
+        assertEquals(ResponseType.OK, decoder.read(deadline).type());
+        assertEquals(ResponseType.READY, decoder.read(deadline).type());
+        assertEquals(ResponseType.ERROR, decoder.read(deadline).type());
+        ArduinoResponse notice = decoder.read(deadline);
+        assertEquals(ResponseType.NOTICE, notice.type());
+        assertEquals("busy", notice.text());
+        assertEquals(ArduinoResponse.NO_SEQUENCE, notice.sequence());
+    }
+
+    @Test
+    void encodeAndDecode_shouldNotAllocate_onceDeviceNamesAreCached() throws IOException {
+        // Arrange
+        List<ArduinoCommand> commands = List.of(ArduinoCommand.servoAngle("head", 90), ArduinoCommand.led("red", true),
+                ArduinoCommand.servoMovement("arm", Opcode.SWEEP, 0, 180, 5), ArduinoCommand.status());
+        ByteBuffer buffer = ByteBuffer.allocate(64);
+        ResponseDecoder decoder = codec.newDecoder(new RepeatingInputStream("ok\r\nready\n"));
+        long deadline = System.nanoTime() + 10_000_000_000L;
+        Runnable roundTrips = () -> {
+            try {
+                for (int i = 0; i < ROUND_TRIPS; i++) {
+                    buffer.clear();
+                    codec.encode(commands.get(i & 3), i & 0xFF, buffer);
+                    decoder.read(deadline);
+                }
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+        };
+        roundTrips.run();
+
+        // Act
+        long allocatedBytes = AllocationMeter.allocatedBytes(roundTrips);
+
+        // Assert: less than one byte per command, only the constant cost of measuring
+        assertTrue(allocatedBytes < ROUND_TRIPS, allocatedBytes + " bytes allocated for " + ROUND_TRIPS + " commands");
+    }
+
+    private String encode(ArduinoCommand command) {
+        ByteBuffer buffer = ByteBuffer.allocate(64);
+        codec.encode(command, 0, buffer);
+        return new String(buffer.array(), 0, buffer.position(), StandardCharsets.UTF_8);
+    }
+
+    private ResponseDecoder decoder(String input) {
+        return codec.newDecoder(new ByteArrayInputStream(input.getBytes(StandardCharsets.UTF_8)));
+    }
+}
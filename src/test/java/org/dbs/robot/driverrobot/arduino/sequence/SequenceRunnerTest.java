@@ -0,0 +1,186 @@
+package org.dbs.robot.driverrobot.arduino.sequence;
+
+import org.dbs.robot.driverrobot.arduino.AsyncArduinoController;
+import org.dbs.robot.driverrobot.arduino.DeviceOperation;
+import org.dbs.robot.driverrobot.arduino.serial.CommandRejectedException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SequenceRunnerTest {
+
+    private static final long MAX_LATENESS_MS = 500;
+
+    @Mock
+    private AsyncArduinoController controller;
+
+    private final List<Batch> batches = new CopyOnWriteArrayList<>();
+    private SequenceRunner runner;
+
+    @BeforeEach
+    void setUp() {
+        runner = new SequenceRunner(controller, 1000, 1);
+    }
+
+    @AfterEach
+    void tearDown() {
+        runner.close();
+    }
+
+    @Test
+    void start_shouldSendTheStepsOnSchedule_withoutWaitingForTheirAcknowledgements() throws Exception {
+        // Arrange: no batch is acknowledged before every write is out
+        CompletableFuture<Void> acknowledgements = new CompletableFuture<>();
+        answerWhen(acknowledgements);
+        Sequence sequence = Sequence.parse("blink", "led red on; servo head 90; wait 20; servo head 0; wait 20; led red off");
+
+        // Act
+        long startNanos = System.nanoTime();
+        SequenceExecution execution = runner.start(sequence);
+        awaitBatches(3);
+        acknowledgements.complete(null);
+        SequenceStatus result = execution.getResult().join();
+
+        // Assert: the two first steps share one write, and write n leaves no earlier than 20 * n ms after the start
+        // of the run, without waiting for the acknowledgement of the previous one
+        assertEquals(SequenceState.COMPLETED, result.state());
+        assertEquals(4, result.sentCommands());
+        assertEquals(3, result.batches());
+        assertEquals(List.of(List.of(DeviceOperation.led("red", true), DeviceOperation.servoPosition("head", 90)),
+                List.of(DeviceOperation.servoPosition("head", 0)), List.of(DeviceOperation.led("red", false))),
+                batches.stream().map(Batch::operations).toList());
+        for (int i = 1; i < batches.size(); i++) {
+            long sinceStartNanos = batches.get(i).nanos() - startNanos;
+            assertTrue(sinceStartNanos >= TimeUnit.MILLISECONDS.toNanos(20L * i),
+                    "batch " + i + " was sent " + TimeUnit.NANOSECONDS.toMillis(sinceStartNanos) + " ms after the start");
+        }
+        assertTrue(result.maxLatenessMs() < MAX_LATENESS_MS, "a step was " + result.maxLatenessMs() + " ms late");
+    }
+
+    @Test
+    void start_shouldKeepTheOrderOfTheScript_aroundSweeps() {
+        // Arrange
+        answerAfter(0);
+        when(controller.sweep("head", 0, 180, 5)).thenReturn(CompletableFuture.completedFuture(true));
+
+        // Act
+        SequenceStatus result = runner.start(Sequence.parse(null, "servo head 0; sweep head 0 180 5; servo head 90"))
+                .getResult().join();
+
+        // Assert
+        InOrder inOrder = inOrder(controller);
+        inOrder.verify(controller).executeBatch(List.of(DeviceOperation.servoPosition("head", 0)));
+        inOrder.verify(controller).sweep("head", 0, 180, 5);
+        inOrder.verify(controller).executeBatch(List.of(DeviceOperation.servoPosition("head", 90)));
+        assertEquals(SequenceState.COMPLETED, result.state());
+        assertEquals(3, result.batches());
+    }
+
+    @Test
+    void pause_shouldHoldTheNextSteps_andResumeShouldShiftTheSchedule() throws Exception {
+        // Arrange
+        answerAfter(0);
+        SequenceExecution execution = runner.start(Sequence.parse(null, "led red on; wait 100; led red off"));
+        Thread.sleep(20);
+
+        // Act
+        assertTrue(execution.pause());
+        Thread.sleep(200);
+        SequenceState paused = execution.getState();
+        int sentWhilePaused = batches.size();
+        assertTrue(execution.resume());
+        SequenceStatus result = execution.getResult().get(5, TimeUnit.SECONDS);
+
+        // Assert
+        assertEquals(SequenceState.PAUSED, paused);
+        assertEquals(1, sentWhilePaused);
+        assertEquals(SequenceState.COMPLETED, result.state());
+        long gapMs = TimeUnit.NANOSECONDS.toMillis(batches.get(1).nanos() - batches.get(0).nanos());
+        assertTrue(gapMs >= 290, "the second step was sent " + gapMs + " ms after the first one");
+    }
+
+    @Test
+    void stop_shouldEndTheRunBeforeItsNextStep() throws Exception {
+        // Arrange
+        answerAfter(0);
+        SequenceExecution execution = runner.start(Sequence.parse(null, "loop 100 { led red on; wait 20 }"));
+        Thread.sleep(100);
+
+        // Act
+        assertTrue(execution.stop());
+        SequenceStatus result = execution.getResult().get(1, TimeUnit.SECONDS);
+        int sentAfterStop = batches.size();
+        Thread.sleep(60);
+
+        // Assert
+        assertEquals(SequenceState.STOPPED, result.state());
+        assertTrue(result.sentCommands() < result.totalCommands(), result.toString());
+        assertEquals(sentAfterStop, batches.size());
+        assertFalse(execution.stop());
+    }
+
+    @Test
+    void start_shouldCountTheFailedAndRefusedCommands_andForgetTheOldestFinishedRuns() {
+        // Arrange
+        when(controller.executeBatch(anyList()))
+                .thenReturn(CompletableFuture.completedFuture(List.of(true, false)))
+                .thenReturn(CompletableFuture.failedFuture(new CommandRejectedException("The command queue is full")));
+
+        // Act
+        SequenceExecution first = runner.start(Sequence.parse(null, "led red on; led green on; wait 10; servo head 90"));
+        SequenceStatus result = first.getResult().join();
+        SequenceExecution second = runner.start(Sequence.parse(null, "led red off"));
+        second.getResult().join();
+
+        // Assert
+        assertEquals(SequenceState.FAILED, result.state());
+        assertEquals(2, result.failedCommands());
+        assertEquals(3, result.sentCommands());
+        assertTrue(runner.find(first.getId()).isEmpty());
+        assertSame(second, runner.find(second.getId()).orElseThrow());
+    }
+
+    private void answerAfter(long delayMs) {
+        when(controller.executeBatch(anyList())).thenAnswer(invocation -> {
+            List<DeviceOperation> operations = invocation.getArgument(0);
+            batches.add(new Batch(System.nanoTime(), List.copyOf(operations)));
+            List<Boolean> results = Collections.nCopies(operations.size(), true);
+            return CompletableFuture.supplyAsync(() -> results,
+                    CompletableFuture.delayedExecutor(delayMs, TimeUnit.MILLISECONDS));
+        });
+    }
+
+    private void answerWhen(CompletableFuture<Void> acknowledgements) {
+        when(controller.executeBatch(anyList())).thenAnswer(invocation -> {
+            List<DeviceOperation> operations = invocation.getArgument(0);
+            batches.add(new Batch(System.nanoTime(), List.copyOf(operations)));
+            return acknowledgements.thenApply(done -> Collections.nCopies(operations.size(), true));
+        });
+    }
+
+    private void awaitBatches(int count) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (batches.size() < count && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        assertEquals(count, batches.size(), "a write waited for the acknowledgement of the previous one");
+    }
+
+    private record Batch(long nanos, List<DeviceOperation> operations) {
+    }
+}
@@ -0,0 +1,107 @@
+package org.dbs.robot.driverrobot.arduino.sequence;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.dbs.robot.driverrobot.arduino.protocol.Opcode;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SequenceTest {
+
+    @Test
+    void parse_shouldReadEveryKindOfStep() {
+        // Arrange
+        String script = """
+                led red on            # comment
+                servo head 90; wait 250
+                half-sweep arm 0 180 5
+                parallel { servo head 0 | servo arm 180; wait 100; servo arm 90 }
+                loop 2 {
+                    led red off
+                }
+                """;
+
+        // Act
+        Sequence sequence = Sequence.parse("demo", script);
+
+        // Assert
+        assertEquals("demo", sequence.name());
+        assertEquals(List.of(
+                new SequenceStep.Led("red", true),
+                new SequenceStep.Servo("head", 90),
+                new SequenceStep.Wait(250),
+                new SequenceStep.Sweep("arm", Opcode.HALF_SWEEP, 0, 180, 5),
+                new SequenceStep.Parallel(List.of(
+                        List.of(new SequenceStep.Servo("head", 0)),
+                        List.of(new SequenceStep.Servo("arm", 180), new SequenceStep.Wait(100),
+                                new SequenceStep.Servo("arm", 90)))),
+                new SequenceStep.Loop(2, List.of(new SequenceStep.Led("red", false)))), sequence.steps());
+    }
+
+    @Test
+    void parse_shouldRejectMalformedScripts() {
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> Sequence.parse(null, "blink red"));
+        assertThrows(IllegalArgumentException.class, () -> Sequence.parse(null, "servo head ninety"));
+        assertThrows(IllegalArgumentException.class, () -> Sequence.parse(null, "loop 2 { led red on"));
+        assertThrows(IllegalArgumentException.class, () -> Sequence.parse(null, "led red on }"));
+        assertThrows(IllegalArgumentException.class, () -> Sequence.parse(null, "# nothing"));
+    }
+
+    @Test
+    void json_shouldDeserializeTheStepsByType() throws Exception {
+        // Arrange
+        String json = """
+                {"name": "wave", "steps": [
+                  {"type": "led", "name": "red", "state": true},
+                  {"type": "sweep", "name": "head", "startAngle": 0, "endAngle": 180, "speed": 5},
+                  {"type": "loop", "count": 3, "steps": [{"type": "wait", "ms": 100}]},
+                  {"type": "parallel", "branches": [[{"type": "servo", "name": "arm", "angle": 45}]]}
+                ]}
+                """;
+
+        // Act
+        Sequence sequence = new ObjectMapper().readValue(json, Sequence.class);
+
+        // Assert
+        assertEquals(new Sequence("wave", List.of(
+                new SequenceStep.Led("red", true),
+                new SequenceStep.Sweep("head", null, 0, 180, 5),
+                new SequenceStep.Loop(3, List.of(new SequenceStep.Wait(100))),
+                new SequenceStep.Parallel(List.of(List.of(new SequenceStep.Servo("arm", 45)))))), sequence);
+        assertEquals(Opcode.SWEEP, ((SequenceStep.Sweep) sequence.steps().get(1)).movement());
+    }
+
+    @Test
+    void compile_shouldUnrollLoopsAndMergeParallelBranchesInTimeOrder() {
+        // Arrange
+        Sequence sequence = Sequence.parse(null,
+                "loop 2 { led red on; wait 10 }; parallel { servo head 0; wait 30 | wait 5; servo arm 90 }; led red off");
+
+        // Act
+        SequenceTimeline timeline = SequenceTimeline.compile(sequence, 100);
+
+        // Assert
+        List<Long> offsetsMs = timeline.cues().stream()
+                .map(cue -> TimeUnit.NANOSECONDS.toMillis(cue.offset())).toList();
+        assertEquals(List.of(0L, 10L, 20L, 25L, 50L), offsetsMs);
+        assertEquals(new SequenceStep.Servo("arm", 90), timeline.cues().get(3).step());
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(50), timeline.duration());
+    }
+
+    @Test
+    void compile_shouldRejectInvalidSteps_andSequencesWithTooManyCommands() {
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class,
+                () -> SequenceTimeline.compile(Sequence.parse(null, "servo head 200"), 100));
+        assertThrows(IllegalArgumentException.class,
+                () -> SequenceTimeline.compile(Sequence.parse(null, "loop 0 { led red on }"), 100));
+        assertThrows(IllegalArgumentException.class,
+                () -> SequenceTimeline.compile(new Sequence(null, List.of(new SequenceStep.Wait(-1))), 100));
+        assertThrows(IllegalArgumentException.class,
+                () -> SequenceTimeline.compile(Sequence.parse(null, "loop 101 { led red on }"), 100));
+    }
+}
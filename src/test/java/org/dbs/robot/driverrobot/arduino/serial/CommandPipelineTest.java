@@ -0,0 +1,240 @@
+package org.dbs.robot.driverrobot.arduino.serial;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.dbs.robot.driverrobot.arduino.protocol.ArduinoCommand;
+import org.dbs.robot.driverrobot.arduino.protocol.ArduinoResponse;
+import org.dbs.robot.driverrobot.arduino.protocol.CodecType;
+import org.dbs.robot.driverrobot.arduino.protocol.CommandCodec;
+import org.dbs.robot.driverrobot.arduino.protocol.Opcode;
+import org.dbs.robot.driverrobot.arduino.protocol.ResponseDecoder;
+import org.dbs.robot.driverrobot.arduino.protocol.ResponseType;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CommandPipelineTest {
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(5);
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final BlockingQueue<ArduinoResponse> responses = new LinkedBlockingQueue<>();
+    private final List<ArduinoResponse> unsolicited = new CopyOnWriteArrayList<>();
+    private final CommandQueue queue = new CommandQueue(16, RejectionPolicy.FAIL_FAST);
+    private CommandPipeline pipeline;
+
+    @AfterEach
+    void tearDown() {
+        pipeline.stop();
+    }
+
+    @Test
+    void dispatch_shouldHandNoticesToTheListener_withoutTakingTheResponseOfACommand() throws Exception {
+        // Arrange
+        start(CodecType.TEXT);
+        SerialCommand led = send(ArduinoCommand.led("red", true));
+        awaitInFlight(1);
+
+        // Act
+        responses.add(new ArduinoResponse(ResponseType.NOTICE, ArduinoResponse.NO_SEQUENCE, "sweep done"));
+        responses.add(new ArduinoResponse(ResponseType.OK, ArduinoResponse.NO_SEQUENCE, "ok"));
+
+        // Assert
+        assertTrue(led.getResult().get(5, TimeUnit.SECONDS));
+        assertEquals(List.of("sweep done"), unsolicited.stream().map(ArduinoResponse::text).toList());
+        assertEquals(1, meterRegistry.get(SerialMetrics.NOTICES).counter().count());
+    }
+
+    @Test
+    void dispatch_shouldRouteResponsesBySequenceNumber_andFailOnlyTheCommandWhoseResponseWasLost() throws Exception {
+        // Arrange
+        start(CodecType.BINARY);
+        SerialCommand first = send(ArduinoCommand.servoAngle("head", 10));
+        SerialCommand second = send(ArduinoCommand.servoAngle("head", 20));
+        SerialCommand third = send(ArduinoCommand.servoAngle("head", 30));
+        awaitInFlight(3);
+
+        // Act: the response of the first command is lost, then arrives late, after the second one
+        responses.add(new ArduinoResponse(ResponseType.OK, second.getSequence(), "ok"));
+        responses.add(new ArduinoResponse(ResponseType.OK, first.getSequence(), "ok"));
+        responses.add(new ArduinoResponse(ResponseType.OK, third.getSequence(), "ok"));
+
+        // Assert
+        assertFalse(first.getResult().get(5, TimeUnit.SECONDS));
+        assertTrue(second.getResult().get(5, TimeUnit.SECONDS));
+        assertTrue(third.getResult().get(5, TimeUnit.SECONDS));
+        assertEquals(1, unsolicited.size());
+        assertEquals(1, meterRegistry.get(SerialMetrics.MISMATCHED).tag("reason", "skipped").counter().count());
+        assertEquals(0, pipeline.getInFlightCount());
+    }
+
+    @Test
+    void dispatch_shouldSendAgainOnlyTheCommandWhoseAcknowledgementWasLost() throws Exception {
+        // Arrange
+        start(CodecType.BINARY, new RetransmitPolicy(3, TimeUnit.SECONDS.toNanos(5)));
+        SerialCommand first = send(ArduinoCommand.servoAngle("head", 10));
+        SerialCommand second = send(ArduinoCommand.led("red", true));
+        awaitInFlight(2);
+        int lostSequence = first.getSequence();
+
+        // Act: the acknowledgement of the first command is lost
+        responses.add(new ArduinoResponse(ResponseType.OK, second.getSequence(), "ok"));
+        awaitResent(first, lostSequence);
+        responses.add(new ArduinoResponse(ResponseType.OK, first.getSequence(), "ok"));
+
+        // Assert
+        assertTrue(second.getResult().get(5, TimeUnit.SECONDS));
+        assertTrue(first.getResult().get(5, TimeUnit.SECONDS));
+        assertEquals(1, first.getRetransmits());
+        assertEquals(0, second.getRetransmits());
+        assertEquals(1, meterRegistry.get(SerialMetrics.RETRANSMITS).counter().count());
+        assertEquals(0, pipeline.getInFlightCount());
+    }
+
+    @Test
+    void dispatch_shouldNotSendACommandAgain_whenALaterCommandForTheSameDeviceWasAnswered() throws Exception {
+        // Arrange
+        start(CodecType.BINARY, new RetransmitPolicy(3, TimeUnit.SECONDS.toNanos(5)));
+        SerialCommand first = send(ArduinoCommand.servoAngle("head", 10));
+        SerialCommand second = send(ArduinoCommand.servoAngle("head", 20));
+        awaitInFlight(2);
+        int firstSequence = first.getSequence();
+
+        // Act: the acknowledgement of the first setpoint is lost
+        responses.add(new ArduinoResponse(ResponseType.OK, second.getSequence(), "ok"));
+
+        // Assert: the last setpoint wins
+        assertFalse(first.getResult().get(5, TimeUnit.SECONDS));
+        assertTrue(second.getResult().get(5, TimeUnit.SECONDS));
+        assertEquals(firstSequence, first.getSequence());
+        assertEquals(0, first.getRetransmits());
+        assertEquals(0, meterRegistry.get(SerialMetrics.RETRANSMITS).counter().count());
+        assertEquals(0, pipeline.getInFlightCount());
+    }
+
+    @Test
+    void dispatch_shouldDiscardACorruptAcknowledgement_andSendTheCommandAgainAfterTheTimeout() throws Exception {
+        // Arrange
+        start(CodecType.BINARY, new RetransmitPolicy(3, TimeUnit.MILLISECONDS.toNanos(100)));
+        SerialCommand led = send(ArduinoCommand.led("red", true));
+        awaitInFlight(1);
+        int corruptSequence = led.getSequence();
+
+        // Act
+        responses.add(new ArduinoResponse(ResponseType.INVALID, corruptSequence, "bad checksum"));
+        awaitResent(led, corruptSequence);
+        responses.add(new ArduinoResponse(ResponseType.OK, led.getSequence(), "ok"));
+
+        // Assert
+        assertTrue(led.getResult().get(5, TimeUnit.SECONDS));
+        assertEquals(1, meterRegistry.get(SerialMetrics.MISMATCHED).tag("reason", "corrupt").counter().count());
+        assertTrue(unsolicited.isEmpty());
+    }
+
+    @Test
+    void evictExpired_shouldFailTheCommand_whenItsRetransmissionsAreExhausted() throws Exception {
+        // Arrange
+        start(CodecType.BINARY, new RetransmitPolicy(2, TimeUnit.MILLISECONDS.toNanos(100)));
+        SerialCommand led = new SerialCommand(ArduinoCommand.led("red", true), CommandPriority.NORMAL, Duration.ofSeconds(1));
+        assertTrue(queue.offer(List.of(led)));
+
+        // Act: the Arduino never answers
+        boolean result = led.getResult().get(5, TimeUnit.SECONDS);
+
+        // Assert
+        assertFalse(result);
+        assertEquals(2, led.getRetransmits());
+        assertEquals(2, meterRegistry.get(SerialMetrics.RETRANSMITS).counter().count());
+    }
+
+    @Test
+    void dispatch_shouldNotSendAServoMovementAgain() throws Exception {
+        // Arrange
+        start(CodecType.BINARY, new RetransmitPolicy(3, TimeUnit.SECONDS.toNanos(5)));
+        SerialCommand sweep = send(ArduinoCommand.servoMovement("head", Opcode.SWEEP, 0, 180, 5));
+        SerialCommand led = send(ArduinoCommand.led("red", true));
+        awaitInFlight(2);
+
+        // Act
+        responses.add(new ArduinoResponse(ResponseType.OK, led.getSequence(), "ok"));
+
+        // Assert
+        assertFalse(sweep.getResult().get(5, TimeUnit.SECONDS));
+        assertTrue(led.getResult().get(5, TimeUnit.SECONDS));
+        assertEquals(0, meterRegistry.get(SerialMetrics.RETRANSMITS).counter().count());
+    }
+
+    private void start(CodecType codecType) {
+        start(codecType, null);
+    }
+
+    private void start(CodecType codecType, RetransmitPolicy retransmits) {
+        CommandPipeline.Listener listener = new CommandPipeline.Listener() {
+            @Override
+            public void responseReceived() {
+            }
+
+            @Override
+            public void responseMissed() {
+            }
+
+            @Override
+            public void unsolicitedResponse(ArduinoResponse response) {
+                unsolicited.add(response);
+            }
+
+            @Override
+            public void linkLost(IOException cause) {
+            }
+        };
+        pipeline = new CommandPipeline("scripted0", new ByteArrayOutputStream(),
+                CommandCodec.create(codecType, Map.of("red", 1, "head", 2)), this::nextResponse, new InFlightWindow(4), queue, listener,
+                new SerialMetrics(meterRegistry, "arduino"), null, null, retransmits);
+        pipeline.start();
+    }
+
+    private SerialCommand send(ArduinoCommand command) throws InterruptedException {
+        SerialCommand serialCommand = new SerialCommand(command, CommandPriority.NORMAL, TIMEOUT);
+        assertTrue(queue.offer(List.of(serialCommand)));
+        return serialCommand;
+    }
+
+    /**
+     * Scripted {@link ResponseDecoder}: returns the responses added by the test, in order.
+     */
+    private ArduinoResponse nextResponse(long deadlineNanos) throws IOException {
+        try {
+            return responses.poll(deadlineNanos - System.nanoTime(), TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted", e);
+        }
+    }
+
+    private void awaitResent(SerialCommand command, int previousSequence) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (command.getSequence() == previousSequence && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        assertNotEquals(previousSequence, command.getSequence());
+        awaitInFlight(1);
+    }
+
+    private void awaitInFlight(int count) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (pipeline.getInFlightCount() < count && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        assertEquals(count, pipeline.getInFlightCount());
+    }
+}
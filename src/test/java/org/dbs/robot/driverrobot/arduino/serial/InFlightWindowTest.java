@@ -0,0 +1,77 @@
+package org.dbs.robot.driverrobot.arduino.serial;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InFlightWindowTest {
+
+    private static final long TARGET_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+    private static final long FAST_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+
+    private final InFlightWindow window = InFlightWindow.adaptive(2, 8, TARGET_NANOS);
+
+    @Test
+    void answered_shouldGrowTheLimitAdditivelyUpToTheMaximum() {
+        // Act
+        answer(3);
+        int grown = window.limit();
+        answer(1000);
+
+        // Assert: 3 responses take a limit of 2 to 3
+        assertEquals(3, grown);
+        assertEquals(8, window.limit());
+        assertEquals(8, window.available());
+    }
+
+    @Test
+    void lost_shouldHalveTheLimitOncePerWindow() {
+        // Arrange
+        answer(1000);
+
+        // Act
+        window.lost();
+        window.lost();
+        int cut = window.limit();
+        answer(4);
+        window.lost();
+
+        // Assert: the second loss belongs to the same window of responses as the first one
+        assertEquals(4, cut);
+        assertEquals(2, window.limit());
+    }
+
+    @Test
+    void answered_shouldHalveTheLimit_whenTheLatencyExceedsTheTarget() {
+        // Arrange
+        answer(1000);
+
+        // Act
+        window.answered(2 * TARGET_NANOS);
+
+        // Assert
+        assertEquals(4, window.limit());
+    }
+
+    @Test
+    void fixedWindow_shouldIgnoreLatencyAndLosses() {
+        // Arrange
+        InFlightWindow fixed = new InFlightWindow(4);
+
+        // Act
+        fixed.answered(FAST_NANOS);
+        fixed.answered(2 * TARGET_NANOS);
+        fixed.lost();
+
+        // Assert
+        assertEquals(4, fixed.limit());
+    }
+
+    private void answer(int responses) {
+        for (int i = 0; i < responses; i++) {
+            window.answered(FAST_NANOS);
+        }
+    }
+}
@@ -0,0 +1,311 @@
+package org.dbs.robot.driverrobot.arduino.serial;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Function;
+
+/**
+ * In-memory SerialPortWrapper that answers every received line after a simulated wire latency.
+ * The responder maps each received line to the response line, or to null for no response.
+ * Reads follow the semi-blocking semantics of jSerialComm: they return as soon as one byte
+ * is available and time out with an InterruptedIOException otherwise.
+ * The port can be unplugged and plugged back to simulate a USB disconnect: like jSerialComm,
+ * an unplugged port stays open but every read and write fails with an IOException.
+ * A flush latency can simulate the latency timer of a USB-serial adapter, which holds each flush back.
+ */
+public class LoopbackSerialPort implements SerialPortWrapper {
+
+    private final String name;
+    private final Function<String, String> responder;
+    private final long latencyNanos;
+    private final List<String> receivedLines = new CopyOnWriteArrayList<>();
+    private final AtomicInteger flushCount = new AtomicInteger();
+    private final BlockingQueue<Byte> incoming = new LinkedBlockingQueue<>();
+    private final BlockingQueue<PendingResponse> pendingResponses = new LinkedBlockingQueue<>();
+    private final InputStream inputStream = new LoopbackInputStream();
+    private final OutputStream outputStream = new LoopbackOutputStream();
+    private volatile boolean open;
+    private volatile boolean unplugged;
+    private volatile boolean recordingLines = true;
+    private volatile int readTimeoutMs;
+    private volatile long flushLatencyNanos;
+    private Thread responderThread;
+
+    /**
+     * Constructor for LoopbackSerialPort.
+     *
+     * @param name      The system port name
+     * @param responder Maps each received line to its response line, or null for no response
+     * @param latency   The simulated time between the end of a received line and its response
+     * @param unit      The unit of the latency
+     */
+    public LoopbackSerialPort(String name, Function<String, String> responder, long latency, TimeUnit unit) {
+        this.name = name;
+        this.responder = responder;
+        this.latencyNanos = unit.toNanos(latency);
+    }
+
+    /**
+     * Creates a port that answers "ok" to every command, and "ready" to status commands.
+     *
+     * @param name    The system port name
+     * @param latency The simulated latency
+     * @param unit    The unit of the latency
+     * @return The loopback port
+     */
+    public static LoopbackSerialPort answeringOk(String name, long latency, TimeUnit unit) {
+        return new LoopbackSerialPort(name, booted(line -> "ok"), latency, unit);
+    }
+
+    /**
+     * Wraps a responder so that status commands are answered with "ready", like a booted Arduino,
+     * so that the connection handshake succeeds.
+     *
+     * @param responder The responder for the other commands
+     * @return The responder answering status commands
+     */
+    public static Function<String, String> booted(Function<String, String> responder) {
+        return line -> line.startsWith("status(") ? "ready" : responder.apply(line);
+    }
+
+    /**
+     * Simulates unplugging the board: reads and writes fail, the port cannot be opened,
+     * and the responses not yet delivered are lost.
+     */
+    public void unplug() {
+        unplugged = true;
+        pendingResponses.clear();
+        incoming.clear();
+    }
+
+    /**
+     * Simulates plugging the board back in, so that the port can be opened again.
+     */
+    public void plugIn() {
+        incoming.clear();
+        unplugged = false;
+    }
+
+    /**
+     * Checks if the board is unplugged.
+     *
+     * @return true if the board is unplugged, false otherwise
+     */
+    public boolean isUnplugged() {
+        return unplugged;
+    }
+
+    /**
+     * Forgets the lines received so far, such as the status commands of the connection handshake.
+     */
+    public void clearReceivedLines() {
+        receivedLines.clear();
+    }
+
+    /**
+     * Gets all the lines received by this port so far.
+     *
+     * @return The received lines, in order
+     */
+    public List<String> getReceivedLines() {
+        return receivedLines;
+    }
+
+    /**
+     * Sets whether received lines are kept for {@link #getReceivedLines()}.
+     * Long-running benchmarks turn recording off so that the port does not grow without bound.
+     *
+     * @param recordingLines true to keep the received lines, false to discard them
+     */
+    public void setRecordingLines(boolean recordingLines) {
+        this.recordingLines = recordingLines;
+    }
+
+    /**
+     * Sets the time each flush of the output stream blocks the writer, like the latency timer of a USB-serial adapter.
+     *
+     * @param latency The simulated flush latency
+     * @param unit    The unit of the latency
+     */
+    public void setFlushLatency(long latency, TimeUnit unit) {
+        this.flushLatencyNanos = unit.toNanos(latency);
+    }
+
+    /**
+     * Gets the number of times the output stream was flushed.
+     *
+     * @return The number of flushes
+     */
+    public int getFlushCount() {
+        return flushCount.get();
+    }
+
+    @Override
+    public String getSystemPortName() {
+        return name;
+    }
+
+    @Override
+    public String getDescriptivePortName() {
+        return "Loopback " + name;
+    }
+
+    @Override
+    public boolean setBaudRate(int baudRate) {
+        return true;
+    }
+
+    @Override
+    public void setComPortTimeouts(int mode, int readTimeout, int writeTimeout) {
+        this.readTimeoutMs = readTimeout;
+    }
+
+    @Override
+    public synchronized boolean openPort() {
+        if (unplugged) {
+            return false;
+        }
+        open = true;
+        responderThread = new Thread(this::respond, "loopback-" + name);
+        responderThread.setDaemon(true);
+        responderThread.start();
+        return true;
+    }
+
+    @Override
+    public boolean isOpen() {
+        return open;
+    }
+
+    @Override
+    public InputStream getInputStream() {
+        return inputStream;
+    }
+
+    @Override
+    public OutputStream getOutputStream() {
+        return outputStream;
+    }
+
+    @Override
+    public synchronized boolean closePort() {
+        open = false;
+        if (responderThread != null) {
+            responderThread.interrupt();
+        }
+        return true;
+    }
+
+    private void respond() {
+        try {
+            while (open) {
+                PendingResponse pending = pendingResponses.take();
+                long delay = pending.dueNanos() - System.nanoTime();
+                if (delay > 0) {
+                    LockSupport.parkNanos(delay);
+                }
+                for (byte b : (pending.line() + "\r\n").getBytes(StandardCharsets.UTF_8)) {
+                    incoming.add(b);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void onLine(String line) {
+        if (recordingLines) {
+            receivedLines.add(line);
+        }
+        String response = responder.apply(line);
+        if (response != null) {
+            pendingResponses.add(new PendingResponse(response, System.nanoTime() + latencyNanos));
+        }
+    }
+
+    private void checkPlugged() throws IOException {
+        if (unplugged) {
+            throw new IOException("The device was disconnected");
+        }
+    }
+
+    private record PendingResponse(String line, long dueNanos) {
+    }
+
+    private class LoopbackInputStream extends InputStream {
+
+        @Override
+        public int read() throws IOException {
+            byte[] single = new byte[1];
+            return read(single, 0, 1) < 0 ? -1 : single[0] & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            if (!open) {
+                return -1;
+            }
+            checkPlugged();
+            Byte first;
+            try {
+                first = incoming.poll(Math.max(readTimeoutMs, 1), TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while reading");
+            }
+            checkPlugged();
+            if (first == null) {
+                throw new InterruptedIOException("The read operation timed out before any data was returned.");
+            }
+            buffer[offset] = first;
+            int count = 1;
+            Byte next;
+            while (count < length && (next = incoming.poll()) != null) {
+                buffer[offset + count++] = next;
+            }
+            return count;
+        }
+    }
+
+    private class LoopbackOutputStream extends OutputStream {
+
+        private final ByteArrayOutputStream currentLine = new ByteArrayOutputStream();
+
+        @Override
+        public synchronized void write(int b) throws IOException {
+            checkPlugged();
+            if (b == '\n') {
+                onLine(currentLine.toString(StandardCharsets.UTF_8));
+                currentLine.reset();
+            } else {
+                currentLine.write(b);
+            }
+        }
+
+        @Override
+        public synchronized void write(byte[] buffer, int offset, int length) throws IOException {
+            for (int i = offset; i < offset + length; i++) {
+                write(buffer[i]);
+            }
+        }
+
+        @Override
+        public void flush() {
+            flushCount.incrementAndGet();
+            if (flushLatencyNanos > 0) {
+                LockSupport.parkNanos(flushLatencyNanos);
+            }
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package org.dbs.robot.driverrobot.arduino.serial;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.dbs.robot.driverrobot.arduino.config.ArduinoConfig;
+import org.dbs.robot.driverrobot.arduino.protocol.ArduinoCommand;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SerialCommunicatorCoalescingTest {
+
+    private static final String PORT_NAME = "loopback0";
+    private static final int CALLERS = 16;
+    private static final int COMMANDS_PER_CALLER = 20;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private LoopbackSerialPort port;
+    private SerialCommunicator serialCommunicator;
+    private int flushesAtStart;
+
+    @AfterEach
+    void tearDown() {
+        serialCommunicator.close();
+    }
+
+    @Test
+    void sendCommand_shouldGatherConcurrentCallersIntoFewerFlushes_withinTheByteBound() throws Exception {
+        // Arrange
+        connect(true);
+
+        // Act
+        List<Boolean> results = sendFromConcurrentCallers();
+
+        // Assert: a servo command takes 20 or 21 bytes, so a flush stops gathering at 64 bytes, after the fourth one
+        assertTrue(results.stream().allMatch(Boolean::booleanValue));
+        assertEquals(CALLERS * COMMANDS_PER_CALLER, port.getReceivedLines().size());
+        assertTrue(flushes() < CALLERS * COMMANDS_PER_CALLER * 3 / 4,
+                flushes() + " flushes for " + results.size() + " commands");
+        assertTrue(flushSizes().max() <= 4, "a flush carried " + flushSizes().max() + " commands");
+        assertTrue(flushSizes().mean() > 1, "mean flush of " + flushSizes().mean() + " commands");
+    }
+
+    @Test
+    void sendCommand_shouldFlushEveryCommandOnItsOwn_withoutCoalescing() throws Exception {
+        // Arrange
+        connect(false);
+
+        // Act
+        List<Boolean> results = sendFromConcurrentCallers();
+
+        // Assert
+        assertTrue(results.stream().allMatch(Boolean::booleanValue));
+        assertEquals(results.size(), flushes());
+        assertEquals(1, flushSizes().max());
+    }
+
+    @Test
+    void sendCommand_shouldNotDelayCommands_whileTheLinkIsIdle() {
+        // Arrange
+        connect(true);
+
+        // Act
+        long start = System.nanoTime();
+        for (int i = 0; i < 50; i++) {
+            assertTrue(serialCommunicator.sendCommand(ArduinoCommand.servoAngle("head", i)));
+        }
+        long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        // Assert: one flush per command, and no linger time on top of the 1 ms wire time
+        assertEquals(50, flushes());
+        assertTrue(elapsedMs < 50 * 10, "took " + elapsedMs + " ms");
+    }
+
+    private void connect(boolean writeCoalescing) {
+        port = LoopbackSerialPort.answeringOk(PORT_NAME, 1, TimeUnit.MILLISECONDS);
+        ArduinoConfig config = new ArduinoConfig();
+        config.setPort(PORT_NAME);
+        config.setPipelineDepth(8);
+        config.setSuppressRedundantCommands(false);
+        config.setWriteCoalescing(writeCoalescing);
+        config.setWriteCoalescingMaxBytes(64);
+        serialCommunicator = new SerialCommunicator(config, config.getEffectiveBoards().get(0),
+                () -> new SerialPortWrapper[]{port}, meterRegistry);
+        assertTrue(serialCommunicator.connect().join());
+        port.clearReceivedLines();
+        flushesAtStart = port.getFlushCount();
+    }
+
+    private List<Boolean> sendFromConcurrentCallers() throws Exception {
+        ExecutorService callers = Executors.newFixedThreadPool(CALLERS);
+        try {
+            List<Future<List<Boolean>>> futures = new ArrayList<>();
+            for (int caller = 0; caller < CALLERS; caller++) {
+                int servo = caller;
+                futures.add(callers.submit(() -> {
+                    List<Boolean> results = new ArrayList<>();
+                    for (int i = 0; i < COMMANDS_PER_CALLER; i++) {
+                        results.add(serialCommunicator.sendCommand(ArduinoCommand.servoAngle("s" + servo, 90 + i)));
+                    }
+                    return results;
+                }));
+            }
+            List<Boolean> results = new ArrayList<>();
+            for (Future<List<Boolean>> future : futures) {
+                results.addAll(future.get(30, TimeUnit.SECONDS));
+            }
+            return results;
+        } finally {
+            callers.shutdownNow();
+        }
+    }
+
+    private int flushes() {
+        return port.getFlushCount() - flushesAtStart;
+    }
+
+    private DistributionSummary flushSizes() {
+        return meterRegistry.get(SerialMetrics.FLUSH_SIZE).summary();
+    }
+}
@@ -0,0 +1,156 @@
+package org.dbs.robot.driverrobot.arduino.serial;
+
+import org.dbs.robot.driverrobot.arduino.config.ArduinoConfig;
+import org.dbs.robot.driverrobot.arduino.protocol.ArduinoCommand;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SerialCommunicatorConcurrencyTest {
+
+    private static final String PORT_NAME = "loopback0";
+    private static final int CALLERS = 300;
+    private static final int COMMANDS_PER_CALLER = 10;
+    private static final Duration SHORT_TIMEOUT = Duration.ofSeconds(1);
+
+    private LoopbackSerialPort port;
+    private SerialCommunicator serialCommunicator;
+
+    @AfterEach
+    void tearDown() {
+        serialCommunicator.close();
+    }
+
+    @Test
+    void sendCommand_shouldRouteEveryResponseToItsCaller_underHundredsOfConcurrentCallers() throws Exception {
+        // Arrange: the port answers ok to even angles and error to odd ones, so a stolen response is detected
+        connect(line -> line.matches(".*[02468]\\)") ? "ok" : "error", 1, 4, 16, RejectionPolicy.BLOCK);
+        ExecutorService executor = Executors.newFixedThreadPool(CALLERS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Integer>> callers = new ArrayList<>();
+
+        // Act
+        for (int caller = 0; caller < CALLERS; caller++) {
+            int id = caller;
+            callers.add(executor.submit(() -> {
+                start.await();
+                int matches = 0;
+                for (int i = 0; i < COMMANDS_PER_CALLER; i++) {
+                    int angle = id % 90 * 2 + i % 2;
+                    if (serialCommunicator.sendCommand(ArduinoCommand.servoAngle("servo" + id, angle)) == (angle % 2 == 0)) {
+                        matches++;
+                    }
+                }
+                return matches;
+            }));
+        }
+        start.countDown();
+        int matches = 0;
+        for (Future<Integer> caller : callers) {
+            matches += caller.get(60, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        // Assert
+        assertEquals(CALLERS * COMMANDS_PER_CALLER, matches);
+        assertEquals(CALLERS * COMMANDS_PER_CALLER, port.getReceivedLines().size());
+        assertTrue(port.getReceivedLines().stream().allMatch(line -> line.matches("servo\\(servo\\d+, angle \\d+\\)")),
+                "a command was interleaved with another one");
+    }
+
+    @Test
+    void sendCommandAsync_shouldRejectNewCommand_whenQueueIsFullAndPolicyIsFailFast() throws Exception {
+        // Arrange
+        connect(line -> null, 1, 1, 2, RejectionPolicy.FAIL_FAST);
+        serialCommunicator.sendCommandAsync(ArduinoCommand.servoAngle("head", 0), CommandPriority.NORMAL, SHORT_TIMEOUT);
+        awaitReceivedLines(1);
+
+        // Act
+        CompletableFuture<Boolean> first = serialCommunicator.sendCommandAsync(ArduinoCommand.servoAngle("head", 1), CommandPriority.NORMAL, SHORT_TIMEOUT);
+        CompletableFuture<Boolean> second = serialCommunicator.sendCommandAsync(ArduinoCommand.servoAngle("head", 2), CommandPriority.NORMAL, SHORT_TIMEOUT);
+        CompletableFuture<Boolean> rejected = serialCommunicator.sendCommandAsync(ArduinoCommand.servoAngle("head", 3), CommandPriority.NORMAL, SHORT_TIMEOUT);
+
+        // Assert
+        assertFalse(first.isCompletedExceptionally());
+        assertFalse(second.isCompletedExceptionally());
+        assertRejected(rejected);
+    }
+
+    @Test
+    void sendCommandAsync_shouldDropOldestLowerPriorityCommand_whenQueueIsFullAndPolicyIsDropOldest() throws Exception {
+        // Arrange
+        connect(line -> null, 1, 1, 2, RejectionPolicy.DROP_OLDEST);
+        serialCommunicator.sendCommandAsync(ArduinoCommand.servoAngle("head", 0), CommandPriority.NORMAL, SHORT_TIMEOUT);
+        awaitReceivedLines(1);
+
+        // Act
+        CompletableFuture<Boolean> oldest = serialCommunicator.sendCommandAsync(ArduinoCommand.servoAngle("head", 1), CommandPriority.NORMAL, SHORT_TIMEOUT);
+        CompletableFuture<Boolean> newer = serialCommunicator.sendCommandAsync(ArduinoCommand.servoAngle("head", 2), CommandPriority.NORMAL, SHORT_TIMEOUT);
+        CompletableFuture<Boolean> urgent = serialCommunicator.sendCommandAsync(ArduinoCommand.status(), CommandPriority.HIGH, SHORT_TIMEOUT);
+        CompletableFuture<Boolean> bulk = serialCommunicator.sendCommandAsync(ArduinoCommand.servoAngle("head", 3), CommandPriority.LOW, SHORT_TIMEOUT);
+
+        // Assert
+        assertRejected(oldest);
+        assertFalse(newer.isCompletedExceptionally());
+        assertFalse(urgent.isCompletedExceptionally());
+        assertRejected(bulk);
+    }
+
+    @Test
+    void sendCommandAsync_shouldSendHighPriorityCommandsAheadOfQueuedCommands() throws Exception {
+        // Arrange
+        connect(line -> "ok", 200, 1, 16, RejectionPolicy.BLOCK);
+        CompletableFuture<Boolean> inFlight = serialCommunicator.sendCommandAsync(ArduinoCommand.servoAngle("head", 0));
+        awaitReceivedLines(1);
+
+        // Act
+        CompletableFuture<Boolean> first = serialCommunicator.sendCommandAsync(ArduinoCommand.servoAngle("head", 1));
+        CompletableFuture<Boolean> second = serialCommunicator.sendCommandAsync(ArduinoCommand.servoAngle("head", 2));
+        CompletableFuture<Boolean> status = serialCommunicator.sendCommandAsync(ArduinoCommand.status(), CommandPriority.HIGH);
+        CompletableFuture.allOf(inFlight, first, second, status).join();
+
+        // Assert
+        assertTrue(inFlight.join() && first.join() && second.join() && status.join());
+        assertEquals(List.of("servo(head, angle 0)", "status(arduino, ok)", "servo(head, angle 1)", "servo(head, angle 2)"),
+                port.getReceivedLines());
+    }
+
+    private void connect(Function<String, String> responder, long latencyMs, int pipelineDepth,
+                         int queueCapacity, RejectionPolicy rejectionPolicy) {
+        port = new LoopbackSerialPort(PORT_NAME, LoopbackSerialPort.booted(responder), latencyMs, TimeUnit.MILLISECONDS);
+        ArduinoConfig config = new ArduinoConfig();
+        config.setPort(PORT_NAME);
+        config.setPipelineDepth(pipelineDepth);
+        config.setQueueCapacity(queueCapacity);
+        config.setRejectionPolicy(rejectionPolicy);
+        serialCommunicator = new SerialCommunicator(config, () -> new SerialPortWrapper[]{port});
+        assertTrue(serialCommunicator.connect().join());
+        port.clearReceivedLines();
+    }
+
+    private void awaitReceivedLines(int count) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (port.getReceivedLines().size() < count && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        assertEquals(count, port.getReceivedLines().size());
+    }
+
+    private static void assertRejected(CompletableFuture<Boolean> result) {
+        CompletionException exception = assertThrows(CompletionException.class, result::join);
+        assertInstanceOf(CommandRejectedException.class, exception.getCause());
+    }
+}
@@ -0,0 +1,101 @@
+package org.dbs.robot.driverrobot.arduino.serial;
+
+import org.dbs.robot.driverrobot.arduino.config.ArduinoConfig;
+import org.dbs.robot.driverrobot.arduino.protocol.ArduinoCommand;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SerialCommunicatorConnectionTest {
+
+    private static final String PORT_NAME = "loopback0";
+
+    private SerialCommunicator serialCommunicator;
+
+    @AfterEach
+    void tearDown() {
+        serialCommunicator.close();
+    }
+
+    @Test
+    void connect_shouldPollWithStatusCommandsUntilTheArduinoIsReady() {
+        // Arrange: the first status commands are lost while the Arduino boots
+        AtomicInteger statusCommands = new AtomicInteger();
+        LoopbackSerialPort port = new LoopbackSerialPort(PORT_NAME,
+                line -> statusCommands.incrementAndGet() > 3 ? "ready" : null, 1, TimeUnit.MILLISECONDS);
+        serialCommunicator = new SerialCommunicator(config(), () -> new SerialPortWrapper[]{port});
+
+        // Act
+        boolean connected = serialCommunicator.connect().join();
+
+        // Assert
+        assertTrue(connected);
+        assertTrue(serialCommunicator.isOpen());
+        assertTrue(port.getReceivedLines().size() >= 4);
+        assertTrue(port.getReceivedLines().stream().allMatch(line -> line.equals("status(arduino, ok)")));
+    }
+
+    @Test
+    void connect_shouldReturnImmediatelyAndConnectInTheBackground() {
+        // Arrange
+        LoopbackSerialPort port = new LoopbackSerialPort(PORT_NAME, line -> "ready", 300, TimeUnit.MILLISECONDS);
+        serialCommunicator = new SerialCommunicator(config(), () -> new SerialPortWrapper[]{port});
+
+        // Act
+        long start = System.nanoTime();
+        var connection = serialCommunicator.connect();
+        long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        // Assert
+        assertTrue(elapsedMs < 100, "connect blocked for " + elapsedMs + " ms");
+        assertFalse(serialCommunicator.isOpen());
+        assertFalse(serialCommunicator.sendCommand(ArduinoCommand.led("red", true)));
+        assertTrue(connection.join());
+        assertSame(connection, serialCommunicator.connect());
+    }
+
+    @Test
+    void connect_shouldFailWithoutThrowing_whenThePortIsMissing() {
+        // Arrange
+        serialCommunicator = new SerialCommunicator(config(), () -> new SerialPortWrapper[0]);
+
+        // Act
+        boolean connected = serialCommunicator.connect().join();
+
+        // Assert
+        assertFalse(connected);
+        assertFalse(serialCommunicator.isOpen());
+    }
+
+    @Test
+    void connect_shouldGiveUpAtTheBootTimeout_whenTheArduinoNeverAnswers() {
+        // Arrange
+        Function<String, String> silent = line -> null;
+        LoopbackSerialPort port = new LoopbackSerialPort(PORT_NAME, silent, 1, TimeUnit.MILLISECONDS);
+        ArduinoConfig config = config();
+        config.setBootTimeoutMs(300);
+        serialCommunicator = new SerialCommunicator(config, () -> new SerialPortWrapper[]{port});
+
+        // Act
+        long start = System.nanoTime();
+        boolean connected = serialCommunicator.connect().join();
+        long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        // Assert
+        assertFalse(connected);
+        assertFalse(port.isOpen());
+        assertTrue(elapsedMs >= 300 && elapsedMs < 2000, "gave up after " + elapsedMs + " ms");
+    }
+
+    private static ArduinoConfig config() {
+        ArduinoConfig config = new ArduinoConfig();
+        config.setPort(PORT_NAME);
+        config.setHandshakeIntervalMs(100);
+        return config;
+    }
+}
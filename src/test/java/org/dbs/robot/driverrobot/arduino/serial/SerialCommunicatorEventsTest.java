@@ -0,0 +1,101 @@
+package org.dbs.robot.driverrobot.arduino.serial;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.dbs.robot.driverrobot.arduino.config.ArduinoConfig;
+import org.dbs.robot.driverrobot.arduino.protocol.ArduinoCommand;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SerialCommunicatorEventsTest {
+
+    private static final String PORT_NAME = "loopback0";
+
+    private final List<ArduinoEvent> events = new CopyOnWriteArrayList<>();
+    private LoopbackSerialPort port;
+    private SerialCommunicator serialCommunicator;
+
+    @BeforeEach
+    void setUp() {
+        port = new LoopbackSerialPort(PORT_NAME, LoopbackSerialPort.booted(line -> switch (line) {
+            case "led(chatty, on)" -> "sweep started\r\nok";
+            case "led(broken, on)" -> "error";
+            default -> "ok";
+        }), 1, TimeUnit.MILLISECONDS);
+        ArduinoConfig config = new ArduinoConfig();
+        config.setPort(PORT_NAME);
+        config.setHandshakeIntervalMs(50);
+        config.setReconnectInitialBackoffMs(20);
+        serialCommunicator = new SerialCommunicator(config, config.getEffectiveBoards().get(0),
+                () -> port.isUnplugged() ? new SerialPortWrapper[0] : new SerialPortWrapper[]{port},
+                new SimpleMeterRegistry(), events::add);
+        assertTrue(serialCommunicator.connect().join());
+    }
+
+    @AfterEach
+    void tearDown() {
+        serialCommunicator.close();
+    }
+
+    @Test
+    void sendCommand_shouldPublishTheAcknowledgementAndTheNewDeviceState() throws Exception {
+        // Act
+        assertTrue(serialCommunicator.sendCommand(ArduinoCommand.servoAngle("head", 90)));
+        assertFalse(serialCommunicator.sendCommand(ArduinoCommand.led("broken", true)));
+        awaitEvents(ArduinoEventType.ACKNOWLEDGEMENT, 2);
+
+        // Assert
+        List<ArduinoEvent> acknowledgements = ofType(ArduinoEventType.ACKNOWLEDGEMENT);
+        assertEquals("angle(head 90)", acknowledgements.get(0).command());
+        assertEquals("head", acknowledgements.get(0).device());
+        assertTrue(acknowledgements.get(0).success());
+        assertFalse(acknowledgements.get(1).success());
+        List<ArduinoEvent> states = ofType(ArduinoEventType.DEVICE_STATE);
+        assertEquals(1, states.size());
+        assertEquals(90, states.get(0).deviceState().angle());
+        assertEquals("arduino", states.get(0).board());
+    }
+
+    @Test
+    void readLoop_shouldPublishTheNoticesOfTheFirmware_withoutDesynchronizingTheResponses() throws Exception {
+        // Act: the notice arrives before the response of the command
+        assertTrue(serialCommunicator.sendCommand(ArduinoCommand.led("chatty", true)));
+        assertTrue(serialCommunicator.sendCommand(ArduinoCommand.led("red", true)));
+        awaitEvents(ArduinoEventType.NOTICE, 1);
+
+        // Assert
+        assertEquals("sweep started", ofType(ArduinoEventType.NOTICE).get(0).line());
+        assertTrue(ofType(ArduinoEventType.UNSOLICITED).isEmpty());
+    }
+
+    @Test
+    void supervisor_shouldPublishTheConnectionStates() throws Exception {
+        // Act
+        port.unplug();
+        awaitEvents(ArduinoEventType.CONNECTION, 2);
+        port.plugIn();
+        awaitEvents(ArduinoEventType.CONNECTION, 3);
+
+        // Assert
+        assertEquals(List.of(ConnectionState.READY, ConnectionState.RECONNECTING, ConnectionState.READY),
+                ofType(ArduinoEventType.CONNECTION).stream().map(ArduinoEvent::connection).toList());
+    }
+
+    private List<ArduinoEvent> ofType(ArduinoEventType type) {
+        return events.stream().filter(event -> event.type() == type).toList();
+    }
+
+    private void awaitEvents(ArduinoEventType type, int count) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (ofType(type).size() < count && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        assertEquals(count, ofType(type).size());
+    }
+}
@@ -0,0 +1,70 @@
+package org.dbs.robot.driverrobot.arduino.serial;
+
+import org.dbs.robot.driverrobot.arduino.config.ArduinoConfig;
+import org.dbs.robot.driverrobot.arduino.protocol.ArduinoCommand;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SerialCommunicatorLatencyTest {
+
+    private static final String PORT_NAME = "loopback0";
+    private static final long WIRE_TIME_MS = 2;
+    private static final int SAMPLES = 200;
+
+    private LoopbackSerialPort port;
+    private SerialCommunicator serialCommunicator;
+
+    @BeforeEach
+    void setUp() {
+        port = new LoopbackSerialPort(PORT_NAME,
+                LoopbackSerialPort.booted(line -> line.contains("mute") ? null : "ok"), WIRE_TIME_MS, TimeUnit.MILLISECONDS);
+        ArduinoConfig config = new ArduinoConfig();
+        config.setPort(PORT_NAME);
+        serialCommunicator = new SerialCommunicator(config, () -> new SerialPortWrapper[]{port});
+        assertTrue(serialCommunicator.connect().join());
+        port.clearReceivedLines();
+    }
+
+    @AfterEach
+    void tearDown() {
+        serialCommunicator.close();
+    }
+
+    @Test
+    void sendCommand_shouldCompleteCloseToWireTime() {
+        // Arrange
+        long[] roundTrips = new long[SAMPLES];
+
+        // Act
+        for (int i = 0; i < SAMPLES; i++) {
+            long start = System.nanoTime();
+            assertTrue(serialCommunicator.sendCommand(ArduinoCommand.servoAngle("head", i % 180)));
+            roundTrips[i] = System.nanoTime() - start;
+        }
+
+        // Assert
+        Arrays.sort(roundTrips);
+        long p50Ms = TimeUnit.NANOSECONDS.toMillis(roundTrips[SAMPLES / 2]);
+        assertTrue(p50Ms < 50, "p50 round-trip was " + p50Ms + " ms");
+        assertEquals(SAMPLES, port.getReceivedLines().size());
+    }
+
+    @Test
+    void sendCommand_shouldGiveUpAtTheDeadline_whenNoResponseArrives() {
+        // Act
+        long start = System.nanoTime();
+        boolean result = serialCommunicator.sendCommand(ArduinoCommand.led("mute", true), Duration.ofMillis(100));
+        long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        // Assert
+        assertFalse(result);
+        assertTrue(elapsedMs >= 100 && elapsedMs < 1000, "gave up after " + elapsedMs + " ms");
+    }
+}
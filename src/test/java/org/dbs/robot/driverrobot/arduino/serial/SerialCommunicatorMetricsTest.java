@@ -0,0 +1,128 @@
+package org.dbs.robot.driverrobot.arduino.serial;
+
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.dbs.robot.driverrobot.arduino.config.ArduinoConfig;
+import org.dbs.robot.driverrobot.arduino.protocol.ArduinoCommand;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SerialCommunicatorMetricsTest {
+
+    private static final String PORT_NAME = "loopback0";
+    private static final long WIRE_TIME_MS = 5;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private LoopbackSerialPort port;
+    private SerialCommunicator serialCommunicator;
+
+    @BeforeEach
+    void setUp() {
+        port = new LoopbackSerialPort(PORT_NAME, LoopbackSerialPort.booted(line -> {
+            if (line.contains("mute")) {
+                return null;
+            }
+            return line.contains("broken") ? "error" : "ok";
+        }), WIRE_TIME_MS, TimeUnit.MILLISECONDS);
+        ArduinoConfig config = new ArduinoConfig();
+        config.setPort(PORT_NAME);
+        config.setHandshakeIntervalMs(50);
+        config.setReconnectInitialBackoffMs(20);
+        serialCommunicator = new SerialCommunicator(config, config.getEffectiveBoards().get(0),
+                () -> port.isUnplugged() ? new SerialPortWrapper[0] : new SerialPortWrapper[]{port}, meterRegistry);
+        assertTrue(serialCommunicator.connect().join());
+    }
+
+    @AfterEach
+    void tearDown() {
+        serialCommunicator.close();
+    }
+
+    @Test
+    void sendCommand_shouldRecordRoundTripLatencyPerCommandTypeAndDevice() {
+        // Act
+        for (int i = 0; i < 10; i++) {
+            assertTrue(serialCommunicator.sendCommand(ArduinoCommand.servoAngle("head", i)));
+        }
+        assertTrue(serialCommunicator.sendCommand(ArduinoCommand.led("red", true)));
+
+        // Assert
+        Timer head = meterRegistry.get(SerialMetrics.LATENCY)
+                .tags("board", "arduino", "command", "angle", "device", "head").timer();
+        Timer red = meterRegistry.get(SerialMetrics.LATENCY).tags("command", "led", "device", "red").timer();
+        assertEquals(10, head.count());
+        assertEquals(1, red.count());
+        assertTrue(head.mean(TimeUnit.MILLISECONDS) >= WIRE_TIME_MS, "mean was " + head.mean(TimeUnit.MILLISECONDS) + " ms");
+        assertTrue(counter(SerialMetrics.BYTES_WRITTEN) >= 11 * "led(red, on)\n".length());
+        assertTrue(counter(SerialMetrics.BYTES_READ) >= 11 * "ok\r\n".length());
+    }
+
+    @Test
+    void sendCommand_shouldCountTimeoutsAndMismatchedResponses() throws Exception {
+        // Act: the muted command is evicted at the next silent read poll, before the next command is sent
+        assertFalse(serialCommunicator.sendCommand(ArduinoCommand.led("mute", true), Duration.ofMillis(100)));
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (inFlightTimeouts() < 1 && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        assertFalse(serialCommunicator.sendCommand(ArduinoCommand.led("broken", true)));
+
+        // Assert
+        assertEquals(1, inFlightTimeouts());
+        assertEquals(1, meterRegistry.get(SerialMetrics.MISMATCHED).tag("reason", "unexpected").counter().count());
+    }
+
+    @Test
+    void gauges_shouldReportQueueDepthCommandsInFlightAndWindow() {
+        // Arrange
+        for (int i = 0; i < 5; i++) {
+            serialCommunicator.sendCommandAsync(ArduinoCommand.led("mute", true), CommandPriority.NORMAL, Duration.ofSeconds(5));
+        }
+
+        // Act
+        double queued = meterRegistry.get(SerialMetrics.QUEUE_DEPTH).gauge().value();
+        double inFlight = meterRegistry.get(SerialMetrics.IN_FLIGHT).gauge().value();
+        double window = meterRegistry.get(SerialMetrics.WINDOW).gauge().value();
+
+        // Assert
+        assertEquals(5, queued + inFlight);
+        assertTrue(inFlight <= new ArduinoConfig().getPipelineDepth());
+        assertEquals(new ArduinoConfig().getPipelineDepth(), window);
+    }
+
+    @Test
+    void reconnect_shouldCountTheAttempts() throws Exception {
+        // Act: the attempt is counted right after the state goes back to READY
+        port.unplug();
+        Thread.sleep(100);
+        port.plugIn();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while ((serialCommunicator.getState() != ConnectionState.READY || reconnects("success") < 1)
+                && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+
+        // Assert
+        assertEquals(ConnectionState.READY, serialCommunicator.getState());
+        assertEquals(1, reconnects("success"));
+        assertTrue(reconnects("failure") >= 1);
+    }
+
+    private double reconnects(String outcome) {
+        return meterRegistry.get(SerialMetrics.RECONNECTS).tag("outcome", outcome).counter().count();
+    }
+
+    private double inFlightTimeouts() {
+        return meterRegistry.get(SerialMetrics.TIMEOUTS).tag("stage", "in-flight").counter().count();
+    }
+
+    private double counter(String name) {
+        return meterRegistry.get(name).counter().count();
+    }
+}
@@ -0,0 +1,131 @@
+package org.dbs.robot.driverrobot.arduino.serial;
+
+import org.dbs.robot.driverrobot.arduino.config.ArduinoConfig;
+import org.dbs.robot.driverrobot.arduino.protocol.ArduinoCommand;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SerialCommunicatorPipelineTest {
+
+    private static final String PORT_NAME = "loopback0";
+    private static final long WIRE_TIME_MS = 20;
+    private static final int PIPELINE_DEPTH = 8;
+    private static final int COMMANDS = 40;
+
+    private LoopbackSerialPort port;
+    private SerialCommunicator serialCommunicator;
+
+    @BeforeEach
+    void setUp() {
+        port = new LoopbackSerialPort(PORT_NAME,
+                line -> line.startsWith("status") ? "ready" : "ok", WIRE_TIME_MS, TimeUnit.MILLISECONDS);
+        ArduinoConfig config = new ArduinoConfig();
+        config.setPort(PORT_NAME);
+        config.setPipelineDepth(PIPELINE_DEPTH);
+        serialCommunicator = new SerialCommunicator(config, () -> new SerialPortWrapper[]{port});
+        assertTrue(serialCommunicator.connect().join());
+        port.clearReceivedLines();
+    }
+
+    @AfterEach
+    void tearDown() {
+        serialCommunicator.close();
+    }
+
+    @Test
+    void sendCommandAsync_shouldKeepSeveralCommandsInFlight() {
+        // Arrange
+        List<CompletableFuture<Boolean>> results = new ArrayList<>();
+
+        // Act
+        long start = System.nanoTime();
+        for (int i = 0; i < COMMANDS; i++) {
+            results.add(serialCommunicator.sendCommandAsync(ArduinoCommand.servoAngle("head", i)));
+        }
+        CompletableFuture.allOf(results.toArray(CompletableFuture[]::new)).join();
+        long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        // Assert
+        assertTrue(results.stream().allMatch(CompletableFuture::join));
+        assertTrue(elapsedMs < COMMANDS * WIRE_TIME_MS / 2, "took " + elapsedMs + " ms");
+        assertEquals(COMMANDS, port.getReceivedLines().size());
+    }
+
+    @Test
+    void sendCommandAsync_shouldMatchResponsesInOrder() {
+        // Act
+        CompletableFuture<Boolean> servo = serialCommunicator.sendCommandAsync(ArduinoCommand.servoAngle("head", 10));
+        CompletableFuture<Boolean> status = serialCommunicator.sendCommandAsync(ArduinoCommand.status());
+        CompletableFuture<Boolean> led = serialCommunicator.sendCommandAsync(ArduinoCommand.led("red", true));
+
+        // Assert
+        assertTrue(servo.join());
+        assertTrue(status.join());
+        assertTrue(led.join());
+    }
+
+    @Test
+    void sendBatchAsync_shouldWriteTheWholeBatchInOneFlushAndCollectEveryResponse() {
+        // Arrange
+        List<ArduinoCommand> pose = List.of(ArduinoCommand.servoAngle("head", 10), ArduinoCommand.servoAngle("arm", 20),
+                ArduinoCommand.servoAngle("claw", 30), ArduinoCommand.servoAngle("base", 40),
+                ArduinoCommand.servoAngle("wrist", 50), ArduinoCommand.led("red", true));
+        int flushesBefore = port.getFlushCount();
+
+        // Act
+        long start = System.nanoTime();
+        List<CompletableFuture<Boolean>> results = serialCommunicator.sendBatchAsync(pose, CommandPriority.NORMAL);
+        CompletableFuture.allOf(results.toArray(CompletableFuture[]::new)).join();
+        long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        // Assert
+        assertTrue(results.stream().allMatch(CompletableFuture::join));
+        assertEquals(1, port.getFlushCount() - flushesBefore);
+        assertEquals(List.of("servo(head, angle 10)", "servo(arm, angle 20)", "servo(claw, angle 30)",
+                "servo(base, angle 40)", "servo(wrist, angle 50)", "led(red, on)"), port.getReceivedLines());
+        assertTrue(elapsedMs < pose.size() * WIRE_TIME_MS / 2, "took " + elapsedMs + " ms");
+    }
+
+    @Test
+    void sendCommandAsync_shouldDropACommandWhoseDeadlinePassedBeforeItWasWritten() {
+        // Arrange: a backlog taking several round-trips to drain
+        List<CompletableFuture<Boolean>> backlog = new ArrayList<>();
+        for (int i = 0; i < COMMANDS; i++) {
+            backlog.add(serialCommunicator.sendCommandAsync(ArduinoCommand.servoAngle("head", i)));
+        }
+
+        // Act
+        CompletableFuture<Boolean> result = serialCommunicator.sendCommandAsync(ArduinoCommand.led("green", true),
+                CommandPriority.NORMAL, CommandDeadline.after(Duration.ofMillis(WIRE_TIME_MS)));
+        CompletableFuture.allOf(backlog.toArray(CompletableFuture[]::new)).join();
+
+        // Assert
+        CompletionException error = assertThrows(CompletionException.class, result::join);
+        assertInstanceOf(CommandExpiredException.class, error.getCause());
+        assertEquals(COMMANDS, port.getReceivedLines().size());
+        assertFalse(port.getReceivedLines().contains("led(green, on)"));
+    }
+
+    @Test
+    void sendCommandAsync_shouldFailPendingCommands_whenClosed() {
+        // Arrange
+        CompletableFuture<Boolean> result = serialCommunicator.sendCommandAsync(ArduinoCommand.servoAngle("head", 10));
+
+        // Act
+        serialCommunicator.close();
+
+        // Assert
+        assertNotNull(result.join());
+        assertFalse(serialCommunicator.sendCommandAsync(ArduinoCommand.led("red", true)).join());
+    }
+}
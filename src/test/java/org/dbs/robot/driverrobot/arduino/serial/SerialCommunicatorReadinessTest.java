@@ -0,0 +1,110 @@
+package org.dbs.robot.driverrobot.arduino.serial;
+
+import org.dbs.robot.driverrobot.arduino.config.ArduinoConfig;
+import org.dbs.robot.driverrobot.arduino.protocol.ArduinoCommand;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SerialCommunicatorReadinessTest {
+
+    private static final String PORT_NAME = "loopback0";
+    private static final long WIRE_TIME_MS = 20;
+
+    private LoopbackSerialPort port;
+    private SerialCommunicator serialCommunicator;
+
+    @AfterEach
+    void tearDown() {
+        serialCommunicator.close();
+    }
+
+    @Test
+    void checkReadiness_shouldAnswerFromMemory_whenTheBoardAnsweredRecently() {
+        // Arrange
+        connect(0, 10_000);
+        assertTrue(serialCommunicator.sendCommand(ArduinoCommand.led("red", true)));
+
+        // Act
+        CompletableFuture<Boolean> ready = serialCommunicator.checkReadiness();
+
+        // Assert
+        assertTrue(ready.isDone());
+        assertTrue(ready.join());
+        assertEquals(List.of("led(red, on)"), port.getReceivedLines());
+    }
+
+    @Test
+    void checkReadiness_shouldShareOneStatusCommand_whenTheLastResponseIsStale() throws Exception {
+        // Arrange
+        connect(0, 50);
+        Thread.sleep(100);
+
+        // Act
+        List<CompletableFuture<Boolean>> checks = IntStream.range(0, 5)
+                .mapToObj(i -> serialCommunicator.checkReadiness()).toList();
+        boolean allReady = checks.stream().allMatch(CompletableFuture::join);
+        CompletableFuture<Boolean> next = serialCommunicator.checkReadiness();
+
+        // Assert
+        assertTrue(allReady);
+        assertTrue(next.isDone() && next.join());
+        assertEquals(1, statusCommands());
+    }
+
+    @Test
+    void heartbeat_shouldCheckAnIdleBoard() throws Exception {
+        // Arrange
+        connect(50, 10_000);
+
+        // Act
+        Thread.sleep(400);
+
+        // Assert
+        assertTrue(statusCommands() >= 2, statusCommands() + " heartbeats in 400 ms");
+        assertTrue(serialCommunicator.getTimeSinceLastResponse().toMillis() < 200);
+    }
+
+    @Test
+    void checkReadiness_shouldAnswerFalseAtOnce_whenTheBoardIsUnplugged() throws Exception {
+        // Arrange
+        connect(0, 10_000);
+        port.unplug();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (serialCommunicator.getState() != ConnectionState.RECONNECTING && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+
+        // Act
+        CompletableFuture<Boolean> ready = serialCommunicator.checkReadiness();
+
+        // Assert
+        assertTrue(ready.isDone());
+        assertFalse(ready.join());
+        assertFalse(serialCommunicator.isReady());
+    }
+
+    private void connect(long heartbeatIntervalMs, long readinessTtlMs) {
+        port = new LoopbackSerialPort(PORT_NAME, LoopbackSerialPort.booted(line -> "ok"), WIRE_TIME_MS, TimeUnit.MILLISECONDS);
+        ArduinoConfig config = new ArduinoConfig();
+        config.setPort(PORT_NAME);
+        config.setHandshakeIntervalMs(50);
+        config.setReconnectInitialBackoffMs(20);
+        config.setHeartbeatIntervalMs(heartbeatIntervalMs);
+        config.setReadinessTtlMs(readinessTtlMs);
+        serialCommunicator = new SerialCommunicator(config,
+                () -> port.isUnplugged() ? new SerialPortWrapper[0] : new SerialPortWrapper[]{port});
+        assertTrue(serialCommunicator.connect().join());
+        port.clearReceivedLines();
+    }
+
+    private long statusCommands() {
+        return port.getReceivedLines().stream().filter(line -> line.startsWith("status(")).count();
+    }
+}
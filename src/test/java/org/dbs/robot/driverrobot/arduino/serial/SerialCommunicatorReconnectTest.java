@@ -0,0 +1,164 @@
+package org.dbs.robot.driverrobot.arduino.serial;
+
+import org.dbs.robot.driverrobot.arduino.config.ArduinoConfig;
+import org.dbs.robot.driverrobot.arduino.protocol.ArduinoCommand;
+import org.dbs.robot.driverrobot.arduino.protocol.Opcode;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SerialCommunicatorReconnectTest {
+
+    private static final String PORT_NAME = "loopback0";
+    private static final Duration TIMEOUT = Duration.ofSeconds(5);
+
+    private final AtomicInteger portLookups = new AtomicInteger();
+    private LoopbackSerialPort port;
+    private SerialCommunicator serialCommunicator;
+
+    @AfterEach
+    void tearDown() {
+        serialCommunicator.close();
+    }
+
+    @Test
+    void reconnect_shouldReopenThePortAndSendQueuedCommands_whenTheBoardIsPluggedBack() throws Exception {
+        // Arrange
+        connect(line -> "ok", 20, 20);
+        assertTrue(serialCommunicator.sendCommand(ArduinoCommand.led("red", true)));
+
+        // Act
+        port.unplug();
+        awaitState(ConnectionState.RECONNECTING);
+        CompletableFuture<Boolean> queued = serialCommunicator.sendCommandAsync(ArduinoCommand.led("red", false),
+                CommandPriority.NORMAL, TIMEOUT);
+        port.plugIn();
+        awaitState(ConnectionState.READY);
+
+        // Assert
+        assertTrue(queued.join());
+        assertTrue(serialCommunicator.isOpen());
+        assertTrue(serialCommunicator.sendCommand(ArduinoCommand.servoAngle("head", 45)));
+        assertTrue(port.getReceivedLines().contains("status(arduino, ok)"), "the handshake was not run again");
+    }
+
+    @Test
+    void reconnect_shouldReplayIdempotentCommandsInFlight_andFailTheOthers() throws Exception {
+        // Arrange: the board stops answering, so the next commands stay in flight when it is unplugged
+        AtomicBoolean answering = new AtomicBoolean(true);
+        connect(line -> answering.get() ? "ok" : null, 20, 20);
+        answering.set(false);
+        CompletableFuture<Boolean> angle = serialCommunicator.sendCommandAsync(ArduinoCommand.servoAngle("head", 90),
+                CommandPriority.NORMAL, TIMEOUT);
+        CompletableFuture<Boolean> sweep = serialCommunicator.sendCommandAsync(
+                ArduinoCommand.servoMovement("head", Opcode.SWEEP, 0, 180, 5), CommandPriority.NORMAL, TIMEOUT);
+        awaitReceivedLines(2);
+
+        // Act
+        port.unplug();
+        awaitState(ConnectionState.RECONNECTING);
+        answering.set(true);
+        port.plugIn();
+
+        // Assert
+        assertTrue(angle.join());
+        assertFalse(sweep.join());
+        assertEquals(2, port.getReceivedLines().stream().filter("servo(head, angle 90)"::equals).count());
+        assertEquals(1, port.getReceivedLines().stream().filter(line -> line.contains("sweep")).count());
+    }
+
+    @Test
+    void reconnect_shouldBackOffExponentially_whileThePortIsMissing() throws Exception {
+        // Arrange
+        connect(line -> "ok", 20, 80);
+        port.unplug();
+        awaitState(ConnectionState.RECONNECTING);
+        int lookupsBefore = portLookups.get();
+
+        // Act: 20 + 40 + 80 + 80 + ... ms between attempts, instead of one attempt every 20 ms
+        Thread.sleep(600);
+
+        // Assert
+        int attempts = portLookups.get() - lookupsBefore;
+        assertTrue(attempts >= 3 && attempts <= 12, attempts + " attempts in 600 ms");
+        assertEquals(ConnectionState.RECONNECTING, serialCommunicator.getState());
+    }
+
+    @Test
+    void close_shouldStopReconnectingAndFailQueuedCommands() throws Exception {
+        // Arrange
+        connect(line -> "ok", 20, 20);
+        port.unplug();
+        awaitState(ConnectionState.RECONNECTING);
+        CompletableFuture<Boolean> queued = serialCommunicator.sendCommandAsync(ArduinoCommand.led("red", true),
+                CommandPriority.NORMAL, TIMEOUT);
+
+        // Act
+        serialCommunicator.close();
+        int lookupsAfterClose = portLookups.get();
+        port.plugIn();
+        Thread.sleep(200);
+
+        // Assert
+        assertFalse(queued.join());
+        assertEquals(ConnectionState.CLOSED, serialCommunicator.getState());
+        assertEquals(lookupsAfterClose, portLookups.get());
+        assertFalse(serialCommunicator.sendCommand(ArduinoCommand.led("red", true)));
+    }
+
+    @Test
+    void responseMissed_shouldDegradeTheConnectionUntilTheBoardAnswersAgain() throws Exception {
+        // Arrange
+        connect(line -> line.contains("mute") ? null : "ok", 20, 20);
+
+        // Act
+        boolean muted = serialCommunicator.sendCommand(ArduinoCommand.led("mute", true), Duration.ofMillis(100));
+        awaitState(ConnectionState.DEGRADED);
+        boolean answered = serialCommunicator.sendCommand(ArduinoCommand.led("red", true));
+
+        // Assert
+        assertFalse(muted);
+        assertTrue(answered);
+        assertEquals(ConnectionState.READY, serialCommunicator.getState());
+    }
+
+    private void connect(Function<String, String> responder, long initialBackoffMs, long maxBackoffMs) {
+        port = new LoopbackSerialPort(PORT_NAME, LoopbackSerialPort.booted(responder), 1, TimeUnit.MILLISECONDS);
+        ArduinoConfig config = new ArduinoConfig();
+        config.setPort(PORT_NAME);
+        config.setHandshakeIntervalMs(50);
+        config.setReconnectInitialBackoffMs(initialBackoffMs);
+        config.setReconnectMaxBackoffMs(maxBackoffMs);
+        SerialPortFactory factory = () -> {
+            portLookups.incrementAndGet();
+            return port.isUnplugged() ? new SerialPortWrapper[0] : new SerialPortWrapper[]{port};
+        };
+        serialCommunicator = new SerialCommunicator(config, factory);
+        assertTrue(serialCommunicator.connect().join());
+        port.clearReceivedLines();
+    }
+
+    private void awaitState(ConnectionState expected) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (serialCommunicator.getState() != expected && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        assertEquals(expected, serialCommunicator.getState());
+    }
+
+    private void awaitReceivedLines(int count) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (port.getReceivedLines().size() < count && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        assertEquals(count, port.getReceivedLines().size());
+    }
+}
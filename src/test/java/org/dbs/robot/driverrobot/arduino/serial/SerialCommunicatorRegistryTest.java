@@ -0,0 +1,154 @@
+package org.dbs.robot.driverrobot.arduino.serial;
+
+import org.dbs.robot.driverrobot.arduino.config.ArduinoConfig;
+import org.dbs.robot.driverrobot.arduino.config.BoardConfig;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class SerialCommunicatorRegistryTest {
+
+    private final Map<String, SerialCommunicator> communicators = new HashMap<>();
+
+    @Test
+    void forDevice_shouldRouteEachDeviceToTheBoardOwningIt() {
+        // Arrange
+        SerialCommunicatorRegistry registry = new SerialCommunicatorRegistry(
+                List.of(board("arm", "head", "claw"), board("base", "wheel")), this::connect);
+
+        // Act & Assert
+        assertSame(communicators.get("arm"), registry.forDevice("head"));
+        assertSame(communicators.get("arm"), registry.forDevice("claw"));
+        assertSame(communicators.get("base"), registry.forDevice("wheel"));
+        assertSame(communicators.get("base"), registry.forBoard("base"));
+        assertEquals(List.of(communicators.get("arm"), communicators.get("base")), List.copyOf(registry.all()));
+    }
+
+    @Test
+    void forDevice_shouldRouteUnknownDevicesToTheBoardWithoutDevices() {
+        // Arrange
+        SerialCommunicatorRegistry registry = new SerialCommunicatorRegistry(
+                List.of(board("arm", "head"), board("main")), this::connect);
+
+        // Act & Assert
+        assertSame(communicators.get("main"), registry.forDevice("red"));
+        assertSame(communicators.get("arm"), registry.forDevice("head"));
+    }
+
+    @Test
+    void forDevice_shouldReject_whenNoBoardOwnsTheDevice() {
+        // Arrange
+        SerialCommunicatorRegistry registry = new SerialCommunicatorRegistry(List.of(board("arm", "head")), this::connect);
+
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> registry.forDevice("red"));
+    }
+
+    @Test
+    void constructor_shouldReject_whenTwoBoardsOwnTheSameDevice() {
+        // Act & Assert
+        assertThrows(IllegalStateException.class, () -> new SerialCommunicatorRegistry(
+                List.of(board("arm", "head"), board("base", "head")), this::connect));
+        assertTrue(communicators.isEmpty());
+    }
+
+    @Test
+    void constructor_shouldCloseConnectedBoards_whenABoardFailsToConnect() {
+        // Act
+        assertThrows(IllegalStateException.class, () -> new SerialCommunicatorRegistry(
+                List.of(board("arm", "head"), board("base", "wheel")),
+                board -> {
+                    if (board.getName().equals("base")) {
+                        throw new IllegalStateException("Serial port not found");
+                    }
+                    return connect(board);
+                }));
+
+        // Assert
+        verify(communicators.get("arm")).close();
+    }
+
+    @Test
+    void constructor_shouldConnectTheBoardsConcurrentlyInTheBackground() {
+        // Arrange: each board takes 400 ms to answer the handshake
+        ArduinoConfig config = new ArduinoConfig();
+        config.setBoards(List.of(board("arm", "head"), board("base", "wheel"), board("tool", "claw")));
+        List<BoardConfig> boards = config.getEffectiveBoards();
+        SerialPortFactory factory = () -> boards.stream()
+                .map(board -> LoopbackSerialPort.answeringOk(board.getPort(), 400, TimeUnit.MILLISECONDS))
+                .toArray(SerialPortWrapper[]::new);
+
+        // Act
+        long start = System.nanoTime();
+        SerialCommunicatorRegistry registry = new SerialCommunicatorRegistry(boards,
+                board -> new SerialCommunicator(config, board, factory));
+        long constructionMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        boolean connected = registry.whenConnected().join();
+        long connectionMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        registry.close();
+
+        // Assert
+        assertTrue(constructionMs < 200, "construction blocked for " + constructionMs + " ms");
+        assertTrue(connected);
+        assertTrue(connectionMs < 1000, "connection took " + connectionMs + " ms");
+    }
+
+    @Test
+    void whenConnected_shouldBeFalse_whenABoardIsMissing() {
+        // Arrange
+        ArduinoConfig config = new ArduinoConfig();
+        config.setBoards(List.of(board("arm", "head"), board("base", "wheel")));
+        List<BoardConfig> boards = config.getEffectiveBoards();
+        SerialPortFactory factory = () -> new SerialPortWrapper[]{LoopbackSerialPort.answeringOk("ttyarm", 1, TimeUnit.MILLISECONDS)};
+
+        // Act
+        SerialCommunicatorRegistry registry = new SerialCommunicatorRegistry(boards,
+                board -> new SerialCommunicator(config, board, factory));
+        boolean connected = registry.whenConnected().join();
+
+        // Assert
+        assertFalse(connected);
+        assertTrue(registry.forDevice("head").isOpen());
+        assertFalse(registry.forDevice("wheel").isOpen());
+        registry.close();
+    }
+
+    @Test
+    void getEffectiveBoards_shouldDefaultToASingleBoardOnTheConfiguredPort() {
+        // Arrange
+        ArduinoConfig config = new ArduinoConfig();
+        config.setPort("ttyUSB3");
+        config.setBaudrate(115200);
+
+        // Act
+        List<BoardConfig> boards = config.getEffectiveBoards();
+
+        // Assert
+        assertEquals(1, boards.size());
+        assertEquals("ttyUSB3", boards.get(0).getPort());
+        assertEquals(115200, boards.get(0).getBaudrate());
+        assertTrue(boards.get(0).getDevices().isEmpty());
+    }
+
+    private SerialCommunicator connect(BoardConfig board) {
+        SerialCommunicator communicator = mock(SerialCommunicator.class);
+        when(communicator.connect()).thenReturn(CompletableFuture.completedFuture(true));
+        communicators.put(board.getName(), communicator);
+        return communicator;
+    }
+
+    private static BoardConfig board(String name, String... devices) {
+        BoardConfig board = new BoardConfig();
+        board.setName(name);
+        board.setPort("tty" + name);
+        board.setDevices(List.of(devices));
+        return board;
+    }
+}
@@ -0,0 +1,184 @@
+package org.dbs.robot.driverrobot.arduino.serial;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.dbs.robot.driverrobot.arduino.config.ArduinoConfig;
+import org.dbs.robot.driverrobot.arduino.protocol.ArduinoCommand;
+import org.dbs.robot.driverrobot.arduino.protocol.Opcode;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SerialCommunicatorStateTest {
+
+    private static final String PORT_NAME = "loopback0";
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final AtomicBoolean failing = new AtomicBoolean();
+    private LoopbackSerialPort port;
+    private SerialCommunicator serialCommunicator;
+
+    @AfterEach
+    void tearDown() {
+        serialCommunicator.close();
+    }
+
+    @Test
+    void sendCommand_shouldSkipCommandsThatDoNotChangeTheStateOfTheirDevice() {
+        // Arrange
+        connect(0, 1);
+        assertTrue(serialCommunicator.sendCommand(ArduinoCommand.led("red", true)));
+        assertTrue(serialCommunicator.sendCommand(ArduinoCommand.servoAngle("head", 90)));
+
+        // Act
+        boolean led = serialCommunicator.sendCommand(ArduinoCommand.led("red", true));
+        boolean angle = serialCommunicator.sendCommand(ArduinoCommand.servoAngle("head", 90));
+        List<Boolean> batch = serialCommunicator.sendBatch(List.of(ArduinoCommand.led("red", true),
+                ArduinoCommand.servoAngle("head", 45)));
+
+        // Assert
+        assertTrue(led && angle);
+        assertEquals(List.of(true, true), batch);
+        assertEquals(List.of("led(red, on)", "servo(head, angle 90)", "servo(head, angle 45)"), port.getReceivedLines());
+        assertEquals(3, meterRegistry.get(SerialMetrics.SUPPRESSED).counters().stream().mapToDouble(c -> c.count()).sum());
+        assertEquals(Boolean.TRUE, serialCommunicator.getDeviceStates().get("red").on());
+        assertEquals(45, serialCommunicator.getDeviceStates().get("head").angle());
+    }
+
+    @Test
+    void sendCommand_shouldSkipServoAnglesWithinTheDeadband() {
+        // Arrange
+        connect(2, 1);
+        assertTrue(serialCommunicator.sendCommand(ArduinoCommand.servoAngle("head", 90)));
+
+        // Act
+        serialCommunicator.sendCommand(ArduinoCommand.servoAngle("head", 92));
+        serialCommunicator.sendCommand(ArduinoCommand.servoAngle("head", 88));
+        serialCommunicator.sendCommand(ArduinoCommand.servoAngle("head", 93));
+
+        // Assert
+        assertEquals(List.of("servo(head, angle 90)", "servo(head, angle 93)"), port.getReceivedLines());
+        assertEquals(93, serialCommunicator.getDeviceStates().get("head").angle());
+    }
+
+    @Test
+    void sendCommand_shouldForgetTheState_whenACommandFailsOrAMovementRuns() {
+        // Arrange
+        connect(0, 1);
+        assertTrue(serialCommunicator.sendCommand(ArduinoCommand.led("red", true)));
+        assertTrue(serialCommunicator.sendCommand(ArduinoCommand.servoAngle("head", 90)));
+
+        // Act
+        failing.set(true);
+        assertFalse(serialCommunicator.sendCommand(ArduinoCommand.led("red", false)));
+        failing.set(false);
+        assertTrue(serialCommunicator.sendCommand(ArduinoCommand.servoMovement("head", Opcode.SWEEP, 0, 180, 5)));
+
+        // Assert
+        assertTrue(serialCommunicator.getDeviceStates().isEmpty());
+        assertTrue(serialCommunicator.sendCommand(ArduinoCommand.led("red", true)));
+        assertTrue(serialCommunicator.sendCommand(ArduinoCommand.servoAngle("head", 90)));
+        assertEquals(6, port.getReceivedLines().size());
+    }
+
+    @Test
+    void sendCommand_shouldNotSkipACommand_whileAnotherCommandForTheSameDeviceIsOnItsWay() {
+        // Arrange
+        connect(0, 100);
+        assertTrue(serialCommunicator.sendCommand(ArduinoCommand.led("red", true)));
+
+        // Act
+        CompletableFuture<Boolean> off = serialCommunicator.sendCommandAsync(ArduinoCommand.led("red", false));
+        CompletableFuture<Boolean> on = serialCommunicator.sendCommandAsync(ArduinoCommand.led("red", true));
+
+        // Assert
+        assertTrue(off.join() && on.join());
+        assertEquals(List.of("led(red, on)", "led(red, off)", "led(red, on)"), port.getReceivedLines());
+    }
+
+    @Test
+    void sendCommand_shouldNotSkipTheFormerState_whenACommandExpiredAfterBeingWritten() {
+        // Arrange
+        connect(0, 100);
+        assertTrue(serialCommunicator.sendCommand(ArduinoCommand.servoAngle("head", 90)));
+        CompletableFuture<Boolean> expired = serialCommunicator.sendCommandAsync(ArduinoCommand.servoAngle("head", 45),
+                CommandPriority.NORMAL, CommandDeadline.after(Duration.ofMillis(30)));
+        CompletionException error = assertThrows(CompletionException.class, expired::join);
+
+        // Act: the board may have moved to 45 anyway
+        boolean result = serialCommunicator.sendCommand(ArduinoCommand.servoAngle("head", 90));
+
+        // Assert: the late response of the expired command is consumed by it, not by the next command
+        assertInstanceOf(CommandExpiredException.class, error.getCause());
+        assertTrue(result);
+        assertEquals(List.of("servo(head, angle 90)", "servo(head, angle 45)", "servo(head, angle 90)"),
+                port.getReceivedLines());
+        assertEquals(0, meterRegistry.get(SerialMetrics.TIMEOUTS).tag("stage", "in-flight").counter().count());
+        assertEquals(0, meterRegistry.get(SerialMetrics.MISMATCHED).tag("reason", "unsolicited").counter().count());
+    }
+
+    @Test
+    void sendCommand_shouldFail_whenTheCommandAfterAnExpiredOneIsRefused() {
+        // Arrange: the expired command is answered "ok" after its deadline, the next one "error"
+        connect(0, 100);
+        CompletableFuture<Boolean> expired = serialCommunicator.sendCommandAsync(ArduinoCommand.servoAngle("head", 45),
+                CommandPriority.NORMAL, CommandDeadline.after(Duration.ofMillis(30)));
+        assertThrows(CompletionException.class, expired::join);
+        failing.set(true);
+
+        // Act
+        boolean result = serialCommunicator.sendCommand(ArduinoCommand.servoAngle("head", 90));
+
+        // Assert
+        assertFalse(result);
+    }
+
+    @Test
+    void reconnect_shouldClearTheStates_becauseTheBoardWasReset() throws Exception {
+        // Arrange
+        connect(0, 1);
+        assertTrue(serialCommunicator.sendCommand(ArduinoCommand.led("red", true)));
+
+        // Act
+        port.unplug();
+        awaitState(ConnectionState.RECONNECTING);
+        boolean clearedWhileDisconnected = serialCommunicator.getDeviceStates().isEmpty();
+        port.plugIn();
+        awaitState(ConnectionState.READY);
+        port.clearReceivedLines();
+
+        // Assert
+        assertTrue(clearedWhileDisconnected);
+        assertTrue(serialCommunicator.sendCommand(ArduinoCommand.led("red", true)));
+        assertEquals(List.of("led(red, on)"), port.getReceivedLines());
+    }
+
+    private void connect(int servoDeadband, long latencyMs) {
+        port = new LoopbackSerialPort(PORT_NAME, LoopbackSerialPort.booted(line -> failing.get() ? "error" : "ok"),
+                latencyMs, TimeUnit.MILLISECONDS);
+        ArduinoConfig config = new ArduinoConfig();
+        config.setPort(PORT_NAME);
+        config.setServoDeadband(servoDeadband);
+        config.setHandshakeIntervalMs(Math.max(50, 2 * latencyMs));
+        config.setReconnectInitialBackoffMs(20);
+        serialCommunicator = new SerialCommunicator(config, config.getEffectiveBoards().get(0),
+                () -> port.isUnplugged() ? new SerialPortWrapper[0] : new SerialPortWrapper[]{port}, meterRegistry);
+        assertTrue(serialCommunicator.connect().join());
+        port.clearReceivedLines();
+    }
+
+    private void awaitState(ConnectionState expected) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (serialCommunicator.getState() != expected && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        assertEquals(expected, serialCommunicator.getState());
+    }
+}
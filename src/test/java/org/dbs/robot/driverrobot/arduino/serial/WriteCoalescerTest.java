@@ -0,0 +1,58 @@
+package org.dbs.robot.driverrobot.arduino.serial;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WriteCoalescerTest {
+
+    private static final long MAX_DELAY_NANOS = 1_600_000;
+
+    private final WriteCoalescer coalescer = new WriteCoalescer(MAX_DELAY_NANOS, 64);
+
+    @Test
+    void lingerNanos_shouldGrowUnderLoadUpToTheMaximumDelay() {
+        // Act
+        coalescer.flushed(3);
+        long first = coalescer.lingerNanos(false);
+        for (int i = 0; i < 10; i++) {
+            coalescer.flushed(3);
+        }
+
+        // Assert
+        assertEquals(MAX_DELAY_NANOS / 16, first);
+        assertEquals(MAX_DELAY_NANOS, coalescer.lingerNanos(false));
+    }
+
+    @Test
+    void lingerNanos_shouldFallBackToZero_whenFlushesGoOutAlone() {
+        // Arrange
+        for (int i = 0; i < 10; i++) {
+            coalescer.flushed(3);
+        }
+
+        // Act
+        coalescer.flushed(1);
+        long halved = coalescer.lingerNanos(false);
+        for (int i = 0; i < 4; i++) {
+            coalescer.flushed(1);
+        }
+
+        // Assert
+        assertEquals(MAX_DELAY_NANOS / 2, halved);
+        assertEquals(0, coalescer.lingerNanos(false));
+    }
+
+    @Test
+    void lingerNanos_shouldBeZero_whileTheLinkIsIdle() {
+        // Arrange
+        for (int i = 0; i < 10; i++) {
+            coalescer.flushed(3);
+        }
+
+        // Act & Assert
+        assertEquals(0, coalescer.lingerNanos(true));
+        assertFalse(coalescer.isFull(63));
+        assertTrue(coalescer.isFull(64));
+    }
+}
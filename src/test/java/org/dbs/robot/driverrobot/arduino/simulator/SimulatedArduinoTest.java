@@ -0,0 +1,70 @@
+package org.dbs.robot.driverrobot.arduino.simulator;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SimulatedArduinoTest {
+
+    private final SimulatedArduino arduino = new SimulatedArduino();
+
+    @Test
+    void execute_shouldKeepTheStateOfLedsAndServos() {
+        // Act
+        String led = arduino.execute("led(red, on)");
+        String angle = arduino.execute("servo(head, angle 90)");
+        String halfSweep = arduino.execute("servo(arm, half-sweep 10 170 5)");
+        String sweep = arduino.execute("servo(claw, sweep 20 160 5)");
+
+        // Assert
+        assertEquals("ok", led);
+        assertEquals("ok", angle);
+        assertEquals("ok", halfSweep);
+        assertEquals("ok", sweep);
+        assertTrue(arduino.getLedState("red"));
+        assertEquals(90, arduino.getServoAngle("head"));
+        assertEquals(170, arduino.getServoAngle("arm"));
+        assertEquals(20, arduino.getServoAngle("claw"));
+        assertEquals(4, arduino.getCommandCount());
+    }
+
+    @Test
+    void execute_shouldAnswerReadyToStatusAndTurnLedsOffOnShutdown() {
+        // Arrange
+        arduino.execute("led(red, on)");
+
+        // Act
+        String status = arduino.execute("status(arduino, ok)");
+        String shutdown = arduino.execute("shutdown()");
+
+        // Assert
+        assertEquals("ready", status);
+        assertEquals("ok", shutdown);
+        assertFalse(arduino.getLedState("red"));
+        assertTrue(arduino.isShutdown());
+    }
+
+    @Test
+    void execute_shouldAnswerError_whenTheLineIsInvalid() {
+        // Act & Assert
+        assertEquals("error", arduino.execute("servo(head, angle 200)"));
+        assertEquals("error", arduino.execute("servo(head, sweep 0 180 0)"));
+        assertEquals("error", arduino.execute("led(red, dim)"));
+        assertEquals("error", arduino.execute("dance()"));
+        assertNull(arduino.getServoAngle("head"));
+    }
+
+    @Test
+    void reset_shouldForgetTheState() {
+        // Arrange
+        arduino.execute("led(red, on)");
+        arduino.execute("servo(head, angle 90)");
+
+        // Act
+        arduino.reset();
+
+        // Assert
+        assertNull(arduino.getLedState("red"));
+        assertNull(arduino.getServoAngle("head"));
+    }
+}
@@ -0,0 +1,126 @@
+package org.dbs.robot.driverrobot.arduino.simulator;
+
+import org.dbs.robot.driverrobot.arduino.config.ArduinoConfig;
+import org.dbs.robot.driverrobot.arduino.protocol.ArduinoCommand;
+import org.dbs.robot.driverrobot.arduino.serial.SerialCommunicator;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SimulatedSerialPortTest {
+
+    private static final String PORT_NAME = "ttySIM0";
+
+    private SimulatorSerialPortFactory factory;
+    private SerialCommunicator serialCommunicator;
+
+    @AfterEach
+    void tearDown() {
+        serialCommunicator.close();
+    }
+
+    @Test
+    void sendCommand_shouldDriveTheVirtualArduino() {
+        // Arrange
+        connect(simulator(), 115200);
+
+        // Act
+        boolean led = serialCommunicator.sendCommand(ArduinoCommand.led("red", true));
+        boolean angle = serialCommunicator.sendCommand(ArduinoCommand.servoAngle("head", 45));
+        boolean invalid = serialCommunicator.sendCommand(ArduinoCommand.servoAngle("head", 400));
+
+        // Assert
+        assertTrue(led);
+        assertTrue(angle);
+        assertFalse(invalid);
+        assertTrue(factory.getArduino(PORT_NAME).getLedState("red"));
+        assertEquals(45, factory.getArduino(PORT_NAME).getServoAngle("head"));
+    }
+
+    @Test
+    void sendCommand_shouldBeLimitedByTheBaudRate() {
+        // Arrange: at 9600 baud, "servo(head, angle 90)\n" takes 23 ms on the wire and "ok\r\n" 4 ms
+        connect(simulator(), 9600);
+
+        // Act
+        long start = System.nanoTime();
+        List<CompletableFuture<Boolean>> results = IntStream.range(0, 20)
+                .mapToObj(i -> serialCommunicator.sendCommandAsync(ArduinoCommand.servoAngle("head", 90)))
+                .toList();
+        results.forEach(result -> assertTrue(result.join()));
+        long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        // Assert
+        assertTrue(elapsedMs >= 20 * 23, "20 commands took " + elapsedMs + " ms");
+    }
+
+    @Test
+    void sendCommand_shouldFail_whenTheSimulatorDropsLines() {
+        // Arrange
+        SimulatorConfig config = simulator();
+        connect(config, 115200);
+        config.setDropRate(1);
+
+        // Act
+        boolean result = serialCommunicator.sendCommand(ArduinoCommand.led("red", true), Duration.ofMillis(100));
+
+        // Assert
+        assertFalse(result);
+        assertNull(factory.getArduino(PORT_NAME).getLedState("red"));
+    }
+
+    @Test
+    void sendCommand_shouldFail_whenTheSimulatorGarblesResponses() {
+        // Arrange
+        SimulatorConfig config = simulator();
+        connect(config, 115200);
+        config.setGarbleRate(1);
+
+        // Act
+        boolean result = serialCommunicator.sendCommand(ArduinoCommand.led("red", true));
+
+        // Assert
+        assertFalse(result);
+        assertTrue(factory.getArduino(PORT_NAME).getLedState("red"));
+    }
+
+    @Test
+    void connect_shouldWaitForTheVirtualArduinoToBoot() {
+        // Arrange
+        SimulatorConfig config = simulator();
+        config.setBootDelayMs(300);
+
+        // Act
+        long start = System.nanoTime();
+        connect(config, 115200);
+        long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        // Assert
+        assertTrue(elapsedMs >= 300, "connected after " + elapsedMs + " ms");
+        assertTrue(serialCommunicator.sendCommand(ArduinoCommand.led("red", true)));
+    }
+
+    private static SimulatorConfig simulator() {
+        SimulatorConfig config = new SimulatorConfig();
+        config.setBootDelayMs(0);
+        config.setSeed(42L);
+        return config;
+    }
+
+    private void connect(SimulatorConfig simulatorConfig, int baudRate) {
+        ArduinoConfig config = new ArduinoConfig();
+        config.setPort(PORT_NAME);
+        config.setBaudrate(baudRate);
+        config.setHandshakeIntervalMs(50);
+        factory = new SimulatorSerialPortFactory(config.getEffectiveBoards(), simulatorConfig);
+        serialCommunicator = new SerialCommunicator(config, factory);
+        assertTrue(serialCommunicator.connect().join());
+    }
+}
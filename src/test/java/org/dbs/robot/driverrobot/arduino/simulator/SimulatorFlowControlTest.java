@@ -0,0 +1,119 @@
+package org.dbs.robot.driverrobot.arduino.simulator;
+
+import org.dbs.robot.driverrobot.arduino.config.ArduinoConfig;
+import org.dbs.robot.driverrobot.arduino.protocol.ArduinoCommand;
+import org.dbs.robot.driverrobot.arduino.serial.SerialCommunicator;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SimulatorFlowControlTest {
+
+    private static final String PORT_NAME = "ttySIM0";
+    private static final int COMMANDS = 100;
+    private static final long PROCESSING_DELAY_MICROS = 4000;
+
+    private SimulatorSerialPortFactory factory;
+    private SerialCommunicator serialCommunicator;
+
+    @AfterEach
+    void tearDown() {
+        serialCommunicator.close();
+    }
+
+    @Test
+    void sendCommandAsync_shouldOverrunTheReceiveBuffer_withoutCredits() {
+        // Arrange: at 115200 baud a servo line takes 1.9 ms on the wire, and the firmware 4 ms to handle it
+        connect(0);
+
+        // Act
+        List<Boolean> results = sendAll();
+
+        // Assert
+        assertTrue(factory.getPort(PORT_NAME).getOverrunCount() > 0);
+        assertTrue(results.contains(false));
+    }
+
+    @Test
+    void sendCommandAsync_shouldLoseNothingAtTheFirmwareRate_withCredits() {
+        // Arrange
+        connect(64);
+        long handshakes = factory.getArduino(PORT_NAME).getCommandCount();
+
+        // Act
+        long start = System.nanoTime();
+        List<Boolean> results = sendAll();
+        long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        // Assert: the firmware never waits for long, so the link runs at the rate it handles lines
+        long firmwareBoundMs = TimeUnit.MICROSECONDS.toMillis(COMMANDS * PROCESSING_DELAY_MICROS);
+        assertFalse(results.contains(false));
+        assertEquals(0, factory.getPort(PORT_NAME).getOverrunCount());
+        assertEquals(COMMANDS, factory.getArduino(PORT_NAME).getCommandCount() - handshakes);
+        assertTrue(elapsedMs < 2 * firmwareBoundMs, COMMANDS + " commands took " + elapsedMs + " ms");
+    }
+
+    @Test
+    void adaptivePipeline_shouldDeepenTheWindow_whenTheBoardKeepsUp() {
+        // Arrange: the firmware handles a line in 0.5 ms, well within the 1.9 ms it takes on the wire
+        ArduinoConfig config = config(0);
+        config.setPipelineDepth(1);
+        config.setPipelineAdaptive(true);
+        config.setPipelineMaxDepth(4);
+        SimulatorConfig simulatorConfig = simulator();
+        simulatorConfig.setProcessingDelayMicros(500);
+        connect(config, simulatorConfig);
+
+        // Act
+        List<Boolean> results = sendAll();
+
+        // Assert
+        assertFalse(results.contains(false));
+        assertEquals(4, serialCommunicator.getPipelineDepth());
+    }
+
+    private List<Boolean> sendAll() {
+        List<CompletableFuture<Boolean>> results = IntStream.range(0, COMMANDS)
+                .mapToObj(i -> serialCommunicator.sendCommandAsync(ArduinoCommand.servoAngle("head", i % 2 == 0 ? 30 : 150)))
+                .toList();
+        return results.stream().map(CompletableFuture::join).toList();
+    }
+
+    private void connect(int creditBytes) {
+        connect(config(creditBytes), simulator());
+    }
+
+    private void connect(ArduinoConfig config, SimulatorConfig simulatorConfig) {
+        factory = new SimulatorSerialPortFactory(config.getEffectiveBoards(), simulatorConfig);
+        serialCommunicator = new SerialCommunicator(config, factory);
+        assertTrue(serialCommunicator.connect().join());
+    }
+
+    private static SimulatorConfig simulator() {
+        SimulatorConfig simulatorConfig = new SimulatorConfig();
+        simulatorConfig.setBootDelayMs(0);
+        simulatorConfig.setProcessingDelayMicros(PROCESSING_DELAY_MICROS);
+        simulatorConfig.setJitterMicros(0);
+        simulatorConfig.setRxBufferBytes(64);
+        simulatorConfig.setSeed(42L);
+        return simulatorConfig;
+    }
+
+    private static ArduinoConfig config(int creditBytes) {
+        ArduinoConfig config = new ArduinoConfig();
+        config.setPort(PORT_NAME);
+        config.setBaudrate(115200);
+        config.setHandshakeIntervalMs(50);
+        config.setCommandTimeoutMs(500);
+        config.setPipelineDepth(8);
+        config.setCreditBytes(creditBytes);
+        config.setSuppressRedundantCommands(false);
+        return config;
+    }
+}
@@ -0,0 +1,44 @@
+package org.dbs.robot.driverrobot.arduino.simulator;
+
+import org.dbs.robot.driverrobot.arduino.ArduinoController;
+import org.dbs.robot.driverrobot.arduino.config.ArduinoConfig;
+import org.dbs.robot.driverrobot.arduino.serial.SerialCommunicatorRegistry;
+import org.dbs.robot.driverrobot.arduino.serial.SerialPortFactory;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {"spring.shell.interactive.enabled=false", "arduino.simulator.boot-delay-ms=0"})
+@ActiveProfiles("simulator")
+class SimulatorProfileTest {
+
+    @Autowired
+    private SerialPortFactory serialPortFactory;
+
+    @Autowired
+    private SerialCommunicatorRegistry registry;
+
+    @Autowired
+    private ArduinoController arduinoController;
+
+    @Autowired
+    private ArduinoConfig arduinoConfig;
+
+    @Test
+    void simulatorProfile_shouldRunTheControllerAgainstVirtualArduinos() {
+        // Arrange
+        SimulatorSerialPortFactory simulator = assertInstanceOf(SimulatorSerialPortFactory.class, serialPortFactory);
+        assertTrue(registry.whenConnected().join());
+
+        // Act
+        boolean result = arduinoController.positionServo("head", 120);
+
+        // Assert
+        assertTrue(result);
+        assertTrue(arduinoController.isReady());
+        assertEquals(120, simulator.getArduino(arduinoConfig.getPort()).getServoAngle("head"));
+    }
+}
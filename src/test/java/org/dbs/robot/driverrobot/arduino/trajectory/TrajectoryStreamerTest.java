@@ -0,0 +1,212 @@
+package org.dbs.robot.driverrobot.arduino.trajectory;
+
+import org.dbs.robot.driverrobot.arduino.AsyncArduinoController;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TrajectoryStreamerTest {
+
+    private static final double RATE_HZ = 50;
+    private static final MotionLimits LIMITS = new MotionLimits(180, 720);
+
+    @Mock
+    private AsyncArduinoController controller;
+
+    private final List<Batch> batches = new CopyOnWriteArrayList<>();
+    private TrajectoryStreamer streamer;
+
+    @BeforeEach
+    void setUp() {
+        streamer = new TrajectoryStreamer(controller, RATE_HZ, 2, 20);
+    }
+
+    @AfterEach
+    void tearDown() {
+        streamer.close();
+    }
+
+    @Test
+    void follow_shouldStreamOneBatchPerTickAtTheControlRate_withoutDrift() {
+        // Arrange
+        answerImmediately();
+        Trajectory trajectory = Trajectory.waypoints(List.of(
+                Map.of("head", 0, "arm", 180), Map.of("head", 180, "arm", 0)), LIMITS);
+
+        // Act
+        long start = System.nanoTime();
+        TrajectoryResult result = streamer.follow(trajectory).getResult().join();
+        double elapsed = (System.nanoTime() - start) / 1e9;
+
+        // Assert: ticks every 20 ms from 0 to 1.24 s, then the last pose, each sending both servos in one batch
+        assertTrue(result.isSuccessful());
+        assertEquals(64, result.ticks() + result.skippedTicks());
+        assertEquals(result.batches(), batches.size());
+        assertEquals(Map.of("head", 0, "arm", 180), batches.get(0).setpoints());
+        assertEquals(Map.of("head", 180, "arm", 0), batches.get(batches.size() - 1).setpoints());
+        assertTrue(batches.stream().allMatch(batch -> batch.setpoints().size() == 2));
+        assertTrue(elapsed >= trajectory.duration() && elapsed < trajectory.duration() + 0.05,
+                "streamed in " + elapsed + " s");
+        long periodNanos = Math.round(1e9 / RATE_HZ);
+        long[] offGrid = batches.stream().mapToLong(batch -> batch.nanos() - batches.get(0).nanos())
+                .map(sinceFirst -> Math.abs(sinceFirst - Math.round((double) sinceFirst / periodNanos) * periodNanos))
+                .sorted().toArray();
+        assertTrue(offGrid[offGrid.length / 2] < TimeUnit.MILLISECONDS.toNanos(2),
+                "median batch was " + offGrid[offGrid.length / 2] / 1000 + " us off its tick");
+    }
+
+    @Test
+    void follow_shouldOnlySendTheServosWhoseAngleChanged() {
+        // Arrange
+        answerImmediately();
+        Trajectory trajectory = Trajectory.waypoints(List.of(
+                Map.of("head", 0, "arm", 90), Map.of("head", 45), Map.of("arm", 100)), LIMITS);
+
+        // Act
+        TrajectoryResult result = streamer.follow(trajectory).getResult().join();
+
+        // Assert
+        Map<String, Integer> sentPerServo = new HashMap<>();
+        batches.forEach(batch -> batch.setpoints().keySet().forEach(servo -> sentPerServo.merge(servo, 1, Integer::sum)));
+        assertTrue(result.isSuccessful());
+        assertEquals(result.setpoints(), sentPerServo.values().stream().mapToInt(Integer::intValue).sum());
+        assertTrue(sentPerServo.get("arm") <= 11, "arm sent " + sentPerServo.get("arm") + " times");
+        assertEquals(100, batches.get(batches.size() - 1).setpoints().get("arm"));
+    }
+
+    @Test
+    void follow_shouldSkipTicks_whileThePreviousBatchIsOnTheSerialLink() throws Exception {
+        // Arrange: each batch takes three periods to be acknowledged
+        when(controller.positionServos(anyMap())).thenAnswer(invocation -> {
+            Map<String, Integer> setpoints = invocation.getArgument(0);
+            batches.add(new Batch(System.nanoTime(), Map.copyOf(setpoints)));
+            Map<String, Boolean> results = new HashMap<>();
+            setpoints.keySet().forEach(servo -> results.put(servo, true));
+            return CompletableFuture.supplyAsync(() -> results,
+                    CompletableFuture.delayedExecutor(60, TimeUnit.MILLISECONDS));
+        });
+        Trajectory trajectory = Trajectory.waypoints(List.of(Map.of("head", 0), Map.of("head", 180)), LIMITS);
+
+        // Act
+        TrajectoryResult result = streamer.follow(trajectory).getResult().join();
+
+        // Assert
+        assertTrue(result.isSuccessful());
+        assertTrue(result.skippedTicks() >= 2 * result.batches() - 2, result.toString());
+        assertEquals(180, batches.get(batches.size() - 1).setpoints().get("head"));
+        for (int i = 1; i < batches.size(); i++) {
+            assertTrue(batches.get(i).nanos() - batches.get(i - 1).nanos() >= TimeUnit.MILLISECONDS.toNanos(60),
+                    "batch " + i + " was sent before the previous one was acknowledged");
+        }
+    }
+
+    @Test
+    void cancel_shouldStopStreaming_andReportFailedSetpoints() throws Exception {
+        // Arrange
+        when(controller.positionServos(anyMap())).thenAnswer(invocation -> {
+            Map<String, Integer> setpoints = invocation.getArgument(0);
+            batches.add(new Batch(System.nanoTime(), Map.copyOf(setpoints)));
+            return CompletableFuture.completedFuture(Map.of("head", false));
+        });
+        Trajectory trajectory = Trajectory.waypoints(List.of(Map.of("head", 0), Map.of("head", 180)), LIMITS);
+        TrajectoryExecution execution = streamer.follow(trajectory);
+        Thread.sleep(200);
+
+        // Act
+        execution.cancel();
+        TrajectoryResult result = execution.getResult().get(1, TimeUnit.SECONDS);
+        int sentAfterCancel = batches.size();
+        Thread.sleep(100);
+
+        // Assert
+        assertTrue(result.cancelled());
+        assertFalse(result.isSuccessful());
+        assertEquals(result.setpoints(), result.failedSetpoints());
+        assertEquals(sentAfterCancel, batches.size());
+        assertTrue(batches.get(batches.size() - 1).setpoints().get("head") < 180);
+    }
+
+    @Test
+    void follow_shouldRejectATrajectory_whileOneOfItsServosIsFollowingAnother() {
+        // Arrange
+        answerImmediately();
+        TrajectoryExecution running = streamer.follow(
+                Trajectory.waypoints(List.of(Map.of("head", 0, "arm", 90), Map.of("head", 180)), LIMITS));
+
+        // Act
+        TrajectoryRejectedException exception = assertThrows(TrajectoryRejectedException.class, () -> streamer.follow(
+                Trajectory.waypoints(List.of(Map.of("arm", 90), Map.of("arm", 0)), LIMITS)));
+        TrajectoryExecution other = streamer.follow(
+                Trajectory.waypoints(List.of(Map.of("leg", 0), Map.of("leg", 10)), LIMITS));
+
+        // Assert
+        assertTrue(exception.getMessage().contains(running.getId()), exception.getMessage());
+        running.cancel();
+        running.getResult().join();
+        other.getResult().join();
+        assertTrue(streamer.follow(Trajectory.waypoints(List.of(Map.of("arm", 90), Map.of("arm", 0)), LIMITS))
+                .getResult().join().isSuccessful());
+    }
+
+    @Test
+    void follow_shouldRejectATrajectory_whenTheMaximumNumberAreBeingStreamed() {
+        // Arrange
+        answerImmediately();
+        streamer.follow(Trajectory.waypoints(List.of(Map.of("head", 0), Map.of("head", 180)), LIMITS));
+        streamer.follow(Trajectory.waypoints(List.of(Map.of("arm", 0), Map.of("arm", 180)), LIMITS));
+
+        // Act & Assert
+        assertThrows(TrajectoryRejectedException.class, () -> streamer.follow(
+                Trajectory.waypoints(List.of(Map.of("leg", 0), Map.of("leg", 180)), LIMITS)));
+    }
+
+    @Test
+    void find_shouldReportTheProgressThenTheOutcomeOfARun() {
+        // Arrange
+        answerImmediately();
+        Trajectory trajectory = Trajectory.waypoints(List.of(Map.of("head", 0), Map.of("head", 90)), LIMITS);
+
+        // Act
+        TrajectoryExecution execution = streamer.follow(trajectory);
+        TrajectoryStatus progress = streamer.find(execution.getId()).orElseThrow().getStatus();
+        TrajectoryResult result = execution.getResult().join();
+        TrajectoryStatus outcome = streamer.find(execution.getId()).orElseThrow().getStatus();
+
+        // Assert
+        assertFalse(progress.finished());
+        assertNull(progress.result());
+        assertEquals(List.of("head"), progress.servos());
+        assertTrue(outcome.finished());
+        assertEquals(result, outcome.result());
+        assertFalse(execution.cancel());
+        assertTrue(streamer.find("unknown").isEmpty());
+    }
+
+    private void answerImmediately() {
+        when(controller.positionServos(anyMap())).thenAnswer(invocation -> {
+            Map<String, Integer> setpoints = invocation.getArgument(0);
+            batches.add(new Batch(System.nanoTime(), Map.copyOf(setpoints)));
+            Map<String, Boolean> results = new HashMap<>();
+            setpoints.keySet().forEach(servo -> results.put(servo, true));
+            return CompletableFuture.completedFuture(results);
+        });
+    }
+
+    private record Batch(long nanos, Map<String, Integer> setpoints) {
+    }
+}
@@ -0,0 +1,115 @@
+package org.dbs.robot.driverrobot.arduino.trajectory;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TrajectoryTest {
+
+    private static final MotionLimits LIMITS = new MotionLimits(180, 720);
+    private static final double STEP = 0.001;
+    private static final double TOLERANCE = 1.01;
+
+    @Test
+    void waypoints_shouldFollowATrapezoidalProfile_andStopAtEachWaypoint() {
+        // Arrange: 0.25 s to reach 180 deg/s over 22.5 deg, cruise, and 0.25 s to stop over 22.5 deg
+        Trajectory trajectory = Trajectory.waypoints(List.of(
+                Map.of("head", 0, "arm", 90), Map.of("head", 180, "arm", 0), Map.of("head", 160)), LIMITS);
+        int head = trajectory.servos().indexOf("head");
+        int arm = trajectory.servos().indexOf("arm");
+
+        // Act
+        double duration = trajectory.duration();
+
+        // Assert: a 180 deg move in 1.25 s, then a triangular 20 deg move in 2 * sqrt(20 / 720) s
+        assertEquals(1.25 + 2 * Math.sqrt(20.0 / 720), duration, 1e-9);
+        assertEquals(90, trajectory.position(head, 0.625), 1e-9);
+        assertEquals(180, trajectory.position(head, 1.25), 1e-9);
+        assertEquals(0, trajectory.position(arm, 1.25), 1e-9);
+        assertEquals(160, trajectory.position(head, duration), 1e-9);
+        assertEquals(0, trajectory.position(arm, duration), 1e-9);
+        assertWithinLimits(trajectory);
+    }
+
+    @Test
+    void waypoints_shouldMoveAllServosTogether() {
+        // Arrange
+        Trajectory trajectory = Trajectory.waypoints(List.of(
+                Map.of("head", 0, "arm", 90), Map.of("head", 180, "arm", 135)), LIMITS);
+
+        // Act
+        double headHalfway = trajectory.position(trajectory.servos().indexOf("head"), trajectory.duration() / 2);
+        double armHalfway = trajectory.position(trajectory.servos().indexOf("arm"), trajectory.duration() / 2);
+
+        // Assert
+        assertEquals(90, headHalfway, 1e-9);
+        assertEquals(112.5, armHalfway, 1e-9);
+    }
+
+    @Test
+    void spline_shouldGoThroughItsWaypointsAndStartAndEndAtRest() {
+        // Arrange: slow enough not to be stretched by the limits
+        Trajectory trajectory = Trajectory.spline(List.of(
+                new Waypoint(0, Map.of("head", 0)), new Waypoint(2, Map.of("head", 90)),
+                new Waypoint(4, Map.of("head", 30))), LIMITS);
+
+        // Act
+        double duration = trajectory.duration();
+
+        // Assert
+        assertEquals(4, duration, 1e-9);
+        assertEquals(0, trajectory.position(0, 0), 1e-9);
+        assertEquals(90, trajectory.position(0, 2), 1e-9);
+        assertEquals(30, trajectory.position(0, 4), 1e-9);
+        assertEquals(0, (trajectory.position(0, STEP) - trajectory.position(0, 0)) / STEP, 0.1);
+        assertEquals(0, (trajectory.position(0, 4) - trajectory.position(0, 4 - STEP)) / STEP, 0.1);
+        assertWithinLimits(trajectory);
+    }
+
+    @Test
+    void spline_shouldSlowDown_whenItsWaypointsAreTooCloseInTime() {
+        // Arrange
+        Trajectory trajectory = Trajectory.spline(List.of(
+                new Waypoint(0, Map.of("head", 0, "arm", 180)), new Waypoint(0.2, Map.of("head", 180, "arm", 0))), LIMITS);
+
+        // Act
+        double duration = trajectory.duration();
+
+        // Assert
+        assertTrue(duration > 0.2, "duration was " + duration);
+        assertEquals(180, trajectory.position(trajectory.servos().indexOf("head"), duration), 1e-9);
+        assertEquals(0, trajectory.position(trajectory.servos().indexOf("arm"), duration), 1e-9);
+        assertWithinLimits(trajectory);
+    }
+
+    @Test
+    void factories_shouldRejectInvalidTrajectories() {
+        assertThrows(IllegalArgumentException.class,
+                () -> Trajectory.waypoints(List.of(Map.of("head", 0)), LIMITS));
+        assertThrows(IllegalArgumentException.class,
+                () -> Trajectory.waypoints(List.of(Map.of("head", 0), Map.of("head", 200)), LIMITS));
+        assertThrows(IllegalArgumentException.class,
+                () -> Trajectory.waypoints(List.of(Map.of("head", 0), Map.of("arm", 90)), LIMITS));
+        assertThrows(IllegalArgumentException.class, () -> Trajectory.spline(List.of(
+                new Waypoint(1, Map.of("head", 0)), new Waypoint(1, Map.of("head", 90))), LIMITS));
+        assertThrows(IllegalArgumentException.class, () -> new MotionLimits(0, 720));
+    }
+
+    private static void assertWithinLimits(Trajectory trajectory) {
+        for (int servo = 0; servo < trajectory.servos().size(); servo++) {
+            double previousVelocity = 0;
+            for (double time = STEP; time <= trajectory.duration(); time += STEP) {
+                double velocity = (trajectory.position(servo, time) - trajectory.position(servo, time - STEP)) / STEP;
+                double acceleration = (velocity - previousVelocity) / STEP;
+                assertTrue(Math.abs(velocity) <= LIMITS.maxVelocity() * TOLERANCE,
+                        "velocity " + velocity + " at " + time + " s");
+                assertTrue(time < 2 * STEP || Math.abs(acceleration) <= LIMITS.maxAcceleration() * TOLERANCE + 1,
+                        "acceleration " + acceleration + " at " + time + " s");
+                previousVelocity = velocity;
+            }
+        }
+    }
+}